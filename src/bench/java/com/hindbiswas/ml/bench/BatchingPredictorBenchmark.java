@@ -0,0 +1,81 @@
+package com.hindbiswas.ml.bench;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.hindbiswas.ml.data.DataFrame;
+import com.hindbiswas.ml.models.MultiLayerPerceptron;
+import com.hindbiswas.ml.serving.BatchingPredictor;
+import com.hindbiswas.ml.util.LayerActivations;
+
+/**
+ * Many threads sharing one MLP: single-row predict serialised by a lock, since
+ * it is not thread-safe, against the same calls coalesced by a
+ * {@link BatchingPredictor}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Threads(16)
+@Fork(1)
+public class BatchingPredictorBenchmark {
+    private static final int FEATURES = 64;
+    private static final int CLASSES = 10;
+
+    private double[][] rows;
+    private MultiLayerPerceptron model;
+    private BatchingPredictor predictor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        DataFrame data = BenchData.blobs(1_000, FEATURES, CLASSES, 42);
+        rows = new double[data.size()][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = data.getFeatures(i);
+        }
+        model = new MultiLayerPerceptron(FEATURES, 1, CLASSES)
+                .layer(128, LayerActivations.relu())
+                .layer(CLASSES, LayerActivations.softmax())
+                .configure(1, 32, 0.0);
+        model.fit(data);
+        predictor = new BatchingPredictor(model, 64, Duration.ofMillis(1));
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        predictor.close();
+    }
+
+    private double[] row() {
+        return rows[ThreadLocalRandom.current().nextInt(rows.length)];
+    }
+
+    @Benchmark
+    public Object lockedPredict() {
+        synchronized (model) {
+            return model.predict(row());
+        }
+    }
+
+    @Benchmark
+    public Object batchedPredict() {
+        return predictor.predict(row()).join();
+    }
+}
@@ -0,0 +1,86 @@
+package com.hindbiswas.ml.bench;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import com.hindbiswas.ml.data.DataFrame;
+
+/**
+ * Synthetic data at fixed sizes and seeds, so every benchmark runs offline and
+ * measures the same work from run to run.
+ */
+final class BenchData {
+    private BenchData() {
+    }
+
+    /**
+     * Gaussian blobs: class {@code c} is centered at 2 on feature
+     * {@code c % features} and 0 elsewhere. Features are shifted to be
+     * non-negative so count-based models accept them.
+     *
+     * @param rows     number of rows
+     * @param features number of features
+     * @param classes  number of classes, labelled 0 .. classes-1
+     * @param seed     random seed
+     * @return generated data
+     */
+    static DataFrame blobs(int rows, int features, int classes, long seed) {
+        Random rng = new Random(seed);
+        DataFrame df = new DataFrame(features, rows);
+        for (int i = 0; i < rows; i++) {
+            int label = i % classes;
+            double[] x = new double[features];
+            for (int j = 0; j < features; j++) {
+                double center = j == label % features ? 2.0 : 0.0;
+                x[j] = Math.abs(center + rng.nextGaussian());
+            }
+            df.add(x, label);
+        }
+        return df;
+    }
+
+    /**
+     * @return copies of the feature rows of {@code df}
+     */
+    static double[][] rows(DataFrame df) {
+        double[][] rows = new double[df.size()][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = df.getFeatures(i);
+        }
+        return rows;
+    }
+
+    /**
+     * Writes an MNIST-shaped CSV (header, label, 784 pixels in 0..255).
+     *
+     * @param path output file
+     * @param rows number of data rows
+     * @param seed random seed
+     * @throws IOException if writing fails
+     */
+    static void mnistCsv(Path path, int rows, long seed) throws IOException {
+        Random rng = new Random(seed);
+        try (BufferedWriter out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            out.write("label");
+            for (int p = 0; p < 784; p++) {
+                out.write(",pixel" + p);
+            }
+            out.newLine();
+            StringBuilder line = new StringBuilder(784 * 4);
+            for (int i = 0; i < rows; i++) {
+                line.setLength(0);
+                line.append(rng.nextInt(10));
+                for (int p = 0; p < 784; p++) {
+                    // MNIST is mostly background
+                    line.append(',').append(rng.nextInt(5) == 0 ? rng.nextInt(256) : 0);
+                }
+                out.write(line.toString());
+                out.newLine();
+            }
+        }
+    }
+}
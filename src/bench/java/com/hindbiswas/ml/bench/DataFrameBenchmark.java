@@ -0,0 +1,73 @@
+package com.hindbiswas.ml.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.hindbiswas.ml.data.DataFrame;
+
+/**
+ * Batch iteration, splitting and shuffling of a {@link DataFrame}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataFrameBenchmark {
+    @Param({ "10000" })
+    public int rows;
+
+    @Param({ "16", "784" })
+    public int features;
+
+    private DataFrame data;
+    private int seed;
+
+    @Setup
+    public void setup() {
+        data = BenchData.blobs(rows, features, 10, 42);
+    }
+
+    @Benchmark
+    public void iterateBatches(Blackhole bh) {
+        for (DataFrame batch : data.iterateBatches(32)) {
+            bh.consume(batch);
+        }
+    }
+
+    @Benchmark
+    public void iterateShuffledBatches(Blackhole bh) {
+        for (DataFrame batch : data.iterateBatches(32, seed++)) {
+            bh.consume(batch);
+        }
+    }
+
+    @Benchmark
+    public DataFrame[] split() {
+        return data.split(rows / 5, rows - rows / 5);
+    }
+
+    @Benchmark
+    public DataFrame[] shuffledSplit() {
+        return data.split(rows / 5, rows - rows / 5, true, seed++);
+    }
+
+    @Benchmark
+    public DataFrame shuffle() {
+        data.shuffle(seed++);
+        return data;
+    }
+}
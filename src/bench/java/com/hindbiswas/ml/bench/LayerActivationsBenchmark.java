@@ -0,0 +1,88 @@
+package com.hindbiswas.ml.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.ejml.simple.SimpleMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.hindbiswas.ml.models.LayerActivation;
+import com.hindbiswas.ml.util.LayerActivations;
+
+/**
+ * Each activation kernel and its derivative on a column vector. Softmax has no
+ * element-wise derivative (it is only used as the output layer with
+ * cross-entropy), so it is only measured by {@link #apply(Forward)}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LayerActivationsBenchmark {
+
+    @State(Scope.Thread)
+    public static class Forward {
+        @Param({ "sigmoid", "softmax", "linear", "tanh", "relu", "leakyRelu", "elu" })
+        public String activation;
+
+        @Param({ "128", "1024" })
+        public int size;
+
+        LayerActivation kernel;
+        SimpleMatrix x;
+
+        @Setup
+        public void setup() {
+            kernel = LayerActivations.resolve(activation);
+            x = input(size);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Backward {
+        @Param({ "sigmoid", "linear", "tanh", "relu", "leakyRelu", "elu" })
+        public String activation;
+
+        @Param({ "128", "1024" })
+        public int size;
+
+        LayerActivation kernel;
+        SimpleMatrix x;
+
+        @Setup
+        public void setup() {
+            kernel = LayerActivations.resolve(activation);
+            x = input(size);
+        }
+    }
+
+    private static SimpleMatrix input(int size) {
+        Random rng = new Random(42);
+        SimpleMatrix x = new SimpleMatrix(size, 1);
+        for (int i = 0; i < size; i++) {
+            x.set(i, 0, rng.nextGaussian());
+        }
+        return x;
+    }
+
+    @Benchmark
+    public SimpleMatrix apply(Forward state) {
+        return state.kernel.apply(state.x);
+    }
+
+    @Benchmark
+    public SimpleMatrix derivative(Backward state) {
+        return state.kernel.derivative(state.x);
+    }
+}
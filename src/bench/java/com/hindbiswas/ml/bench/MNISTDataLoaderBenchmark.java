@@ -0,0 +1,62 @@
+package com.hindbiswas.ml.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.hindbiswas.ml.data.DataFrame;
+import com.hindbiswas.ml.data.MNISTDataLoader;
+
+/**
+ * Parsing MNIST-shaped CSV files generated into a temporary directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MNISTDataLoaderBenchmark {
+    @Param({ "1000" })
+    public int rows;
+
+    private Path dir;
+    private Path train;
+    private Path test;
+
+    @Setup
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("jml-bench-mnist");
+        train = dir.resolve("train.csv");
+        test = dir.resolve("test.csv");
+        BenchData.mnistCsv(train, rows, 1);
+        BenchData.mnistCsv(test, rows / 5, 2);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(train);
+        Files.deleteIfExists(test);
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public Map<String, DataFrame> load() throws IOException {
+        return MNISTDataLoader.load(train.toString(), test.toString());
+    }
+}
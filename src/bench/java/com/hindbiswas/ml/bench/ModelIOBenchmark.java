@@ -0,0 +1,73 @@
+package com.hindbiswas.ml.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.hindbiswas.ml.models.MultiLayerPerceptron;
+import com.hindbiswas.ml.util.LayerActivations;
+import com.hindbiswas.ml.util.ModelIO;
+
+/**
+ * Exporting and importing an MNIST-sized MLP through {@link ModelIO}, plain
+ * and gzip-compressed. The model is untrained; only its size matters here.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ModelIOBenchmark {
+    @Param({ "false", "true" })
+    public boolean compress;
+
+    private Path dir;
+    private Path exported;
+    private Path scratch;
+    private MultiLayerPerceptron model;
+
+    @Setup
+    public void setup() throws IOException {
+        model = new MultiLayerPerceptron(784, 1, 10)
+                .layer(128, LayerActivations.relu())
+                .layer(10, LayerActivations.softmax());
+        dir = Files.createTempDirectory("jml-bench-io");
+        exported = dir.resolve("model.json");
+        scratch = dir.resolve("scratch.json");
+        if (!model.export(exported, compress)) {
+            throw new IllegalStateException("Failed to export benchmark model.");
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(exported);
+        Files.deleteIfExists(scratch);
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public boolean export() {
+        return model.export(scratch, compress);
+    }
+
+    @Benchmark
+    public MultiLayerPerceptron importModel() throws Exception {
+        return MultiLayerPerceptron.importModel(exported);
+    }
+}
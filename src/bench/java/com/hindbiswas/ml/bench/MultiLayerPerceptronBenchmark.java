@@ -0,0 +1,62 @@
+package com.hindbiswas.ml.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.hindbiswas.ml.data.DataFrame;
+import com.hindbiswas.ml.models.MultiLayerPerceptron;
+import com.hindbiswas.ml.util.LayerActivations;
+
+/**
+ * One training epoch of a small MLP. A fresh model is built before every
+ * invocation so each one trains exactly one epoch from scratch.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MultiLayerPerceptronBenchmark {
+    private static final int FEATURES = 64;
+    private static final int CLASSES = 10;
+
+    @Param({ "2000" })
+    public int rows;
+
+    @Param({ "1", "32" })
+    public int batchSize;
+
+    private DataFrame data;
+    private MultiLayerPerceptron model;
+
+    @Setup(Level.Trial)
+    public void data() {
+        data = BenchData.blobs(rows, FEATURES, CLASSES, 42);
+    }
+
+    @Setup(Level.Invocation)
+    public void model() {
+        model = new MultiLayerPerceptron(FEATURES, 1, CLASSES)
+                .layer(32, LayerActivations.relu())
+                .layer(CLASSES, LayerActivations.softmax())
+                .configure(1, batchSize, 0.0);
+    }
+
+    @Benchmark
+    public MultiLayerPerceptron fitOneEpoch() {
+        return model.fit(data);
+    }
+}
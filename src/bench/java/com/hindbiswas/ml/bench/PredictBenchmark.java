@@ -0,0 +1,95 @@
+package com.hindbiswas.ml.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.hindbiswas.ml.data.DataFrame;
+import com.hindbiswas.ml.models.BernoulliNB;
+import com.hindbiswas.ml.models.GaussianNB;
+import com.hindbiswas.ml.models.LinearRegressionGD;
+import com.hindbiswas.ml.models.LinearRegressionMultiVar;
+import com.hindbiswas.ml.models.LogisticRegression;
+import com.hindbiswas.ml.models.Model;
+import com.hindbiswas.ml.models.MultiLayerPerceptron;
+import com.hindbiswas.ml.models.MultinomialLogisticRegression;
+import com.hindbiswas.ml.models.MultinomialNB;
+import com.hindbiswas.ml.models.OneVsRest;
+import com.hindbiswas.ml.models.Perceptron;
+import com.hindbiswas.ml.util.LayerActivations;
+
+/**
+ * Single-row {@code predict} latency of every {@link Model}, sampled so the
+ * report includes percentiles. Each invocation predicts the next row of a
+ * fixed pool to keep branch predictors and caches honest.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PredictBenchmark {
+    private static final int ROWS = 1024;
+    private static final int FEATURES = 16;
+    private static final int CLASSES = 4;
+
+    @Param({ "LinearRegressionGD", "LinearRegressionMultiVar", "LogisticRegression",
+            "MultinomialLogisticRegression", "Perceptron", "OneVsRest", "GaussianNB", "MultinomialNB",
+            "BernoulliNB", "MultiLayerPerceptron" })
+    public String model;
+
+    private Model fitted;
+    private double[][] rows;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        DataFrame data = BenchData.blobs(ROWS, FEATURES, CLASSES, 42);
+        rows = BenchData.rows(data);
+        fitted = switch (model) {
+            case "LinearRegressionGD" -> new LinearRegressionGD().fit(data);
+            case "LinearRegressionMultiVar" -> new LinearRegressionMultiVar().fit(data);
+            case "LogisticRegression" ->
+                new LogisticRegression(LogisticRegression.Solver.LBFGS).fit(binary(data, 0.0));
+            case "MultinomialLogisticRegression" -> new MultinomialLogisticRegression().fit(data);
+            case "Perceptron" -> new Perceptron(0.1, 20, 0.0).fit(binary(data, -1.0));
+            case "OneVsRest" ->
+                new OneVsRest<>(() -> new LogisticRegression(LogisticRegression.Solver.LBFGS)).fit(data);
+            case "GaussianNB" -> new GaussianNB().fit(data);
+            case "MultinomialNB" -> new MultinomialNB().fit(data);
+            case "BernoulliNB" -> new BernoulliNB().fit(data);
+            case "MultiLayerPerceptron" -> new MultiLayerPerceptron(FEATURES, 1, CLASSES)
+                    .layer(32, LayerActivations.relu())
+                    .layer(CLASSES, LayerActivations.softmax())
+                    .configure(5, 32, 0.0).fit(data);
+            default -> throw new IllegalArgumentException("Unknown model: " + model);
+        };
+    }
+
+    @Benchmark
+    public Object predict() {
+        double[] x = rows[cursor];
+        cursor = (cursor + 1) & (ROWS - 1);
+        return fitted.predict(x);
+    }
+
+    /** Class 0 against the rest, with the given negative label. */
+    private static DataFrame binary(DataFrame data, double negative) {
+        double[] labels = data.getLabels();
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = labels[i] == 0.0 ? 1.0 : negative;
+        }
+        return data.relabel(labels);
+    }
+}
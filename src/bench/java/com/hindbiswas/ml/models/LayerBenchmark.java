@@ -0,0 +1,78 @@
+package com.hindbiswas.ml.models;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.ejml.simple.SimpleMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.hindbiswas.ml.util.LayerActivations;
+
+/**
+ * Forward and backward pass of a single dense layer for one sample. Lives in
+ * the models package because {@link Layer} is package-private.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LayerBenchmark {
+    @Param({ "64x32", "784x128" })
+    public String shape;
+
+    private Layer layer;
+    private SimpleMatrix input;
+    private SimpleMatrix delta;
+
+    @Setup
+    public void setup() {
+        String[] dims = shape.split("x");
+        int inputs = Integer.parseInt(dims[0]);
+        int perceptrons = Integer.parseInt(dims[1]);
+        layer = new Layer(inputs, perceptrons, LayerActivations.resolve(LayerActivations.relu()));
+
+        Random rng = new Random(42);
+        input = new SimpleMatrix(inputs, 1);
+        for (int i = 0; i < inputs; i++) {
+            input.set(i, 0, rng.nextDouble());
+        }
+        delta = new SimpleMatrix(perceptrons, 1);
+        for (int i = 0; i < perceptrons; i++) {
+            delta.set(i, 0, rng.nextGaussian() * 1e-3);
+        }
+        layer.feedForward(input);
+    }
+
+    @Benchmark
+    public SimpleMatrix feedForward() {
+        return layer.feedForward(input);
+    }
+
+    @Benchmark
+    public SimpleMatrix gradient() {
+        return layer.gradient(delta);
+    }
+
+    @Benchmark
+    public SimpleMatrix backpropagate() {
+        return layer.backpropagate(delta);
+    }
+
+    @Benchmark
+    public SimpleMatrix backpropagateAndUpdate() {
+        // tiny steps keep the weights from drifting over the run
+        return layer.backpropagate(delta, 1e-9);
+    }
+}
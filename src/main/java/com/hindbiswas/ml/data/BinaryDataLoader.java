@@ -1,5 +1,6 @@
 package com.hindbiswas.ml.data;
 
+import com.hindbiswas.ml.metrics.DataLoadEvent;
 import com.opencsv.CSVReader;
 import com.opencsv.exceptions.CsvValidationException;
 import java.io.FileReader;
@@ -15,7 +16,7 @@ public final class BinaryDataLoader {
 
     public static Map<String, DataFrame> loadAndSplit(String csvPath, long seed, String label1, String label2)
             throws IOException, CsvValidationException {
-
+        DataLoadEvent event = DataLoadEvent.start();
         List<String[]> rows = new ArrayList<>();
         try (CSVReader reader = new CSVReader(new FileReader(csvPath))) {
             String[] line;
@@ -40,6 +41,7 @@ public final class BinaryDataLoader {
         Map<String, DataFrame> map = new HashMap<>();
         map.put("train", train);
         map.put("test", test);
+        event.finish(BinaryDataLoader.class, csvPath, rows.size(), train.featureCount());
         return map;
     }
 
@@ -3,13 +3,11 @@ package com.hindbiswas.ml.data;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Random;
 import java.util.RandomAccess;
-import java.util.Set;
 
 /**
  * DataFrame is a 2D structure for storing features and labels for machine learning datasets.
@@ -26,6 +24,13 @@ public class DataFrame implements Cloneable, RandomAccess, Iterable<DataPoint> {
     private int capacity;
     private int length;
 
+    // Lazily built label codes for rows [0, labelCodes.length); see getLabelCodes()
+    private LabelEncoder labelEncoder;
+    private int[] labelCodes;
+
+    // Feature rows borrowed from another dataframe by relabel()/view(); copied before the first in-place write
+    private boolean sharedRows;
+
     public DataFrame(int featureCount) throws IllegalArgumentException {
         if (featureCount <= 0) {
             throw new IllegalArgumentException("Feature count must be greater than 0.");
@@ -57,6 +62,7 @@ public class DataFrame implements Cloneable, RandomAccess, Iterable<DataPoint> {
             labelElementData = new double[capacity];
         }
 
+        ownRows();
         if (length == capacity) {
             grow();
         }
@@ -244,6 +250,7 @@ public class DataFrame implements Cloneable, RandomAccess, Iterable<DataPoint> {
             System.arraycopy(featureElementData[i], index + 1, newFeatures[i], index, featureCount - index - 1);
         }
         featureElementData = newFeatures;
+        sharedRows = false;
         featureCount--;
         return this;
     }
@@ -257,6 +264,8 @@ public class DataFrame implements Cloneable, RandomAccess, Iterable<DataPoint> {
         }
 
         double removedLabel = labelElementData[index];
+        invalidateLabelCodes();
+        ownRows();
         if (index < length - 1) {
             System.arraycopy(labelElementData, index + 1, labelElementData, index, length - index - 1);
             for (int i = index; i < length - 1; i++) {
@@ -272,6 +281,8 @@ public class DataFrame implements Cloneable, RandomAccess, Iterable<DataPoint> {
     }
 
     public void clear() {
+        invalidateLabelCodes();
+        ownRows();
         if (featureElementData == null || labelElementData == null) {
             length = 0;
             return;
@@ -386,6 +397,67 @@ public class DataFrame implements Cloneable, RandomAccess, Iterable<DataPoint> {
         return deepCopy();
     }
 
+    /**
+     * A dataframe with the same rows but different labels. The feature rows are
+     * shared with this dataframe rather than copied (only the row references
+     * and the new labels are allocated), so treat this dataframe as read-only
+     * while the view is in use: {@link #remove(int)} and {@link #clear()}
+     * overwrite row contents in place. The view itself is copy-on-write: its
+     * first {@code add}, {@code remove} or {@code clear} copies the rows, so
+     * mutating the view never changes this dataframe.
+     *
+     * @param labels new label per row
+     * @return relabelled view of this dataframe
+     * @throws IllegalArgumentException if {@code labels} does not have one entry
+     *                                  per row
+     */
+    public DataFrame relabel(double[] labels) throws IllegalArgumentException {
+        if (labels.length != length) {
+            throw new IllegalArgumentException(
+                    String.format("Expected %d labels, but got %d.", length, labels.length));
+        }
+        if (length == 0) {
+            return new DataFrame(featureCount);
+        }
+        DataFrame view = new DataFrame(featureCount, length);
+        view.featureElementData = Arrays.copyOf(featureElementData, length);
+        view.sharedRows = true;
+        view.labelElementData = labels.clone();
+        view.length = length;
+        view.capacity = length;
+        return view;
+    }
+
+    /**
+     * A dataframe of the given rows, in the given order. Like
+     * {@link #relabel(double[])} the feature rows are shared rather than copied,
+     * so building many views, e.g. cross-validation folds, costs one reference
+     * and one label per row. Treat this dataframe as read-only while a view is
+     * in use. The view is copy-on-write like a relabelled one, so models may
+     * freely mutate it.
+     *
+     * @param rows indices of the rows to include; may repeat
+     * @return view of the selected rows
+     * @throws IndexOutOfBoundsException if an index is out of range
+     */
+    public DataFrame view(int[] rows) throws IndexOutOfBoundsException {
+        if (rows.length == 0) {
+            return new DataFrame(featureCount);
+        }
+        DataFrame view = new DataFrame(featureCount, rows.length);
+        view.featureElementData = new double[rows.length][];
+        view.sharedRows = true;
+        view.labelElementData = new double[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            int row = Objects.checkIndex(rows[i], length);
+            view.featureElementData[i] = featureElementData[row];
+            view.labelElementData[i] = labelElementData[row];
+        }
+        view.length = rows.length;
+        view.capacity = rows.length;
+        return view;
+    }
+
     public DataFrame batch(int start, int batchSize) {
         if (batchSize <= 0)
             throw new IllegalArgumentException("batchSize must be greater than 0");
@@ -410,6 +482,11 @@ public class DataFrame implements Cloneable, RandomAccess, Iterable<DataPoint> {
             return;
         }
 
+        boolean swapCodes = labelCodes != null && labelCodes.length == length;
+        if (!swapCodes) {
+            invalidateLabelCodes();
+        }
+
         Random rng = new Random(seed);
         for (int i = length - 1; i > 0; i--) {
             int j = rng.nextInt(i + 1);
@@ -421,6 +498,12 @@ public class DataFrame implements Cloneable, RandomAccess, Iterable<DataPoint> {
             double tempL = labelElementData[i];
             labelElementData[i] = labelElementData[j];
             labelElementData[j] = tempL;
+
+            if (swapCodes) {
+                int tempC = labelCodes[i];
+                labelCodes[i] = labelCodes[j];
+                labelCodes[j] = tempC;
+            }
         }
     }
 
@@ -678,18 +761,52 @@ public class DataFrame implements Cloneable, RandomAccess, Iterable<DataPoint> {
         return out;
     }
 
+    /**
+     * Distinct labels in order of first appearance.
+     */
     public double[] getUniqueLabels() {
-        Set<Double> labels = new HashSet<>();
-        for (int i = 0; i < this.length; i++) {
-            labels.add(this.labelElementData[i]);
+        return getLabelEncoder().labels();
+    }
+
+    /**
+     * Dense integer code of each row's label, as assigned by
+     * {@link #getLabelEncoder()}. Codes are computed on first use and kept up to
+     * date as rows are appended. Do not modify.
+     *
+     * @return array of length {@link #size()}
+     */
+    public int[] getLabelCodes() {
+        encodeLabels();
+        return labelCodes;
+    }
+
+    /**
+     * Encoder mapping this dataframe's labels to the codes returned by
+     * {@link #getLabelCodes()}.
+     */
+    public LabelEncoder getLabelEncoder() {
+        encodeLabels();
+        return labelEncoder;
+    }
+
+    private void encodeLabels() {
+        if (labelCodes == null) {
+            labelEncoder = new LabelEncoder();
+            labelCodes = new int[0];
+        }
+        int encoded = labelCodes.length;
+        if (encoded == length) {
+            return;
         }
-        double[] out = new double[labels.size()];
-        int idx = 0;
-        for (Double label : labels) {
-            out[idx] = label;
-            idx++;
+        labelCodes = Arrays.copyOf(labelCodes, length);
+        for (int i = encoded; i < length; i++) {
+            labelCodes[i] = labelEncoder.encode(labelElementData[i]);
         }
-        return out;
+    }
+
+    private void invalidateLabelCodes() {
+        labelEncoder = null;
+        labelCodes = null;
     }
 
     public String summary() {
@@ -756,6 +873,7 @@ public class DataFrame implements Cloneable, RandomAccess, Iterable<DataPoint> {
     }
 
     private void adjust(int amount) {
+        ownRows();
         if (featureElementData == null) {
             if (amount > capacity) {
                 capacity = amount + 2;
@@ -768,6 +886,25 @@ public class DataFrame implements Cloneable, RandomAccess, Iterable<DataPoint> {
         }
     }
 
+    /**
+     * Replace borrowed feature rows with private copies so that writes into
+     * them cannot reach the dataframe they were borrowed from.
+     */
+    private void ownRows() {
+        if (!sharedRows) {
+            return;
+        }
+        double[][] own = new double[capacity][];
+        for (int i = 0; i < length; i++) {
+            own[i] = featureElementData[i].clone();
+        }
+        for (int i = length; i < capacity; i++) {
+            own[i] = new double[featureCount];
+        }
+        featureElementData = own;
+        sharedRows = false;
+    }
+
     private void grow() {
         int newCapacity = Math.max(capacity + (capacity >> 1), capacity + 1);
         grow(newCapacity);
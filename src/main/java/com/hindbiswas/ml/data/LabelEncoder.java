@@ -0,0 +1,122 @@
+package com.hindbiswas.ml.data;
+
+import java.util.Arrays;
+
+/**
+ * Maps {@code double} labels to dense {@code int} codes {@code 0, 1, 2, ...}
+ * in order of first appearance.
+ *
+ * <p>
+ * Lookups use an open-addressing table keyed on
+ * {@link Double#doubleToLongBits(double)}, so labels compare the same way as
+ * {@link Double#equals(Object)} and nothing is boxed.
+ * </p>
+ */
+public class LabelEncoder {
+    private static final int EMPTY = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private double[] labels = new double[INITIAL_CAPACITY];
+    private long[] keys = new long[INITIAL_CAPACITY * 2];
+    private int[] codes = new int[INITIAL_CAPACITY * 2];
+    private int size;
+
+    public LabelEncoder() {
+        Arrays.fill(codes, EMPTY);
+    }
+
+    /**
+     * Return the code of {@code label}, assigning the next code if it has not
+     * been seen before.
+     *
+     * @param label label to encode
+     * @return code in {@code [0, size())}
+     */
+    public int encode(double label) {
+        long key = Double.doubleToLongBits(label);
+        int slot = slot(key);
+        if (codes[slot] != EMPTY) {
+            return codes[slot];
+        }
+
+        if (size == labels.length) {
+            labels = Arrays.copyOf(labels, size * 2);
+        }
+        labels[size] = label;
+        keys[slot] = key;
+        codes[slot] = size;
+        size++;
+        if (size * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        return size - 1;
+    }
+
+    /**
+     * @param label label to look up
+     * @return code of {@code label}, or {@code -1} if it has not been seen
+     */
+    public int indexOf(double label) {
+        return codes[slot(Double.doubleToLongBits(label))];
+    }
+
+    /**
+     * @param code a code in {@code [0, size())}
+     * @return the label with that code
+     * @throws IndexOutOfBoundsException if the code is out of range
+     */
+    public double label(int code) {
+        if (code < 0 || code >= size) {
+            throw new IndexOutOfBoundsException();
+        }
+        return labels[code];
+    }
+
+    /**
+     * @return a copy of all known labels, indexed by code
+     */
+    public double[] labels() {
+        return Arrays.copyOf(labels, size);
+    }
+
+    /**
+     * @return the number of distinct labels
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Forget all labels.
+     */
+    public void clear() {
+        Arrays.fill(codes, EMPTY);
+        size = 0;
+    }
+
+    /**
+     * Linear probe for {@code key}; returns its slot, or the empty slot where it
+     * would go.
+     */
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        int h = Long.hashCode(key * 0x9E3779B97F4A7C15L);
+        int i = (h ^ (h >>> 16)) & mask;
+        while (codes[i] != EMPTY && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private void rehash(int capacity) {
+        keys = new long[capacity];
+        codes = new int[capacity];
+        Arrays.fill(codes, EMPTY);
+        for (int code = 0; code < size; code++) {
+            long key = Double.doubleToLongBits(labels[code]);
+            int i = slot(key);
+            keys[i] = key;
+            codes[i] = code;
+        }
+    }
+}
@@ -10,6 +10,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 
+import com.hindbiswas.ml.metrics.DataLoadEvent;
+
 /**
  * MNISTDataLoader
  *
@@ -110,6 +112,7 @@ public final class MNISTDataLoader {
      * Loads up to `limit` rows from path. If limit <= 0 -> loads all rows.
      */
     private static DataFrame loadCsv(Path path, int limit) throws IOException, IllegalArgumentException {
+        DataLoadEvent event = DataLoadEvent.start();
         ArrayList<ArrayList<Double>> X = new ArrayList<>();
         ArrayList<Double> y = new ArrayList<>();
 
@@ -194,7 +197,8 @@ public final class MNISTDataLoader {
                     pixelCount);
         }
 
-        DataFrame df = new DataFrame(X.get(0).size());
-        return df.add(X, y);
+        DataFrame df = new DataFrame(X.get(0).size()).add(X, y);
+        event.finish(MNISTDataLoader.class, path, df.size(), df.featureCount());
+        return df;
     }
 }
@@ -0,0 +1,269 @@
+package com.hindbiswas.ml.data;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * SparseDataFrame stores labeled rows in compressed sparse row (CSR) form.
+ *
+ * <p>
+ * Only non-zero entries are kept: row {@code i} occupies positions
+ * {@code [rowStart(i), rowEnd(i))} of {@link #indicesRef()} and
+ * {@link #valuesRef()}, with column indices strictly increasing. This suits
+ * bag-of-words style data where almost every feature of a row is zero, so
+ * models can do work proportional to the number of non-zeros instead of the
+ * feature count.
+ * </p>
+ */
+public class SparseDataFrame {
+    private static final int DEFAULT_CAPACITY = 10;
+
+    private final int featureCount;
+
+    private int[] rowPtr;
+    private double[] labelElementData;
+    private int[] indexElementData;
+    private double[] valueElementData;
+
+    private int length;
+    private int nonZeros;
+
+    // Lazily built label codes for rows [0, labelCodes.length); see getLabelCodes()
+    private LabelEncoder labelEncoder;
+    private int[] labelCodes;
+
+    public SparseDataFrame(int featureCount) throws IllegalArgumentException {
+        if (featureCount <= 0) {
+            throw new IllegalArgumentException("Feature count must be greater than 0.");
+        }
+
+        this.featureCount = featureCount;
+        this.rowPtr = new int[DEFAULT_CAPACITY + 1];
+        this.labelElementData = new double[DEFAULT_CAPACITY];
+        this.indexElementData = new int[DEFAULT_CAPACITY];
+        this.valueElementData = new double[DEFAULT_CAPACITY];
+    }
+
+    /**
+     * Convert a dense {@link DataFrame}, dropping zero entries.
+     *
+     * @param df dense dataframe
+     * @return a sparse copy of {@code df}
+     */
+    public static SparseDataFrame from(DataFrame df) {
+        df = Objects.requireNonNull(df, "DataFrame cannot be null");
+        SparseDataFrame sdf = new SparseDataFrame(df.featureCount());
+        double[] labels = df.getLabels();
+        for (int i = 0; i < df.size(); i++) {
+            sdf.add(df.getFeaturesRef(i), labels[i]);
+        }
+        return sdf;
+    }
+
+    /**
+     * Append a row given as a dense feature array; zero entries are skipped.
+     *
+     * @param features dense row of length {@link #featureCount()}
+     * @param label    row label
+     * @return this dataframe
+     * @throws IllegalArgumentException if the row has the wrong length
+     */
+    public SparseDataFrame add(double[] features, double label) throws IllegalArgumentException {
+        if (features.length != featureCount) {
+            throw new IllegalArgumentException("Feature count does not match the DataFrame's feature count.");
+        }
+
+        int nnz = 0;
+        for (double v : features) {
+            if (v != 0) {
+                nnz++;
+            }
+        }
+        ensureCapacity(length + 1, nonZeros + nnz);
+        for (int j = 0; j < featureCount; j++) {
+            if (features[j] != 0) {
+                indexElementData[nonZeros] = j;
+                valueElementData[nonZeros] = features[j];
+                nonZeros++;
+            }
+        }
+        labelElementData[length] = label;
+        rowPtr[++length] = nonZeros;
+        return this;
+    }
+
+    /**
+     * Append a row given by its non-zero entries.
+     *
+     * @param indices column indices, strictly increasing and in
+     *                {@code [0, featureCount)}
+     * @param values  values matching {@code indices}
+     * @param label   row label
+     * @return this dataframe
+     * @throws IllegalArgumentException if the arrays differ in length or an
+     *                                  index is out of range or out of order
+     */
+    public SparseDataFrame add(int[] indices, double[] values, double label) throws IllegalArgumentException {
+        checkRow(indices, values, featureCount);
+
+        ensureCapacity(length + 1, nonZeros + indices.length);
+        System.arraycopy(indices, 0, indexElementData, nonZeros, indices.length);
+        System.arraycopy(values, 0, valueElementData, nonZeros, values.length);
+        nonZeros += indices.length;
+        labelElementData[length] = label;
+        rowPtr[++length] = nonZeros;
+        return this;
+    }
+
+    /**
+     * Validate a sparse row against a feature count.
+     *
+     * @param indices      column indices
+     * @param values       values matching {@code indices}
+     * @param featureCount number of columns
+     * @throws IllegalArgumentException if the arrays differ in length or an
+     *                                  index is out of range or out of order
+     */
+    public static void checkRow(int[] indices, double[] values, int featureCount) throws IllegalArgumentException {
+        if (indices.length != values.length) {
+            throw new IllegalArgumentException(
+                    String.format("Got %d indices but %d values.", indices.length, values.length));
+        }
+        int prev = -1;
+        for (int idx : indices) {
+            if (idx <= prev || idx >= featureCount) {
+                throw new IllegalArgumentException(String.format(
+                        "Indices must be strictly increasing and within [0, %d), but got %d.", featureCount, idx));
+            }
+            prev = idx;
+        }
+    }
+
+    public int size() {
+        return length;
+    }
+
+    public int featureCount() {
+        return featureCount;
+    }
+
+    /**
+     * @return the number of stored (non-zero) entries
+     */
+    public int nonZeros() {
+        return nonZeros;
+    }
+
+    /**
+     * @param row row index
+     * @return position of the row's first entry in the index/value arrays
+     */
+    public int rowStart(int row) {
+        Objects.checkIndex(row, length);
+        return rowPtr[row];
+    }
+
+    /**
+     * @param row row index
+     * @return position one past the row's last entry in the index/value arrays
+     */
+    public int rowEnd(int row) {
+        Objects.checkIndex(row, length);
+        return rowPtr[row + 1];
+    }
+
+    /**
+     * Backing column-index array. Only positions {@code [0, nonZeros())} are
+     * meaningful. Do not modify.
+     */
+    public int[] indicesRef() {
+        return indexElementData;
+    }
+
+    /**
+     * Backing value array. Only positions {@code [0, nonZeros())} are
+     * meaningful. Do not modify.
+     */
+    public double[] valuesRef() {
+        return valueElementData;
+    }
+
+    public double[] getLabels() {
+        return Arrays.copyOf(labelElementData, length);
+    }
+
+    public double getLabel(int index) {
+        Objects.checkIndex(index, length);
+        return labelElementData[index];
+    }
+
+    /**
+     * Distinct labels in order of first appearance.
+     */
+    public double[] getUniqueLabels() {
+        return getLabelEncoder().labels();
+    }
+
+    /**
+     * Dense integer code of each row's label, as assigned by
+     * {@link #getLabelEncoder()}. Do not modify.
+     *
+     * @return array of length {@link #size()}
+     * @see DataFrame#getLabelCodes()
+     */
+    public int[] getLabelCodes() {
+        encodeLabels();
+        return labelCodes;
+    }
+
+    /**
+     * Encoder mapping this dataframe's labels to the codes returned by
+     * {@link #getLabelCodes()}.
+     */
+    public LabelEncoder getLabelEncoder() {
+        encodeLabels();
+        return labelEncoder;
+    }
+
+    /**
+     * Expand row {@code index} into a new dense array.
+     *
+     * @param index row index
+     * @return dense copy of the row
+     */
+    public double[] getFeatures(int index) {
+        double[] out = new double[featureCount];
+        for (int k = rowStart(index); k < rowPtr[index + 1]; k++) {
+            out[indexElementData[k]] = valueElementData[k];
+        }
+        return out;
+    }
+
+    private void encodeLabels() {
+        if (labelCodes == null) {
+            labelEncoder = new LabelEncoder();
+            labelCodes = new int[0];
+        }
+        int encoded = labelCodes.length;
+        if (encoded == length) {
+            return;
+        }
+        labelCodes = Arrays.copyOf(labelCodes, length);
+        for (int i = encoded; i < length; i++) {
+            labelCodes[i] = labelEncoder.encode(labelElementData[i]);
+        }
+    }
+
+    private void ensureCapacity(int rows, int entries) {
+        if (rows > labelElementData.length) {
+            int newCapacity = Math.max(rows, labelElementData.length + (labelElementData.length >> 1));
+            labelElementData = Arrays.copyOf(labelElementData, newCapacity);
+            rowPtr = Arrays.copyOf(rowPtr, newCapacity + 1);
+        }
+        if (entries > indexElementData.length) {
+            int newCapacity = Math.max(entries, indexElementData.length + (indexElementData.length >> 1));
+            indexElementData = Arrays.copyOf(indexElementData, newCapacity);
+            valueElementData = Arrays.copyOf(valueElementData, newCapacity);
+        }
+    }
+}
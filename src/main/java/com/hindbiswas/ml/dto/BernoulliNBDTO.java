@@ -8,4 +8,6 @@ public class BernoulliNBDTO extends NaiveBayesDTO {
     public double[][] featureLogProb;
     /** Log probabilities of features not occurring per class. */
     public double[][] featureLogProbNeg;
+    /** Per-class feature presence counts; the last column holds the row count. */
+    public double[][] featureCounts;
 }
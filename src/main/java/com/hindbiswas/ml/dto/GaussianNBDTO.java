@@ -8,4 +8,6 @@ public class GaussianNBDTO extends NaiveBayesDTO {
     public double[][] means;
     /** Per-class, per-feature variances. */
     public double[][] variances;
+    /** Per-class, per-feature sums of squared differences from the mean. */
+    public double[][] m2;
 }
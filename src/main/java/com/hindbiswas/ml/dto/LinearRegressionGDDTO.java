@@ -0,0 +1,17 @@
+package com.hindbiswas.ml.dto;
+
+/**
+ * DTO for gradient-descent linear regression parameters.
+ */
+public class LinearRegressionGDDTO extends DTO {
+    /** Learning rate for gradient updates. */
+    public double learningRate;
+    /** Number of gradient descent iterations. */
+    public int iterations;
+    /** Gradient tolerance; 0 runs every iteration. */
+    public double tolerance;
+    /** Whether features are standardized while training. */
+    public boolean standardize;
+    /** Parameter vector, intercept first. */
+    public double[] theta;
+}
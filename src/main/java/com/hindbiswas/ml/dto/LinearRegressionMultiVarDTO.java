@@ -0,0 +1,11 @@
+package com.hindbiswas.ml.dto;
+
+/**
+ * DTO for least-squares linear regression parameters.
+ */
+public class LinearRegressionMultiVarDTO extends DTO {
+    /** Ridge penalty applied to the feature weights. */
+    public double ridge;
+    /** Parameter vector, intercept first. */
+    public double[] theta;
+}
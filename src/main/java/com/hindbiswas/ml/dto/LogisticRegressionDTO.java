@@ -0,0 +1,25 @@
+package com.hindbiswas.ml.dto;
+
+/**
+ * DTO for logistic regression parameters.
+ */
+public class LogisticRegressionDTO extends DTO {
+    /** Learning rate for gradient updates. */
+    public double learningRate;
+    /** Number of gradient descent iterations. */
+    public int iterations;
+    /** Rows per gradient step; 0 means full batch. */
+    public int batchSize;
+    /** Convergence tolerance; 0 disables early stopping. */
+    public double tolerance;
+    /** L1 penalty on the feature weights. */
+    public double l1;
+    /** L2 penalty on the feature weights. */
+    public double l2;
+    /** Shuffle seed, or null if unseeded. */
+    public Integer seed;
+    /** Solver name; null means gradient descent. */
+    public String solver;
+    /** Parameter vector, intercept first. */
+    public double[] theta;
+}
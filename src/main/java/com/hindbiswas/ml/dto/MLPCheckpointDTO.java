@@ -0,0 +1,16 @@
+package com.hindbiswas.ml.dto;
+
+/**
+ * DTO for a Multi-Layer Perceptron training checkpoint: the model itself plus
+ * the loop state needed to resume {@code fit} where it stopped.
+ */
+public class MLPCheckpointDTO extends MLPModelDTO {
+    /** Number of epochs already completed (the next epoch to run). */
+    public int epoch;
+    /** Base seed of the run; drives the validation split and batch shuffling. */
+    public int seed;
+    /** Best validation loss seen so far, or null if none was computed. */
+    public Double bestValLoss;
+    /** Consecutive epochs without validation improvement (early stopping). */
+    public int epochsWithoutImprovement;
+}
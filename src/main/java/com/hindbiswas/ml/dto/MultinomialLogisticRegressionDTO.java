@@ -0,0 +1,19 @@
+package com.hindbiswas.ml.dto;
+
+/**
+ * DTO for multinomial (softmax) logistic regression parameters.
+ */
+public class MultinomialLogisticRegressionDTO extends DTO {
+    /** Maximum number of L-BFGS iterations. */
+    public int iterations;
+    /** Gradient tolerance for stopping. */
+    public double tolerance;
+    /** L2 penalty on the feature weights. */
+    public double l2;
+    /** Number of features. */
+    public int features;
+    /** Class labels, in the order of the coefficient rows. */
+    public double[] classes;
+    /** Coefficients, one row of (intercept, weights...) per class, row-major. */
+    public double[] coefficients;
+}
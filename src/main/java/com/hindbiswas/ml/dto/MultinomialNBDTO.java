@@ -6,4 +6,6 @@ package com.hindbiswas.ml.dto;
 public class MultinomialNBDTO extends NaiveBayesDTO {
     /** Log probabilities of features per class. */
     public double[][] featureLogProb;
+    /** Per-class feature counts; the last column holds the per-class total. */
+    public double[][] featureCounts;
 }
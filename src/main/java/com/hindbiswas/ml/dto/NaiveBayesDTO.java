@@ -12,4 +12,6 @@ abstract class NaiveBayesDTO extends DTO {
     public double[] classes;
     /** Log prior probabilities for each class. */
     public double[] logClassPriors;
+    /** Number of training rows seen per class. */
+    public double[] classCounts;
 }
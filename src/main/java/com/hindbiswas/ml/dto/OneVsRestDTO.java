@@ -0,0 +1,13 @@
+package com.hindbiswas.ml.dto;
+
+/**
+ * DTO for a one-vs-rest classifier built from linear binary models.
+ */
+public class OneVsRestDTO extends DTO {
+    /** Number of features. */
+    public int features;
+    /** Class labels, in the order of the weight rows. */
+    public double[] classes;
+    /** Stacked sub-model weights, one row of (intercept, weights...) per class, row-major. */
+    public double[] weights;
+}
@@ -14,8 +14,18 @@ public class PerceptronDTO extends DTO {
     public boolean shuffle;
     /** Enable verbose logging. */
     public boolean verbose;
-    /** Weight vector (theta). */
+    /** Signs of the weight vector (theta), kept for older readers. */
     public boolean[] theta;
-    /** Random seed for weight initialization. */
-    public int weightSeed;
+    /** Weight vector, bias first. */
+    public double[] weights;
+    /** Random seed for weight initialization, or null if unseeded. */
+    public Integer weightSeed;
+    /** Perceptron variant name; null means standard. */
+    public String mode;
+    /** Mistake rate at which training stops. */
+    public double stopMistakeRate;
+    /** Intermediate weight vectors of a voted perceptron. */
+    public double[][] votedWeights;
+    /** Examples survived by each voted weight vector. */
+    public int[] votes;
 }
@@ -0,0 +1,51 @@
+package com.hindbiswas.ml.metrics;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Per-thread allocation counter, read through the HotSpot
+ * {@code com.sun.management.ThreadMXBean} extension.
+ */
+public final class Allocations {
+    private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+    private Allocations() {
+    }
+
+    /**
+     * @return bytes allocated so far by the current thread, or -1 if the JVM
+     *         does not support measuring it
+     */
+    public static long currentThread() {
+        return THREADS == null ? -1 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * @param start value of {@link #currentThread()} taken earlier on this
+     *              thread
+     * @return bytes allocated by the current thread since {@code start}, or -1
+     *         if unsupported
+     */
+    public static long since(long start) {
+        if (start < 0) {
+            return -1;
+        }
+        long now = currentThread();
+        return now < 0 ? -1 : now - start;
+    }
+
+    private static com.sun.management.ThreadMXBean threads() {
+        try {
+            if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                    && bean.isThreadAllocatedMemorySupported()) {
+                if (!bean.isThreadAllocatedMemoryEnabled()) {
+                    bean.setThreadAllocatedMemoryEnabled(true);
+                }
+                return bean;
+            }
+        } catch (UnsupportedOperationException | SecurityException e) {
+            // fall through: allocation is reported as unavailable
+        }
+        return null;
+    }
+}
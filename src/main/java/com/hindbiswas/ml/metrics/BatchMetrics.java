@@ -0,0 +1,53 @@
+package com.hindbiswas.ml.metrics;
+
+/**
+ * Telemetry of one mini-batch update.
+ *
+ * <p>
+ * Phase timings are wall-clock nanoseconds on the training thread. A model
+ * that computes the forward and backward pass in a single fused loop reports
+ * that loop as {@code backwardNanos} and 0 for {@code forwardNanos}. Values
+ * that a model does not compute are {@code NaN} (or -1 for byte counts).
+ * </p>
+ *
+ * @param model          model class name
+ * @param epoch          0-based epoch
+ * @param batch          0-based batch within the epoch
+ * @param samples        rows in the batch
+ * @param dataNanos      time spent producing the batch
+ * @param forwardNanos   time spent in forward passes
+ * @param backwardNanos  time spent computing gradients
+ * @param updateNanos    time spent applying the update
+ * @param loss           mean training loss over the batch
+ * @param gradientNorm   L2 norm of the averaged batch gradient
+ * @param allocatedBytes bytes allocated by the training thread during the
+ *                       batch, or -1 if the JVM cannot measure it
+ */
+public record BatchMetrics(
+        String model,
+        int epoch,
+        int batch,
+        int samples,
+        long dataNanos,
+        long forwardNanos,
+        long backwardNanos,
+        long updateNanos,
+        double loss,
+        double gradientNorm,
+        long allocatedBytes) {
+
+    /**
+     * @return total time of the batch in nanoseconds
+     */
+    public long nanos() {
+        return dataNanos + forwardNanos + backwardNanos + updateNanos;
+    }
+
+    /**
+     * @return throughput of the batch
+     */
+    public double samplesPerSecond() {
+        long nanos = nanos();
+        return nanos > 0 ? samples * 1e9 / nanos : Double.NaN;
+    }
+}
@@ -0,0 +1,61 @@
+package com.hindbiswas.ml.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event timing a dataset load into a {@code DataFrame}. Follows the same
+ * {@link #start()} / {@code finish} pattern as {@link PredictionEvent}.
+ */
+@Name("com.hindbiswas.ml.DataLoad")
+@Label("Data Load")
+@Category({ "JavaML", "IO" })
+@Description("A dataset file parsed into a DataFrame")
+@StackTrace(false)
+public final class DataLoadEvent extends jdk.jfr.Event {
+    @Label("Loader")
+    String loader;
+
+    @Label("Source")
+    String source;
+
+    @Label("Rows")
+    int rows;
+
+    @Label("Features")
+    int features;
+
+    private DataLoadEvent() {
+    }
+
+    /**
+     * @return a started event
+     */
+    public static DataLoadEvent start() {
+        DataLoadEvent event = new DataLoadEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * End the event and commit it if enabled and over the threshold.
+     *
+     * @param loader   loader class
+     * @param source   file that was read
+     * @param rows     rows loaded
+     * @param features features per row
+     */
+    public void finish(Class<?> loader, Object source, int rows, int features) {
+        end();
+        if (shouldCommit()) {
+            this.loader = loader.getSimpleName();
+            this.source = String.valueOf(source);
+            this.rows = rows;
+            this.features = features;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.hindbiswas.ml.metrics;
+
+/**
+ * Telemetry of one epoch, or of one iteration for full-batch solvers.
+ *
+ * <p>
+ * Values that a model does not compute are {@code NaN} (or -1 for byte
+ * counts); for example, a model without a validation split reports
+ * {@code NaN} validation loss.
+ * </p>
+ *
+ * @param model              model class name
+ * @param epoch              0-based epoch
+ * @param epochs             configured maximum number of epochs
+ * @param samples            rows trained on
+ * @param nanos              wall-clock time of the epoch
+ * @param loss               mean training loss (including any penalty the
+ *                           model optimizes)
+ * @param accuracy           training accuracy, for classifiers
+ * @param validationLoss     mean validation loss
+ * @param validationAccuracy validation accuracy
+ * @param weightNorm         L2 norm of all weights after the epoch
+ * @param gradientNorm       L2 norm of the gradient (mean over batches)
+ * @param allocatedBytes     bytes allocated by the training thread during the
+ *                           epoch, or -1 if the JVM cannot measure it; work
+ *                           done on other threads (parallel shards) is not
+ *                           included
+ */
+public record EpochMetrics(
+        String model,
+        int epoch,
+        int epochs,
+        int samples,
+        long nanos,
+        double loss,
+        double accuracy,
+        double validationLoss,
+        double validationAccuracy,
+        double weightNorm,
+        double gradientNorm,
+        long allocatedBytes) {
+
+    /**
+     * @return training throughput of the epoch
+     */
+    public double samplesPerSecond() {
+        return nanos > 0 ? samples * 1e9 / nanos : Double.NaN;
+    }
+}
@@ -0,0 +1,54 @@
+package com.hindbiswas.ml.metrics;
+
+/**
+ * Emits training telemetry as JFR events ({@code com.hindbiswas.ml.TrainingEpoch}
+ * and {@code com.hindbiswas.ml.TrainingBatch}, category "JavaML / Training"),
+ * so a recording started with {@code -XX:StartFlightRecording} or
+ * {@code jcmd JFR.start} shows training progress next to GC and CPU data.
+ * When no recording is enabled for these events, each callback costs one
+ * check.
+ */
+public class JfrTrainingListener implements TrainingListener {
+
+    @Override
+    public void onBatch(BatchMetrics batch) {
+        TrainingBatchEvent event = new TrainingBatchEvent();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        event.model = batch.model();
+        event.epoch = batch.epoch();
+        event.batch = batch.batch();
+        event.samples = batch.samples();
+        event.dataTime = batch.dataNanos();
+        event.forwardTime = batch.forwardNanos();
+        event.backwardTime = batch.backwardNanos();
+        event.updateTime = batch.updateNanos();
+        event.loss = batch.loss();
+        event.gradientNorm = batch.gradientNorm();
+        event.allocated = batch.allocatedBytes();
+        event.commit();
+    }
+
+    @Override
+    public void onEpoch(EpochMetrics epoch) {
+        TrainingEpochEvent event = new TrainingEpochEvent();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        event.model = epoch.model();
+        event.epoch = epoch.epoch();
+        event.epochs = epoch.epochs();
+        event.samples = epoch.samples();
+        event.epochTime = epoch.nanos();
+        event.samplesPerSecond = epoch.samplesPerSecond();
+        event.loss = epoch.loss();
+        event.accuracy = epoch.accuracy();
+        event.validationLoss = epoch.validationLoss();
+        event.validationAccuracy = epoch.validationAccuracy();
+        event.weightNorm = epoch.weightNorm();
+        event.gradientNorm = epoch.gradientNorm();
+        event.allocated = epoch.allocatedBytes();
+        event.commit();
+    }
+}
@@ -0,0 +1,128 @@
+package com.hindbiswas.ml.metrics;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Writes training telemetry as JSON Lines: one object per event, with an
+ * {@code "event"} field of {@code "batch"} or {@code "epoch"} followed by the
+ * fields of {@link BatchMetrics} or {@link EpochMetrics} and the derived
+ * {@code samplesPerSecond}. Values a model does not report ({@code NaN}) are
+ * left out.
+ *
+ * <p>
+ * Output is buffered and flushed after every epoch. Writes are synchronized,
+ * so one listener may be shared by models training concurrently.
+ * </p>
+ */
+public class JsonLinesTrainingListener implements TrainingListener, Closeable {
+    private final Writer out;
+    private final boolean batches;
+
+    /**
+     * Write epoch and batch events to a file, replacing it.
+     *
+     * @param path output file
+     * @throws IOException if the file cannot be opened
+     */
+    public JsonLinesTrainingListener(Path path) throws IOException {
+        this(Files.newBufferedWriter(path, StandardCharsets.UTF_8), true);
+    }
+
+    /**
+     * @param out     destination; closed by {@link #close()}
+     * @param batches whether to write batch events as well as epoch events
+     */
+    public JsonLinesTrainingListener(Writer out, boolean batches) {
+        Objects.requireNonNull(out, "out cannot be null");
+        this.out = out instanceof BufferedWriter ? out : new BufferedWriter(out);
+        this.batches = batches;
+    }
+
+    @Override
+    public synchronized void onBatch(BatchMetrics batch) {
+        if (!batches) {
+            return;
+        }
+        try {
+            JsonWriter json = begin("batch", batch.model(), batch.epoch());
+            json.name("batch").value(batch.batch());
+            json.name("samples").value(batch.samples());
+            json.name("nanos").value(batch.nanos());
+            json.name("dataNanos").value(batch.dataNanos());
+            json.name("forwardNanos").value(batch.forwardNanos());
+            json.name("backwardNanos").value(batch.backwardNanos());
+            json.name("updateNanos").value(batch.updateNanos());
+            number(json, "samplesPerSecond", batch.samplesPerSecond());
+            number(json, "loss", batch.loss());
+            number(json, "gradientNorm", batch.gradientNorm());
+            bytes(json, batch.allocatedBytes());
+            end(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void onEpoch(EpochMetrics epoch) {
+        try {
+            JsonWriter json = begin("epoch", epoch.model(), epoch.epoch());
+            json.name("epochs").value(epoch.epochs());
+            json.name("samples").value(epoch.samples());
+            json.name("nanos").value(epoch.nanos());
+            number(json, "samplesPerSecond", epoch.samplesPerSecond());
+            number(json, "loss", epoch.loss());
+            number(json, "accuracy", epoch.accuracy());
+            number(json, "validationLoss", epoch.validationLoss());
+            number(json, "validationAccuracy", epoch.validationAccuracy());
+            number(json, "weightNorm", epoch.weightNorm());
+            number(json, "gradientNorm", epoch.gradientNorm());
+            bytes(json, epoch.allocatedBytes());
+            end(json);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+
+    private JsonWriter begin(String event, String model, int epoch) throws IOException {
+        JsonWriter json = new JsonWriter(out);
+        json.beginObject();
+        json.name("event").value(event);
+        json.name("model").value(model);
+        json.name("epoch").value(epoch);
+        return json;
+    }
+
+    private void end(JsonWriter json) throws IOException {
+        // JsonWriter writes straight through to out; flushing it would flush the file per event
+        json.endObject();
+        out.write('\n');
+    }
+
+    private static void number(JsonWriter json, String name, double value) throws IOException {
+        if (Double.isFinite(value)) {
+            json.name(name).value(value);
+        }
+    }
+
+    private static void bytes(JsonWriter json, long value) throws IOException {
+        if (value >= 0) {
+            json.name("allocatedBytes").value(value);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.hindbiswas.ml.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event timing a model import from disk. Follows the same
+ * {@link #start()} / {@code finish} pattern as {@link PredictionEvent}.
+ */
+@Name("com.hindbiswas.ml.ModelImport")
+@Label("Model Import")
+@Category({ "JavaML", "IO" })
+@Description("A model read from disk and constructed from its DTO")
+@StackTrace(false)
+public final class ModelImportEvent extends jdk.jfr.Event {
+    @Label("Model")
+    String model;
+
+    @Label("Path")
+    String path;
+
+    @Label("File Size")
+    @DataAmount
+    long bytes;
+
+    private ModelImportEvent() {
+    }
+
+    /**
+     * @return a started event
+     */
+    public static ModelImportEvent start() {
+        ModelImportEvent event = new ModelImportEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * End the event and commit it if enabled and over the threshold.
+     *
+     * @param modelClass class of the imported model
+     * @param path       source file
+     * @param bytes      size of the file on disk, or -1 if unknown
+     */
+    public void finish(Class<?> modelClass, Object path, long bytes) {
+        end();
+        if (shouldCommit()) {
+            this.model = modelClass.getSimpleName();
+            this.path = String.valueOf(path);
+            this.bytes = bytes;
+            commit();
+        }
+    }
+}
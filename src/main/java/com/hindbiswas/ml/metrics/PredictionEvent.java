@@ -0,0 +1,86 @@
+package com.hindbiswas.ml.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event timing one {@code predict} or {@code score} call.
+ *
+ * <p>
+ * Usage on a hot path:
+ * </p>
+ *
+ * <pre>
+ * PredictionEvent event = PredictionEvent.start();
+ * double y = ...;
+ * event.finish(this, PredictionEvent.PREDICT, 1, x.length);
+ * </pre>
+ *
+ * <p>
+ * While the event is disabled, {@link #start()} and
+ * {@link #finish(Object, String, int, int)} reduce to JFR's enabled check and
+ * the JIT can remove the allocation, so there is no measurable cost. Enable
+ * it with {@code jfr configure} or a recording setting for
+ * {@code com.hindbiswas.ml.Prediction}; a threshold keeps only slow calls.
+ * </p>
+ */
+@Name("com.hindbiswas.ml.Prediction")
+@Label("Prediction")
+@Category({ "JavaML", "Inference" })
+@Description("A predict or score call on a model")
+@StackTrace(false)
+public final class PredictionEvent extends jdk.jfr.Event {
+    /** Single-row prediction. */
+    public static final String PREDICT = "predict";
+    /** Prediction of several rows in one call. */
+    public static final String PREDICT_BATCH = "predictBatch";
+    /** Scoring against a labeled dataset. */
+    public static final String SCORE = "score";
+
+    @Label("Model")
+    String model;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Rows")
+    int rows;
+
+    @Label("Features")
+    int features;
+
+    private PredictionEvent() {
+    }
+
+    /**
+     * @return a started event
+     */
+    public static PredictionEvent start() {
+        PredictionEvent event = new PredictionEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * End the event and commit it if enabled and over the threshold.
+     *
+     * @param model     the model that was called; its class name is recorded
+     * @param operation {@link #PREDICT}, {@link #PREDICT_BATCH} or
+     *                  {@link #SCORE}
+     * @param rows      rows in the call
+     * @param features  features per row
+     */
+    public void finish(Object model, String operation, int rows, int features) {
+        end();
+        if (shouldCommit()) {
+            this.model = model.getClass().getSimpleName();
+            this.operation = operation;
+            this.rows = rows;
+            this.features = features;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.hindbiswas.ml.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event mirroring {@link BatchMetrics}.
+ */
+@Name("com.hindbiswas.ml.TrainingBatch")
+@Label("Training Batch")
+@Category({ "JavaML", "Training" })
+@Description("One mini-batch update")
+@StackTrace(false)
+class TrainingBatchEvent extends jdk.jfr.Event {
+    @Label("Model")
+    String model;
+
+    @Label("Epoch")
+    int epoch;
+
+    @Label("Batch")
+    int batch;
+
+    @Label("Samples")
+    int samples;
+
+    @Label("Data Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long dataTime;
+
+    @Label("Forward Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long forwardTime;
+
+    @Label("Backward Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long backwardTime;
+
+    @Label("Update Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long updateTime;
+
+    @Label("Loss")
+    double loss;
+
+    @Label("Gradient Norm")
+    double gradientNorm;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocated;
+}
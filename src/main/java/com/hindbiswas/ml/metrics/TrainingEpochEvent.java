@@ -0,0 +1,60 @@
+package com.hindbiswas.ml.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event mirroring {@link EpochMetrics}.
+ */
+@Name("com.hindbiswas.ml.TrainingEpoch")
+@Label("Training Epoch")
+@Category({ "JavaML", "Training" })
+@Description("One training epoch or solver iteration")
+@StackTrace(false)
+class TrainingEpochEvent extends jdk.jfr.Event {
+    @Label("Model")
+    String model;
+
+    @Label("Epoch")
+    int epoch;
+
+    @Label("Epochs")
+    int epochs;
+
+    @Label("Samples")
+    int samples;
+
+    @Label("Epoch Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long epochTime;
+
+    @Label("Samples per Second")
+    double samplesPerSecond;
+
+    @Label("Loss")
+    double loss;
+
+    @Label("Accuracy")
+    double accuracy;
+
+    @Label("Validation Loss")
+    double validationLoss;
+
+    @Label("Validation Accuracy")
+    double validationAccuracy;
+
+    @Label("Weight Norm")
+    double weightNorm;
+
+    @Label("Gradient Norm")
+    double gradientNorm;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocated;
+}
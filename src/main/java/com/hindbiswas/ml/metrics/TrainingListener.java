@@ -0,0 +1,66 @@
+package com.hindbiswas.ml.metrics;
+
+import java.util.List;
+
+/**
+ * Receives training telemetry from the iterative models.
+ *
+ * <p>
+ * Listeners are called on the training thread, between updates, so they
+ * should return quickly; anything slow (network, large writes) belongs on
+ * another thread. Both callbacks default to doing nothing.
+ * </p>
+ *
+ * <pre>
+ * try (JsonLinesTrainingListener log = new JsonLinesTrainingListener(Path.of("train.jsonl"))) {
+ *     mlp.listener(TrainingListener.of(log, new JfrTrainingListener())).fit(train);
+ * }
+ * </pre>
+ */
+public interface TrainingListener {
+
+    /**
+     * Called after each mini-batch update, for models that train in batches.
+     *
+     * @param batch metrics of the batch
+     */
+    default void onBatch(BatchMetrics batch) {
+    }
+
+    /**
+     * Called after each epoch (or solver iteration).
+     *
+     * @param epoch metrics of the epoch
+     */
+    default void onEpoch(EpochMetrics epoch) {
+    }
+
+    /**
+     * Combine listeners into one that notifies each in order.
+     *
+     * @param listeners listeners to notify
+     * @return combined listener
+     * @throws NullPointerException if any listener is null
+     */
+    static TrainingListener of(TrainingListener... listeners) throws NullPointerException {
+        List<TrainingListener> all = List.of(listeners);
+        if (all.size() == 1) {
+            return all.get(0);
+        }
+        return new TrainingListener() {
+            @Override
+            public void onBatch(BatchMetrics batch) {
+                for (TrainingListener l : all) {
+                    l.onBatch(batch);
+                }
+            }
+
+            @Override
+            public void onEpoch(EpochMetrics epoch) {
+                for (TrainingListener l : all) {
+                    l.onEpoch(epoch);
+                }
+            }
+        };
+    }
+}
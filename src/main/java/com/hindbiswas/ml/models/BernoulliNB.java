@@ -1,13 +1,15 @@
 package com.hindbiswas.ml.models;
 
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Objects;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.hindbiswas.ml.data.DataFrame;
-import com.hindbiswas.ml.data.DataPoint;
+import com.hindbiswas.ml.data.SparseDataFrame;
 import com.hindbiswas.ml.dto.BernoulliNBDTO;
+import com.hindbiswas.ml.metrics.PredictionEvent;
 import com.hindbiswas.ml.util.ModelIO;
 
 /**
@@ -24,6 +26,11 @@ import com.hindbiswas.ml.util.ModelIO;
 public class BernoulliNB extends NaiveBayes {
     private double[][] featureLogProb;
     private double[][] featureLogProbNeg;
+    private PresenceStats stats;
+    /** Per-class log-likelihood of an all-zeros row. */
+    private double[] logNegSum;
+    /** {@code featureLogProb - featureLogProbNeg}, added for each active feature. */
+    private double[][] logProbDelta;
 
     public BernoulliNB() {
     }
@@ -40,6 +47,12 @@ public class BernoulliNB extends NaiveBayes {
         this.logClassPriors = dto.logClassPriors;
         this.featureLogProb = dto.featureLogProb;
         this.featureLogProbNeg = dto.featureLogProbNeg;
+        this.computeBaseline();
+        this.classCounts = dto.classCounts;
+        if (dto.featureCounts != null) {
+            this.stats = new PresenceStats(dto.featureCounts);
+        }
+        this.classIndices = indexClasses(dto.classes);
         this.fitted = true;
     }
 
@@ -59,48 +72,165 @@ public class BernoulliNB extends NaiveBayes {
             throw new IllegalArgumentException("DataFrame is empty.");
         }
 
-        this.setDatasetInfo(df);
-        this.calculateFeatureLogProb(df);
-        this.fitted = true;
+        this.fitted = false;
+        this.partialFit(df);
+
+        return this;
+    }
+
+    /**
+     * Updates the model with additional data by adding its per-class feature
+     * counts to the stored counts.
+     *
+     * @param df The additional training {@link DataFrame}.
+     * @return This model instance after the update.
+     * @see NaiveBayes#partialFit(DataFrame)
+     */
+    @Override
+    public BernoulliNB partialFit(DataFrame df) {
+        super.partialFit(df);
+        return this;
+    }
+
+    /**
+     * Fits the model to sparse data; only stored entries are visited.
+     *
+     * @param sdf The {@link SparseDataFrame} containing labeled training data.
+     * @return This model instance after fitting.
+     * @throws IllegalArgumentException If the DataFrame is empty.
+     * @throws NullPointerException     If the DataFrame is null.
+     */
+    public BernoulliNB fit(SparseDataFrame sdf) {
+        sdf = Objects.requireNonNull(sdf, "DataFrame cannot be null");
+
+        if (sdf.size() == 0) {
+            throw new IllegalArgumentException("DataFrame is empty.");
+        }
+
+        this.fitted = false;
+        this.partialFit(sdf);
+
+        return this;
+    }
+
+    /**
+     * Updates the model with additional sparse data.
+     *
+     * @param sdf The additional training {@link SparseDataFrame}.
+     * @return This model instance after the update.
+     * @see NaiveBayes#partialFit(DataFrame)
+     */
+    public BernoulliNB partialFit(SparseDataFrame sdf) {
+        sdf = Objects.requireNonNull(sdf, "DataFrame cannot be null");
+        if (sdf.size() == 0) {
+            throw new IllegalArgumentException("DataFrame is empty.");
+        }
+
+        beginUpdate(sdf.featureCount(), sdf.getLabelEncoder(), sdf.getLabelCodes());
+        mergeStats(accumulate(sdf, () -> new PresenceStats(classes.length, features)));
+        finishUpdate();
 
         return this;
     }
 
     /**
-     * Predicts the most likely class for a given feature vector.
+     * Log prior plus Bernoulli log-likelihood of each class, starting from the
+     * all-zeros baseline and adjusting only for features equal to {@code 1.0}.
      *
      * @param features Feature array of the same length as training features.
-     * @return The predicted class label index.
-     * @throws IllegalStateException    If the model has not been fitted yet.
-     * @throws IllegalArgumentException If the input feature length is invalid.
+     * @param out      Per-class scores.
      */
     @Override
-    public Double predict(double[] features) {
+    protected void jointLogLikelihood(double[] features, double[] out) {
+        baseline(out);
+        for (int f = 0; f < features.length; f++) {
+            if (features[f] != 1.0) {
+                continue;
+            }
+            for (int c = 0; c < classes.length; c++) {
+                out[c] += logProbDelta[c][f];
+            }
+        }
+    }
+
+    /**
+     * Predicts the most likely class for a sparse feature vector. Starting from
+     * the precomputed all-zeros log-likelihood, only the listed features are
+     * visited; as with {@link #predict(double[])}, a feature counts as present
+     * when its value is {@code 1.0}.
+     *
+     * @param indices Column indices of the non-zero features, strictly
+     *                increasing.
+     * @param values  Values matching {@code indices}.
+     * @return The predicted class label.
+     * @throws IllegalStateException    If the model has not been fitted yet.
+     * @throws IllegalArgumentException If the indices are invalid.
+     */
+    public Double predict(int[] indices, double[] values) {
+        PredictionEvent event = PredictionEvent.start();
         if (!fitted) {
             throw new IllegalStateException("Model has not been fitted yet.");
         }
-        if (features.length != this.features) {
-            throw new IllegalArgumentException(
-                    String.format("Expected %d features, but got %d.", this.features, features.length));
-        }
+        SparseDataFrame.checkRow(indices, values, this.features);
 
-        double[] probs = new double[classes.length];
+        double label = classifyRange(indices, values, 0, indices.length);
+        event.finish(this, PredictionEvent.PREDICT, 1, this.features);
+        return label;
+    }
 
+    /**
+     * Classify a sparse row, visiting only its stored entries.
+     */
+    @Override
+    protected double classifyRange(int[] indices, double[] values, int from, int to) {
+        double[] probs = baseline(scratch(classes.length));
         for (int c = 0; c < classes.length; c++) {
-            double logLikelihood = 0.0;
-            for (int f = 0; f < features.length; f++) {
-                if (features[f] == 1.0) {
-                    logLikelihood += featureLogProb[c][f];
-                } else {
-                    logLikelihood += featureLogProbNeg[c][f];
+            double[] delta = logProbDelta[c];
+            double sum = 0.0;
+            for (int k = from; k < to; k++) {
+                if (values[k] == 1.0) {
+                    sum += delta[indices[k]];
                 }
             }
-            probs[c] = logClassPriors[c] + logLikelihood;
+            probs[c] += sum;
         }
-
         return this.pickMax(probs);
     }
 
+    /**
+     * Write the per-class log joint likelihood of an all-zeros row.
+     *
+     * @param out per-class buffer
+     * @return {@code out}
+     */
+    private double[] baseline(double[] out) {
+        for (int c = 0; c < classes.length; c++) {
+            out[c] = logClassPriors[c] + logNegSum[c];
+        }
+        return out;
+    }
+
+    /**
+     * Precompute {@link #logNegSum} and {@link #logProbDelta} from the feature
+     * log-probabilities.
+     */
+    private void computeBaseline() {
+        logNegSum = new double[featureLogProbNeg.length];
+        logProbDelta = new double[featureLogProb.length][];
+        for (int c = 0; c < featureLogProb.length; c++) {
+            double[] pos = featureLogProb[c];
+            double[] neg = featureLogProbNeg[c];
+            double[] delta = new double[pos.length];
+            double sum = 0.0;
+            for (int f = 0; f < pos.length; f++) {
+                sum += neg[f];
+                delta[f] = pos[f] - neg[f];
+            }
+            logNegSum[c] = sum;
+            logProbDelta[c] = delta;
+        }
+    }
+
     /**
      * Converts the model into a serializable Data Transfer Object.
      *
@@ -115,6 +245,8 @@ public class BernoulliNB extends NaiveBayes {
         dto.logClassPriors = logClassPriors;
         dto.featureLogProb = featureLogProb;
         dto.featureLogProbNeg = featureLogProbNeg;
+        dto.classCounts = classCounts;
+        dto.featureCounts = stats == null ? null : stats.featureCount;
         return dto;
     }
 
@@ -152,29 +284,29 @@ public class BernoulliNB extends NaiveBayes {
         return ModelIO.importModel(path, BernoulliNBDTO.class, BernoulliNB.class);
     }
 
+    /**
+     * Discards the accumulated presence counts.
+     */
+    @Override
+    protected void resetStats() {
+        this.stats = null;
+    }
+
     /**
      * Calculates the log-probabilities of features given classes using Laplace
-     * smoothing.
+     * smoothing, from the stored counts plus those of {@code df}.
      *
      * @param df The training {@link DataFrame}.
      * @throws IllegalArgumentException If an unknown class label is encountered.
      */
-    private void calculateFeatureLogProb(DataFrame df) {
-        int[][] featureCount = new int[this.classes.length][this.features + 1]; // last index is for total sum
+    @Override
+    protected void updateStats(DataFrame df) {
+        mergeStats(accumulate(df, () -> new PresenceStats(classes.length, features)));
+    }
 
-        for (DataPoint dp : df) {
-            Integer classIndex = classIndices.get(dp.label);
-            if (classIndex == null) {
-                throw new IllegalArgumentException("Unknown label encountered during stats calc: " + dp.label);
-            }
-            int ci = classIndex;
-            featureCount[ci][features]++;
-            for (int j = 0; j < features; j++) {
-                if (dp.features[j] == 0)
-                    continue;
-                featureCount[ci][j]++;
-            }
-        }
+    private void mergeStats(PresenceStats batch) {
+        stats = stats == null ? batch : stats.grow(classes.length, features).merge(batch);
+        double[][] featureCount = stats.featureCount;
 
         this.featureLogProb = new double[this.classes.length][this.features];
         this.featureLogProbNeg = new double[this.classes.length][this.features];
@@ -185,5 +317,67 @@ public class BernoulliNB extends NaiveBayes {
                 featureLogProbNeg[i][j] = Math.log(1 - p);
             }
         }
+        computeBaseline();
+    }
+
+    /**
+     * Per-class counts of rows in which each feature is non-zero; the last column
+     * holds the per-class row count.
+     */
+    private static final class PresenceStats implements SparseStats<PresenceStats> {
+        double[][] featureCount;
+
+        PresenceStats(int classes, int features) {
+            this(new double[classes][features + 1]);
+        }
+
+        PresenceStats(double[][] featureCount) {
+            this.featureCount = featureCount;
+        }
+
+        /**
+         * Add empty counts for classes appended since this was created.
+         */
+        PresenceStats grow(int classes, int features) {
+            int k = featureCount.length;
+            if (classes > k) {
+                featureCount = Arrays.copyOf(featureCount, classes);
+                for (int c = k; c < classes; c++) {
+                    featureCount[c] = new double[features + 1];
+                }
+            }
+            return this;
+        }
+
+        @Override
+        public void add(int ci, double[] x) {
+            double[] counts = featureCount[ci];
+            int total = counts.length - 1;
+            counts[total]++;
+            for (int j = 0; j < total; j++) {
+                if (x[j] != 0)
+                    counts[j]++;
+            }
+        }
+
+        @Override
+        public void add(int ci, int[] indices, double[] values, int from, int to) {
+            double[] counts = featureCount[ci];
+            counts[counts.length - 1]++;
+            for (int k = from; k < to; k++) {
+                if (values[k] != 0)
+                    counts[indices[k]]++;
+            }
+        }
+
+        @Override
+        public PresenceStats merge(PresenceStats other) {
+            for (int c = 0; c < featureCount.length; c++) {
+                for (int j = 0; j < featureCount[c].length; j++) {
+                    featureCount[c][j] += other.featureCount[c][j];
+                }
+            }
+            return this;
+        }
     }
 }
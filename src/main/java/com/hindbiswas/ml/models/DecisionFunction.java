@@ -0,0 +1,37 @@
+package com.hindbiswas.ml.models;
+
+/**
+ * A binary classifier exposing a real-valued confidence score, as needed to
+ * combine several binary models, e.g. in {@link OneVsRest}.
+ */
+public interface DecisionFunction {
+    /**
+     * Confidence that {@code features} belongs to the positive class; larger is
+     * more positive and the model predicts positive when the score is &ge; 0.
+     *
+     * @param features feature vector
+     * @return decision score
+     */
+    double decisionFunction(double[] features);
+
+    /**
+     * @return label this model uses for the positive class
+     */
+    double positiveLabel();
+
+    /**
+     * @return label this model uses for the negative class
+     */
+    double negativeLabel();
+
+    /**
+     * Weights of a linear decision function {@code w[0] + w[1..]·x}, letting
+     * callers score several models in one fused pass. Models whose decision
+     * function is not linear return null.
+     *
+     * @return a copy of the weights, intercept first, or null
+     */
+    default double[] linearWeights() {
+        return null;
+    }
+}
@@ -1,15 +1,14 @@
 package com.hindbiswas.ml.models;
 
 import java.nio.file.Path;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Objects;
-import java.util.Random;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.hindbiswas.ml.data.DataFrame;
-import com.hindbiswas.ml.data.DataPoint;
 import com.hindbiswas.ml.dto.GaussianNBDTO;
+import com.hindbiswas.ml.metrics.PredictionEvent;
 import com.hindbiswas.ml.util.ModelIO;
 
 /**
@@ -31,8 +30,21 @@ import com.hindbiswas.ml.util.ModelIO;
  */
 public class GaussianNB extends NaiveBayes {
     private static final double VAR_EPS = 1e-9;
+    private static final double LOG_2PI = Math.log(2 * Math.PI);
+    /** Rows scored together by {@link #predict(double[][])}. */
+    private static final int ROW_BLOCK = 64;
     private double[][] means;
     private double[][] variances;
+    private GaussianStats stats;
+
+    /*
+     * Prediction parameters derived from means/variances, laid out class after
+     * class in flat arrays: the log-likelihood of class c is
+     * logNorm[c] - sum_f halfInvVar[c*F + f] * (x[f] - meanFlat[c*F + f])^2.
+     */
+    private double[] meanFlat;
+    private double[] halfInvVar;
+    private double[] logNorm;
 
     public GaussianNB() {
     }
@@ -44,6 +56,12 @@ public class GaussianNB extends NaiveBayes {
         this.logClassPriors = dto.logClassPriors;
         this.means = dto.means;
         this.variances = dto.variances;
+        this.precompute();
+        this.classCounts = dto.classCounts;
+        if (dto.classCounts != null && dto.m2 != null) {
+            this.stats = new GaussianStats(dto.classCounts.clone(), deepCopy(dto.means), deepCopy(dto.m2));
+        }
+        this.classIndices = indexClasses(dto.classes);
         this.fitted = true;
     }
 
@@ -62,9 +80,9 @@ public class GaussianNB extends NaiveBayes {
     /**
      * Fit the model to the provided dataset. This will compute:
      * <ul>
-     * <li>class priors (in the superclass via setDatasetInfo)</li>
+     * <li>class priors (in the superclass via {@link #partialFit(DataFrame)})</li>
      * <li>per-class means and variances (via
-     * {@link #calculateStats(DataFrame)})</li>
+     * {@link #updateStats(DataFrame)})</li>
      * </ul>
      *
      * @param df the training dataset (must be non-null and non-empty)
@@ -73,53 +91,112 @@ public class GaussianNB extends NaiveBayes {
      * @throws IllegalArgumentException if {@code df} is empty
      */
     @Override
-    public NaiveBayes fit(DataFrame df) {
+    public GaussianNB fit(DataFrame df) {
         df = Objects.requireNonNull(df, "DataFrame cannot be null");
 
         if (df.size() == 0) {
             throw new IllegalArgumentException("DataFrame is empty.");
         }
 
-        this.setDatasetInfo(df);
-        this.calculateStats(df);
-        this.fitted = true;
+        this.fitted = false;
+        this.partialFit(df);
 
         return this;
     }
 
     /**
-     * Predict the class for a single feature vector.
+     * Update the means and variances with additional data by merging its
+     * per-class statistics into the stored counts, means and M2 sums.
      *
-     * @param features array of feature values (length must match the training
-     *                 feature count)
-     * @return predicted class label (as a {@link Double})
-     * @throws IllegalStateException    if the model has not been fitted
-     * @throws IllegalArgumentException if {@code features} length does not match
-     *                                  expected feature count
+     * @param df additional training data
+     * @return this updated {@link GaussianNB} instance
+     * @see NaiveBayes#partialFit(DataFrame)
+     */
+    @Override
+    public GaussianNB partialFit(DataFrame df) {
+        super.partialFit(df);
+        return this;
+    }
+
+    /**
+     * Log prior plus Gaussian log-likelihood of each class.
+     *
+     * @param features array of feature values
+     * @param out      per-class scores
      */
     @Override
-    public Double predict(double[] features) {
+    protected void jointLogLikelihood(double[] features, double[] out) {
+        for (int c = 0; c < classes.length; c++) {
+            out[c] = logClassPriors[c] + logNorm[c]
+                    - weightedSquaredDistance(features, meanFlat, halfInvVar, c * this.features, this.features);
+        }
+    }
+
+    /**
+     * Predict the classes of a batch of rows.
+     *
+     * <p>
+     * Rows are scored in blocks; within a block each class's parameters are
+     * streamed once against every row of the block, so they stay in cache
+     * instead of being reloaded per row.
+     * </p>
+     *
+     * @param rows feature vectors, each matching the training feature count
+     * @return predicted class label per row
+     * @throws IllegalStateException    if the model has not been fitted
+     * @throws IllegalArgumentException if a row has the wrong length
+     * @throws NullPointerException     if {@code rows} is null
+     */
+    public double[] predict(double[][] rows) {
+        PredictionEvent event = PredictionEvent.start();
         if (!fitted) {
             throw new IllegalStateException("Model has not been fitted yet.");
         }
-        if (features.length != this.features) {
-            throw new IllegalArgumentException(
-                    String.format("Expected %d features, but got %d.", this.features, features.length));
+        rows = Objects.requireNonNull(rows, "Rows cannot be null");
+        for (double[] row : rows) {
+            if (row.length != this.features) {
+                throw new IllegalArgumentException(
+                        String.format("Expected %d features, but got %d.", this.features, row.length));
+            }
         }
 
-        double[] probs = new double[classes.length];
-        for (int c = 0; c < classes.length; c++) {
-            double logLikelihood = 0.0;
-            for (int f = 0; f < features.length; f++) {
-                double var = Math.max(variances[c][f], VAR_EPS);
-                double diff = features[f] - means[c][f];
-                logLikelihood += -0.5 * (Math.log(2 * Math.PI * var) + (diff * diff) / var);
+        int k = classes.length;
+        double[] out = new double[rows.length];
+        double[] scores = new double[ROW_BLOCK * k];
+        double[] probs = scratch(k);
+        for (int start = 0; start < rows.length; start += ROW_BLOCK) {
+            int end = Math.min(start + ROW_BLOCK, rows.length);
+            for (int c = 0; c < k; c++) {
+                double base = logClassPriors[c] + logNorm[c];
+                int offset = c * this.features;
+                for (int r = start; r < end; r++) {
+                    scores[(r - start) * k + c] = base
+                            - weightedSquaredDistance(rows[r], meanFlat, halfInvVar, offset, this.features);
+                }
+            }
+            for (int r = start; r < end; r++) {
+                System.arraycopy(scores, (r - start) * k, probs, 0, k);
+                out[r] = this.pickMax(probs);
             }
-            probs[c] = logClassPriors[c] + logLikelihood;
         }
+        event.finish(this, PredictionEvent.PREDICT_BATCH, rows.length, this.features);
+        return out;
+    }
 
-        return this.pickMax(probs);
-
+    /**
+     * Batch prediction through {@link #predict(double[][])}.
+     *
+     * @param rows feature vectors, each matching the training feature count
+     * @return predicted class label per row
+     */
+    @Override
+    public Object[] predictBatch(double[][] rows) {
+        double[] labels = predict(rows);
+        Object[] out = new Object[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            out[i] = labels[i];
+        }
+        return out;
     }
 
     /**
@@ -136,6 +213,8 @@ public class GaussianNB extends NaiveBayes {
         dto.logClassPriors = logClassPriors;
         dto.means = means;
         dto.variances = variances;
+        dto.classCounts = classCounts;
+        dto.m2 = stats == null ? null : stats.m2;
         return dto;
     }
 
@@ -162,44 +241,35 @@ public class GaussianNB extends NaiveBayes {
         return ModelIO.export(path, this);
     }
 
+    @Override
+    protected void resetStats() {
+        this.stats = null;
+    }
+
     /**
      * Compute per-class means and variances using Welford's online algorithm.
-     * If a class has zero samples, its means are set to 0 and variances floored to
-     * {@link #VAR_EPS}.
+     * Row shards are accumulated in parallel and combined with Chan et al.'s
+     * pairwise update, which is also how a new batch is merged into the stored
+     * statistics. If a class has zero samples, its means are set to 0 and
+     * variances floored to {@link #VAR_EPS}.
      *
      * @param df dataset to compute statistics from
      * @throws IllegalArgumentException if an unknown label is encountered
      */
-    private void calculateStats(DataFrame df) throws IllegalArgumentException {
+    @Override
+    protected void updateStats(DataFrame df) throws IllegalArgumentException {
+        GaussianStats batch = accumulate(df, () -> new GaussianStats(classes.length, features));
+        stats = stats == null ? batch : stats.grow(classes.length, features).merge(batch);
+
         this.means = new double[classes.length][features];
         this.variances = new double[classes.length][features];
 
-        double[] count = new double[classes.length];
-        double[][] m2 = new double[classes.length][features]; // sum of squares of differences
-
-        // Welford algorithm per class-feature
-        for (DataPoint dp : df) {
-            Integer classIndex = classIndices.get(dp.label);
-            if (classIndex == null) {
-                throw new IllegalArgumentException("Unknown label encountered during stats calc: " + dp.label);
-            }
-            int ci = classIndex;
-            count[ci]++;
-            double n = count[ci];
-            for (int j = 0; j < features; j++) {
-                double x = dp.features[j];
-                double delta = x - means[ci][j];
-                means[ci][j] += delta / n;
-                double delta2 = x - means[ci][j];
-                m2[ci][j] += delta * delta2;
-            }
-        }
-
         for (int c = 0; c < classes.length; c++) {
-            if (count[c] > 0) {
+            if (stats.count[c] > 0) {
                 for (int f = 0; f < features; f++) {
+                    means[c][f] = stats.mean[c][f];
                     // variance = M2 / n
-                    variances[c][f] = m2[c][f] / count[c];
+                    variances[c][f] = stats.m2[c][f] / stats.count[c];
                     // apply floor for numerical safety
                     if (variances[c][f] < VAR_EPS)
                         variances[c][f] = VAR_EPS;
@@ -212,5 +282,130 @@ public class GaussianNB extends NaiveBayes {
                 }
             }
         }
+        precompute();
+    }
+
+    /**
+     * Derive the flat prediction parameters from {@link #means} and
+     * {@link #variances}, so prediction needs no logarithms or divisions.
+     */
+    private void precompute() {
+        int k = means.length;
+        meanFlat = new double[k * features];
+        halfInvVar = new double[k * features];
+        logNorm = new double[k];
+        for (int c = 0; c < k; c++) {
+            int offset = c * features;
+            double logVarSum = 0.0;
+            for (int f = 0; f < features; f++) {
+                double var = Math.max(variances[c][f], VAR_EPS);
+                meanFlat[offset + f] = means[c][f];
+                halfInvVar[offset + f] = 0.5 / var;
+                logVarSum += Math.log(var);
+            }
+            logNorm[c] = -0.5 * (features * LOG_2PI + logVarSum);
+        }
+    }
+
+    /**
+     * Sum of {@code w[o + f] * (x[f] - mu[o + f])^2} over {@code f < n}. Four
+     * independent accumulators keep the multiply-add chains from serializing on
+     * one register.
+     */
+    private static double weightedSquaredDistance(double[] x, double[] mu, double[] w, int o, int n) {
+        double s0 = 0.0, s1 = 0.0, s2 = 0.0, s3 = 0.0;
+        int f = 0;
+        for (; f <= n - 4; f += 4) {
+            double d0 = x[f] - mu[o + f];
+            double d1 = x[f + 1] - mu[o + f + 1];
+            double d2 = x[f + 2] - mu[o + f + 2];
+            double d3 = x[f + 3] - mu[o + f + 3];
+            s0 += w[o + f] * d0 * d0;
+            s1 += w[o + f + 1] * d1 * d1;
+            s2 += w[o + f + 2] * d2 * d2;
+            s3 += w[o + f + 3] * d3 * d3;
+        }
+        for (; f < n; f++) {
+            double d = x[f] - mu[o + f];
+            s0 += w[o + f] * d * d;
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    private static double[][] deepCopy(double[][] a) {
+        double[][] out = new double[a.length][];
+        for (int i = 0; i < a.length; i++) {
+            out[i] = a[i].clone();
+        }
+        return out;
+    }
+
+    /**
+     * Per-class count, running mean and sum of squared differences (M2).
+     */
+    private static final class GaussianStats implements Stats<GaussianStats> {
+        double[] count;
+        double[][] mean;
+        double[][] m2;
+
+        GaussianStats(int classes, int features) {
+            this(new double[classes], new double[classes][features], new double[classes][features]);
+        }
+
+        GaussianStats(double[] count, double[][] mean, double[][] m2) {
+            this.count = count;
+            this.mean = mean;
+            this.m2 = m2;
+        }
+
+        /**
+         * Add empty statistics for classes appended since this was created.
+         */
+        GaussianStats grow(int classes, int features) {
+            int k = count.length;
+            if (classes > k) {
+                count = Arrays.copyOf(count, classes);
+                mean = Arrays.copyOf(mean, classes);
+                m2 = Arrays.copyOf(m2, classes);
+                for (int c = k; c < classes; c++) {
+                    mean[c] = new double[features];
+                    m2[c] = new double[features];
+                }
+            }
+            return this;
+        }
+
+        @Override
+        public void add(int ci, double[] x) {
+            double n = ++count[ci];
+            double[] mu = mean[ci];
+            double[] sq = m2[ci];
+            for (int j = 0; j < mu.length; j++) {
+                double delta = x[j] - mu[j];
+                mu[j] += delta / n;
+                sq[j] += delta * (x[j] - mu[j]);
+            }
+        }
+
+        @Override
+        public GaussianStats merge(GaussianStats other) {
+            for (int c = 0; c < count.length; c++) {
+                double nB = other.count[c];
+                if (nB == 0) {
+                    continue;
+                }
+                double nA = count[c];
+                double n = nA + nB;
+                double[] muA = mean[c], muB = other.mean[c];
+                double[] sqA = m2[c], sqB = other.m2[c];
+                for (int j = 0; j < muA.length; j++) {
+                    double delta = muB[j] - muA[j];
+                    muA[j] += delta * nB / n;
+                    sqA[j] += sqB[j] + delta * delta * nA * nB / n;
+                }
+                count[c] = n;
+            }
+            return this;
+        }
     }
 }
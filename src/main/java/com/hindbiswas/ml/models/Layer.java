@@ -48,6 +48,34 @@ class Layer {
         return activationOutput;
     }
 
+    /**
+     * Forward pass over a batch, one example per column. Unlike
+     * {@link #feedForward(SimpleMatrix)} it keeps no state for backpropagation,
+     * so it is safe to call concurrently.
+     *
+     * @param inputs matrix of {@code inputs} rows and one column per example
+     * @return activations, {@code perceptrons} rows by one column per example
+     */
+    SimpleMatrix feedForwardBatch(SimpleMatrix inputs) {
+        int batch = inputs.getNumCols();
+        SimpleMatrix withBias = new SimpleMatrix(this.inputs + 1, batch);
+        for (int c = 0; c < batch; c++) {
+            withBias.set(0, c, 1);
+        }
+        withBias.insertIntoThis(1, 0, inputs);
+
+        SimpleMatrix z = weights.mult(withBias);
+        if (!LayerActivations.softmax().equals(activation.toString())) {
+            return activation.apply(z);
+        }
+        // softmax normalises its whole argument, so apply it per example
+        SimpleMatrix out = new SimpleMatrix(perceptrons, batch);
+        for (int c = 0; c < batch; c++) {
+            out.insertIntoThis(0, c, activation.apply(z.extractVector(false, c)));
+        }
+        return out;
+    }
+
     public SimpleMatrix gradient(SimpleMatrix delta) {
         return delta.mult(input.transpose());
     }
@@ -79,6 +107,13 @@ class Layer {
         return new SimpleMatrix(weights.getNumRows(), weights.getNumCols());
     }
 
+    /**
+     * @return Frobenius norm of the weights, bias column included
+     */
+    double weightNorm() {
+        return weights.normF();
+    }
+
     public SimpleMatrix getActivationDerivativeOfPreActivation() {
         return activation.derivative(preActivationOutput);
     }
@@ -1,22 +1,55 @@
 package com.hindbiswas.ml.models;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Objects;
 
 import org.ejml.simple.SimpleMatrix;
 
+import com.hindbiswas.ml.data.DataFrame;
+import com.hindbiswas.ml.dto.LinearRegressionGDDTO;
+import com.hindbiswas.ml.metrics.Allocations;
+import com.hindbiswas.ml.metrics.EpochMetrics;
+import com.hindbiswas.ml.metrics.PredictionEvent;
+import com.hindbiswas.ml.metrics.TrainingListener;
 import com.hindbiswas.ml.util.Matrix;
+import com.hindbiswas.ml.util.ModelIO;
+import com.hindbiswas.ml.util.Shards;
 
 /**
  * Implements multivariate linear regression using batch gradient descent.
  *
  * This class supports fitting a model to data via gradient descent,
  * making predictions, and retrieving the learned parameters.
+ *
+ * <p>
+ * Training reads the rows of a {@link DataFrame} in place; the intercept is
+ * handled implicitly rather than by copying the data into a design matrix
+ * with a column of ones. The gradient is accumulated over row shards in
+ * parallel once the data is large enough to be worth splitting.
+ * </p>
+ *
+ * <p>
+ * Training stops early once {@link #tolerance(double)} is met. With
+ * {@link #standardize(boolean)} the features are scaled to zero mean and unit
+ * variance on the fly, which keeps one learning rate suitable for features of
+ * very different magnitudes; the learned parameters are mapped back so
+ * predictions take raw features.
+ * </p>
  */
-public class LinearRegressionGD {
+public class LinearRegressionGD implements Model {
     private Double learningRate = 0.01;
     private Integer iterations = 1000;
-    private SimpleMatrix theta = null;
+    /** Gradient tolerance; 0 runs every iteration. */
+    private double tolerance = 0.0;
+    /** Whether to standardize features while training. */
+    private boolean standardize = false;
+    /** Parameter vector, intercept first; null until fitted. */
+    private double[] theta = null;
+    private int iterationsRun = 0;
+    /** Receives per-iteration telemetry; null when not set. */
+    private TrainingListener listener = null;
 
     /**
      * Creates a LinearRegressionGD with default learning rate (0.01) and iterations
@@ -43,6 +76,58 @@ public class LinearRegressionGD {
         this.iterations = iterations;
     }
 
+    /**
+     * Restores a model from its DTO.
+     *
+     * @param dto exported model
+     */
+    public LinearRegressionGD(LinearRegressionGDDTO dto) {
+        this.learningRate = dto.learningRate;
+        this.iterations = dto.iterations;
+        this.tolerance = dto.tolerance;
+        this.standardize = dto.standardize;
+        this.theta = dto.theta;
+    }
+
+    /**
+     * Sets the convergence tolerance: training stops once the largest gradient
+     * component falls below it.
+     *
+     * @param tolerance tolerance, or 0 to always run every iteration
+     * @return this model instance (for chaining)
+     * @throws IllegalArgumentException if tolerance is negative
+     */
+    public LinearRegressionGD tolerance(double tolerance) throws IllegalArgumentException {
+        if (!(tolerance >= 0)) {
+            throw new IllegalArgumentException("tolerance must be >= 0");
+        }
+        this.tolerance = tolerance;
+        return this;
+    }
+
+    /**
+     * Enables or disables internal feature standardization.
+     *
+     * @param standardize true to train on standardized features
+     * @return this model instance (for chaining)
+     */
+    public LinearRegressionGD standardize(boolean standardize) {
+        this.standardize = standardize;
+        return this;
+    }
+
+    /**
+     * Sets the listener notified after every iteration. The reported loss is
+     * the mean squared error before the iteration's update.
+     *
+     * @param listener listener, or null to disable telemetry
+     * @return this model instance (for chaining)
+     */
+    public LinearRegressionGD listener(TrainingListener listener) {
+        this.listener = listener;
+        return this;
+    }
+
     /**
      * Fits the linear regression model to the provided training data using batch
      * gradient descent.
@@ -64,25 +149,82 @@ public class LinearRegressionGD {
             throw new IllegalArgumentException("Feature vectors must contain at least one feature.");
         }
 
-        int m = dataX.size();
-        int n = dataX.get(0).size() + 1; // +1 for intercept
+        DataFrame df = new DataFrame(dataX.get(0).size(), dataX.size());
+        df.add(dataX, dataY);
+        return fit(df);
+    }
 
-        // Build design matrix X and target vector y
-        SimpleMatrix x = Matrix.build(dataX);
-        SimpleMatrix y = new SimpleMatrix(m, 1);
-        for (int i = 0; i < m; i++) {
-            y.set(i, 0, dataY.get(i));
+    /**
+     * Fits the model to a {@link DataFrame}, using its labels as targets.
+     *
+     * @param df training data
+     * @return this model instance (for chaining)
+     * @throws IllegalArgumentException if the dataframe is empty
+     * @throws NullPointerException     if the dataframe is null
+     */
+    @Override
+    public LinearRegressionGD fit(DataFrame df) throws IllegalArgumentException, NullPointerException {
+        df = Objects.requireNonNull(df, "DataFrame is null.");
+        if (df.size() == 0) {
+            throw new IllegalArgumentException("DataFrame is empty.");
+        }
+
+        int m = df.size();
+        int n = df.featureCount() + 1; // +1 for intercept
+        double[] labels = df.getLabels();
+        // the extra last slot accumulates the sum of squared errors
+        double[] gradient = new double[n + 1];
+
+        // With standardization the descent runs on the parameters of the scaled
+        // features, and theta holds the equivalent raw-feature parameters used
+        // by the row kernel; otherwise both are the same array.
+        double[] mean = null;
+        double[] invStd = null;
+        if (standardize) {
+            mean = new double[n - 1];
+            invStd = new double[n - 1];
+            featureMoments(df, mean, invStd);
         }
 
         // Initialize theta to zeros
-        theta = new SimpleMatrix(n, 1);
+        theta = new double[n];
+        double[] params = standardize ? new double[n] : theta;
+        iterationsRun = 0;
 
         // Perform gradient descent
         for (int iter = 0; iter < iterations; iter++) {
-            SimpleMatrix predictions = x.mult(theta);
-            SimpleMatrix errors = predictions.minus(y);
-            SimpleMatrix gradient = x.transpose().mult(errors).divide((double) m);
-            theta = theta.minus(gradient.scale(learningRate));
+            long start = System.nanoTime();
+            long allocated = listener == null ? -1 : Allocations.currentThread();
+            gradient(df, labels, gradient);
+            if (standardize) {
+                // d/dp_j of (x_j - mean_j) * invStd_j * p_j, with gradient[0] = sum of errors
+                for (int j = 1; j < n; j++) {
+                    gradient[j] = (gradient[j] - mean[j - 1] * gradient[0]) * invStd[j - 1];
+                }
+            }
+
+            double step = learningRate / m;
+            double maxGradient = 0.0;
+            double squaredGradient = 0.0;
+            for (int j = 0; j < n; j++) {
+                double g = gradient[j] / m;
+                maxGradient = Math.max(maxGradient, Math.abs(g));
+                squaredGradient += g * g;
+                params[j] -= step * gradient[j];
+            }
+            if (standardize) {
+                toRaw(params, mean, invStd, theta);
+            }
+            iterationsRun++;
+            if (listener != null) {
+                listener.onEpoch(new EpochMetrics("LinearRegressionGD", iter, iterations, m,
+                        System.nanoTime() - start, gradient[n] / m, Double.NaN, Double.NaN, Double.NaN,
+                        Matrix.norm(theta), Math.sqrt(squaredGradient), Allocations.since(allocated)));
+            }
+
+            if (maxGradient < tolerance) {
+                break;
+            }
         }
 
         return this;
@@ -101,13 +243,70 @@ public class LinearRegressionGD {
             throw new IllegalStateException("Model has not been fitted yet.");
         }
         Objects.requireNonNull(x, "features cannot be null");
-        if (x.size() + 1 != theta.getNumRows()) {
+        if (x.size() + 1 != theta.length) {
             throw new IllegalArgumentException(
-                    String.format("Expected %d features, but got %d.", theta.getNumRows() - 1, x.size()));
+                    String.format("Expected %d features, but got %d.", theta.length - 1, x.size()));
         }
 
-        SimpleMatrix xMatrix = Matrix.row(x);
-        return xMatrix.mult(theta).get(0, 0);
+        double sum = theta[0];
+        for (int j = 0; j < x.size(); j++) {
+            sum += theta[j + 1] * x.get(j);
+        }
+        return sum;
+    }
+
+    /**
+     * Predicts the target value for a single feature vector.
+     *
+     * @param x feature values (size n)
+     * @return predicted target value
+     * @throws IllegalStateException    if fit() has not been called
+     * @throws IllegalArgumentException if the length does not match
+     */
+    @Override
+    public Double predict(double[] x) throws IllegalArgumentException, IllegalStateException {
+        checkFeatures(x);
+        PredictionEvent event = PredictionEvent.start();
+        double prediction = Matrix.dotWithBias(theta, x);
+        event.finish(this, PredictionEvent.PREDICT, 1, x.length);
+        return prediction;
+    }
+
+    /**
+     * Coefficient of determination (R²) of the predictions on {@code df}.
+     *
+     * @param df evaluation data
+     * @return R², 1.0 for a perfect fit
+     * @throws IllegalStateException    if fit() has not been called
+     * @throws IllegalArgumentException if the dataframe is empty or has the wrong
+     *                                  feature count
+     * @throws NullPointerException     if the dataframe is null
+     */
+    @Override
+    public double score(DataFrame df) throws IllegalArgumentException, IllegalStateException, NullPointerException {
+        PredictionEvent event = PredictionEvent.start();
+        if (theta == null) {
+            throw new IllegalStateException("Model has not been fitted yet.");
+        }
+        df = Objects.requireNonNull(df, "DataFrame is null.");
+        if (df.size() == 0) {
+            throw new IllegalArgumentException("DataFrame is empty.");
+        }
+        if (df.featureCount() != theta.length - 1) {
+            throw new IllegalArgumentException(
+                    String.format("Expected %d features, but DataFrame has %d.", theta.length - 1, df.featureCount()));
+        }
+        double score = Scores.rSquared(df, theta);
+        event.finish(this, PredictionEvent.SCORE, df.size(), df.featureCount());
+        return score;
+    }
+
+    /**
+     * @return number of iterations run by the last fit, fewer than configured
+     *         when the tolerance was reached
+     */
+    public int getIterationsRun() {
+        return iterationsRun;
     }
 
     /**
@@ -120,7 +319,49 @@ public class LinearRegressionGD {
         if (theta == null) {
             throw new IllegalStateException("Model has not been fitted yet.");
         }
-        return theta;
+        return new SimpleMatrix(theta.length, 1, true, theta);
+    }
+
+    /**
+     * Export the model (DTO JSON) to the given file path.
+     *
+     * @param path output path
+     * @return true on success, false on failure
+     */
+    @Override
+    public boolean export(Path path) {
+        return ModelIO.export(path, this);
+    }
+
+    /**
+     * Import a model from a JSON file produced by {@link #export(Path)}.
+     *
+     * @param path path to the JSON file
+     * @return restored model
+     * @throws Exception if reading/parsing fails
+     */
+    public static LinearRegressionGD importModel(Path path) throws Exception {
+        return ModelIO.importModel(path, LinearRegressionGDDTO.class, LinearRegressionGD.class);
+    }
+
+    /**
+     * Convert the model to a serializable DTO.
+     *
+     * @return DTO representing this model
+     * @throws IllegalStateException if the model is unfitted
+     */
+    @Override
+    public LinearRegressionGDDTO toDTO() throws IllegalStateException {
+        if (theta == null) {
+            throw new IllegalStateException("Model has not been fitted yet.");
+        }
+        LinearRegressionGDDTO dto = new LinearRegressionGDDTO();
+        dto.learningRate = learningRate;
+        dto.iterations = iterations;
+        dto.tolerance = tolerance;
+        dto.standardize = standardize;
+        dto.theta = theta;
+        return dto;
     }
 
     /**
@@ -135,11 +376,88 @@ public class LinearRegressionGD {
         }
         StringBuilder sb = new StringBuilder();
         sb.append("LinearRegressionGD [y = ");
-        sb.append(String.format("%.4f", theta.get(0, 0)));
-        for (int i = 1; i < theta.getNumRows(); i++) {
-            sb.append(" + ").append(String.format("%.4f", theta.get(i, 0))).append("*x").append(i);
+        sb.append(String.format("%.4f", theta[0]));
+        for (int i = 1; i < theta.length; i++) {
+            sb.append(" + ").append(String.format("%.4f", theta[i])).append("*x").append(i);
         }
         sb.append("]");
         return sb.toString();
     }
+
+    /**
+     * Sums the squared-error gradient over all rows into {@code out} at the
+     * current theta, and the squared errors into its last slot, splitting large
+     * inputs into parallel shards.
+     */
+    private void gradient(DataFrame df, double[] labels, double[] out) {
+        int m = df.size();
+        Arrays.fill(out, 0.0);
+        if (m <= Shards.DEFAULT_GRAIN) {
+            accumulate(df, labels, out, 0, m);
+            return;
+        }
+        double[] total = Shards.reduce(m, () -> new double[out.length],
+                (partial, start, end) -> accumulate(df, labels, partial, start, end), (a, b) -> {
+                    for (int j = 0; j < a.length; j++) {
+                        a[j] += b[j];
+                    }
+                    return a;
+                });
+        System.arraycopy(total, 0, out, 0, out.length);
+    }
+
+    private void accumulate(DataFrame df, double[] labels, double[] gradient, int start, int end) {
+        for (int i = start; i < end; i++) {
+            double[] x = df.getFeaturesRef(i);
+            double error = Matrix.dotWithBias(theta, x) - labels[i];
+            gradient[0] += error;
+            for (int j = 0; j < x.length; j++) {
+                gradient[j + 1] += error * x[j];
+            }
+            gradient[x.length + 1] += error * error;
+        }
+    }
+
+    /**
+     * Per-feature mean and reciprocal standard deviation (1 for constant
+     * features), computed in one pass.
+     */
+    private static void featureMoments(DataFrame df, double[] mean, double[] invStd) {
+        double[] m2 = new double[mean.length];
+        for (int i = 0; i < df.size(); i++) {
+            double[] x = df.getFeaturesRef(i);
+            for (int j = 0; j < x.length; j++) {
+                double delta = x[j] - mean[j];
+                mean[j] += delta / (i + 1);
+                m2[j] += delta * (x[j] - mean[j]);
+            }
+        }
+        for (int j = 0; j < mean.length; j++) {
+            double std = Math.sqrt(m2[j] / df.size());
+            invStd[j] = std > 0 ? 1.0 / std : 1.0;
+        }
+    }
+
+    /**
+     * Maps parameters of the standardized features to raw-feature parameters.
+     */
+    private static void toRaw(double[] params, double[] mean, double[] invStd, double[] out) {
+        double intercept = params[0];
+        for (int j = 1; j < params.length; j++) {
+            out[j] = params[j] * invStd[j - 1];
+            intercept -= out[j] * mean[j - 1];
+        }
+        out[0] = intercept;
+    }
+
+    private void checkFeatures(double[] x) throws IllegalArgumentException, IllegalStateException {
+        if (theta == null) {
+            throw new IllegalStateException("Model has not been fitted yet.");
+        }
+        Objects.requireNonNull(x, "features cannot be null");
+        if (x.length + 1 != theta.length) {
+            throw new IllegalArgumentException(
+                    String.format("Expected %d features, but got %d.", theta.length - 1, x.length));
+        }
+    }
 }
@@ -1,21 +1,67 @@
 package com.hindbiswas.ml.models;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Objects;
 
 import org.ejml.simple.SimpleMatrix;
 
+import com.hindbiswas.ml.data.DataFrame;
+import com.hindbiswas.ml.dto.LinearRegressionMultiVarDTO;
+import com.hindbiswas.ml.metrics.PredictionEvent;
 import com.hindbiswas.ml.util.Matrix;
+import com.hindbiswas.ml.util.ModelIO;
+import com.hindbiswas.ml.util.NormalEquations;
 
 /**
  * Multivariate linear regression using matrix algebra (Ordinary Least Squares)
+ *
+ * <p>
+ * Fitting streams the rows once into {@link NormalEquations}, accumulating
+ * {@code XᵀX} and {@code Xᵀy} without materializing the design matrix, and
+ * solves them by Cholesky factorization (with an SVD fallback for
+ * ill-conditioned data). An optional ridge penalty can be set with
+ * {@link #setRidge(double)}.
+ * </p>
  */
-public class LinearRegressionMultiVar {
-    private SimpleMatrix theta = null;
+public class LinearRegressionMultiVar implements Model {
+    /** Parameter vector, intercept first; null until fitted. */
+    private double[] theta = null;
+    private double ridge = 0.0;
+
+    public LinearRegressionMultiVar() {
+    }
+
+    /**
+     * Restores a model from its DTO.
+     *
+     * @param dto exported model
+     */
+    public LinearRegressionMultiVar(LinearRegressionMultiVarDTO dto) {
+        this.ridge = dto.ridge;
+        this.theta = dto.theta;
+    }
+
+    /**
+     * Set the ridge (L2) penalty applied to the feature weights; the intercept
+     * is not penalized.
+     *
+     * @param lambda penalty (0 for ordinary least squares)
+     * @return This model instance, for chaining.
+     * @throws IllegalArgumentException if {@code lambda} is negative
+     */
+    public LinearRegressionMultiVar setRidge(double lambda) throws IllegalArgumentException {
+        if (!(lambda >= 0)) {
+            throw new IllegalArgumentException("Ridge penalty must be non-negative.");
+        }
+        this.ridge = lambda;
+        return this;
+    }
 
     /**
      * Fits the model to the provided feature matrix and target vector.
      * Accepts any List<List<Double>> and List<Double>.
-     * Copies inputs internally to guard against external mutation.
+     * Rows are read once into the normal equations, so inputs are not retained.
      * 
      * @param dataX List of feature vectors (size m x n)
      * @param dataY List of target values (size m)
@@ -33,17 +79,56 @@ public class LinearRegressionMultiVar {
             throw new IllegalArgumentException("Feature vectors must have at least one feature.");
         }
 
-        // Copy inputs to internal arrays
-        // Build X matrix with bias term
-        SimpleMatrix x = Matrix.build(dataX);
-        SimpleMatrix y = new SimpleMatrix(m, 1);
-
+        NormalEquations ne = new NormalEquations(features);
+        double[] row = new double[features];
         for (int i = 0; i < m; i++) {
-            y.set(i, 0, dataY.get(i));
+            ArrayList<Double> x = dataX.get(i);
+            if (x == null || x.size() != features) {
+                throw new IllegalArgumentException("All feature vectors must have the same length.");
+            }
+            for (int j = 0; j < features; j++) {
+                row[j] = x.get(j);
+            }
+            ne.add(row, dataY.get(i));
         }
 
-        // theta = (X^T * X)^(-1) * X^T * y
-        theta = x.transpose().mult(x).invert().mult(x.transpose()).mult(y);
+        return fit(ne);
+    }
+
+    /**
+     * Fits the model to a {@link DataFrame}, using its labels as targets. Rows
+     * are accumulated in parallel shards.
+     *
+     * @param df training data
+     * @return This model instance, for chaining.
+     * @throws IllegalArgumentException if the dataframe is empty
+     * @throws NullPointerException     if the dataframe is null
+     */
+    @Override
+    public LinearRegressionMultiVar fit(DataFrame df) throws IllegalArgumentException, NullPointerException {
+        df = Objects.requireNonNull(df, "DataFrame is null.");
+        if (df.size() == 0) {
+            throw new IllegalArgumentException("DataFrame is empty.");
+        }
+        return fit(NormalEquations.of(df));
+    }
+
+    /**
+     * Fits the model from already accumulated normal equations, e.g. merged from
+     * several data sources.
+     *
+     * @param ne accumulated normal equations
+     * @return This model instance, for chaining.
+     * @throws IllegalArgumentException if no rows have been accumulated
+     * @throws NullPointerException     if {@code ne} is null
+     */
+    public LinearRegressionMultiVar fit(NormalEquations ne) throws IllegalArgumentException, NullPointerException {
+        ne = Objects.requireNonNull(ne, "NormalEquations is null.");
+        if (ne.rows() == 0) {
+            throw new IllegalArgumentException("No rows have been accumulated.");
+        }
+
+        theta = ne.solve(ridge);
         return this;
     }
 
@@ -59,15 +144,72 @@ public class LinearRegressionMultiVar {
         if (theta == null) {
             throw new IllegalStateException("Model has not been fitted yet.");
         }
-        int features = theta.getNumRows() - 1;
+        int features = theta.length - 1;
         if (x == null || x.size() != features) {
             throw new IllegalArgumentException(
                     String.format("Expected %d features, but got %d.", features,
                             (x == null ? 0 : x.size())));
         }
 
-        SimpleMatrix xRow = Matrix.row(x);
-        return xRow.mult(theta).get(0, 0);
+        double sum = theta[0];
+        for (int j = 0; j < features; j++) {
+            sum += theta[j + 1] * x.get(j);
+        }
+        return sum;
+    }
+
+    /**
+     * Predicts a target value for a given feature vector.
+     *
+     * @param x feature values (size n)
+     * @return Predicted y
+     * @throws IllegalStateException    if fit() has not been called
+     * @throws IllegalArgumentException if x size does not match model
+     */
+    @Override
+    public Double predict(double[] x) throws IllegalArgumentException, IllegalStateException {
+        if (theta == null) {
+            throw new IllegalStateException("Model has not been fitted yet.");
+        }
+        int features = theta.length - 1;
+        if (x == null || x.length != features) {
+            throw new IllegalArgumentException(
+                    String.format("Expected %d features, but got %d.", features,
+                            (x == null ? 0 : x.length)));
+        }
+        PredictionEvent event = PredictionEvent.start();
+        double prediction = Matrix.dotWithBias(theta, x);
+        event.finish(this, PredictionEvent.PREDICT, 1, x.length);
+        return prediction;
+    }
+
+    /**
+     * Coefficient of determination (R²) of the predictions on {@code df}.
+     *
+     * @param df evaluation data
+     * @return R², 1.0 for a perfect fit
+     * @throws IllegalStateException    if fit() has not been called
+     * @throws IllegalArgumentException if the dataframe is empty or has the wrong
+     *                                  feature count
+     * @throws NullPointerException     if the dataframe is null
+     */
+    @Override
+    public double score(DataFrame df) throws IllegalArgumentException, IllegalStateException, NullPointerException {
+        PredictionEvent event = PredictionEvent.start();
+        if (theta == null) {
+            throw new IllegalStateException("Model has not been fitted yet.");
+        }
+        df = Objects.requireNonNull(df, "DataFrame is null.");
+        if (df.size() == 0) {
+            throw new IllegalArgumentException("DataFrame is empty.");
+        }
+        if (df.featureCount() != theta.length - 1) {
+            throw new IllegalArgumentException(
+                    String.format("Expected %d features, but DataFrame has %d.", theta.length - 1, df.featureCount()));
+        }
+        double score = Scores.rSquared(df, theta);
+        event.finish(this, PredictionEvent.SCORE, df.size(), df.featureCount());
+        return score;
     }
 
     /**
@@ -80,7 +222,46 @@ public class LinearRegressionMultiVar {
         if (theta == null) {
             throw new IllegalStateException("Model has not been fitted yet.");
         }
-        return theta;
+        return new SimpleMatrix(theta.length, 1, true, theta);
+    }
+
+    /**
+     * Export the model (DTO JSON) to the given file path.
+     *
+     * @param path output path
+     * @return true on success, false on failure
+     */
+    @Override
+    public boolean export(Path path) {
+        return ModelIO.export(path, this);
+    }
+
+    /**
+     * Import a model from a JSON file produced by {@link #export(Path)}.
+     *
+     * @param path path to the JSON file
+     * @return restored model
+     * @throws Exception if reading/parsing fails
+     */
+    public static LinearRegressionMultiVar importModel(Path path) throws Exception {
+        return ModelIO.importModel(path, LinearRegressionMultiVarDTO.class, LinearRegressionMultiVar.class);
+    }
+
+    /**
+     * Convert the model to a serializable DTO.
+     *
+     * @return DTO representing this model
+     * @throws IllegalStateException if model unfitted.
+     */
+    @Override
+    public LinearRegressionMultiVarDTO toDTO() throws IllegalStateException {
+        if (theta == null) {
+            throw new IllegalStateException("Model has not been fitted yet.");
+        }
+        LinearRegressionMultiVarDTO dto = new LinearRegressionMultiVarDTO();
+        dto.ridge = ridge;
+        dto.theta = theta;
+        return dto;
     }
 
     @Override
@@ -91,10 +272,10 @@ public class LinearRegressionMultiVar {
         StringBuilder sb = new StringBuilder();
         sb.append("LinearRegressionMat [y = ");
         // theta is column vector: theta0 + theta1*x1 + ...
-        sb.append(String.format("%.4f", theta.get(0, 0)));
-        for (int i = 1; i < theta.getNumRows(); i++) {
+        sb.append(String.format("%.4f", theta[0]));
+        for (int i = 1; i < theta.length; i++) {
             sb.append(" + ");
-            sb.append(String.format("%.4f", theta.get(i, 0)));
+            sb.append(String.format("%.4f", theta[i]));
             sb.append("*x").append(i);
         }
         sb.append("]");
@@ -1,24 +1,128 @@
 package com.hindbiswas.ml.models;
 
 import java.util.ArrayList;
+import java.util.Objects;
+import java.util.stream.DoubleStream;
+
+import com.hindbiswas.ml.data.DataFrame;
+import com.hindbiswas.ml.util.Shards;
 
 /**
  * Ordinary Least Squares Linear Regression implementation.
+ *
+ * <p>
+ * Fitting is a single streaming pass that keeps only the running means and
+ * co-moments of x and y in a {@link Summary} (Welford's update), so memory
+ * does not depend on the number of points and the data is not retained.
+ * Summaries built over separate chunks of data can be merged, e.g. from
+ * parallel shards.
+ * </p>
  */
 public class LinearRegressionOLS {
     private Double slope;
     private Double intercept;
 
-    private Double meanX;
-    private Double meanY;
+    /**
+     * Mergeable running summary of (x, y) pairs: count, means and the sums of
+     * squared and cross deviations from the means.
+     */
+    public static final class Summary {
+        private long count;
+        private double meanX;
+        private double meanY;
+        private double m2X;
+        private double m2Y;
+        private double cXY;
+
+        /**
+         * Add one point.
+         *
+         * @param x independent variable value
+         * @param y dependent variable value
+         * @return this summary
+         */
+        public Summary add(double x, double y) {
+            count++;
+            double dx = x - meanX;
+            meanX += dx / count;
+            double dy = y - meanY;
+            meanY += dy / count;
+            // dx is taken before and (y - meanY) after the update
+            m2X += dx * (x - meanX);
+            m2Y += dy * (y - meanY);
+            cXY += dx * (y - meanY);
+            return this;
+        }
+
+        /**
+         * Fold a summary of disjoint points into this one.
+         *
+         * @param other summary to merge
+         * @return this summary
+         */
+        public Summary merge(Summary other) {
+            if (other.count == 0) {
+                return this;
+            }
+            if (count == 0) {
+                count = other.count;
+                meanX = other.meanX;
+                meanY = other.meanY;
+                m2X = other.m2X;
+                m2Y = other.m2Y;
+                cXY = other.cXY;
+                return this;
+            }
+            long total = count + other.count;
+            double dx = other.meanX - meanX;
+            double dy = other.meanY - meanY;
+            double factor = (double) count * other.count / total;
+            m2X += other.m2X + dx * dx * factor;
+            m2Y += other.m2Y + dy * dy * factor;
+            cXY += other.cXY + dx * dy * factor;
+            meanX += dx * other.count / total;
+            meanY += dy * other.count / total;
+            count = total;
+            return this;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        public double meanX() {
+            return meanX;
+        }
 
-    // Store internally as ArrayList for efficient random access
-    private ArrayList<Double> dataX;
-    private ArrayList<Double> dataY;
+        public double meanY() {
+            return meanY;
+        }
+
+        /**
+         * @return population covariance of x and y
+         */
+        public double covariance() {
+            return count == 0 ? Double.NaN : cXY / count;
+        }
+
+        /**
+         * @return population variance of x
+         */
+        public double varianceX() {
+            return count == 0 ? Double.NaN : m2X / count;
+        }
+
+        /**
+         * @return population variance of y
+         */
+        public double varianceY() {
+            return count == 0 ? Double.NaN : m2Y / count;
+        }
+    }
 
     /**
      * Fits the model to the provided data. Accepts any List<Double> implementation.
-     * 
+     *
      * @param dataX List of independent variable values
      * @param dataY List of dependent variable values
      * @return This model instance, for chaining.
@@ -29,19 +133,98 @@ public class LinearRegressionOLS {
             throw new IllegalArgumentException("Data lists must be non-null, of the same non-zero length.");
         }
 
-        // Copy inputs to internal storage to prevent external mutation
-        this.dataX = new ArrayList<>(dataX);
-        this.dataY = new ArrayList<>(dataY);
+        Summary summary = new Summary();
+        for (int i = 0; i < dataX.size(); i++) {
+            summary.add(dataX.get(i), dataY.get(i));
+        }
+        return fit(summary);
+    }
 
-        calculateMean();
-        calculateCoefficients();
+    /**
+     * Fits the model to the provided data.
+     *
+     * @param dataX independent variable values
+     * @param dataY dependent variable values
+     * @return This model instance, for chaining.
+     * @throws IllegalArgumentException if sizes differ or arrays are empty.
+     */
+    public LinearRegressionOLS fit(double[] dataX, double[] dataY) throws IllegalArgumentException {
+        if (dataX == null || dataY == null || dataX.length != dataY.length || dataX.length == 0) {
+            throw new IllegalArgumentException("Data arrays must be non-null, of the same non-zero length.");
+        }
 
+        Summary summary = new Summary();
+        for (int i = 0; i < dataX.length; i++) {
+            summary.add(dataX[i], dataY[i]);
+        }
+        return fit(summary);
+    }
+
+    /**
+     * Fits a trend line to a series, regressing each value on its position
+     * (0, 1, 2, ...). The stream is consumed sequentially and not retained.
+     *
+     * @param series dependent variable values in order
+     * @return This model instance, for chaining.
+     * @throws IllegalArgumentException if the stream is empty.
+     */
+    public LinearRegressionOLS fit(DoubleStream series) throws IllegalArgumentException {
+        Objects.requireNonNull(series, "series cannot be null");
+        Summary summary = new Summary();
+        series.sequential().forEachOrdered(y -> summary.add(summary.count(), y));
+        return fit(summary);
+    }
+
+    /**
+     * Fits the model to one feature column of a {@link DataFrame} against its
+     * labels. Rows are summarized in parallel shards.
+     *
+     * @param df     data
+     * @param column feature index used as the independent variable
+     * @return This model instance, for chaining.
+     * @throws IllegalArgumentException  if the dataframe is empty
+     * @throws IndexOutOfBoundsException if the column is out of range
+     * @throws NullPointerException      if the dataframe is null
+     */
+    public LinearRegressionOLS fit(DataFrame df, int column)
+            throws IllegalArgumentException, IndexOutOfBoundsException, NullPointerException {
+        Objects.requireNonNull(df, "DataFrame is null.");
+        Objects.checkIndex(column, df.featureCount());
+        double[] labels = df.getLabels();
+        Summary summary = Shards.reduce(df.size(), Summary::new, (s, start, end) -> {
+            for (int i = start; i < end; i++) {
+                s.add(df.getFeaturesRef(i)[column], labels[i]);
+            }
+        }, Summary::merge);
+        return fit(summary);
+    }
+
+    /**
+     * Fits the model from an accumulated summary, e.g. one merged from several
+     * shards.
+     *
+     * @param summary summary of the data
+     * @return This model instance, for chaining.
+     * @throws IllegalArgumentException if the summary is empty or all x values
+     *                                  are equal.
+     */
+    public LinearRegressionOLS fit(Summary summary) throws IllegalArgumentException {
+        Objects.requireNonNull(summary, "summary cannot be null");
+        if (summary.count() == 0) {
+            throw new IllegalArgumentException("Data must not be empty.");
+        }
+        if (!(summary.m2X > 0)) {
+            throw new IllegalArgumentException("All x values are equal; slope is undefined.");
+        }
+
+        slope = summary.cXY / summary.m2X;
+        intercept = summary.meanY - slope * summary.meanX;
         return this;
     }
 
     /**
      * Predicts the target value for a given x.
-     * 
+     *
      * @param x input value
      * @return predicted y
      * @throws IllegalStateException if fit() has not been called.
@@ -70,27 +253,4 @@ public class LinearRegressionOLS {
                 "LinearRegressionOLS [y = %.4fx + %.4f]",
                 slope, intercept);
     }
-
-    private void calculateMean() {
-        meanX = 0.0;
-        meanY = 0.0;
-        for (int i = 0; i < dataX.size(); i++) {
-            meanX += dataX.get(i);
-            meanY += dataY.get(i);
-        }
-        meanX /= dataX.size();
-        meanY /= dataY.size();
-    }
-
-    private void calculateCoefficients() {
-        double numerator = 0.0;
-        double denominator = 0.0;
-        for (int i = 0; i < dataX.size(); i++) {
-            double dx = dataX.get(i) - meanX;
-            numerator += dx * (dataY.get(i) - meanY);
-            denominator += dx * dx;
-        }
-        slope = numerator / denominator;
-        intercept = meanY - slope * meanX;
-    }
 }
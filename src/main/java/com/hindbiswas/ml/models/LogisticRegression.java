@@ -1,25 +1,102 @@
 package com.hindbiswas.ml.models;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Random;
+
 import org.ejml.simple.SimpleMatrix;
 
+import com.hindbiswas.ml.data.DataFrame;
+import com.hindbiswas.ml.dto.LogisticRegressionDTO;
+import com.hindbiswas.ml.metrics.Allocations;
+import com.hindbiswas.ml.metrics.BatchMetrics;
+import com.hindbiswas.ml.metrics.EpochMetrics;
+import com.hindbiswas.ml.metrics.PredictionEvent;
+import com.hindbiswas.ml.metrics.TrainingListener;
+import com.hindbiswas.ml.util.LBFGS;
 import com.hindbiswas.ml.util.Matrix;
+import com.hindbiswas.ml.util.ModelIO;
+import com.hindbiswas.ml.util.NormalEquations;
+import com.hindbiswas.ml.util.Shards;
 
 /**
- * Implements logistic regression for binary classification using batch gradient
+ * Implements logistic regression for binary classification using gradient
  * descent.
  * <p>
- * Supports configurable learning rate and number of iterations.
+ * Supports configurable learning rate and number of iterations (epochs).
  * Predictions return probabilities via sigmoid, and classifications threshold
  * at 0.5.
+ * <p>
+ * By default every iteration is one full-batch gradient step. Setting
+ * {@link #batchSize(int)} switches to mini-batch (or, with 1, stochastic)
+ * gradient descent over a freshly shuffled row order each epoch. Training
+ * stops early once {@link #tolerance(double)} is met, and {@link #l1(double)}
+ * / {@link #l2(double)} add regularization of the feature weights (the
+ * intercept is never penalized).
+ * <p>
+ * Instead of fixed-step gradient descent, the model can be trained with
+ * {@link Solver#LBFGS} or {@link Solver#NEWTON}, which usually converge in
+ * tens of iterations. Their gradients (and Newton's Hessian) are accumulated
+ * over row shards in parallel.
+ * <p>
+ * Training reads the rows of a {@link DataFrame} in place; the intercept is
+ * handled implicitly rather than by copying the data into a design matrix
+ * with a column of ones.
  */
-public class LogisticRegression {
+public class LogisticRegression implements Model, DecisionFunction {
+    /**
+     * Optimization algorithm used by {@link LogisticRegression#fit(DataFrame)}.
+     */
+    public enum Solver {
+        /**
+         * Fixed-step gradient descent, full batch or mini-batch; the only solver
+         * supporting L1.
+         */
+        GD,
+        /**
+         * Limited-memory BFGS with a backtracking line search; ignores the
+         * learning rate and batch size.
+         */
+        LBFGS,
+        /**
+         * Newton's method by iteratively reweighted least squares. Each
+         * iteration solves a dense (n+1)x(n+1) system, so it suits small
+         * feature counts.
+         */
+        NEWTON
+    }
+
     /** Weight vector (theta), including intercept term, set after fitting. */
-    private SimpleMatrix theta = null;
+    private double[] theta = null;
     /** Learning rate (α) for gradient descent updates. */
     private Double learningRate = 0.01;
     /** Number of iterations (epochs) for training. */
     private Integer iterations = 1000;
+    /** Rows per gradient step; 0 means full batch. */
+    private int batchSize = 0;
+    /** Convergence tolerance; 0 disables early stopping. */
+    private double tolerance = 0.0;
+    /** L1 penalty on the feature weights. */
+    private double l1 = 0.0;
+    /** L2 penalty on the feature weights. */
+    private double l2 = 0.0;
+    /** Optional seed for the mini-batch shuffling. */
+    private Integer seed = null;
+    /** Optimization algorithm. */
+    private Solver solver = Solver.GD;
+    /** Epochs actually run by the last fit. */
+    private int epochsRun = 0;
+    /** Receives per-epoch (and per-batch) telemetry; null when not set. */
+    private TrainingListener listener = null;
+
+    /** Epochs without sufficient loss improvement before mini-batch training stops. */
+    private static final int PATIENCE = 5;
+    /** Gradient tolerance used by LBFGS and NEWTON when none is set. */
+    private static final double DEFAULT_SOLVER_TOLERANCE = 1e-6;
+    /** Smallest IRLS row weight, keeping the working response finite. */
+    private static final double MIN_WEIGHT = 1e-10;
 
     /**
      * Default constructor using learningRate=0.01 and iterations=1000.
@@ -38,6 +115,133 @@ public class LogisticRegression {
         this.iterations = iterations;
     }
 
+    /**
+     * Constructor selecting the solver, with default learning rate and
+     * iterations.
+     *
+     * @param solver optimization algorithm
+     */
+    public LogisticRegression(Solver solver) {
+        this.solver = Objects.requireNonNull(solver, "solver cannot be null");
+    }
+
+    /**
+     * Constructor selecting the solver and the maximum number of iterations.
+     *
+     * @param solver     optimization algorithm
+     * @param iterations maximum iterations (epochs for GD)
+     */
+    public LogisticRegression(Solver solver, Integer iterations) {
+        this(solver);
+        this.iterations = iterations;
+    }
+
+    /**
+     * Restores a model from its DTO.
+     *
+     * @param dto exported model
+     */
+    public LogisticRegression(LogisticRegressionDTO dto) {
+        this.learningRate = dto.learningRate;
+        this.iterations = dto.iterations;
+        this.batchSize = dto.batchSize;
+        this.tolerance = dto.tolerance;
+        this.l1 = dto.l1;
+        this.l2 = dto.l2;
+        this.seed = dto.seed;
+        this.solver = dto.solver == null ? Solver.GD : Solver.valueOf(dto.solver);
+        this.theta = dto.theta;
+    }
+
+    /**
+     * Sets the number of rows per gradient step. 0 (the default) uses the whole
+     * dataset, 1 gives stochastic gradient descent.
+     *
+     * @param batchSize rows per step, or 0 for full batch
+     * @return this instance for chaining
+     * @throws IllegalArgumentException if batchSize is negative
+     */
+    public LogisticRegression batchSize(int batchSize) throws IllegalArgumentException {
+        if (batchSize < 0) {
+            throw new IllegalArgumentException("batchSize must be >= 0");
+        }
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Sets the convergence tolerance. Full-batch training stops once the
+     * largest (proximal) gradient component falls below it; mini-batch training
+     * stops once the epoch's mean loss has failed to improve by more than it for
+     * five consecutive epochs. The LBFGS and NEWTON solvers stop once the
+     * largest gradient component falls below it, using 1e-6 when it is 0.
+     *
+     * @param tolerance tolerance, or 0 to always run every iteration
+     * @return this instance for chaining
+     * @throws IllegalArgumentException if tolerance is negative
+     */
+    public LogisticRegression tolerance(double tolerance) throws IllegalArgumentException {
+        if (!(tolerance >= 0)) {
+            throw new IllegalArgumentException("tolerance must be >= 0");
+        }
+        this.tolerance = tolerance;
+        return this;
+    }
+
+    /**
+     * Sets the L1 (lasso) penalty on the feature weights, applied with a
+     * proximal soft-thresholding step so weights can become exactly zero.
+     *
+     * @param lambda penalty, or 0 to disable
+     * @return this instance for chaining
+     * @throws IllegalArgumentException if lambda is negative
+     */
+    public LogisticRegression l1(double lambda) throws IllegalArgumentException {
+        if (!(lambda >= 0)) {
+            throw new IllegalArgumentException("L1 penalty must be >= 0");
+        }
+        this.l1 = lambda;
+        return this;
+    }
+
+    /**
+     * Sets the L2 (ridge) penalty on the feature weights.
+     *
+     * @param lambda penalty, or 0 to disable
+     * @return this instance for chaining
+     * @throws IllegalArgumentException if lambda is negative
+     */
+    public LogisticRegression l2(double lambda) throws IllegalArgumentException {
+        if (!(lambda >= 0)) {
+            throw new IllegalArgumentException("L2 penalty must be >= 0");
+        }
+        this.l2 = lambda;
+        return this;
+    }
+
+    /**
+     * Sets the seed used to shuffle rows between mini-batch epochs.
+     *
+     * @param seed integer seed
+     * @return this instance for chaining
+     */
+    public LogisticRegression seed(int seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Sets the listener notified after every epoch (solver iteration for LBFGS
+     * and NEWTON) and, for mini-batch gradient descent, every batch.
+     *
+     * @param listener listener, or null to disable telemetry
+     * @return this instance for chaining
+     */
+    public LogisticRegression listener(TrainingListener listener) {
+        this.listener = listener;
+        return this;
+    }
+
     /**
      * Trains the logistic regression model on the provided dataset.
      *
@@ -56,35 +260,119 @@ public class LogisticRegression {
         if (dataX.get(0).isEmpty()) {
             throw new IllegalArgumentException("Feature vectors must be non-empty.");
         }
-        for (Double value : dataY) {
-            if (value != 0 && value != 1) {
-                throw new IllegalArgumentException("DataY values must be either 0 or 1.");
+
+        DataFrame df = new DataFrame(dataX.get(0).size(), dataX.size());
+        df.add(dataX, dataY);
+        return fit(df);
+    }
+
+    /**
+     * Trains the logistic regression model on a {@link DataFrame} whose labels
+     * are 0 or 1.
+     *
+     * @param df training data
+     * @return this instance with trained parameters
+     * @throws IllegalArgumentException if the dataframe is empty or labels are
+     *                                  invalid
+     * @throws NullPointerException     if the dataframe is null
+     */
+    @Override
+    public LogisticRegression fit(DataFrame df) throws IllegalArgumentException, NullPointerException {
+        df = Objects.requireNonNull(df, "DataFrame is null.");
+        if (df.size() == 0) {
+            throw new IllegalArgumentException("DataFrame is empty.");
+        }
+        checkLabels(df);
+        if (solver != Solver.GD) {
+            if (l1 > 0) {
+                throw new IllegalArgumentException("L1 penalty is only supported by the GD solver.");
             }
+            DataFrame data = df;
+            double[] labels = df.getLabels();
+            double tol = tolerance > 0 ? tolerance : DEFAULT_SOLVER_TOLERANCE;
+            theta = new double[df.featureCount() + 1];
+            LBFGS.Progress progress = Telemetry.solver(listener, "LogisticRegression", iterations, df.size());
+            epochsRun = solver == Solver.LBFGS
+                    ? LBFGS.minimize((w, grad) -> objective(data, labels, w, grad), theta, iterations, tol, progress)
+                    : newton(df, labels, tol, progress);
+            return this;
         }
 
-        int m = dataX.size();
-        int n = dataX.get(0).size() + 1; // +1 for intercept term
-
-        // Construct design matrix X and label vector y
-        SimpleMatrix x = Matrix.build(dataX);
-        SimpleMatrix y = new SimpleMatrix(m, 1);
+        int m = df.size();
+        int n = df.featureCount() + 1; // +1 for intercept term
+        int batch = batchSize == 0 || batchSize >= m ? m : batchSize;
+        double[] labels = df.getLabels();
+        double[] gradient = new double[n];
+        int[] order = new int[m];
         for (int i = 0; i < m; i++) {
-            y.set(i, 0, dataY.get(i));
+            order[i] = i;
         }
+        Random rng = batch < m ? (seed == null ? new Random() : new Random(seed)) : null;
 
         // Initialize parameters to zero
-        theta = new SimpleMatrix(n, 1);
+        theta = new double[n];
+        epochsRun = 0;
 
-        // Batch gradient descent
+        double bestLoss = Double.POSITIVE_INFINITY;
+        int epochsWithoutImprovement = 0;
         for (int iter = 0; iter < iterations; iter++) {
-            SimpleMatrix z = x.mult(theta);
-            SimpleMatrix predictions = new SimpleMatrix(m, 1);
-            for (int j = 0; j < m; j++) {
-                predictions.set(j, 0, sigmoid(z.get(j, 0)));
+            long epochStart = System.nanoTime();
+            long epochAllocated = listener == null ? -1 : Allocations.currentThread();
+            double gradientNorms = 0.0;
+            if (rng != null) {
+                shuffle(order, rng);
+            }
+            double loss = 0.0;
+            double maxStep = 0.0;
+            for (int from = 0; from < m; from += batch) {
+                int to = Math.min(from + batch, m);
+                if (listener == null) {
+                    loss += gradient(df, labels, order, from, to, gradient);
+                    maxStep = Math.max(maxStep, step(gradient, to - from));
+                    continue;
+                }
+                long start = System.nanoTime();
+                long allocated = Allocations.currentThread();
+                double batchLoss = gradient(df, labels, order, from, to, gradient);
+                long backward = System.nanoTime();
+                double gradientNorm = Matrix.norm(gradient) / (to - from);
+                maxStep = Math.max(maxStep, step(gradient, to - from));
+                long end = System.nanoTime();
+                loss += batchLoss;
+                gradientNorms += gradientNorm;
+                if (batch < m) {
+                    listener.onBatch(new BatchMetrics("LogisticRegression", iter, from / batch, to - from, 0L, 0L,
+                            backward - start, end - backward, batchLoss / (to - from), gradientNorm,
+                            Allocations.since(allocated)));
+                }
+            }
+            epochsRun++;
+            if (listener != null) {
+                int batches = (m + batch - 1) / batch;
+                listener.onEpoch(new EpochMetrics("LogisticRegression", iter, iterations, m,
+                        System.nanoTime() - epochStart, loss / m + penalty(), Double.NaN, Double.NaN, Double.NaN,
+                        Matrix.norm(theta), gradientNorms / batches, Allocations.since(epochAllocated)));
+            }
+
+            if (tolerance > 0) {
+                if (batch == m) {
+                    // Largest step divided by the learning rate is the (proximal)
+                    // gradient norm, which vanishes at the optimum.
+                    if (maxStep / learningRate < tolerance) {
+                        break;
+                    }
+                } else {
+                    loss = loss / m + penalty();
+                    if (loss > bestLoss - tolerance) {
+                        if (++epochsWithoutImprovement >= PATIENCE) {
+                            break;
+                        }
+                    } else {
+                        epochsWithoutImprovement = 0;
+                    }
+                    bestLoss = Math.min(bestLoss, loss);
+                }
             }
-            SimpleMatrix error = predictions.minus(y);
-            SimpleMatrix gradient = x.transpose().mult(error).divide(m);
-            theta = theta.minus(gradient.scale(learningRate));
         }
 
         return this;
@@ -101,11 +389,36 @@ public class LogisticRegression {
         if (theta == null) {
             throw new IllegalStateException("Model has not been fitted yet.");
         }
-        SimpleMatrix xMatrix = Matrix.row(x);
-        double z = xMatrix.mult(theta).get(0, 0);
+        double z = theta[0];
+        for (int j = 0; j < x.size(); j++) {
+            z += theta[j + 1] * x.get(j);
+        }
         return sigmoid(z);
     }
 
+    /**
+     * Computes the probability estimate for a single feature vector.
+     *
+     * @param x feature vector (excluding intercept term)
+     * @return probability in [0,1]
+     * @throws IllegalStateException    if model has not been fitted
+     * @throws IllegalArgumentException if the feature count does not match
+     */
+    @Override
+    public Double predict(double[] x) throws IllegalStateException, IllegalArgumentException {
+        if (theta == null) {
+            throw new IllegalStateException("Model has not been fitted yet.");
+        }
+        if (x.length + 1 != theta.length) {
+            throw new IllegalArgumentException(
+                    String.format("Expected %d features, but got %d.", theta.length - 1, x.length));
+        }
+        PredictionEvent event = PredictionEvent.start();
+        double probability = sigmoid(Matrix.dotWithBias(theta, x));
+        event.finish(this, PredictionEvent.PREDICT, 1, x.length);
+        return probability;
+    }
+
     /**
      * Classifies a single feature vector using 0.5 probability threshold.
      *
@@ -118,6 +431,107 @@ public class LogisticRegression {
         return p >= 0.5 ? 1 : 0;
     }
 
+    /**
+     * Classifies a single feature vector using 0.5 probability threshold.
+     *
+     * @param x feature vector (excluding intercept term)
+     * @return predicted class label (0 or 1)
+     * @throws IllegalStateException    if model has not been fitted
+     * @throws IllegalArgumentException if the feature count does not match
+     */
+    public Integer classify(double[] x) throws IllegalStateException, IllegalArgumentException {
+        double p = predict(x);
+        return p >= 0.5 ? 1 : 0;
+    }
+
+    /**
+     * Log-odds of the positive class, {@code θ·x}.
+     *
+     * @param x feature vector (excluding intercept term)
+     * @return decision score, &ge; 0 when class 1 is predicted
+     * @throws IllegalStateException    if model has not been fitted
+     * @throws IllegalArgumentException if the feature count does not match
+     */
+    @Override
+    public double decisionFunction(double[] x) throws IllegalStateException, IllegalArgumentException {
+        if (theta == null) {
+            throw new IllegalStateException("Model has not been fitted yet.");
+        }
+        if (x.length + 1 != theta.length) {
+            throw new IllegalArgumentException(
+                    String.format("Expected %d features, but got %d.", theta.length - 1, x.length));
+        }
+        return Matrix.dotWithBias(theta, x);
+    }
+
+    @Override
+    public double positiveLabel() {
+        return 1.0;
+    }
+
+    @Override
+    public double negativeLabel() {
+        return 0.0;
+    }
+
+    @Override
+    public double[] linearWeights() throws IllegalStateException {
+        if (theta == null) {
+            throw new IllegalStateException("Model has not been fitted yet.");
+        }
+        return theta.clone();
+    }
+
+    /**
+     * Computes classification accuracy on a labeled dataset.
+     *
+     * @param df DataFrame containing features and 0/1 labels
+     * @return fraction of correct predictions in [0.0, 1.0]
+     * @throws IllegalStateException    if model has not been fitted
+     * @throws IllegalArgumentException if the dataframe is empty, has the wrong
+     *                                  feature count or invalid labels
+     * @throws NullPointerException     if DataFrame is null
+     */
+    @Override
+    public double score(DataFrame df) throws IllegalStateException, IllegalArgumentException, NullPointerException {
+        PredictionEvent event = PredictionEvent.start();
+        if (theta == null) {
+            throw new IllegalStateException("Model has not been fitted yet.");
+        }
+        df = Objects.requireNonNull(df, "DataFrame is null.");
+        if (df.size() == 0) {
+            throw new IllegalArgumentException("DataFrame is empty.");
+        }
+        if (df.featureCount() != theta.length - 1) {
+            throw new IllegalArgumentException(
+                    String.format("Expected %d features, but DataFrame has %d.", theta.length - 1, df.featureCount()));
+        }
+        checkLabels(df);
+
+        double[] labels = df.getLabels();
+        int correct = 0;
+        for (int i = 0; i < labels.length; i++) {
+            // sigmoid(z) >= 0.5 exactly when z >= 0
+            int prediction = Matrix.dotWithBias(theta, df.getFeaturesRef(i)) >= 0 ? 1 : 0;
+            if (prediction == labels[i]) {
+                correct++;
+            }
+        }
+        double score = (double) correct / labels.length;
+        event.finish(this, PredictionEvent.SCORE, df.size(), df.featureCount());
+        return score;
+    }
+
+    /**
+     * Returns the number of epochs run by the last call to fit, which is less
+     * than the configured iterations when training stopped early.
+     *
+     * @return epochs run
+     */
+    public int getEpochsRun() {
+        return epochsRun;
+    }
+
     /**
      * Returns the fitted model parameters theta.
      *
@@ -128,7 +542,53 @@ public class LogisticRegression {
         if (theta == null) {
             throw new IllegalStateException("Model has not been fitted yet.");
         }
-        return theta;
+        return new SimpleMatrix(theta.length, 1, true, theta);
+    }
+
+    /**
+     * Export the model (DTO JSON) to the given file path.
+     *
+     * @param path output path
+     * @return true on success, false on failure
+     */
+    @Override
+    public boolean export(Path path) {
+        return ModelIO.export(path, this);
+    }
+
+    /**
+     * Import a model from a JSON file produced by {@link #export(Path)}.
+     *
+     * @param path path to the JSON file
+     * @return restored model
+     * @throws Exception if reading/parsing fails
+     */
+    public static LogisticRegression importModel(Path path) throws Exception {
+        return ModelIO.importModel(path, LogisticRegressionDTO.class, LogisticRegression.class);
+    }
+
+    /**
+     * Convert the model to a serializable DTO.
+     *
+     * @return DTO representing this model
+     * @throws IllegalStateException if model has not been fitted
+     */
+    @Override
+    public LogisticRegressionDTO toDTO() throws IllegalStateException {
+        if (theta == null) {
+            throw new IllegalStateException("Model has not been fitted yet.");
+        }
+        LogisticRegressionDTO dto = new LogisticRegressionDTO();
+        dto.learningRate = learningRate;
+        dto.iterations = iterations;
+        dto.batchSize = batchSize;
+        dto.tolerance = tolerance;
+        dto.l1 = l1;
+        dto.l2 = l2;
+        dto.seed = seed;
+        dto.solver = solver.name();
+        dto.theta = theta;
+        return dto;
     }
 
     /**
@@ -143,23 +603,217 @@ public class LogisticRegression {
         }
         StringBuilder sb = new StringBuilder();
         sb.append("LogisticRegression [y = ");
-        sb.append(String.format("%.4f", theta.get(0, 0)));
-        for (int i = 1; i < theta.getNumRows(); i++) {
+        sb.append(String.format("%.4f", theta[0]));
+        for (int i = 1; i < theta.length; i++) {
             sb.append(" + ")
-                    .append(String.format("%.4f", theta.get(i, 0)))
+                    .append(String.format("%.4f", theta[i]))
                     .append("*x").append(i);
         }
         sb.append("]");
         return sb.toString();
     }
 
+    /**
+     * Mean log-loss plus the L2 term at {@code w}, with its gradient. Rows are
+     * accumulated in parallel shards.
+     */
+    private double objective(DataFrame df, double[] labels, double[] w, double[] grad) {
+        int n = w.length;
+        // partial[0..n) is the gradient sum, partial[n] the loss sum
+        double[] total = Shards.reduce(df.size(), () -> new double[n + 1], (partial, start, end) -> {
+            for (int i = start; i < end; i++) {
+                double[] x = df.getFeaturesRef(i);
+                double z = Matrix.dotWithBias(w, x);
+                double error = sigmoid(z) - labels[i];
+                partial[n] += softplus(z) - labels[i] * z;
+                partial[0] += error;
+                for (int j = 0; j < x.length; j++) {
+                    partial[j + 1] += error * x[j];
+                }
+            }
+        }, LogisticRegression::sum);
+
+        double m = df.size();
+        double loss = total[n] / m;
+        grad[0] = total[0] / m;
+        for (int j = 1; j < n; j++) {
+            grad[j] = total[j] / m + l2 * w[j];
+            loss += 0.5 * l2 * w[j] * w[j];
+        }
+        return loss;
+    }
+
+    /**
+     * Newton's method via iteratively reweighted least squares. Each step
+     * solves the weighted normal equations {@code (XᵀSX + m·λI') θ' = XᵀSz} with
+     * {@code S = diag(p(1-p))} and working response {@code z = Xθ + (y-p)/s},
+     * which is exactly the Newton update of the L2-penalized mean log-loss. The
+     * step is then halved until the objective does not increase.
+     *
+     * @return iterations run
+     */
+    private int newton(DataFrame df, double[] labels, double tol, LBFGS.Progress progress) {
+        int n = theta.length;
+        double[] grad = new double[n];
+        double[] trialGrad = new double[n];
+        double[] trial = new double[n];
+        double loss = objective(df, labels, theta, grad);
+
+        int iter = 0;
+        while (iter < iterations && maxAbs(grad) >= tol) {
+            iter++;
+            double[] w = theta;
+            NormalEquations ne = Shards.reduce(df.size(), () -> new NormalEquations(n - 1), (acc, start, end) -> {
+                for (int i = start; i < end; i++) {
+                    double[] x = df.getFeaturesRef(i);
+                    double eta = Matrix.dotWithBias(w, x);
+                    double p = sigmoid(eta);
+                    double weight = Math.max(p * (1 - p), MIN_WEIGHT);
+                    acc.add(x, eta + (labels[i] - p) / weight, weight);
+                }
+            }, NormalEquations::merge);
+            double[] target = ne.solve(df.size() * l2);
+
+            double step = 1.0;
+            double trialLoss = Double.NaN;
+            for (int b = 0; b < 40; b++) {
+                for (int j = 0; j < n; j++) {
+                    trial[j] = theta[j] + step * (target[j] - theta[j]);
+                }
+                trialLoss = objective(df, labels, trial, trialGrad);
+                if (trialLoss <= loss) {
+                    break;
+                }
+                step *= 0.5;
+            }
+            if (!(trialLoss <= loss)) {
+                break;
+            }
+            System.arraycopy(trial, 0, theta, 0, n);
+            System.arraycopy(trialGrad, 0, grad, 0, n);
+            loss = trialLoss;
+            if (progress != null) {
+                progress.iteration(iter - 1, loss, theta, grad);
+            }
+        }
+        return iter;
+    }
+
+    private static double[] sum(double[] a, double[] b) {
+        for (int i = 0; i < a.length; i++) {
+            a[i] += b[i];
+        }
+        return a;
+    }
+
+    private static double maxAbs(double[] v) {
+        double max = 0.0;
+        for (double d : v) {
+            max = Math.max(max, Math.abs(d));
+        }
+        return max;
+    }
+
+    /**
+     * Computes the unregularized log-loss gradient over rows
+     * {@code order[from..to)} into {@code gradient}.
+     *
+     * @return summed log-loss of those rows at the current theta
+     */
+    private double gradient(DataFrame df, double[] labels, int[] order, int from, int to, double[] gradient) {
+        Arrays.fill(gradient, 0.0);
+        double loss = 0.0;
+        for (int k = from; k < to; k++) {
+            int i = order[k];
+            double[] x = df.getFeaturesRef(i);
+            double z = Matrix.dotWithBias(theta, x);
+            double error = sigmoid(z) - labels[i];
+            loss += softplus(z) - labels[i] * z;
+            gradient[0] += error;
+            for (int j = 0; j < x.length; j++) {
+                gradient[j + 1] += error * x[j];
+            }
+        }
+        return loss;
+    }
+
+    /**
+     * Takes one gradient step from the summed gradient of {@code rows} rows,
+     * adding the L2 term and applying L1 soft-thresholding.
+     *
+     * @return largest absolute change of any parameter
+     */
+    private double step(double[] gradient, int rows) {
+        double scale = 1.0 / rows;
+        double shrink = learningRate * l1;
+        double maxStep = 0.0;
+        for (int j = 0; j < theta.length; j++) {
+            double g = gradient[j] * scale;
+            double next;
+            if (j == 0) {
+                next = theta[0] - learningRate * g;
+            } else {
+                next = theta[j] - learningRate * (g + l2 * theta[j]);
+                if (shrink > 0) {
+                    next = Math.signum(next) * Math.max(Math.abs(next) - shrink, 0.0);
+                }
+            }
+            maxStep = Math.max(maxStep, Math.abs(next - theta[j]));
+            theta[j] = next;
+        }
+        return maxStep;
+    }
+
+    /**
+     * @return regularization term of the objective at the current theta
+     */
+    private double penalty() {
+        double abs = 0.0;
+        double sq = 0.0;
+        for (int j = 1; j < theta.length; j++) {
+            abs += Math.abs(theta[j]);
+            sq += theta[j] * theta[j];
+        }
+        return l1 * abs + 0.5 * l2 * sq;
+    }
+
+    private static void shuffle(int[] order, Random rng) {
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = rng.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+    }
+
+    /**
+     * Numerically stable {@code log(1 + exp(z))}.
+     */
+    private static double softplus(double z) {
+        return z > 0 ? z + Math.log1p(Math.exp(-z)) : Math.log1p(Math.exp(z));
+    }
+
+    /**
+     * Ensures every label is 0 or 1, checking each distinct label once.
+     *
+     * @param df dataframe to check
+     * @throws IllegalArgumentException if a label is not 0 or 1
+     */
+    private static void checkLabels(DataFrame df) throws IllegalArgumentException {
+        for (double value : df.getUniqueLabels()) {
+            if (value != 0 && value != 1) {
+                throw new IllegalArgumentException("DataY values must be either 0 or 1.");
+            }
+        }
+    }
+
     /**
      * Computes the sigmoid activation function.
      *
      * @param z raw input value
      * @return sigmoid(z) in range (0,1)
      */
-    private double sigmoid(double z) {
+    private static double sigmoid(double z) {
         return 1.0 / (1.0 + Math.exp(-z));
     }
 }
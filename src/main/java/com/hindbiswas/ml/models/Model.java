@@ -16,6 +16,22 @@ public interface Model {
 
     public Object predict(double[] features);
 
+    /**
+     * Predicts every row of a batch. The default calls
+     * {@link #predict(double[])} once per row; models with a vectorised
+     * forward pass override it to score the whole batch at once.
+     *
+     * @param rows feature vectors
+     * @return prediction per row, as {@link #predict(double[])} would return it
+     */
+    public default Object[] predictBatch(double[][] rows) {
+        Object[] out = new Object[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            out[i] = predict(rows[i]);
+        }
+        return out;
+    }
+
     public boolean export(Path path);
 
     public DTO toDTO();
@@ -2,8 +2,12 @@ package com.hindbiswas.ml.models;
 
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.Objects;
 import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.ejml.simple.SimpleMatrix;
 
@@ -11,7 +15,14 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.hindbiswas.ml.data.DataFrame;
 import com.hindbiswas.ml.data.DataPoint;
+import com.hindbiswas.ml.dto.MLPCheckpointDTO;
+import com.hindbiswas.ml.dto.DTO;
 import com.hindbiswas.ml.dto.MLPModelDTO;
+import com.hindbiswas.ml.metrics.Allocations;
+import com.hindbiswas.ml.metrics.BatchMetrics;
+import com.hindbiswas.ml.metrics.EpochMetrics;
+import com.hindbiswas.ml.metrics.PredictionEvent;
+import com.hindbiswas.ml.metrics.TrainingListener;
 import com.hindbiswas.ml.util.LayerActivations;
 import com.hindbiswas.ml.util.LossFunctions;
 import com.hindbiswas.ml.util.LossGradients;
@@ -42,6 +53,18 @@ import com.hindbiswas.ml.util.ModelIO;
  * double acc = mlp.score(testDataFrame);
  * </pre>
  * </p>
+ *
+ * <p>
+ * Long runs can write periodic checkpoints with
+ * {@link #checkpoint(Path, int)} and pick up after a crash with
+ * {@link #resume(Path)}:
+ *
+ * <pre>
+ * mlp.checkpoint(Paths.get("mlp.ckpt"), 1).fit(train);
+ * // ... after a crash ...
+ * MultiLayerPerceptron.resume(Paths.get("mlp.ckpt")).fit(train);
+ * </pre>
+ * </p>
  */
 public class MultiLayerPerceptron implements Model {
     private final int inputSize;
@@ -64,6 +87,21 @@ public class MultiLayerPerceptron implements Model {
 
     private boolean fitted = false;
 
+    private Path checkpointPath = null;
+    private int checkpointInterval = 0;
+
+    /** Seed of the validation split and batch shuffles; random when null. */
+    private Integer seed = null;
+
+    // Loop state restored by resume(); consumed by the next fit().
+    private int startEpoch = 0;
+    private Integer resumeSeed = null;
+    private double resumeBestValLoss = Double.POSITIVE_INFINITY;
+    private int resumeEpochsWithoutImprovement = 0;
+
+    /** Receives per-epoch and per-batch telemetry; null when not set. */
+    private TrainingListener listener = null;
+
     /**
      * Construct a model from a DTO (used for import).
      *
@@ -71,7 +109,8 @@ public class MultiLayerPerceptron implements Model {
      */
     public MultiLayerPerceptron(MLPModelDTO dto) {
         this.inputSize = dto.inputSize;
-        this.hiddenLayers = dto.hiddenLayers;
+        // older exports stored the total layer count here, so derive it instead
+        this.hiddenLayers = dto.layers.size() - 1;
         this.outputSize = dto.outputSize;
         this.learningRate = dto.learningRate;
         this.epochs = dto.epochs;
@@ -224,6 +263,85 @@ public class MultiLayerPerceptron implements Model {
         return this;
     }
 
+    /**
+     * Sets the seed of the validation split and of the per-epoch batch
+     * shuffles. Weight initialisation is not affected.
+     *
+     * @param seed integer seed
+     * @return this model (for fluent chaining)
+     */
+    public MultiLayerPerceptron seed(int seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Write a checkpoint to {@code path} every {@code everyEpochs} epochs (and
+     * after the last one) while {@link #fit(DataFrame)} runs.
+     *
+     * <p>
+     * The weights are snapshotted on the training thread and written on a
+     * background thread through {@link ModelIO#checkpoint(Path, DTO)}, so
+     * training does not wait on disk. If a write is still in progress when the
+     * next snapshot is taken, the older pending snapshot is dropped.
+     * </p>
+     *
+     * @param path        checkpoint file, replaced atomically on every write
+     * @param everyEpochs checkpoint interval in epochs (must be &gt; 0)
+     * @return this model (for fluent chaining)
+     * @throws IllegalArgumentException if {@code everyEpochs} &le; 0
+     * @throws NullPointerException     if {@code path} is null
+     */
+    public MultiLayerPerceptron checkpoint(Path path, int everyEpochs)
+            throws IllegalArgumentException, NullPointerException {
+        if (everyEpochs <= 0) {
+            throw new IllegalArgumentException("Checkpoint interval must be > 0.");
+        }
+        this.checkpointPath = Objects.requireNonNull(path, "Checkpoint path is null.");
+        this.checkpointInterval = everyEpochs;
+        return this;
+    }
+
+    /**
+     * Restore a model from a checkpoint written during {@link #fit(DataFrame)}.
+     *
+     * <p>
+     * Calling {@link #fit(DataFrame)} on the returned model with the same
+     * training data continues from the first unfinished epoch, reusing the
+     * original seed (so the validation split and batch order match the
+     * interrupted run) and the early stopping state. Checkpointing is not
+     * re-enabled automatically; call {@link #checkpoint(Path, int)} again if
+     * needed.
+     * </p>
+     *
+     * @param path checkpoint file
+     * @return model ready to continue training
+     * @throws Exception if reading/parsing fails
+     */
+    public static MultiLayerPerceptron resume(Path path) throws Exception {
+        MLPCheckpointDTO dto = ModelIO.readDTO(path, MLPCheckpointDTO.class);
+        MultiLayerPerceptron mlp = new MultiLayerPerceptron(dto);
+        mlp.startEpoch = dto.epoch;
+        mlp.resumeSeed = dto.seed;
+        mlp.resumeBestValLoss = dto.bestValLoss == null ? Double.POSITIVE_INFINITY : dto.bestValLoss;
+        mlp.resumeEpochsWithoutImprovement = dto.epochsWithoutImprovement;
+        return mlp;
+    }
+
+    /**
+     * Set the listener notified after every mini-batch and epoch of
+     * {@link #fit(DataFrame)}. Batch events break the time into data loading,
+     * forward pass, backward pass and weight update; training loss and
+     * accuracy are only computed while a listener is set.
+     *
+     * @param listener listener, or null to disable telemetry
+     * @return this model (for fluent chaining)
+     */
+    public MultiLayerPerceptron listener(TrainingListener listener) {
+        this.listener = listener;
+        return this;
+    }
+
     /**
      * Set the loss gradient function by name.
      *
@@ -272,8 +390,14 @@ public class MultiLayerPerceptron implements Model {
      * <li>perform forward/backpropagation and apply gradients via each
      * {@link Layer}</li>
      * <li>print validation loss/accuracy each epoch and support early stopping</li>
+     * <li>write checkpoints if enabled via {@link #checkpoint(Path, int)}</li>
      * </ul>
      *
+     * <p>
+     * A model returned by {@link #resume(Path)} continues from its checkpointed
+     * epoch instead of starting over.
+     * </p>
+     *
      * @param df training dataframe (features must match model {@code inputSize})
      * @return this fitted model
      * @throws IllegalArgumentException if the dataframe is invalid or labels out of
@@ -302,114 +426,205 @@ public class MultiLayerPerceptron implements Model {
             throw new IllegalArgumentException(
                     String.format("Expected %d features, but DataFrame has %d.", inputSize, df.featureCount()));
         }
+        // the label encoder visits each distinct label once, not every row
+        for (double label : df.getUniqueLabels()) {
+            int labelInt = (int) label;
+            if (labelInt < 0 || labelInt >= outputSize) {
+                throw new IllegalArgumentException("Label out of [0, outputSize) range: " + labelInt);
+            }
+        }
 
         final int n = df.size();
         final int valSize = (int) (n * validationSplit);
-        Random topRng = new Random();
-        int baseSeed = topRng.nextInt();
+        final int baseSeed = resumeSeed != null ? resumeSeed : seed != null ? seed : new Random().nextInt();
 
         DataFrame[] parts = df.split(valSize, n - valSize, true, baseSeed);
         DataFrame valDF = parts[0];
         DataFrame trainDF = parts[1];
 
-        double bestValLoss = Double.POSITIVE_INFINITY;
+        double bestValLoss = resumeBestValLoss;
         int patience = 5;
-        int epochsWithoutImprovement = 0;
-
-        for (int epoch = 0; epoch < epochs; epoch++) {
-            int epochSeed = baseSeed + epoch;
+        int epochsWithoutImprovement = resumeEpochsWithoutImprovement;
+
+        ThreadPoolExecutor checkpointWriter = checkpointPath == null ? null : newCheckpointWriter();
+        try {
+            for (int epoch = startEpoch; epoch < epochs; epoch++) {
+                int epochSeed = baseSeed + epoch;
+                boolean stop = false;
+                long epochStart = System.nanoTime();
+                long epochAllocated = listener == null ? -1 : Allocations.currentThread();
+                double trainLoss = 0.0;
+                int trainCorrect = 0;
+                double gradientNorms = 0.0;
+                int batchIndex = 0;
+
+                Iterator<DataFrame> batches = trainDF.iterateBatches(batchSize, epochSeed).iterator();
+                while (true) {
+                    long dataStart = System.nanoTime();
+                    long allocated = listener == null ? -1 : Allocations.currentThread();
+                    if (!batches.hasNext()) {
+                        break;
+                    }
+                    DataFrame batchDf = batches.next();
+                    long dataNanos = System.nanoTime() - dataStart;
+                    long forwardNanos = 0L;
+                    long backwardNanos = 0L;
+                    double batchLoss = 0.0;
+                    int currentBatchSize = batchDf.size();
+
+                    SimpleMatrix[] accumGrads = new SimpleMatrix[layers.length];
+                    for (int li = 0; li < layers.length; li++) {
+                        accumGrads[li] = layers[li].zeroGrad();
+                    }
 
-            for (DataFrame batchDf : trainDF.iterateBatches(batchSize, epochSeed)) {
-                int currentBatchSize = batchDf.size();
+                    // accumulation
+                    for (DataPoint dp : batchDf) {
+                        long forwardStart = System.nanoTime();
+                        SimpleMatrix x = Matrix.columnWithoutBias(dp.features);
+                        SimpleMatrix y = new SimpleMatrix(outputSize, 1);
+
+                        y.set((int) dp.label, 0, 1.0);
+
+                        for (Layer layer : layers)
+                            x = layer.feedForward(x);
+
+                        long backwardStart = System.nanoTime();
+                        forwardNanos += backwardStart - forwardStart;
+                        if (listener != null) {
+                            batchLoss += lossFunction.apply(x, y);
+                            if (argMax(x) == (int) dp.label) {
+                                trainCorrect++;
+                            }
+                            backwardStart = System.nanoTime();
+                        }
 
-                SimpleMatrix[] accumGrads = new SimpleMatrix[layers.length];
-                for (int li = 0; li < layers.length; li++) {
-                    accumGrads[li] = layers[li].zeroGrad();
-                }
+                        SimpleMatrix delta = lossGradient.apply(x, y);
+                        for (int layerIdx = layers.length - 1; layerIdx >= 0; layerIdx--) {
+                            SimpleMatrix gradW = layers[layerIdx].gradient(delta);
+                            accumGrads[layerIdx] = accumGrads[layerIdx].plus(gradW);
 
-                // accumulation
-                for (DataPoint dp : batchDf) {
-                    SimpleMatrix x = Matrix.columnWithoutBias(dp.features);
-                    SimpleMatrix y = new SimpleMatrix(outputSize, 1);
+                            SimpleMatrix deltaPrev = layers[layerIdx].backpropagate(delta);
 
-                    int labelInt = (int) dp.label;
-                    if (labelInt < 0 || labelInt >= outputSize) {
-                        throw new IllegalArgumentException("Label out of [0, outputSize) range: " + labelInt);
+                            if (layerIdx > 0) {
+                                SimpleMatrix prevDeriv = layers[layerIdx - 1].getActivationDerivativeOfPreActivation();
+                                delta = deltaPrev.elementMult(prevDeriv);
+                            } else {
+                                delta = deltaPrev;
+                            }
+                        }
+                        backwardNanos += System.nanoTime() - backwardStart;
                     }
-                    y.set(labelInt, 0, 1.0);
-
-                    for (Layer layer : layers)
-                        x = layer.feedForward(x);
-
-                    SimpleMatrix delta = lossGradient.apply(x, y);
-                    for (int layerIdx = layers.length - 1; layerIdx >= 0; layerIdx--) {
-                        SimpleMatrix gradW = layers[layerIdx].gradient(delta);
-                        accumGrads[layerIdx] = accumGrads[layerIdx].plus(gradW);
 
-                        SimpleMatrix deltaPrev = layers[layerIdx].backpropagate(delta);
+                    long updateStart = System.nanoTime();
+                    for (int li = 0; li < layers.length; li++) {
+                        layers[li].applyGradient(accumGrads[li], learningRate, currentBatchSize);
+                    }
+                    long updateNanos = System.nanoTime() - updateStart;
 
-                        if (layerIdx > 0) {
-                            SimpleMatrix prevDeriv = layers[layerIdx - 1].getActivationDerivativeOfPreActivation();
-                            delta = deltaPrev.elementMult(prevDeriv);
-                        } else {
-                            delta = deltaPrev;
+                    if (listener != null) {
+                        double squared = 0.0;
+                        for (SimpleMatrix g : accumGrads) {
+                            double norm = g.normF();
+                            squared += norm * norm;
                         }
+                        double gradientNorm = Math.sqrt(squared) / currentBatchSize;
+                        trainLoss += batchLoss;
+                        gradientNorms += gradientNorm;
+                        listener.onBatch(new BatchMetrics("MultiLayerPerceptron", epoch, batchIndex, currentBatchSize,
+                                dataNanos, forwardNanos, backwardNanos, updateNanos, batchLoss / currentBatchSize,
+                                gradientNorm, Allocations.since(allocated)));
                     }
+                    batchIndex++;
                 }
 
-                for (int li = 0; li < layers.length; li++) {
-                    layers[li].applyGradient(accumGrads[li], learningRate, currentBatchSize);
-                }
-            }
-
-            if (valDF.size() > 0) {
-                double totalValLoss = 0.0;
-                int correct = 0;
-                for (DataPoint dp : valDF) {
-                    SimpleMatrix x = Matrix.columnWithoutBias(dp.features);
-                    for (Layer layer : layers)
-                        x = layer.feedForward(x);
-
-                    SimpleMatrix y = new SimpleMatrix(outputSize, 1);
-                    y.set((int) dp.label, 0, 1.0);
-
-                    totalValLoss += this.lossFunction.apply(x, y);
-
-                    // accuracy
-                    int predIdx = 0;
-                    double best = x.get(0, 0);
-                    for (int r = 1; r < x.getNumRows(); r++) {
-                        if (x.get(r, 0) > best) {
-                            best = x.get(r, 0);
-                            predIdx = r;
+                double valLoss = Double.NaN;
+                double valAccuracy = Double.NaN;
+
+                if (valDF.size() > 0) {
+                    double totalValLoss = 0.0;
+                    int correct = 0;
+                    for (DataPoint dp : valDF) {
+                        SimpleMatrix x = Matrix.columnWithoutBias(dp.features);
+                        for (Layer layer : layers)
+                            x = layer.feedForward(x);
+
+                        SimpleMatrix y = new SimpleMatrix(outputSize, 1);
+                        y.set((int) dp.label, 0, 1.0);
+
+                        totalValLoss += this.lossFunction.apply(x, y);
+
+                        // accuracy
+                        int predIdx = 0;
+                        double best = x.get(0, 0);
+                        for (int r = 1; r < x.getNumRows(); r++) {
+                            if (x.get(r, 0) > best) {
+                                best = x.get(r, 0);
+                                predIdx = r;
+                            }
+                        }
+                        if (predIdx == (int) dp.label) {
+                            correct++;
                         }
                     }
-                    if (predIdx == (int) dp.label) {
-                        correct++;
+
+                    double avgValLoss = totalValLoss / valDF.size();
+                    double valAcc = (double) correct / valDF.size();
+                    valLoss = avgValLoss;
+                    valAccuracy = valAcc;
+
+                    System.out.printf("Epoch %d/%d — val_loss=%.6f val_acc=%.4f\n", epoch + 1, epochs, avgValLoss, valAcc);
+
+                    if (avgValLoss < bestValLoss) {
+                        bestValLoss = avgValLoss;
+                        epochsWithoutImprovement = 0;
+                    } else {
+                        epochsWithoutImprovement++;
+                        if (epochsWithoutImprovement >= patience) {
+                            System.out.println("Early stopping triggered.");
+                            stop = true;
+                        }
                     }
+                } else {
+                    System.out.printf("Epoch %d/%d — no validation set (validationSplit=%.3f)\n", epoch + 1, epochs,
+                            validationSplit);
                 }
 
-                double avgValLoss = totalValLoss / valDF.size();
-                double valAcc = (double) correct / valDF.size();
-
-                System.out.printf("Epoch %d/%d — val_loss=%.6f val_acc=%.4f\n", epoch + 1, epochs, avgValLoss, valAcc);
-
-                if (avgValLoss < bestValLoss) {
-                    bestValLoss = avgValLoss;
-                    epochsWithoutImprovement = 0;
-                } else {
-                    epochsWithoutImprovement++;
-                    if (epochsWithoutImprovement >= patience) {
-                        System.out.println("Early stopping triggered.");
-                        break;
+                if (listener != null) {
+                    double squared = 0.0;
+                    for (Layer layer : layers) {
+                        double norm = layer.weightNorm();
+                        squared += norm * norm;
                     }
+                    int samples = trainDF.size();
+                    listener.onEpoch(new EpochMetrics("MultiLayerPerceptron", epoch, epochs, samples,
+                            System.nanoTime() - epochStart, samples > 0 ? trainLoss / samples : Double.NaN,
+                            samples > 0 ? (double) trainCorrect / samples : Double.NaN, valLoss, valAccuracy,
+                            Math.sqrt(squared), batchIndex > 0 ? gradientNorms / batchIndex : Double.NaN,
+                            Allocations.since(epochAllocated)));
+                }
+
+                boolean last = stop || epoch + 1 == epochs;
+                if (checkpointWriter != null && (last || (epoch + 1) % checkpointInterval == 0)) {
+                    // an early stop is recorded as finished so resuming does not train further
+                    int next = stop ? epochs : epoch + 1;
+                    MLPCheckpointDTO snapshot = toCheckpointDTO(next, baseSeed, bestValLoss, epochsWithoutImprovement);
+                    checkpointWriter.execute(() -> writeCheckpoint(snapshot));
+                }
+                if (stop) {
+                    break;
                 }
-            } else {
-                System.out.printf("Epoch %d/%d — no validation set (validationSplit=%.3f)\n", epoch + 1, epochs,
-                        validationSplit);
+            }
+        } finally {
+            if (checkpointWriter != null) {
+                checkpointWriter.shutdown();
+                awaitCheckpointWriter(checkpointWriter);
             }
         }
 
+        this.startEpoch = 0;
+        this.resumeSeed = null;
+        this.resumeBestValLoss = Double.POSITIVE_INFINITY;
+        this.resumeEpochsWithoutImprovement = 0;
         this.fitted = true;
         return this;
     }
@@ -466,6 +681,13 @@ public class MultiLayerPerceptron implements Model {
                     String.format("Expected %d features, but got %d.", inputSize, (x == null ? 0 : x.length)));
         }
 
+        PredictionEvent event = PredictionEvent.start();
+        ArrayList<Double> output = outputs(x);
+        event.finish(this, PredictionEvent.PREDICT, 1, x.length);
+        return output;
+    }
+
+    private ArrayList<Double> outputs(double[] x) {
         SimpleMatrix xMatrix = Matrix.columnWithoutBias(x);
         for (Layer layer : layers) {
             xMatrix = layer.feedForward(xMatrix);
@@ -479,6 +701,59 @@ public class MultiLayerPerceptron implements Model {
         return output;
     }
 
+    /**
+     * Predict the outputs for a batch of examples in one forward pass: the rows
+     * are stacked as columns of a matrix, so each layer is a single matrix
+     * product instead of one matrix-vector product per row. Unlike the
+     * single-row methods this keeps no per-layer state and may be called from
+     * several threads at once.
+     *
+     * @param rows feature vectors, each of length {@code inputSize}
+     * @return one list of {@code outputSize} raw scores per row
+     * @throws IllegalStateException    if the model has not been fitted
+     * @throws IllegalArgumentException if a row has the wrong length
+     * @throws NullPointerException     if {@code rows} is null
+     */
+    @Override
+    public Object[] predictBatch(double[][] rows)
+            throws IllegalArgumentException, IllegalStateException, NullPointerException {
+        if (!fitted) {
+            throw new IllegalStateException("Model has not been fitted yet.");
+        }
+        rows = Objects.requireNonNull(rows, "Rows cannot be null");
+        for (double[] row : rows) {
+            if (row == null || row.length != inputSize) {
+                throw new IllegalArgumentException(
+                        String.format("Expected %d features, but got %d.", inputSize, (row == null ? 0 : row.length)));
+            }
+        }
+        if (rows.length == 0) {
+            return new Object[0];
+        }
+
+        PredictionEvent event = PredictionEvent.start();
+        SimpleMatrix xMatrix = new SimpleMatrix(inputSize, rows.length);
+        for (int c = 0; c < rows.length; c++) {
+            for (int r = 0; r < inputSize; r++) {
+                xMatrix.set(r, c, rows[c][r]);
+            }
+        }
+        for (Layer layer : layers) {
+            xMatrix = layer.feedForwardBatch(xMatrix);
+        }
+
+        Object[] out = new Object[rows.length];
+        for (int c = 0; c < rows.length; c++) {
+            ArrayList<Double> output = new ArrayList<>(outputSize);
+            for (int i = 0; i < outputSize; i++) {
+                output.add(xMatrix.get(i, c));
+            }
+            out[c] = output;
+        }
+        event.finish(this, PredictionEvent.PREDICT_BATCH, rows.length, inputSize);
+        return out;
+    }
+
     /**
      * Predict the output (raw scores) for a single example represented as a
      * {@link SimpleMatrix}.
@@ -499,6 +774,7 @@ public class MultiLayerPerceptron implements Model {
                     String.format("Expected input size %d, but got %d.", inputSize, xMatrix.getNumRows()));
         }
 
+        PredictionEvent event = PredictionEvent.start();
         for (Layer layer : layers) {
             xMatrix = layer.feedForward(xMatrix);
         }
@@ -508,6 +784,7 @@ public class MultiLayerPerceptron implements Model {
             output.set(i, 0, xMatrix.get(i, 0));
         }
 
+        event.finish(this, PredictionEvent.PREDICT, 1, inputSize);
         return output;
     }
 
@@ -528,6 +805,7 @@ public class MultiLayerPerceptron implements Model {
     @Override
     public double score(DataFrame df)
             throws IllegalArgumentException, IllegalStateException, NullPointerException {
+        PredictionEvent event = PredictionEvent.start();
         if (!fitted) {
             throw new IllegalStateException("Model has not been fitted yet.");
         }
@@ -544,7 +822,7 @@ public class MultiLayerPerceptron implements Model {
         int correct = 0;
         for (DataPoint dp : df) {
             int actual = (int) dp.label;
-            ArrayList<Double> predicted = predict(dp.features);
+            ArrayList<Double> predicted = outputs(dp.features);
 
             int predictedIdx = 0;
             double best = predicted.get(0);
@@ -558,7 +836,9 @@ public class MultiLayerPerceptron implements Model {
                 correct++;
             }
         }
-        return (double) correct / df.size();
+        double score = (double) correct / df.size();
+        event.finish(this, PredictionEvent.SCORE, df.size(), df.featureCount());
+        return score;
     }
 
     /**
@@ -571,6 +851,19 @@ public class MultiLayerPerceptron implements Model {
         return ModelIO.export(path, this);
     }
 
+    /**
+     * Export the model (DTO JSON) to the given file path, optionally
+     * gzip-compressed. Compressed files are detected automatically by
+     * {@link #importModel(Path)}.
+     *
+     * @param path     output path
+     * @param compress whether to gzip the output
+     * @return true on success, false on failure
+     */
+    public boolean export(Path path, boolean compress) {
+        return ModelIO.export(path, this, compress);
+    }
+
     /**
      * Import a model from a JSON file produced by {@link #export(Path)}.
      *
@@ -589,9 +882,24 @@ public class MultiLayerPerceptron implements Model {
      */
     @Override
     public MLPModelDTO toDTO() {
-        MLPModelDTO dto = new MLPModelDTO();
+        return fillDTO(new MLPModelDTO());
+    }
+
+    /**
+     * Return a JSON representation of the model DTO.
+     *
+     * @return JSON string
+     */
+    @Override
+    public String toString() {
+        MLPModelDTO dto = toDTO();
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        return gson.toJson(dto);
+    }
+
+    private <D extends MLPModelDTO> D fillDTO(D dto) {
         dto.inputSize = inputSize;
-        dto.hiddenLayers = layers.length;
+        dto.hiddenLayers = hiddenLayers;
         dto.outputSize = outputSize;
         dto.learningRate = learningRate;
         dto.epochs = epochs;
@@ -605,15 +913,50 @@ public class MultiLayerPerceptron implements Model {
         return dto;
     }
 
+    private MLPCheckpointDTO toCheckpointDTO(int epoch, int seed, double bestValLoss, int epochsWithoutImprovement) {
+        MLPCheckpointDTO dto = fillDTO(new MLPCheckpointDTO());
+        dto.epoch = epoch;
+        dto.seed = seed;
+        dto.bestValLoss = Double.isInfinite(bestValLoss) ? null : bestValLoss;
+        dto.epochsWithoutImprovement = epochsWithoutImprovement;
+        return dto;
+    }
+
+    private void writeCheckpoint(MLPCheckpointDTO dto) {
+        try {
+            ModelIO.checkpoint(checkpointPath, dto);
+        } catch (Exception e) {
+            System.err.println("Failed to write checkpoint to " + checkpointPath + ": " + e.getMessage());
+        }
+    }
+
+    private static int argMax(SimpleMatrix output) {
+        int best = 0;
+        for (int r = 1; r < output.getNumRows(); r++) {
+            if (output.get(r, 0) > output.get(best, 0)) {
+                best = r;
+            }
+        }
+        return best;
+    }
+
     /**
-     * Return a JSON representation of the model DTO.
-     *
-     * @return JSON string
+     * Single daemon thread with room for one pending snapshot; a newer snapshot
+     * replaces a pending one that has not started writing yet.
      */
-    @Override
-    public String toString() {
-        MLPModelDTO dto = toDTO();
-        Gson gson = new GsonBuilder().setPrettyPrinting().create();
-        return gson.toJson(dto);
+    private static ThreadPoolExecutor newCheckpointWriter() {
+        return new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1), r -> {
+            Thread t = new Thread(r, "mlp-checkpoint-writer");
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.DiscardOldestPolicy());
+    }
+
+    private static void awaitCheckpointWriter(ThreadPoolExecutor writer) {
+        try {
+            writer.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 }
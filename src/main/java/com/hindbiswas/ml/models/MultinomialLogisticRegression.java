@@ -0,0 +1,528 @@
+package com.hindbiswas.ml.models;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+
+import com.hindbiswas.ml.data.DataFrame;
+import com.hindbiswas.ml.data.LabelEncoder;
+import com.hindbiswas.ml.dto.MultinomialLogisticRegressionDTO;
+import com.hindbiswas.ml.metrics.PredictionEvent;
+import com.hindbiswas.ml.metrics.TrainingListener;
+import com.hindbiswas.ml.util.LBFGS;
+import com.hindbiswas.ml.util.ModelIO;
+import com.hindbiswas.ml.util.Shards;
+
+/**
+ * Multinomial (softmax) logistic regression for K-class classification.
+ * <p>
+ * One coefficient row of (intercept, weights) is learned per class by
+ * minimizing the mean cross-entropy, plus an optional L2 penalty on the
+ * weights, with {@link LBFGS}. The gradient is accumulated over row shards in
+ * parallel. Labels can be any values; classes are ordered by first
+ * appearance in the training data.
+ * <p>
+ * {@link #predictProba(double[][])} scores a whole batch with a single matrix
+ * product against the K x n weight matrix followed by a row-wise softmax,
+ * instead of evaluating K separate one-vs-rest models per row.
+ */
+public class MultinomialLogisticRegression implements Model {
+    /** Maximum number of L-BFGS iterations. */
+    private int iterations = 200;
+    /** Gradient tolerance for stopping. */
+    private double tolerance = 1e-6;
+    /** L2 penalty on the feature weights. */
+    private double l2 = 0.0;
+
+    private int features;
+    private double[] classes = null;
+    /** Coefficients, one row of (intercept, weights...) per class. */
+    private double[] coefficients = null;
+    /** Feature weights as a K x n matrix, for batched prediction. */
+    private DMatrixRMaj weights;
+    /** Per-class intercepts. */
+    private double[] intercepts;
+    private int iterationsRun = 0;
+    /** Receives per-iteration telemetry; null when not set. */
+    private TrainingListener listener = null;
+
+    /**
+     * Default constructor using iterations=200.
+     */
+    public MultinomialLogisticRegression() {
+    }
+
+    /**
+     * Constructor with a user-specified iteration limit.
+     *
+     * @param iterations maximum number of L-BFGS iterations
+     * @throws IllegalArgumentException if iterations &le; 0
+     */
+    public MultinomialLogisticRegression(Integer iterations) throws IllegalArgumentException {
+        if (iterations == null || iterations <= 0) {
+            throw new IllegalArgumentException("iterations must be > 0");
+        }
+        this.iterations = iterations;
+    }
+
+    /**
+     * Restores a model from its DTO.
+     *
+     * @param dto exported model
+     */
+    public MultinomialLogisticRegression(MultinomialLogisticRegressionDTO dto) {
+        this.iterations = dto.iterations;
+        this.tolerance = dto.tolerance;
+        this.l2 = dto.l2;
+        this.features = dto.features;
+        this.classes = dto.classes;
+        this.coefficients = dto.coefficients;
+        unpack();
+    }
+
+    /**
+     * Sets the L2 (ridge) penalty on the feature weights.
+     *
+     * @param lambda penalty, or 0 to disable
+     * @return this instance for chaining
+     * @throws IllegalArgumentException if lambda is negative
+     */
+    public MultinomialLogisticRegression l2(double lambda) throws IllegalArgumentException {
+        if (!(lambda >= 0)) {
+            throw new IllegalArgumentException("L2 penalty must be >= 0");
+        }
+        this.l2 = lambda;
+        return this;
+    }
+
+    /**
+     * Sets the gradient tolerance: training stops once every gradient
+     * component falls below it.
+     *
+     * @param tolerance tolerance (must be &gt; 0)
+     * @return this instance for chaining
+     * @throws IllegalArgumentException if tolerance is not positive
+     */
+    public MultinomialLogisticRegression tolerance(double tolerance) throws IllegalArgumentException {
+        if (!(tolerance > 0)) {
+            throw new IllegalArgumentException("tolerance must be > 0");
+        }
+        this.tolerance = tolerance;
+        return this;
+    }
+
+    /**
+     * Sets the listener notified after every L-BFGS iteration.
+     *
+     * @param listener listener, or null to disable telemetry
+     * @return this instance for chaining
+     */
+    public MultinomialLogisticRegression listener(TrainingListener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    /**
+     * Trains the model on a {@link DataFrame}.
+     *
+     * @param df training data with at least two distinct labels
+     * @return this instance with trained parameters
+     * @throws IllegalArgumentException if the dataframe is empty or has fewer
+     *                                  than two classes
+     * @throws NullPointerException     if the dataframe is null
+     */
+    @Override
+    public MultinomialLogisticRegression fit(DataFrame df) throws IllegalArgumentException, NullPointerException {
+        df = Objects.requireNonNull(df, "DataFrame is null.");
+        if (df.size() == 0) {
+            throw new IllegalArgumentException("DataFrame is empty.");
+        }
+        LabelEncoder encoder = df.getLabelEncoder();
+        int[] codes = df.getLabelCodes();
+        if (encoder.size() < 2) {
+            throw new IllegalArgumentException("At least two classes are required.");
+        }
+
+        DataFrame data = df;
+        int k = encoder.size();
+        int n = df.featureCount();
+        double[] coef = new double[k * (n + 1)];
+        iterationsRun = LBFGS.minimize((w, grad) -> objective(data, codes, k, w, grad), coef, iterations,
+                tolerance, Telemetry.solver(listener, "MultinomialLogisticRegression", iterations, df.size()));
+
+        this.features = n;
+        this.classes = encoder.labels();
+        this.coefficients = coef;
+        unpack();
+        return this;
+    }
+
+    /**
+     * Predicts the class of a single feature vector.
+     *
+     * @param x feature vector
+     * @return most probable class label
+     * @throws IllegalStateException    if the model has not been fitted
+     * @throws IllegalArgumentException if the feature count does not match
+     */
+    @Override
+    public Double predict(double[] x) throws IllegalStateException, IllegalArgumentException {
+        checkFeatures(x);
+        PredictionEvent event = PredictionEvent.start();
+        double[] logits = new double[classes.length];
+        logits(x, logits);
+        double label = classes[argMax(logits, 0, logits.length)];
+        event.finish(this, PredictionEvent.PREDICT, 1, x.length);
+        return label;
+    }
+
+    /**
+     * Class probabilities for a single feature vector.
+     *
+     * @param x feature vector
+     * @return probability per class, in the order of {@link #getClasses()}
+     * @throws IllegalStateException    if the model has not been fitted
+     * @throws IllegalArgumentException if the feature count does not match
+     */
+    public double[] predictProba(double[] x) throws IllegalStateException, IllegalArgumentException {
+        checkFeatures(x);
+        double[] out = new double[classes.length];
+        logits(x, out);
+        softmax(out, 0, out.length);
+        return out;
+    }
+
+    /**
+     * Class probabilities for a batch of rows, computed as one matrix product
+     * of the rows with the transposed weight matrix followed by a row-wise
+     * softmax.
+     *
+     * @param rows feature vectors, each matching the training feature count
+     * @return probabilities, one row per input row
+     * @throws IllegalStateException    if the model has not been fitted
+     * @throws IllegalArgumentException if a row has the wrong length
+     * @throws NullPointerException     if {@code rows} is null
+     */
+    public double[][] predictProba(double[][] rows)
+            throws IllegalStateException, IllegalArgumentException, NullPointerException {
+        PredictionEvent event = PredictionEvent.start();
+        DMatrixRMaj scores = batchLogits(rows);
+        int k = classes.length;
+        double[][] out = new double[rows.length][];
+        for (int r = 0; r < rows.length; r++) {
+            softmax(scores.data, r * k, k);
+            out[r] = Arrays.copyOfRange(scores.data, r * k, (r + 1) * k);
+        }
+        event.finish(this, PredictionEvent.PREDICT_BATCH, rows.length, features);
+        return out;
+    }
+
+    /**
+     * Predicts the classes of a batch of rows.
+     *
+     * @param rows feature vectors, each matching the training feature count
+     * @return predicted class label per row
+     * @throws IllegalStateException    if the model has not been fitted
+     * @throws IllegalArgumentException if a row has the wrong length
+     * @throws NullPointerException     if {@code rows} is null
+     */
+    public double[] predict(double[][] rows) throws IllegalStateException, IllegalArgumentException, NullPointerException {
+        PredictionEvent event = PredictionEvent.start();
+        DMatrixRMaj scores = batchLogits(rows);
+        int k = classes.length;
+        double[] out = new double[rows.length];
+        for (int r = 0; r < rows.length; r++) {
+            out[r] = classes[argMax(scores.data, r * k, k)];
+        }
+        event.finish(this, PredictionEvent.PREDICT_BATCH, rows.length, features);
+        return out;
+    }
+
+    /**
+     * Batch prediction through {@link #predict(double[][])}.
+     *
+     * @param rows feature vectors, each matching the training feature count
+     * @return predicted class label per row
+     */
+    @Override
+    public Object[] predictBatch(double[][] rows)
+            throws IllegalStateException, IllegalArgumentException, NullPointerException {
+        double[] labels = predict(rows);
+        Object[] out = new Object[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            out[i] = labels[i];
+        }
+        return out;
+    }
+
+    /**
+     * Computes classification accuracy on a labeled dataset.
+     *
+     * @param df DataFrame containing features and labels
+     * @return fraction of correct predictions in [0.0, 1.0]
+     * @throws IllegalStateException    if the model has not been fitted
+     * @throws IllegalArgumentException if the dataframe is empty or has the wrong
+     *                                  feature count
+     * @throws NullPointerException     if the dataframe is null
+     */
+    @Override
+    public double score(DataFrame df) throws IllegalStateException, IllegalArgumentException, NullPointerException {
+        PredictionEvent event = PredictionEvent.start();
+        if (coefficients == null) {
+            throw new IllegalStateException("Model has not been fitted yet.");
+        }
+        df = Objects.requireNonNull(df, "DataFrame is null.");
+        if (df.size() == 0) {
+            throw new IllegalArgumentException("DataFrame is empty.");
+        }
+        if (df.featureCount() != features) {
+            throw new IllegalArgumentException(
+                    String.format("Expected %d features, but DataFrame has %d.", features, df.featureCount()));
+        }
+
+        double[] labels = df.getLabels();
+        double[] logits = new double[classes.length];
+        int correct = 0;
+        for (int i = 0; i < labels.length; i++) {
+            logits(df.getFeaturesRef(i), logits);
+            if (classes[argMax(logits, 0, logits.length)] == labels[i]) {
+                correct++;
+            }
+        }
+        double score = (double) correct / labels.length;
+        event.finish(this, PredictionEvent.SCORE, df.size(), df.featureCount());
+        return score;
+    }
+
+    /**
+     * @return class labels, in the order used by {@link #predictProba(double[])}
+     * @throws IllegalStateException if the model has not been fitted
+     */
+    public double[] getClasses() throws IllegalStateException {
+        if (classes == null) {
+            throw new IllegalStateException("Model has not been fitted yet.");
+        }
+        return classes.clone();
+    }
+
+    /**
+     * @return number of L-BFGS iterations run by the last fit
+     */
+    public int getIterationsRun() {
+        return iterationsRun;
+    }
+
+    /**
+     * Export the model (DTO JSON) to the given file path.
+     *
+     * @param path output path
+     * @return true on success, false on failure
+     */
+    @Override
+    public boolean export(Path path) {
+        return ModelIO.export(path, this);
+    }
+
+    /**
+     * Import a model from a JSON file produced by {@link #export(Path)}.
+     *
+     * @param path path to the JSON file
+     * @return restored model
+     * @throws Exception if reading/parsing fails
+     */
+    public static MultinomialLogisticRegression importModel(Path path) throws Exception {
+        return ModelIO.importModel(path, MultinomialLogisticRegressionDTO.class, MultinomialLogisticRegression.class);
+    }
+
+    /**
+     * Convert the model to a serializable DTO.
+     *
+     * @return DTO representing this model
+     * @throws IllegalStateException if the model has not been fitted
+     */
+    @Override
+    public MultinomialLogisticRegressionDTO toDTO() throws IllegalStateException {
+        if (coefficients == null) {
+            throw new IllegalStateException("Model has not been fitted yet.");
+        }
+        MultinomialLogisticRegressionDTO dto = new MultinomialLogisticRegressionDTO();
+        dto.iterations = iterations;
+        dto.tolerance = tolerance;
+        dto.l2 = l2;
+        dto.features = features;
+        dto.classes = classes;
+        dto.coefficients = coefficients;
+        return dto;
+    }
+
+    @Override
+    public String toString() {
+        if (coefficients == null) {
+            return "MultinomialLogisticRegression (unfitted model)";
+        }
+        return String.format("MultinomialLogisticRegression [classes=%d, features=%d, l2=%s]", classes.length,
+                features, l2);
+    }
+
+    /**
+     * Mean cross-entropy plus the L2 term at {@code coef}, with its gradient.
+     */
+    private double objective(DataFrame df, int[] codes, int k, double[] coef, double[] grad) {
+        int stride = df.featureCount() + 1;
+        int size = k * stride;
+        // partial[0..size) is the gradient sum, partial[size] the loss sum
+        double[] total = Shards.reduce(df.size(), () -> new double[size + 1], (partial, start, end) -> {
+            double[] p = new double[k];
+            for (int i = start; i < end; i++) {
+                double[] x = df.getFeaturesRef(i);
+                for (int c = 0; c < k; c++) {
+                    p[c] = row(coef, c * stride, x);
+                }
+                partial[size] -= logSoftmax(p, codes[i]);
+                softmax(p, 0, k);
+                p[codes[i]] -= 1.0;
+                for (int c = 0; c < k; c++) {
+                    int offset = c * stride;
+                    double error = p[c];
+                    partial[offset] += error;
+                    for (int j = 0; j < x.length; j++) {
+                        partial[offset + j + 1] += error * x[j];
+                    }
+                }
+            }
+        }, MultinomialLogisticRegression::sum);
+
+        double m = df.size();
+        double loss = total[size] / m;
+        for (int i = 0; i < size; i++) {
+            grad[i] = total[i] / m;
+            if (i % stride != 0) {
+                grad[i] += l2 * coef[i];
+                loss += 0.5 * l2 * coef[i] * coef[i];
+            }
+        }
+        return loss;
+    }
+
+    /**
+     * Splits the coefficients into intercepts and the K x n weight matrix.
+     */
+    private void unpack() {
+        int k = classes.length;
+        int stride = features + 1;
+        intercepts = new double[k];
+        weights = new DMatrixRMaj(k, features);
+        for (int c = 0; c < k; c++) {
+            intercepts[c] = coefficients[c * stride];
+            System.arraycopy(coefficients, c * stride + 1, weights.data, c * features, features);
+        }
+    }
+
+    private DMatrixRMaj batchLogits(double[][] rows) {
+        if (coefficients == null) {
+            throw new IllegalStateException("Model has not been fitted yet.");
+        }
+        rows = Objects.requireNonNull(rows, "Rows cannot be null");
+        DMatrixRMaj x = new DMatrixRMaj(rows.length, features);
+        for (int r = 0; r < rows.length; r++) {
+            if (rows[r].length != features) {
+                throw new IllegalArgumentException(
+                        String.format("Expected %d features, but got %d.", features, rows[r].length));
+            }
+            System.arraycopy(rows[r], 0, x.data, r * features, features);
+        }
+
+        int k = classes.length;
+        DMatrixRMaj scores = new DMatrixRMaj(rows.length, k);
+        CommonOps_DDRM.multTransB(x, weights, scores);
+        for (int r = 0; r < rows.length; r++) {
+            for (int c = 0; c < k; c++) {
+                scores.data[r * k + c] += intercepts[c];
+            }
+        }
+        return scores;
+    }
+
+    private void logits(double[] x, double[] out) {
+        int stride = features + 1;
+        for (int c = 0; c < out.length; c++) {
+            out[c] = row(coefficients, c * stride, x);
+        }
+    }
+
+    private void checkFeatures(double[] x) throws IllegalStateException, IllegalArgumentException {
+        if (coefficients == null) {
+            throw new IllegalStateException("Model has not been fitted yet.");
+        }
+        Objects.requireNonNull(x, "features cannot be null");
+        if (x.length != features) {
+            throw new IllegalArgumentException(
+                    String.format("Expected %d features, but got %d.", features, x.length));
+        }
+    }
+
+    /**
+     * Dot product of {@code x} with the coefficient row at {@code offset},
+     * whose first entry is the intercept.
+     */
+    private static double row(double[] coef, int offset, double[] x) {
+        double sum = coef[offset];
+        for (int j = 0; j < x.length; j++) {
+            sum += coef[offset + j + 1] * x[j];
+        }
+        return sum;
+    }
+
+    /**
+     * In-place softmax of {@code v[from..from+k)}.
+     */
+    private static void softmax(double[] v, int from, int k) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int c = from; c < from + k; c++) {
+            max = Math.max(max, v[c]);
+        }
+        double sum = 0.0;
+        for (int c = from; c < from + k; c++) {
+            v[c] = Math.exp(v[c] - max);
+            sum += v[c];
+        }
+        for (int c = from; c < from + k; c++) {
+            v[c] /= sum;
+        }
+    }
+
+    /**
+     * {@code log softmax(v)[target]}, computed stably.
+     */
+    private static double logSoftmax(double[] v, int target) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (double d : v) {
+            max = Math.max(max, d);
+        }
+        double sum = 0.0;
+        for (double d : v) {
+            sum += Math.exp(d - max);
+        }
+        return v[target] - max - Math.log(sum);
+    }
+
+    private static int argMax(double[] v, int from, int k) {
+        int best = 0;
+        for (int c = 1; c < k; c++) {
+            if (v[from + c] > v[from + best]) {
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    private static double[] sum(double[] a, double[] b) {
+        for (int i = 0; i < a.length; i++) {
+            a[i] += b[i];
+        }
+        return a;
+    }
+}
@@ -1,13 +1,15 @@
 package com.hindbiswas.ml.models;
 
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Objects;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.hindbiswas.ml.data.DataFrame;
-import com.hindbiswas.ml.data.DataPoint;
+import com.hindbiswas.ml.data.SparseDataFrame;
 import com.hindbiswas.ml.dto.MultinomialNBDTO;
+import com.hindbiswas.ml.metrics.PredictionEvent;
 import com.hindbiswas.ml.util.ModelIO;
 
 /**
@@ -23,6 +25,7 @@ import com.hindbiswas.ml.util.ModelIO;
  */
 public class MultinomialNB extends NaiveBayes {
     private double[][] featureLogProb;
+    private CountStats stats;
 
     public MultinomialNB() {
     }
@@ -38,6 +41,11 @@ public class MultinomialNB extends NaiveBayes {
         this.features = dto.features;
         this.logClassPriors = dto.logClassPriors;
         this.featureLogProb = dto.featureLogProb;
+        this.classCounts = dto.classCounts;
+        if (dto.featureCounts != null) {
+            this.stats = new CountStats(dto.featureCounts);
+        }
+        this.classIndices = indexClasses(dto.classes);
         this.fitted = true;
     }
 
@@ -57,41 +65,126 @@ public class MultinomialNB extends NaiveBayes {
             throw new IllegalArgumentException("DataFrame is empty.");
         }
 
-        this.setDatasetInfo(df);
-        this.calculateFeatureLogProb(df);
-        this.fitted = true;
+        this.fitted = false;
+        this.partialFit(df);
+
+        return this;
+    }
+
+    /**
+     * Updates the model with additional data by adding its per-class feature
+     * counts to the stored counts.
+     *
+     * @param df The additional training {@link DataFrame}.
+     * @return This model instance after the update.
+     * @see NaiveBayes#partialFit(DataFrame)
+     */
+    @Override
+    public MultinomialNB partialFit(DataFrame df) {
+        super.partialFit(df);
+        return this;
+    }
+
+    /**
+     * Fits the model to sparse data; only stored entries are visited.
+     *
+     * @param sdf The {@link SparseDataFrame} containing labeled training data.
+     * @return This model instance after fitting.
+     * @throws IllegalArgumentException If the DataFrame is empty.
+     * @throws NullPointerException     If the DataFrame is null.
+     */
+    public MultinomialNB fit(SparseDataFrame sdf) {
+        sdf = Objects.requireNonNull(sdf, "DataFrame cannot be null");
+
+        if (sdf.size() == 0) {
+            throw new IllegalArgumentException("DataFrame is empty.");
+        }
+
+        this.fitted = false;
+        this.partialFit(sdf);
+
+        return this;
+    }
+
+    /**
+     * Updates the model with additional sparse data.
+     *
+     * @param sdf The additional training {@link SparseDataFrame}.
+     * @return This model instance after the update.
+     * @see NaiveBayes#partialFit(DataFrame)
+     */
+    public MultinomialNB partialFit(SparseDataFrame sdf) {
+        sdf = Objects.requireNonNull(sdf, "DataFrame cannot be null");
+        if (sdf.size() == 0) {
+            throw new IllegalArgumentException("DataFrame is empty.");
+        }
+
+        beginUpdate(sdf.featureCount(), sdf.getLabelEncoder(), sdf.getLabelCodes());
+        mergeStats(accumulate(sdf, () -> new CountStats(classes.length, features)));
+        finishUpdate();
 
         return this;
     }
 
     /**
-     * Predicts the most likely class for a given feature vector.
+     * Log prior plus multinomial log-likelihood of each class; zero features
+     * are skipped.
      *
      * @param features Feature array of the same length as training features.
-     * @return The predicted class label index.
-     * @throws IllegalStateException    If the model has not been fitted yet.
-     * @throws IllegalArgumentException If the input feature length is invalid.
+     * @param out      Per-class scores.
      */
     @Override
-    public Double predict(double[] features) {
+    protected void jointLogLikelihood(double[] features, double[] out) {
+        System.arraycopy(logClassPriors, 0, out, 0, classes.length);
+        for (int f = 0; f < features.length; f++) {
+            double x = features[f];
+            if (x == 0) {
+                continue;
+            }
+            for (int c = 0; c < classes.length; c++) {
+                out[c] += x * featureLogProb[c][f];
+            }
+        }
+    }
+
+    /**
+     * Predicts the most likely class for a sparse feature vector. The cost is
+     * proportional to the number of entries, not to the feature count.
+     *
+     * @param indices Column indices of the non-zero features, strictly
+     *                increasing.
+     * @param values  Values matching {@code indices}.
+     * @return The predicted class label.
+     * @throws IllegalStateException    If the model has not been fitted yet.
+     * @throws IllegalArgumentException If the indices are invalid.
+     */
+    public Double predict(int[] indices, double[] values) {
+        PredictionEvent event = PredictionEvent.start();
         if (!fitted) {
             throw new IllegalStateException("Model has not been fitted yet.");
         }
-        if (features.length != this.features) {
-            throw new IllegalArgumentException(
-                    String.format("Expected %d features, but got %d.", this.features, features.length));
-        }
+        SparseDataFrame.checkRow(indices, values, this.features);
 
-        double[] probs = new double[classes.length];
+        double label = classifyRange(indices, values, 0, indices.length);
+        event.finish(this, PredictionEvent.PREDICT, 1, this.features);
+        return label;
+    }
 
+    /**
+     * Classify a sparse row, visiting only its stored entries.
+     */
+    @Override
+    protected double classifyRange(int[] indices, double[] values, int from, int to) {
+        double[] probs = scratch(classes.length);
         for (int c = 0; c < classes.length; c++) {
-            double logLikelihood = 0.0;
-            for (int f = 0; f < features.length; f++) {
-                logLikelihood += features[f] * featureLogProb[c][f];
+            probs[c] = logClassPriors[c];
+            double[] logProb = featureLogProb[c];
+            double sum = 0.0;
+            for (int k = from; k < to; k++) {
+                sum += values[k] * logProb[indices[k]];
             }
-            probs[c] = logClassPriors[c] + logLikelihood;
+            probs[c] += sum;
         }
-
         return this.pickMax(probs);
     }
 
@@ -108,6 +201,8 @@ public class MultinomialNB extends NaiveBayes {
         dto.features = features;
         dto.logClassPriors = logClassPriors;
         dto.featureLogProb = featureLogProb;
+        dto.classCounts = classCounts;
+        dto.featureCounts = stats == null ? null : stats.featureCount;
         return dto;
     }
 
@@ -145,27 +240,29 @@ public class MultinomialNB extends NaiveBayes {
         return ModelIO.importModel(path, MultinomialNBDTO.class, MultinomialNB.class);
     }
 
+    /**
+     * Discards the accumulated feature counts.
+     */
+    @Override
+    protected void resetStats() {
+        this.stats = null;
+    }
+
     /**
      * Calculates the log-probabilities of features given classes using Laplace
-     * smoothing.
+     * smoothing, from the stored counts plus those of {@code df}.
      *
      * @param df The training {@link DataFrame}.
      * @throws IllegalArgumentException If an unknown class label is encountered.
      */
-    private void calculateFeatureLogProb(DataFrame df) {
-        int[][] featureCount = new int[this.classes.length][this.features + 1]; // last index is for total sum
+    @Override
+    protected void updateStats(DataFrame df) {
+        mergeStats(accumulate(df, () -> new CountStats(classes.length, features)));
+    }
 
-        for (DataPoint dp : df) {
-            Integer classIndex = classIndices.get(dp.label);
-            if (classIndex == null) {
-                throw new IllegalArgumentException("Unknown label encountered during stats calc: " + dp.label);
-            }
-            int ci = classIndex;
-            for (int j = 0; j < features; j++) {
-                featureCount[ci][j] += (int) dp.features[j];
-                featureCount[ci][features] += (int) dp.features[j];
-            }
-        }
+    private void mergeStats(CountStats batch) {
+        stats = stats == null ? batch : stats.grow(classes.length, features).merge(batch);
+        double[][] featureCount = stats.featureCount;
 
         this.featureLogProb = new double[this.classes.length][this.features];
         for (int i = 0; i < classes.length; i++) {
@@ -176,4 +273,63 @@ public class MultinomialNB extends NaiveBayes {
             }
         }
     }
+
+    /**
+     * Per-class feature counts; the last column holds the per-class total.
+     */
+    private static final class CountStats implements SparseStats<CountStats> {
+        double[][] featureCount;
+
+        CountStats(int classes, int features) {
+            this(new double[classes][features + 1]);
+        }
+
+        CountStats(double[][] featureCount) {
+            this.featureCount = featureCount;
+        }
+
+        /**
+         * Add empty counts for classes appended since this was created.
+         */
+        CountStats grow(int classes, int features) {
+            int k = featureCount.length;
+            if (classes > k) {
+                featureCount = Arrays.copyOf(featureCount, classes);
+                for (int c = k; c < classes; c++) {
+                    featureCount[c] = new double[features + 1];
+                }
+            }
+            return this;
+        }
+
+        @Override
+        public void add(int ci, double[] x) {
+            double[] counts = featureCount[ci];
+            int total = counts.length - 1;
+            for (int j = 0; j < total; j++) {
+                counts[j] += (int) x[j];
+                counts[total] += (int) x[j];
+            }
+        }
+
+        @Override
+        public void add(int ci, int[] indices, double[] values, int from, int to) {
+            double[] counts = featureCount[ci];
+            int total = counts.length - 1;
+            for (int k = from; k < to; k++) {
+                counts[indices[k]] += (int) values[k];
+                counts[total] += (int) values[k];
+            }
+        }
+
+        @Override
+        public CountStats merge(CountStats other) {
+            for (int c = 0; c < featureCount.length; c++) {
+                for (int j = 0; j < featureCount[c].length; j++) {
+                    featureCount[c][j] += other.featureCount[c][j];
+                }
+            }
+            return this;
+        }
+    }
 }
@@ -1,14 +1,16 @@
 package com.hindbiswas.ml.models;
 
-import java.util.Map;
 import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Objects;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
 
 import com.hindbiswas.ml.data.DataFrame;
-import com.hindbiswas.ml.data.DataPoint;
+import com.hindbiswas.ml.data.LabelEncoder;
+import com.hindbiswas.ml.data.SparseDataFrame;
+import com.hindbiswas.ml.metrics.PredictionEvent;
+import com.hindbiswas.ml.util.Shards;
 
 /**
  * NaiveBayes
@@ -18,9 +20,58 @@ abstract public class NaiveBayes implements Model {
     protected boolean fitted = false;
     protected int features;
     protected double[] classes;
-    protected Map<Double, Integer> classIndices = new HashMap<>();
+    protected LabelEncoder classIndices = new LabelEncoder();
+    protected double[] classCounts;
     protected double[] logClassPriors;
-    private final Random rng = new Random();
+    protected boolean randomTieBreak = true;
+
+    private static final double TIE_TOLERANCE = 1e-12;
+    private static final ThreadLocal<double[]> SCRATCH = ThreadLocal.withInitial(() -> new double[0]);
+
+    /**
+     * Per-class sufficient statistics for a range of rows. Statistics built from
+     * disjoint shards of a dataset are combined with {@link #merge(Stats)}, which
+     * lets {@link NaiveBayes#accumulate(DataFrame, Supplier)} compute them in
+     * parallel.
+     *
+     * @param <S> concrete statistics type
+     */
+    protected interface Stats<S extends Stats<S>> {
+        /**
+         * Add a single row.
+         *
+         * @param classIndex index of the row's class in {@code classes}
+         * @param features   row features
+         */
+        void add(int classIndex, double[] features);
+
+        /**
+         * Fold {@code other} into this instance.
+         *
+         * @param other statistics from a disjoint set of rows
+         * @return this instance
+         */
+        S merge(S other);
+    }
+
+    /**
+     * {@link Stats} that can also be built from sparse rows.
+     *
+     * @param <S> concrete statistics type
+     */
+    protected interface SparseStats<S extends SparseStats<S>> extends Stats<S> {
+        /**
+         * Add a single sparse row stored at {@code [from, to)} of
+         * {@code indices}/{@code values}. Features not listed are zero.
+         *
+         * @param classIndex index of the row's class in {@code classes}
+         * @param indices    column indices
+         * @param values     values matching {@code indices}
+         * @param from       first position of the row
+         * @param to         one past the last position of the row
+         */
+        void add(int classIndex, int[] indices, double[] values, int from, int to);
+    }
 
     /**
      * Set the alpha parameter.
@@ -31,6 +82,33 @@ abstract public class NaiveBayes implements Model {
         this.alpha = alpha;
     }
 
+    /**
+     * Choose how ties between equally likely classes are broken.
+     *
+     * <p>
+     * By default a tied class is picked uniformly at random (using a
+     * thread-local generator). When disabled, the tied class that comes first
+     * in {@link #getClasses()} wins, which makes predictions reproducible.
+     * </p>
+     *
+     * @param randomTieBreak whether to break ties at random
+     */
+    public void setRandomTieBreak(boolean randomTieBreak) {
+        this.randomTieBreak = randomTieBreak;
+    }
+
+    /**
+     * @return a copy of the class labels, in the order used by
+     *         {@link #predictProba(double[], double[])}
+     * @throws IllegalStateException if the model has not been fitted
+     */
+    public double[] getClasses() throws IllegalStateException {
+        if (!fitted) {
+            throw new IllegalStateException("Model has not been fitted yet.");
+        }
+        return classes.clone();
+    }
+
     /**
      * Fit the model to the given {@link DataFrame}.
      *
@@ -42,14 +120,141 @@ abstract public class NaiveBayes implements Model {
     public abstract NaiveBayes fit(DataFrame df) throws IllegalArgumentException;
 
     /**
-     * Predict the class probabilities for the given features.
+     * Update the model with additional training data.
+     *
+     * <p>
+     * The model keeps raw sufficient statistics (class counts and the
+     * per-class feature statistics of each subclass), so this merges the
+     * statistics of {@code df} into them and recomputes priors and likelihoods
+     * without revisiting earlier data. Labels not seen before are added as new
+     * classes. On an unfitted model this is equivalent to
+     * {@link #fit(DataFrame)}.
+     * </p>
+     *
+     * @param df additional training data
+     * @return the updated model
+     * @throws NullPointerException     if the dataframe is null
+     * @throws IllegalArgumentException if the dataframe is empty or has a
+     *                                  different feature count
+     * @throws IllegalStateException    if the model was imported without
+     *                                  sufficient statistics
+     */
+    public NaiveBayes partialFit(DataFrame df)
+            throws NullPointerException, IllegalArgumentException, IllegalStateException {
+        df = Objects.requireNonNull(df, "DataFrame cannot be null");
+        if (df.size() == 0) {
+            throw new IllegalArgumentException("DataFrame is empty.");
+        }
+
+        beginUpdate(df.featureCount(), df.getLabelEncoder(), df.getLabelCodes());
+        updateStats(df);
+        finishUpdate();
+
+        return this;
+    }
+
+    /**
+     * Predict the class label for the given features.
      *
      * @param features features to predict
-     * @return predicted class probabilities
+     * @return predicted class label
      * @throws IllegalArgumentException if features size does not match model
      * @throws IllegalStateException    if the model has not been fitted
      */
-    public abstract Double predict(double[] features) throws IllegalArgumentException, IllegalStateException;
+    public Double predict(double[] features) throws IllegalArgumentException, IllegalStateException {
+        return classify(features);
+    }
+
+    /**
+     * Predict the class label for the given features without boxing the result
+     * or allocating.
+     *
+     * @param features features to predict
+     * @return predicted class label
+     * @throws IllegalArgumentException if features size does not match model
+     * @throws IllegalStateException    if the model has not been fitted
+     */
+    public double classify(double[] features) throws IllegalArgumentException, IllegalStateException {
+        checkFeatures(features);
+        PredictionEvent event = PredictionEvent.start();
+        double label = classifyRow(features);
+        event.finish(this, PredictionEvent.PREDICT, 1, features.length);
+        return label;
+    }
+
+    /**
+     * {@link #classify(double[])} without validation or event; {@code features}
+     * has already been checked.
+     */
+    private double classifyRow(double[] features) {
+        double[] jll = scratch(classes.length);
+        jointLogLikelihood(features, jll);
+        return pickMax(jll);
+    }
+
+    /**
+     * Compute the log posterior probability of every class, in the order of
+     * {@link #getClasses()}.
+     *
+     * @param features features to predict
+     * @param out      buffer of length {@code getClasses().length} to write into
+     * @return {@code out}
+     * @throws IllegalArgumentException if features or {@code out} have the wrong
+     *                                  size
+     * @throws IllegalStateException    if the model has not been fitted
+     */
+    public double[] predictLogProba(double[] features, double[] out)
+            throws IllegalArgumentException, IllegalStateException {
+        checkFeatures(features);
+        if (out.length != classes.length) {
+            throw new IllegalArgumentException(
+                    String.format("Expected an output buffer of length %d, but got %d.", classes.length, out.length));
+        }
+
+        jointLogLikelihood(features, out);
+        double max = Double.NEGATIVE_INFINITY;
+        for (double v : out) {
+            max = Math.max(max, v);
+        }
+        double sum = 0.0;
+        for (double v : out) {
+            sum += Math.exp(v - max);
+        }
+        double logNorm = max + Math.log(sum);
+        for (int c = 0; c < out.length; c++) {
+            out[c] -= logNorm;
+        }
+        return out;
+    }
+
+    /**
+     * Compute the posterior probability of every class, in the order of
+     * {@link #getClasses()}.
+     *
+     * @param features features to predict
+     * @param out      buffer of length {@code getClasses().length} to write into
+     * @return {@code out}
+     * @throws IllegalArgumentException if features or {@code out} have the wrong
+     *                                  size
+     * @throws IllegalStateException    if the model has not been fitted
+     */
+    public double[] predictProba(double[] features, double[] out)
+            throws IllegalArgumentException, IllegalStateException {
+        predictLogProba(features, out);
+        for (int c = 0; c < out.length; c++) {
+            out[c] = Math.exp(out[c]);
+        }
+        return out;
+    }
+
+    /**
+     * Write the unnormalized log posterior (log prior plus log-likelihood) of
+     * each class into {@code out}. {@code features} has already been validated.
+     *
+     * @param features features to score
+     * @param out      buffer of length {@code classes.length}
+     */
+    protected abstract void jointLogLikelihood(double[] features, double[] out);
 
     /**
      * Compute classification accuracy of the model on a given {@link DataFrame}.
@@ -69,6 +274,7 @@ abstract public class NaiveBayes implements Model {
     @Override
     public double score(DataFrame df)
             throws IllegalArgumentException, IllegalStateException, NullPointerException {
+        PredictionEvent event = PredictionEvent.start();
         if (!fitted) {
             throw new IllegalStateException("Model has not been fitted yet.");
         }
@@ -82,16 +288,70 @@ abstract public class NaiveBayes implements Model {
                     String.format("Expected %d features, but DataFrame has %d.", features, df.featureCount()));
         }
 
+        double[] labels = df.getLabels();
         int correct = 0;
-        for (DataPoint dp : df) {
-            int actual = (int) dp.label;
-            Double predicted = predict(dp.features);
+        for (int i = 0; i < labels.length; i++) {
+            int actual = (int) labels[i];
+            double predicted = classifyRow(df.getFeaturesRef(i));
 
             if (predicted == actual) {
                 correct++;
             }
         }
-        return (double) correct / df.size();
+        double score = (double) correct / df.size();
+        event.finish(this, PredictionEvent.SCORE, df.size(), df.featureCount());
+        return score;
+    }
+
+    /**
+     * Compute classification accuracy on sparse data.
+     *
+     * @param sdf evaluation dataframe
+     * @return accuracy in [0.0, 1.0]
+     * @throws IllegalStateException    if the model has not been fitted
+     * @throws IllegalArgumentException if the dataframe is empty, or has
+     *                                  wrong feature count
+     * @throws NullPointerException     if the dataframe is null
+     */
+    public double score(SparseDataFrame sdf)
+            throws IllegalArgumentException, IllegalStateException, NullPointerException {
+        PredictionEvent event = PredictionEvent.start();
+        if (!fitted) {
+            throw new IllegalStateException("Model has not been fitted yet.");
+        }
+        sdf = Objects.requireNonNull(sdf, "DataFrame is null.");
+        if (sdf.size() == 0) {
+            throw new IllegalArgumentException("DataFrame is empty.");
+        }
+        if (sdf.featureCount() != features) {
+            throw new IllegalArgumentException(
+                    String.format("Expected %d features, but DataFrame has %d.", features, sdf.featureCount()));
+        }
+
+        int correct = 0;
+        for (int i = 0; i < sdf.size(); i++) {
+            double predicted = classifyRange(sdf.indicesRef(), sdf.valuesRef(), sdf.rowStart(i), sdf.rowEnd(i));
+            if (predicted == (int) sdf.getLabel(i)) {
+                correct++;
+            }
+        }
+        double score = (double) correct / sdf.size();
+        event.finish(this, PredictionEvent.SCORE, sdf.size(), sdf.featureCount());
+        return score;
+    }
+
+    /**
+     * Classify the sparse row held in entries {@code [from, to)} of
+     * {@code indices} and {@code values}, already validated. The default
+     * expands the row to a dense vector; models whose likelihood only depends
+     * on the stored entries override it.
+     */
+    protected double classifyRange(int[] indices, double[] values, int from, int to) {
+        double[] row = new double[features];
+        for (int k = from; k < to; k++) {
+            row[indices[k]] = values[k];
+        }
+        return classifyRow(row);
     }
 
     /**
@@ -103,66 +363,237 @@ abstract public class NaiveBayes implements Model {
     abstract public boolean export(Path path);
 
     /**
-     * Set the class mapping from the given labels.
-     * 
-     * @param labels training labels
+     * Discard the per-class feature statistics ahead of a fresh fit.
      */
-    protected void setDatasetInfo(DataFrame df) {
-        features = df.featureCount();
-        classes = df.getUniqueLabels();
-        for (int i = 0; i < classes.length; i++) {
-            classIndices.put(classes[i], i);
+    protected abstract void resetStats();
+
+    /**
+     * Merge the feature statistics of {@code df} into the model's statistics
+     * and recompute the likelihood parameters. {@code classes} may have grown
+     * since the previous call; statistics for new classes start out empty.
+     *
+     * @param df training data
+     * @throws IllegalArgumentException if an unknown label is encountered
+     */
+    protected abstract void updateStats(DataFrame df) throws IllegalArgumentException;
+
+    /**
+     * Prepare for merging a batch: reset on an unfitted model, otherwise check
+     * the batch is compatible; then register new labels and count the batch's
+     * labels into {@code classCounts}.
+     *
+     * @param featureCount feature count of the batch
+     * @param labels       label encoder of the batch
+     * @param codes        label code of each row of the batch
+     * @throws IllegalArgumentException if the feature count differs
+     * @throws IllegalStateException    if the model was imported without
+     *                                  sufficient statistics
+     */
+    protected void beginUpdate(int featureCount, LabelEncoder labels, int[] codes)
+            throws IllegalArgumentException, IllegalStateException {
+        if (!fitted) {
+            features = featureCount;
+            classes = new double[0];
+            classIndices.clear();
+            classCounts = new double[0];
+            resetStats();
+        } else if (featureCount != features) {
+            throw new IllegalArgumentException(
+                    String.format("Expected %d features, but DataFrame has %d.", features, featureCount));
+        } else if (classCounts == null) {
+            throw new IllegalStateException("Model was imported without sufficient statistics and cannot be updated.");
         }
-        logClassPriors = setPriors(df.getLabels());
+
+        addClasses(labels.labels());
+        int[] classOf = classIndexMap(labels);
+        for (int code : codes) {
+            classCounts[classOf[code]]++;
+        }
+    }
+
+    /**
+     * Recompute the priors once a batch has been merged.
+     */
+    protected void finishUpdate() {
+        logClassPriors = computePriors();
+        fitted = true;
     }
 
     /**
-     * Sets the class priors from the given labels.
+     * Build the {@code classIndices} encoder for {@code classes}, e.g. after
+     * import. Static so the DTO constructors can use it without leaking
+     * {@code this}.
      *
-     * @param labels training labels
-     * @return class priors
-     * @throws IllegalStateException if classes are not set
+     * @param classes known class labels, in index order
+     * @return encoder mapping each label to its index in {@code classes}
      */
-    private double[] setPriors(double[] labels) throws IllegalStateException {
-        if (classes == null) {
-            throw new IllegalStateException("Classes not set.");
+    protected static LabelEncoder indexClasses(double[] classes) {
+        LabelEncoder encoder = new LabelEncoder();
+        for (double label : classes) {
+            encoder.encode(label);
         }
+        return encoder;
+    }
 
-        double[] out = new double[classes.length];
-        int[] classCounts = new int[classes.length];
+    /**
+     * Append labels that are not yet known to {@code classes}.
+     *
+     * @param labels candidate labels
+     */
+    private void addClasses(double[] labels) {
+        int k = classes.length;
+        for (double label : labels) {
+            classIndices.encode(label);
+        }
+        int n = classIndices.size();
+        if (n == k) {
+            return;
+        }
+        classes = classIndices.labels();
+        classCounts = Arrays.copyOf(classCounts, n);
+    }
 
-        for (int i = 0; i < labels.length; i++) {
-            Integer idx = classIndices.get(labels[i]);
-            if (idx == null) {
-                throw new IllegalStateException("Unknown label encountered when setting priors: " + labels[i]);
+    /**
+     * Translate a batch's label codes to indices into {@code classes}.
+     *
+     * @param labels label encoder of the batch
+     * @return class index for each batch code
+     * @throws IllegalArgumentException if a label is not a known class
+     */
+    private int[] classIndexMap(LabelEncoder labels) throws IllegalArgumentException {
+        int[] classOf = new int[labels.size()];
+        for (int code = 0; code < classOf.length; code++) {
+            classOf[code] = classIndices.indexOf(labels.label(code));
+            if (classOf[code] < 0) {
+                throw new IllegalArgumentException("Unknown label encountered during stats calc: " + labels.label(code));
             }
-            classCounts[idx]++;
+        }
+        return classOf;
+    }
+
+    /**
+     * Computes the smoothed log class priors from the class counts.
+     *
+     * @return class priors
+     */
+    private double[] computePriors() {
+        double total = 0.0;
+        for (double count : classCounts) {
+            total += count;
         }
 
-        double denom = labels.length + alpha * classes.length;
+        double[] out = new double[classes.length];
+        double denom = total + alpha * classes.length;
         for (int i = 0; i < classes.length; i++) {
             out[i] = Math.log((classCounts[i] + alpha) / denom);
         }
-
         return out;
     }
 
+    /**
+     * Compute sufficient statistics over all rows of {@code df}, splitting the
+     * rows into shards that are accumulated on the common fork/join pool and
+     * then merged.
+     *
+     * @param df       training dataframe
+     * @param identity creates empty statistics
+     * @return statistics for every row of {@code df}
+     * @throws IllegalArgumentException if an unknown label is encountered
+     */
+    protected <S extends Stats<S>> S accumulate(DataFrame df, Supplier<S> identity)
+            throws IllegalArgumentException {
+        int[] codes = df.getLabelCodes();
+        int[] classOf = classIndexMap(df.getLabelEncoder());
+        return Shards.reduce(df.size(), identity, (stats, start, end) -> {
+            for (int i = start; i < end; i++) {
+                stats.add(classOf[codes[i]], df.getFeaturesRef(i));
+            }
+        }, S::merge);
+    }
+
+    /**
+     * Compute sufficient statistics over all rows of a {@link SparseDataFrame},
+     * visiting only stored entries.
+     *
+     * @param sdf      training dataframe
+     * @param identity creates empty statistics
+     * @return statistics for every row of {@code sdf}
+     * @throws IllegalArgumentException if an unknown label is encountered
+     * @see #accumulate(DataFrame, Supplier)
+     */
+    protected <S extends SparseStats<S>> S accumulate(SparseDataFrame sdf, Supplier<S> identity)
+            throws IllegalArgumentException {
+        int[] codes = sdf.getLabelCodes();
+        int[] classOf = classIndexMap(sdf.getLabelEncoder());
+        int[] indices = sdf.indicesRef();
+        double[] values = sdf.valuesRef();
+        return Shards.reduce(sdf.size(), identity, (stats, start, end) -> {
+            for (int i = start; i < end; i++) {
+                stats.add(classOf[codes[i]], indices, values, sdf.rowStart(i), sdf.rowEnd(i));
+            }
+        }, S::merge);
+    }
+
+    /**
+     * Check the model is fitted and {@code features} has the training width.
+     *
+     * @param features features to check
+     * @throws IllegalArgumentException if features size does not match model
+     * @throws IllegalStateException    if the model has not been fitted
+     */
+    protected void checkFeatures(double[] features) throws IllegalArgumentException, IllegalStateException {
+        if (!fitted) {
+            throw new IllegalStateException("Model has not been fitted yet.");
+        }
+        if (features.length != this.features) {
+            throw new IllegalArgumentException(
+                    String.format("Expected %d features, but got %d.", this.features, features.length));
+        }
+    }
+
+    /**
+     * A per-thread buffer of at least {@code n} doubles, reused across calls.
+     * Its contents are unspecified and it must not escape the caller.
+     *
+     * @param n required length
+     * @return scratch buffer
+     */
+    protected static double[] scratch(int n) {
+        double[] buf = SCRATCH.get();
+        if (buf.length < n) {
+            buf = new double[n];
+            SCRATCH.set(buf);
+        }
+        return buf;
+    }
+
+    /**
+     * Return the class with the highest score among the first
+     * {@code classes.length} entries of {@code probs}. Scores within a tiny
+     * tolerance of the maximum are ties, resolved according to
+     * {@link #setRandomTieBreak(boolean)} in the same single pass (reservoir
+     * sampling), so nothing is allocated.
+     *
+     * @param probs per-class scores
+     * @return the chosen class label
+     */
     protected double pickMax(double[] probs) {
-        // Find max & ties
         double max = Double.NEGATIVE_INFINITY;
-        ArrayList<Integer> maxIndices = new ArrayList<>();
-        double tol = 1e-12;
-        for (int i = 0; i < probs.length; i++) {
-            if (probs[i] > max + tol) {
-                max = probs[i];
-                maxIndices.clear();
-                maxIndices.add(i);
-            } else if (Math.abs(probs[i] - max) <= tol) {
-                maxIndices.add(i);
+        int pick = 0;
+        int ties = 0;
+        for (int i = 0; i < classes.length; i++) {
+            double p = probs[i];
+            if (p > max + TIE_TOLERANCE) {
+                max = p;
+                pick = i;
+                ties = 1;
+            } else if (Math.abs(p - max) <= TIE_TOLERANCE) {
+                ties++;
+                if (randomTieBreak && ThreadLocalRandom.current().nextInt(ties) == 0) {
+                    pick = i;
+                }
             }
         }
-
-        int pickIndex = maxIndices.get(rng.nextInt(maxIndices.size()));
-        return classes[pickIndex];
+        return classes[pick];
     }
 }
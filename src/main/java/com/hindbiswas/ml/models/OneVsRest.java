@@ -0,0 +1,354 @@
+package com.hindbiswas.ml.models;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import com.hindbiswas.ml.data.DataFrame;
+import com.hindbiswas.ml.data.LabelEncoder;
+import com.hindbiswas.ml.dto.OneVsRestDTO;
+import com.hindbiswas.ml.metrics.PredictionEvent;
+import com.hindbiswas.ml.util.ModelIO;
+
+/**
+ * One-vs-rest multi-class classifier over any binary model with a
+ * {@link DecisionFunction}.
+ *
+ * <p>
+ * For K classes, K binary models are trained, model {@code c} separating class
+ * {@code c} from all others. Each sub-model sees the training data through
+ * {@link DataFrame#relabel(double[])}, which shares the feature rows, and the
+ * sub-models are trained concurrently on a fixed thread pool. Prediction picks
+ * the class whose model gives the highest decision score. When every
+ * sub-model is linear, their weights are stacked into one K x (n+1) matrix so
+ * all K scores come from a single pass over the row.
+ * </p>
+ *
+ * <pre>
+ * OneVsRest&lt;LogisticRegression&gt; ovr = new OneVsRest&lt;&gt;(
+ *         () -&gt; new LogisticRegression(LogisticRegression.Solver.LBFGS));
+ * ovr.fit(train);
+ * double label = ovr.predict(row);
+ * </pre>
+ *
+ * @param <M> binary model type
+ */
+public class OneVsRest<M extends Model & DecisionFunction> implements Model {
+    private final Supplier<M> factory;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    private int features;
+    private double[] classes = null;
+    private List<M> models = Collections.emptyList();
+    /** Stacked linear weights, one row of (intercept, weights...) per class; null if any sub-model is non-linear. */
+    private double[] weights = null;
+
+    /**
+     * @param factory creates a fresh, unfitted binary model per class
+     */
+    public OneVsRest(Supplier<M> factory) {
+        this.factory = Objects.requireNonNull(factory, "factory cannot be null");
+    }
+
+    /**
+     * Restores a model from its DTO. The restored model predicts with the
+     * stacked weights and cannot be refitted.
+     *
+     * @param dto exported model
+     */
+    public OneVsRest(OneVsRestDTO dto) {
+        this.factory = null;
+        this.features = dto.features;
+        this.classes = dto.classes;
+        this.weights = dto.weights;
+    }
+
+    /**
+     * Sets the maximum number of sub-models trained at once.
+     *
+     * @param threads number of training threads (must be &gt; 0)
+     * @return this instance for chaining
+     * @throws IllegalArgumentException if threads &le; 0
+     */
+    public OneVsRest<M> parallelism(int threads) throws IllegalArgumentException {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("parallelism must be > 0");
+        }
+        this.parallelism = threads;
+        return this;
+    }
+
+    /**
+     * Trains one binary model per class.
+     *
+     * @param df training data with at least two distinct labels; must not be
+     *           modified while training
+     * @return this instance
+     * @throws IllegalArgumentException if the dataframe is empty or has fewer
+     *                                  than two classes
+     * @throws IllegalStateException    if this model was imported and has no
+     *                                  factory, or training was interrupted
+     * @throws NullPointerException     if the dataframe is null
+     */
+    @Override
+    public OneVsRest<M> fit(DataFrame df) throws IllegalArgumentException, IllegalStateException, NullPointerException {
+        if (factory == null) {
+            throw new IllegalStateException("An imported OneVsRest model cannot be refitted.");
+        }
+        df = Objects.requireNonNull(df, "DataFrame is null.");
+        if (df.size() == 0) {
+            throw new IllegalArgumentException("DataFrame is empty.");
+        }
+        LabelEncoder encoder = df.getLabelEncoder();
+        int[] codes = df.getLabelCodes();
+        int k = encoder.size();
+        if (k < 2) {
+            throw new IllegalArgumentException("At least two classes are required.");
+        }
+
+        List<M> fitted = new ArrayList<>(k);
+        for (int c = 0; c < k; c++) {
+            fitted.add(factory.get());
+        }
+        double positive = fitted.get(0).positiveLabel();
+        double negative = fitted.get(0).negativeLabel();
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(parallelism, k));
+        try {
+            List<Future<?>> futures = new ArrayList<>(k);
+            for (int c = 0; c < k; c++) {
+                double[] labels = new double[codes.length];
+                for (int i = 0; i < codes.length; i++) {
+                    labels[i] = codes[i] == c ? positive : negative;
+                }
+                DataFrame view = df.relabel(labels);
+                M model = fitted.get(c);
+                futures.add(pool.submit(() -> model.fit(view)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException("Failed to train a sub-model.", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while training.", e);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        this.features = df.featureCount();
+        this.classes = encoder.labels();
+        this.models = Collections.unmodifiableList(fitted);
+        this.weights = stack(fitted);
+        return this;
+    }
+
+    /**
+     * Decision score of every class's model for one row.
+     *
+     * @param x feature vector
+     * @return score per class, in the order of {@link #getClasses()}
+     * @throws IllegalStateException    if the model has not been fitted
+     * @throws IllegalArgumentException if the feature count does not match
+     */
+    public double[] decisionFunction(double[] x) throws IllegalStateException, IllegalArgumentException {
+        checkFeatures(x);
+        double[] scores = new double[classes.length];
+        scores(x, scores);
+        return scores;
+    }
+
+    /**
+     * Predicts the class whose model is most confident.
+     *
+     * @param x feature vector
+     * @return predicted class label
+     * @throws IllegalStateException    if the model has not been fitted
+     * @throws IllegalArgumentException if the feature count does not match
+     */
+    @Override
+    public Double predict(double[] x) throws IllegalStateException, IllegalArgumentException {
+        checkFeatures(x);
+        PredictionEvent event = PredictionEvent.start();
+        double[] scores = new double[classes.length];
+        scores(x, scores);
+        double label = classes[argMax(scores)];
+        event.finish(this, PredictionEvent.PREDICT, 1, x.length);
+        return label;
+    }
+
+    /**
+     * Computes classification accuracy on a labeled dataset.
+     *
+     * @param df DataFrame containing features and labels
+     * @return fraction of correct predictions in [0.0, 1.0]
+     * @throws IllegalStateException    if the model has not been fitted
+     * @throws IllegalArgumentException if the dataframe is empty or has the wrong
+     *                                  feature count
+     * @throws NullPointerException     if the dataframe is null
+     */
+    @Override
+    public double score(DataFrame df) throws IllegalStateException, IllegalArgumentException, NullPointerException {
+        PredictionEvent event = PredictionEvent.start();
+        if (classes == null) {
+            throw new IllegalStateException("Model has not been fitted yet.");
+        }
+        df = Objects.requireNonNull(df, "DataFrame is null.");
+        if (df.size() == 0) {
+            throw new IllegalArgumentException("DataFrame is empty.");
+        }
+        if (df.featureCount() != features) {
+            throw new IllegalArgumentException(
+                    String.format("Expected %d features, but DataFrame has %d.", features, df.featureCount()));
+        }
+
+        double[] labels = df.getLabels();
+        double[] scores = new double[classes.length];
+        int correct = 0;
+        for (int i = 0; i < labels.length; i++) {
+            scores(df.getFeaturesRef(i), scores);
+            if (classes[argMax(scores)] == labels[i]) {
+                correct++;
+            }
+        }
+        double score = (double) correct / labels.length;
+        event.finish(this, PredictionEvent.SCORE, df.size(), df.featureCount());
+        return score;
+    }
+
+    /**
+     * @return class labels, in the order of {@link #getModels()}
+     * @throws IllegalStateException if the model has not been fitted
+     */
+    public double[] getClasses() throws IllegalStateException {
+        if (classes == null) {
+            throw new IllegalStateException("Model has not been fitted yet.");
+        }
+        return classes.clone();
+    }
+
+    /**
+     * @return the fitted binary models, one per class; empty for an imported
+     *         model
+     */
+    public List<M> getModels() {
+        return models;
+    }
+
+    /**
+     * Export the model (DTO JSON) to the given file path. Only models whose
+     * sub-models are all linear can be exported.
+     *
+     * @param path output path
+     * @return true on success, false on failure
+     */
+    @Override
+    public boolean export(Path path) {
+        return ModelIO.export(path, this);
+    }
+
+    /**
+     * Import a model from a JSON file produced by {@link #export(Path)}.
+     *
+     * @param path path to the JSON file
+     * @return restored model
+     * @throws Exception if reading/parsing fails
+     */
+    @SuppressWarnings("unchecked")
+    public static <M extends Model & DecisionFunction> OneVsRest<M> importModel(Path path) throws Exception {
+        return ModelIO.importModel(path, OneVsRestDTO.class, OneVsRest.class);
+    }
+
+    /**
+     * Convert the model to a serializable DTO.
+     *
+     * @return DTO with the stacked linear weights
+     * @throws IllegalStateException if the model has not been fitted or a
+     *                               sub-model is not linear
+     */
+    @Override
+    public OneVsRestDTO toDTO() throws IllegalStateException {
+        if (classes == null) {
+            throw new IllegalStateException("Model has not been fitted yet.");
+        }
+        if (weights == null) {
+            throw new IllegalStateException("Only models with linear sub-models can be exported.");
+        }
+        OneVsRestDTO dto = new OneVsRestDTO();
+        dto.features = features;
+        dto.classes = classes;
+        dto.weights = weights;
+        return dto;
+    }
+
+    @Override
+    public String toString() {
+        if (classes == null) {
+            return "OneVsRest (unfitted model)";
+        }
+        return String.format("OneVsRest [classes=%d, features=%d]", classes.length, features);
+    }
+
+    private void scores(double[] x, double[] out) {
+        if (weights != null) {
+            int stride = features + 1;
+            for (int c = 0; c < out.length; c++) {
+                int offset = c * stride;
+                double sum = weights[offset];
+                for (int j = 0; j < features; j++) {
+                    sum += weights[offset + j + 1] * x[j];
+                }
+                out[c] = sum;
+            }
+        } else {
+            for (int c = 0; c < out.length; c++) {
+                out[c] = models.get(c).decisionFunction(x);
+            }
+        }
+    }
+
+    private double[] stack(List<M> fitted) {
+        int stride = features + 1;
+        double[] stacked = new double[fitted.size() * stride];
+        for (int c = 0; c < fitted.size(); c++) {
+            double[] w = fitted.get(c).linearWeights();
+            if (w == null) {
+                return null;
+            }
+            System.arraycopy(w, 0, stacked, c * stride, stride);
+        }
+        return stacked;
+    }
+
+    private void checkFeatures(double[] x) throws IllegalStateException, IllegalArgumentException {
+        if (classes == null) {
+            throw new IllegalStateException("Model has not been fitted yet.");
+        }
+        Objects.requireNonNull(x, "features cannot be null");
+        if (x.length != features) {
+            throw new IllegalArgumentException(
+                    String.format("Expected %d features, but got %d.", features, x.length));
+        }
+    }
+
+    private static int argMax(double[] v) {
+        int best = 0;
+        for (int c = 1; c < v.length; c++) {
+            if (v[c] > v[best]) {
+                best = c;
+            }
+        }
+        return best;
+    }
+}
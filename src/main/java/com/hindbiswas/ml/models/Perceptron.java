@@ -9,23 +9,56 @@ package com.hindbiswas.ml.models;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 import java.util.Random;
 
-import org.ejml.simple.SimpleMatrix;
-
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+
 import com.hindbiswas.ml.data.DataFrame;
-import com.hindbiswas.ml.data.DataPoint;
 import com.hindbiswas.ml.dto.PerceptronDTO;
+import com.hindbiswas.ml.metrics.Allocations;
+import com.hindbiswas.ml.metrics.EpochMetrics;
+import com.hindbiswas.ml.metrics.PredictionEvent;
+import com.hindbiswas.ml.metrics.TrainingListener;
 import com.hindbiswas.ml.util.Matrix;
 import com.hindbiswas.ml.util.ModelIO;
 
 /**
  * Implements the classic perceptron algorithm for linearly separable data.
+ * <p>
+ * Weights are kept in a primitive array and training works directly on the
+ * DataFrame's row arrays, visiting rows through an index permutation and
+ * updating the weights in place only on mistakes, so an epoch allocates
+ * nothing.
+ * <p>
+ * On data that is not linearly separable the plain perceptron keeps
+ * oscillating. {@link Mode#AVERAGED} and {@link Mode#VOTED} give stable
+ * solutions after a few epochs, and {@link #stopMistakeRate(double)} ends
+ * training once an epoch's mistake rate is low enough instead of waiting for
+ * a perfect epoch.
  */
-public class Perceptron implements Model {
+public class Perceptron implements Model, DecisionFunction {
+    /**
+     * Training and prediction variant.
+     */
+    public enum Mode {
+        /** Classic perceptron: predict with the final weights. */
+        STANDARD,
+        /**
+         * Predict with the average of the weights over every training example
+         * seen, maintained lazily so each mistake costs one extra axpy.
+         */
+        AVERAGED,
+        /**
+         * Voted perceptron: keep every intermediate weight vector with the number
+         * of examples it survived and predict by their weighted vote. Stores one
+         * vector per mistake.
+         */
+        VOTED
+    }
+
     /** Learning rate (α) used to scale weight updates. */
     private Double learningRate = 0.01;
     /** Maximum number of epochs to run if data never perfectly separates. */
@@ -37,9 +70,21 @@ public class Perceptron implements Model {
     /** Whether to print weight vector after each epoch. */
     private Boolean verbose = false;
     /** Weight vector (theta), including bias as the first element. */
-    private SimpleMatrix theta = null;
+    private double[] theta = null;
     /** Optional seed for random weight initialization. */
     private Integer weightSeed = null;
+    /** Training and prediction variant. */
+    private Mode mode = Mode.STANDARD;
+    /** Training stops once an epoch's mistake rate is at or below this. */
+    private double stopMistakeRate = 0.0;
+    /** Intermediate weight vectors for {@link Mode#VOTED}. */
+    private double[][] votedWeights = null;
+    /** Number of examples each voted weight vector survived. */
+    private int[] votes = null;
+    /** Epochs run by the last fit. */
+    private int epochsRun = 0;
+    /** Receives per-epoch telemetry; null when not set. */
+    private TrainingListener listener = null;
 
     /** Activation function mapping a raw dot-product to {-1, +1}. */
     private Activation activation = x -> x >= threshold ? 1 : -1;
@@ -57,10 +102,19 @@ public class Perceptron implements Model {
         this.shuffle = dto.shuffle;
         this.verbose = dto.verbose;
         this.weightSeed = dto.weightSeed;
-
-        this.theta = new SimpleMatrix(dto.theta.length, 1);
-        for (int i = 0; i < dto.theta.length; i++) {
-            theta.set(i, 0, dto.theta[i] ? 1 : -1);
+        this.mode = dto.mode == null ? Mode.STANDARD : Mode.valueOf(dto.mode);
+        this.stopMistakeRate = dto.stopMistakeRate;
+        this.votedWeights = dto.votedWeights;
+        this.votes = dto.votes;
+
+        if (dto.weights != null) {
+            this.theta = dto.weights.clone();
+        } else {
+            // Older exports only carry the weight signs
+            this.theta = new double[dto.theta.length];
+            for (int i = 0; i < dto.theta.length; i++) {
+                theta[i] = dto.theta[i] ? 1 : -1;
+            }
         }
     }
 
@@ -152,6 +206,47 @@ public class Perceptron implements Model {
         return this;
     }
 
+    /**
+     * Selects the perceptron variant. Must be called before fit().
+     *
+     * @param mode training and prediction variant
+     * @return this perceptron instance for chaining
+     */
+    public Perceptron mode(Mode mode) {
+        this.mode = Objects.requireNonNull(mode, "mode cannot be null");
+        return this;
+    }
+
+    /**
+     * Stops training once the fraction of misclassified examples in an epoch is
+     * at or below {@code rate}. The default of 0 trains until an epoch has no
+     * mistakes (or the iteration limit).
+     *
+     * @param rate mistake rate in [0, 1)
+     * @return this perceptron instance for chaining
+     * @throws IllegalArgumentException if rate is outside [0, 1)
+     */
+    public Perceptron stopMistakeRate(double rate) throws IllegalArgumentException {
+        if (!(rate >= 0 && rate < 1)) {
+            throw new IllegalArgumentException("Mistake rate must be in [0, 1).");
+        }
+        this.stopMistakeRate = rate;
+        return this;
+    }
+
+    /**
+     * Sets the listener notified after every epoch. The reported loss is the
+     * epoch's mistake rate and the accuracy its complement; the weight norm is
+     * that of the current (not averaged) weights.
+     *
+     * @param listener listener, or null to disable telemetry
+     * @return this perceptron instance for chaining
+     */
+    public Perceptron listener(TrainingListener listener) {
+        this.listener = listener;
+        return this;
+    }
+
     /**
      * Overrides the default activation function.
      * 
@@ -178,47 +273,103 @@ public class Perceptron implements Model {
         if (df.size() == 0) {
             throw new IllegalArgumentException("Features must be non-empty.");
         }
-        for (Double y : df.getLabels()) {
-            if (y != -1 && y != 1) {
-                throw new IllegalArgumentException("DataY values must be either -1 or 1.");
-            }
-        }
+        checkLabels(df);
 
         int n = df.featureCount() + 1; // +1 for bias term
+        int m = df.size();
+        double[] labels = df.getLabels();
 
         seedWeights(n);
 
         Random rng = weightSeed == null ? new Random() : new Random(weightSeed);
+        int[] order = new int[m];
+        for (int i = 0; i < m; i++) {
+            order[i] = i;
+        }
+
+        // Lazy averaging: the average of the weights after each of the c
+        // examples seen is theta - sum/c, where sum accumulates each update
+        // scaled by the example counter at the time it was made.
+        double[] sum = mode == Mode.AVERAGED ? new double[n] : null;
+        long counter = 1;
+        List<double[]> vectors = mode == Mode.VOTED ? new ArrayList<>() : null;
+        List<Integer> survived = mode == Mode.VOTED ? new ArrayList<>() : null;
+        int survival = 0;
+        epochsRun = 0;
 
         for (int epoch = 0; epoch < iterations; epoch++) {
-            boolean failed = false;
+            long start = System.nanoTime();
+            long allocated = listener == null ? -1 : Allocations.currentThread();
+            int mistakes = 0;
 
-            df.shuffle(rng.nextInt());
+            if (shuffle) {
+                shuffle(order, rng);
+            }
 
-            for (DataPoint dp : df) {
-                SimpleMatrix inputs = Matrix.column(dp.features);
-                double expected = dp.label;
+            for (int k = 0; k < m; k++) {
+                int i = order[k];
+                double[] x = df.getFeaturesRef(i);
+                double expected = labels[i];
 
                 // raw activation
-                double raw = theta.transpose().mult(inputs).get(0, 0);
+                double raw = Matrix.dotWithBias(theta, x);
                 int prediction = (int) activation.apply(raw);
-                double error = (expected - prediction) * learningRate;
-                theta = theta.plus(inputs.scale(error));
-
                 if (prediction != expected) {
-                    failed = true;
+                    mistakes++;
+                    if (vectors != null && survival > 0) {
+                        vectors.add(theta.clone());
+                        survived.add(survival);
+                        survival = 0;
+                    }
+                    double error = (expected - prediction) * learningRate;
+                    theta[0] += error;
+                    for (int j = 0; j < x.length; j++) {
+                        theta[j + 1] += error * x[j];
+                    }
+                    if (sum != null) {
+                        double scaled = error * counter;
+                        sum[0] += scaled;
+                        for (int j = 0; j < x.length; j++) {
+                            sum[j + 1] += scaled * x[j];
+                        }
+                    }
                 }
+                survival++;
+                counter++;
             }
+            epochsRun++;
 
+            if (listener != null) {
+                double mistakeRate = (double) mistakes / m;
+                listener.onEpoch(new EpochMetrics("Perceptron", epoch, iterations, m, System.nanoTime() - start,
+                        mistakeRate, 1 - mistakeRate, Double.NaN, Double.NaN, Matrix.norm(theta), Double.NaN,
+                        Allocations.since(allocated)));
+            }
             if (verbose) {
                 System.out.println("Epoch " + (epoch + 1) + "/" + iterations +
-                        " — current weights: " + Arrays.toString(theta.getDDRM().getData()));
+                        " — current weights: " + Arrays.toString(theta));
             }
 
-            if (!failed)
+            if (mistakes <= stopMistakeRate * m)
                 break;
         }
 
+        if (sum != null) {
+            for (int j = 0; j < n; j++) {
+                theta[j] -= sum[j] / counter;
+            }
+        }
+        votedWeights = null;
+        votes = null;
+        if (vectors != null) {
+            if (survival > 0) {
+                vectors.add(theta.clone());
+                survived.add(survival);
+            }
+            votedWeights = vectors.toArray(new double[0][]);
+            votes = survived.stream().mapToInt(Integer::intValue).toArray();
+        }
+
         return this;
     }
 
@@ -229,7 +380,22 @@ public class Perceptron implements Model {
      * @param n dimension of theta (including bias)
      */
     private void seedWeights(int n) {
-        theta = (weightSeed == null) ? new SimpleMatrix(n, 1) : Matrix.random(n, 1, weightSeed);
+        theta = new double[n];
+        if (weightSeed != null) {
+            Random rand = new Random(weightSeed);
+            for (int i = 0; i < n; i++) {
+                theta[i] = rand.nextDouble();
+            }
+        }
+    }
+
+    private static void shuffle(int[] order, Random rng) {
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = rng.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
     }
 
     /**
@@ -244,10 +410,11 @@ public class Perceptron implements Model {
             throw new IllegalStateException("Model has not been fitted yet.");
         }
 
-        SimpleMatrix xMatrix = Matrix.row(x);
-        double p = xMatrix.mult(theta).get(0, 0);
-
-        return (int) activation.apply(p);
+        double[] features = new double[x.size()];
+        for (int j = 0; j < features.length; j++) {
+            features[j] = x.get(j);
+        }
+        return predict(features);
     }
 
     /**
@@ -255,18 +422,91 @@ public class Perceptron implements Model {
      * 
      * @param x feature vector (without bias term)
      * @return predicted label (+1 or -1)
-     * @throws IllegalStateException if model has not been fitted
+     * @throws IllegalStateException    if model has not been fitted
+     * @throws IllegalArgumentException if the feature count does not match
      */
     @Override
-    public Integer predict(double[] x) throws IllegalStateException {
+    public Integer predict(double[] x) throws IllegalStateException, IllegalArgumentException {
         if (theta == null) {
             throw new IllegalStateException("Model has not been fitted yet.");
         }
 
-        SimpleMatrix xMatrix = Matrix.row(x);
-        double p = xMatrix.mult(theta).get(0, 0);
+        if (x.length + 1 != theta.length) {
+            throw new IllegalArgumentException(
+                    String.format("Expected %d features, but got %d.", theta.length - 1, x.length));
+        }
 
-        return (int) activation.apply(p);
+        PredictionEvent event = PredictionEvent.start();
+        int prediction = predictRow(x);
+        event.finish(this, PredictionEvent.PREDICT, 1, x.length);
+        return prediction;
+    }
+
+    private int predictRow(double[] x) {
+        if (votedWeights != null) {
+            long total = 0;
+            for (int k = 0; k < votedWeights.length; k++) {
+                total += votes[k] * (long) activation.apply(Matrix.dotWithBias(votedWeights[k], x));
+            }
+            return total >= 0 ? 1 : -1;
+        }
+        return (int) activation.apply(Matrix.dotWithBias(theta, x));
+    }
+
+    /**
+     * Raw activation minus the threshold, or for {@link Mode#VOTED} the
+     * weighted vote. Assumes the default threshold activation.
+     *
+     * @param x feature vector (without bias term)
+     * @return decision score, &ge; 0 when +1 is predicted
+     * @throws IllegalStateException    if model has not been fitted
+     * @throws IllegalArgumentException if the feature count does not match
+     */
+    @Override
+    public double decisionFunction(double[] x) throws IllegalStateException, IllegalArgumentException {
+        if (theta == null) {
+            throw new IllegalStateException("Model has not been fitted yet.");
+        }
+        if (x.length + 1 != theta.length) {
+            throw new IllegalArgumentException(
+                    String.format("Expected %d features, but got %d.", theta.length - 1, x.length));
+        }
+        if (votedWeights != null) {
+            double total = 0;
+            for (int k = 0; k < votedWeights.length; k++) {
+                total += votes[k] * activation.apply(Matrix.dotWithBias(votedWeights[k], x));
+            }
+            return total;
+        }
+        return Matrix.dotWithBias(theta, x) - threshold;
+    }
+
+    @Override
+    public double positiveLabel() {
+        return 1.0;
+    }
+
+    @Override
+    public double negativeLabel() {
+        return -1.0;
+    }
+
+    /**
+     * @return the weights with the threshold folded into the bias, or null for
+     *         {@link Mode#VOTED}
+     * @throws IllegalStateException if model has not been fitted
+     */
+    @Override
+    public double[] linearWeights() throws IllegalStateException {
+        if (theta == null) {
+            throw new IllegalStateException("Model has not been fitted yet.");
+        }
+        if (votedWeights != null) {
+            return null;
+        }
+        double[] w = theta.clone();
+        w[0] -= threshold;
+        return w;
     }
 
     /**
@@ -279,6 +519,7 @@ public class Perceptron implements Model {
      */
     @Override
     public double score(DataFrame df) throws IllegalStateException, NullPointerException {
+        PredictionEvent event = PredictionEvent.start();
         if (theta == null) {
             throw new IllegalStateException("Model has not been fitted yet.");
         }
@@ -287,20 +528,50 @@ public class Perceptron implements Model {
         if (df.size() == 0) {
             throw new IllegalArgumentException("Features must be non-empty.");
         }
-        for (Double y : df.getLabels()) {
-            if (y != -1 && y != 1) {
-                throw new IllegalArgumentException("DataY values must be either -1 or 1.");
-            }
-        }
+        checkLabels(df);
 
+        double[] labels = df.getLabels();
         int correct = 0;
-        for (DataPoint dp : df) {
-            int prediction = predict(dp.features);
-            if (prediction == (int) dp.label) {
+        for (int i = 0; i < labels.length; i++) {
+            int prediction = predictRow(df.getFeaturesRef(i));
+            if (prediction == (int) labels[i]) {
                 correct++;
             }
         }
-        return (double) correct / df.size();
+        double score = (double) correct / labels.length;
+        event.finish(this, PredictionEvent.SCORE, df.size(), df.featureCount());
+        return score;
+    }
+
+    /**
+     * Returns a copy of the learned weights.
+     *
+     * @return weight vector, bias first
+     * @throws IllegalStateException if model has not been fitted
+     */
+    public double[] getWeights() throws IllegalStateException {
+        if (theta == null) {
+            throw new IllegalStateException("Model has not been fitted yet.");
+        }
+        return theta.clone();
+    }
+
+    /**
+     * @return number of epochs run by the last fit
+     */
+    public int getEpochsRun() {
+        return epochsRun;
+    }
+
+    /**
+     * Ensures every label is -1 or 1, checking each distinct label once.
+     */
+    private static void checkLabels(DataFrame df) throws IllegalArgumentException {
+        for (double y : df.getUniqueLabels()) {
+            if (y != -1 && y != 1) {
+                throw new IllegalArgumentException("DataY values must be either -1 or 1.");
+            }
+        }
     }
 
     /**
@@ -357,9 +628,14 @@ public class Perceptron implements Model {
         dto.verbose = verbose;
         dto.weightSeed = weightSeed;
 
-        dto.theta = new boolean[theta.getNumRows()];
-        for (int i = 0; i < theta.getNumRows(); i++) {
-            dto.theta[i] = theta.get(i, 0) > 0;
+        dto.mode = mode.name();
+        dto.stopMistakeRate = stopMistakeRate;
+        dto.votedWeights = votedWeights;
+        dto.votes = votes;
+        dto.weights = theta.clone();
+        dto.theta = new boolean[theta.length];
+        for (int i = 0; i < theta.length; i++) {
+            dto.theta[i] = theta[i] > 0;
         }
         return dto;
     }
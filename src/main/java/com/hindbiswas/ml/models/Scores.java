@@ -0,0 +1,42 @@
+package com.hindbiswas.ml.models;
+
+import com.hindbiswas.ml.data.DataFrame;
+import com.hindbiswas.ml.util.Matrix;
+
+/**
+ * Scoring helpers shared by the linear models.
+ */
+final class Scores {
+    private Scores() {
+    }
+
+    /**
+     * Coefficient of determination of the linear predictor {@code theta}
+     * (intercept first) against the labels of {@code df}.
+     *
+     * @param df    evaluation data
+     * @param theta parameter vector
+     * @return R²; 1.0 for a perfect fit
+     */
+    static double rSquared(DataFrame df, double[] theta) {
+        double[] labels = df.getLabels();
+        double mean = 0.0;
+        for (double y : labels) {
+            mean += y;
+        }
+        mean /= labels.length;
+
+        double ssRes = 0.0;
+        double ssTot = 0.0;
+        for (int i = 0; i < labels.length; i++) {
+            double r = labels[i] - Matrix.dotWithBias(theta, df.getFeaturesRef(i));
+            double d = labels[i] - mean;
+            ssRes += r * r;
+            ssTot += d * d;
+        }
+        if (ssTot == 0) {
+            return ssRes == 0 ? 1.0 : 0.0;
+        }
+        return 1.0 - ssRes / ssTot;
+    }
+}
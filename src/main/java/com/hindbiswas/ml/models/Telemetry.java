@@ -0,0 +1,39 @@
+package com.hindbiswas.ml.models;
+
+import com.hindbiswas.ml.metrics.Allocations;
+import com.hindbiswas.ml.metrics.EpochMetrics;
+import com.hindbiswas.ml.metrics.TrainingListener;
+import com.hindbiswas.ml.util.LBFGS;
+import com.hindbiswas.ml.util.Matrix;
+
+/**
+ * Helpers shared by the models that report to a {@link TrainingListener}.
+ */
+final class Telemetry {
+    private Telemetry() {
+    }
+
+    /**
+     * Adapts a listener to solver progress, reporting each iteration as an
+     * epoch timed from the previous one.
+     *
+     * @param listener   listener, may be null
+     * @param model      model name
+     * @param iterations iteration limit
+     * @param samples    rows in the objective
+     * @return callback for the solver, or null without a listener
+     */
+    static LBFGS.Progress solver(TrainingListener listener, String model, int iterations, int samples) {
+        if (listener == null) {
+            return null;
+        }
+        long[] last = { System.nanoTime(), Allocations.currentThread() };
+        return (iter, value, w, grad) -> {
+            listener.onEpoch(new EpochMetrics(model, iter, iterations, samples, System.nanoTime() - last[0], value,
+                    Double.NaN, Double.NaN, Double.NaN, Matrix.norm(w), Matrix.norm(grad),
+                    Allocations.since(last[1])));
+            last[0] = System.nanoTime();
+            last[1] = Allocations.currentThread();
+        };
+    }
+}
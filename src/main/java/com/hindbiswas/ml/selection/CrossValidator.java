@@ -0,0 +1,237 @@
+package com.hindbiswas.ml.selection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import com.hindbiswas.ml.data.DataFrame;
+import com.hindbiswas.ml.models.Model;
+
+/**
+ * k-fold cross-validation over a single {@link DataFrame}.
+ *
+ * <p>
+ * Rows are shuffled once with a fixed seed and dealt into {@code k} folds of
+ * near-equal size. The train and test sets of each fold are
+ * {@link DataFrame#view(int[])} views, so no feature row is copied. Folds are
+ * fitted and scored concurrently on a fixed thread pool; each fold gets a
+ * fresh model from the factory.
+ * </p>
+ *
+ * <pre>
+ * CrossValidator.Scores scores = new CrossValidator(5)
+ *         .evaluate(() -&gt; new LogisticRegression(LogisticRegression.Solver.LBFGS), df);
+ * double accuracy = scores.mean();
+ * </pre>
+ */
+public final class CrossValidator {
+    private final int folds;
+    private long seed = 0;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Scores of one model configuration, one per fold, as returned by
+     * {@link Model#score(DataFrame)} on the held-out rows.
+     *
+     * @param folds score per fold
+     */
+    public record Scores(double[] folds) {
+        /**
+         * @return mean score over the folds
+         */
+        public double mean() {
+            double sum = 0;
+            for (double s : folds) {
+                sum += s;
+            }
+            return sum / folds.length;
+        }
+
+        /**
+         * @return sample standard deviation over the folds, 0 for one fold
+         */
+        public double std() {
+            if (folds.length < 2) {
+                return 0;
+            }
+            double mean = mean();
+            double sum = 0;
+            for (double s : folds) {
+                sum += (s - mean) * (s - mean);
+            }
+            return Math.sqrt(sum / (folds.length - 1));
+        }
+    }
+
+    /**
+     * @param folds number of folds (must be &ge; 2)
+     * @throws IllegalArgumentException if folds &lt; 2
+     */
+    public CrossValidator(int folds) throws IllegalArgumentException {
+        if (folds < 2) {
+            throw new IllegalArgumentException("folds must be >= 2");
+        }
+        this.folds = folds;
+    }
+
+    /**
+     * @param seed seed of the row shuffle that assigns rows to folds
+     * @return this instance for chaining
+     */
+    public CrossValidator seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * @param threads maximum number of folds fitted at once (must be &gt; 0)
+     * @return this instance for chaining
+     * @throws IllegalArgumentException if threads &le; 0
+     */
+    public CrossValidator parallelism(int threads) throws IllegalArgumentException {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("parallelism must be > 0");
+        }
+        this.parallelism = threads;
+        return this;
+    }
+
+    /**
+     * @return number of folds
+     */
+    public int folds() {
+        return folds;
+    }
+
+    /**
+     * @return maximum number of fits run at once
+     */
+    public int parallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Train and test views of one fold.
+     *
+     * @param df   data to split
+     * @param fold fold index in [0, folds)
+     * @return {train, test}
+     * @throws IllegalArgumentException  if the dataframe has fewer rows than
+     *                                   folds
+     * @throws IndexOutOfBoundsException if the fold index is out of range
+     * @throws NullPointerException      if the dataframe is null
+     */
+    public DataFrame[] split(DataFrame df, int fold)
+            throws IllegalArgumentException, IndexOutOfBoundsException, NullPointerException {
+        Objects.checkIndex(fold, folds);
+        return split(df, order(df), fold);
+    }
+
+    /**
+     * Fit and score a fresh model on every fold.
+     *
+     * @param factory creates an unfitted model
+     * @param df      labeled data
+     * @return score per fold
+     * @throws IllegalArgumentException if the dataframe has fewer rows than
+     *                                  folds
+     * @throws IllegalStateException    if evaluation was interrupted
+     * @throws NullPointerException     if the factory or dataframe is null
+     */
+    public Scores evaluate(Supplier<? extends Model> factory, DataFrame df)
+            throws IllegalArgumentException, IllegalStateException, NullPointerException {
+        Objects.requireNonNull(factory, "factory cannot be null");
+        int[] order = order(df);
+        List<Callable<Double>> tasks = new ArrayList<>(folds);
+        for (int f = 0; f < folds; f++) {
+            int fold = f;
+            tasks.add(() -> score(factory.get(), df, order, fold));
+        }
+        List<Double> results = run(tasks, parallelism);
+        double[] scores = new double[folds];
+        for (int f = 0; f < folds; f++) {
+            scores[f] = results.get(f);
+        }
+        return new Scores(scores);
+    }
+
+    /**
+     * Row order shared by all folds: a seeded shuffle of the row indices.
+     */
+    int[] order(DataFrame df) throws IllegalArgumentException, NullPointerException {
+        df = Objects.requireNonNull(df, "DataFrame is null.");
+        if (df.size() < folds) {
+            throw new IllegalArgumentException(
+                    String.format("Expected at least %d rows for %d folds, but got %d.", folds, folds, df.size()));
+        }
+        int[] order = new int[df.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Random rng = new Random(seed);
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = rng.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        return order;
+    }
+
+    DataFrame[] split(DataFrame df, int[] order, int fold) {
+        int start = (int) ((long) order.length * fold / folds);
+        int end = (int) ((long) order.length * (fold + 1) / folds);
+        int[] test = new int[end - start];
+        int[] train = new int[order.length - test.length];
+        System.arraycopy(order, start, test, 0, test.length);
+        System.arraycopy(order, 0, train, 0, start);
+        System.arraycopy(order, end, train, start, order.length - end);
+        return new DataFrame[] { df.view(train), df.view(test) };
+    }
+
+    double score(Model model, DataFrame df, int[] order, int fold) {
+        DataFrame[] split = split(df, order, fold);
+        model.fit(split[0]);
+        return model.score(split[1]);
+    }
+
+    /**
+     * Run tasks on a fixed pool of at most {@code parallelism} threads and
+     * return their results in order. A task's runtime exception is rethrown
+     * as is.
+     */
+    static <T> List<T> run(List<Callable<T>> tasks, int parallelism) throws IllegalStateException {
+        List<T> results = new ArrayList<>(tasks.size());
+        if (tasks.isEmpty()) {
+            return results;
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(parallelism, tasks.size()));
+        try {
+            List<Future<T>> futures = new ArrayList<>(tasks.size());
+            for (Callable<T> task : tasks) {
+                futures.add(pool.submit(task));
+            }
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException("Failed to evaluate a model.", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while evaluating.", e);
+        } finally {
+            pool.shutdownNow();
+        }
+        return results;
+    }
+}
@@ -0,0 +1,291 @@
+package com.hindbiswas.ml.selection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import com.hindbiswas.ml.data.DataFrame;
+import com.hindbiswas.ml.models.Model;
+
+/**
+ * Exhaustive hyperparameter search scored by k-fold cross-validation, with
+ * optional successive halving.
+ *
+ * <p>
+ * Every combination of the {@link #param(String, Object...)} values is turned
+ * into a model by the factory. All (configuration, fold) fits of a round run
+ * concurrently on the cross-validator's bounded pool. Higher
+ * {@link Model#score(DataFrame)} is better; a configuration whose fit or score
+ * throws gets a NaN score and ranks last, even if it was scored on more folds
+ * than the configurations that succeeded. If every configuration fails, the
+ * search throws an {@link IllegalStateException} caused by the first failure.
+ * </p>
+ *
+ * <p>
+ * With {@link #halving(int) halving} factor {@code h}, folds are the budget:
+ * the first round scores every configuration on one fold, then only the best
+ * {@code 1/h} go on to be scored on {@code h} times as many folds, and so on
+ * until the survivors have been scored on every fold. Clearly losing
+ * configurations are abandoned after one or a few fits instead of {@code k}.
+ * </p>
+ *
+ * <pre>
+ * GridSearch.Result&lt;MultiLayerPerceptron&gt; result = new GridSearch&lt;&gt;(p -&gt; new MultiLayerPerceptron(64, 1, 10)
+ *         .layer((int) p.get("hidden"), LayerActivations.relu())
+ *         .layer(10, LayerActivations.softmax())
+ *         .configure((int) p.get("epochs"), 32, (double) p.get("learningRate")))
+ *         .param("hidden", 16, 32, 64)
+ *         .param("epochs", 5, 10)
+ *         .param("learningRate", 0.01, 0.05, 0.1)
+ *         .halving(3)
+ *         .fit(train);
+ * </pre>
+ *
+ * @param <M> model type
+ */
+public final class GridSearch<M extends Model> {
+    private final Function<Map<String, Object>, M> factory;
+    private final Map<String, List<Object>> grid = new LinkedHashMap<>();
+    private CrossValidator validator = new CrossValidator(5);
+    private int halving = 0;
+    private boolean refit = true;
+
+    /**
+     * One evaluated configuration.
+     *
+     * @param params parameter values
+     * @param scores score per evaluated fold; fewer than k if the configuration
+     *               was dropped by successive halving
+     */
+    public record Candidate(Map<String, Object> params, double[] scores) {
+        /**
+         * @return mean score over the evaluated folds, NaN if any fit failed
+         */
+        public double mean() {
+            double sum = 0;
+            for (double s : scores) {
+                sum += s;
+            }
+            return sum / scores.length;
+        }
+
+        /**
+         * @return number of folds this configuration was scored on
+         */
+        public int folds() {
+            return scores.length;
+        }
+    }
+
+    /**
+     * Outcome of a search.
+     *
+     * @param <M>        model type
+     * @param candidates every configuration, best first; configurations
+     *                   scored on more folds rank ahead of those dropped
+     *                   earlier, and failed configurations rank last
+     * @param model      best configuration refitted on all the data, or null if
+     *                   refitting is disabled
+     * @param fits       number of fold fits performed
+     */
+    public record Result<M extends Model>(List<Candidate> candidates, M model, int fits) {
+        /**
+         * @return best configuration
+         */
+        public Candidate best() {
+            return candidates.get(0);
+        }
+    }
+
+    /**
+     * @param factory builds an unfitted model from one combination of parameter
+     *                values; called concurrently
+     */
+    public GridSearch(Function<Map<String, Object>, M> factory) {
+        this.factory = Objects.requireNonNull(factory, "factory cannot be null");
+    }
+
+    /**
+     * Add a parameter axis to the grid.
+     *
+     * @param name   parameter name, as seen by the factory
+     * @param values candidate values
+     * @return this instance for chaining
+     * @throws IllegalArgumentException if no values are given or the name is
+     *                                  already used
+     */
+    public GridSearch<M> param(String name, Object... values) throws IllegalArgumentException {
+        Objects.requireNonNull(name, "name cannot be null");
+        if (values == null || values.length == 0) {
+            throw new IllegalArgumentException("At least one value is required for " + name + ".");
+        }
+        if (grid.putIfAbsent(name, List.of(values)) != null) {
+            throw new IllegalArgumentException("Parameter " + name + " is already in the grid.");
+        }
+        return this;
+    }
+
+    /**
+     * @param validator cross-validator defining the folds and the pool size
+     * @return this instance for chaining
+     */
+    public GridSearch<M> crossValidator(CrossValidator validator) {
+        this.validator = Objects.requireNonNull(validator, "validator cannot be null");
+        return this;
+    }
+
+    /**
+     * Enable successive halving.
+     *
+     * @param factor fraction kept per round is 1/factor (must be &ge; 2), or 0
+     *               to score every configuration on every fold
+     * @return this instance for chaining
+     * @throws IllegalArgumentException if factor is 1 or negative
+     */
+    public GridSearch<M> halving(int factor) throws IllegalArgumentException {
+        if (factor != 0 && factor < 2) {
+            throw new IllegalArgumentException("halving factor must be 0 or >= 2");
+        }
+        this.halving = factor;
+        return this;
+    }
+
+    /**
+     * @param refit whether to fit the best configuration on all the data
+     *              (default true)
+     * @return this instance for chaining
+     */
+    public GridSearch<M> refit(boolean refit) {
+        this.refit = refit;
+        return this;
+    }
+
+    /**
+     * @return every combination of the parameter values, in grid order
+     */
+    public List<Map<String, Object>> combinations() {
+        List<Map<String, Object>> combinations = new ArrayList<>();
+        combinations.add(Map.of());
+        for (Map.Entry<String, List<Object>> axis : grid.entrySet()) {
+            List<Map<String, Object>> next = new ArrayList<>(combinations.size() * axis.getValue().size());
+            for (Map<String, Object> partial : combinations) {
+                for (Object value : axis.getValue()) {
+                    Map<String, Object> params = new LinkedHashMap<>(partial);
+                    params.put(axis.getKey(), value);
+                    next.add(Collections.unmodifiableMap(params));
+                }
+            }
+            combinations = next;
+        }
+        return combinations;
+    }
+
+    /**
+     * Run the search.
+     *
+     * @param df labeled data
+     * @return ranked configurations and the refitted best model
+     * @throws IllegalArgumentException if the grid is empty or the dataframe
+     *                                  has fewer rows than folds
+     * @throws IllegalStateException    if the search was interrupted or every
+     *                                  configuration failed
+     * @throws NullPointerException     if the dataframe is null
+     */
+    public Result<M> fit(DataFrame df) throws IllegalArgumentException, IllegalStateException, NullPointerException {
+        if (grid.isEmpty()) {
+            throw new IllegalArgumentException("The parameter grid is empty.");
+        }
+        int[] order = validator.order(df);
+        int k = validator.folds();
+
+        List<Map<String, Object>> configs = combinations();
+        double[][] scores = new double[configs.size()][];
+        for (int c = 0; c < scores.length; c++) {
+            scores[c] = new double[0];
+        }
+
+        List<Integer> alive = new ArrayList<>();
+        for (int c = 0; c < configs.size(); c++) {
+            alive.add(c);
+        }
+        int budget = halving == 0 ? k : 1;
+        int fits = 0;
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        while (true) {
+            // score every survivor on folds [evaluated, budget)
+            List<Callable<Double>> tasks = new ArrayList<>();
+            List<int[]> slots = new ArrayList<>();
+            for (int c : alive) {
+                int from = scores[c].length;
+                scores[c] = Arrays.copyOf(scores[c], budget);
+                for (int f = from; f < budget; f++) {
+                    Map<String, Object> params = configs.get(c);
+                    int fold = f;
+                    tasks.add(() -> {
+                        try {
+                            return validator.score(factory.apply(params), df, order, fold);
+                        } catch (RuntimeException e) {
+                            failure.compareAndSet(null, e);
+                            return Double.NaN;
+                        }
+                    });
+                    slots.add(new int[] { c, f });
+                }
+            }
+            List<Double> results = CrossValidator.run(tasks, validator.parallelism());
+            for (int i = 0; i < results.size(); i++) {
+                int[] slot = slots.get(i);
+                scores[slot[0]][slot[1]] = results.get(i);
+            }
+            fits += tasks.size();
+
+            if (budget == k) {
+                break;
+            }
+            alive.sort(Comparator.comparingDouble((Integer c) -> rank(scores[c])).reversed());
+            int keep = Math.max(1, (alive.size() + halving - 1) / halving);
+            alive = new ArrayList<>(alive.subList(0, keep));
+            budget = Math.min(k, budget * halving);
+        }
+
+        List<Candidate> candidates = new ArrayList<>(configs.size());
+        for (int c = 0; c < configs.size(); c++) {
+            candidates.add(new Candidate(configs.get(c), scores[c]));
+        }
+        // a survivor that failed on a later fold must not outrank configurations dropped earlier
+        candidates.sort(Comparator.comparing((Candidate candidate) -> !Double.isNaN(candidate.mean()))
+                .thenComparingInt(Candidate::folds)
+                .thenComparingDouble(candidate -> rank(candidate.scores()))
+                .reversed());
+        if (Double.isNaN(candidates.get(0).mean())) {
+            throw new IllegalStateException("Every configuration failed.", failure.get());
+        }
+
+        M model = null;
+        if (refit) {
+            model = factory.apply(candidates.get(0).params());
+            model.fit(df);
+        }
+        return new Result<>(Collections.unmodifiableList(candidates), model, fits);
+    }
+
+    /**
+     * Mean score with NaN (failed fits) ranked below every real score.
+     */
+    private static double rank(double[] scores) {
+        double sum = 0;
+        for (double s : scores) {
+            sum += s;
+        }
+        double mean = sum / scores.length;
+        return Double.isNaN(mean) ? Double.NEGATIVE_INFINITY : mean;
+    }
+}
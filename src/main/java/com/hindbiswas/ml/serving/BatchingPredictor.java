@@ -0,0 +1,272 @@
+package com.hindbiswas.ml.serving;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.hindbiswas.ml.models.Model;
+
+/**
+ * Collects {@code predict} calls from many threads into batches run through
+ * {@link Model#predictBatch(double[][])}, completing one
+ * {@link CompletableFuture} per caller.
+ *
+ * <p>
+ * A single worker thread takes the first waiting request and keeps collecting
+ * until the next request would take the batch past {@code maxBatchSize} rows
+ * or {@code maxDelay} has passed since the first request was submitted. Rows
+ * of one request are never split, so a request larger than
+ * {@code maxBatchSize} runs as a batch of its own. The wait is adaptive: the worker
+ * only waits while there is evidence of concurrent callers, i.e. the previous
+ * batch combined several requests, and while the average gap between
+ * submissions says another request is due before the deadline. Otherwise it
+ * runs what it has at once, so a lone caller pays no added latency while
+ * concurrent callers share batches. For a
+ * {@link com.hindbiswas.ml.models.MultiLayerPerceptron} this turns many
+ * matrix-vector products into a few matrix-matrix products.
+ * </p>
+ *
+ * <p>
+ * Every call to the model happens on the worker, so models whose single-row
+ * prediction is not thread-safe can be shared this way. Futures are completed
+ * on the worker; callers chaining slow work should use the {@code *Async}
+ * stages.
+ * </p>
+ *
+ * <pre>
+ * try (BatchingPredictor predictor = new BatchingPredictor(mlp, 64, Duration.ofMillis(1))) {
+ *     CompletableFuture&lt;Object&gt; scores = predictor.predict(row);
+ * }
+ * </pre>
+ */
+public final class BatchingPredictor implements AutoCloseable {
+    /** Weight of the newest gap in the moving average of submission gaps. */
+    private static final double GAP_SMOOTHING = 0.2;
+
+    private record Request(double[][] rows, long submitted, CompletableFuture<Object[]> result) {
+    }
+
+    private final Model model;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+    private final Thread worker;
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private volatile boolean closed = false;
+
+    /** Worker-only state: moving average of nanos between submissions. */
+    private double meanGapNanos = Double.POSITIVE_INFINITY;
+    private long lastSubmitted = Long.MIN_VALUE;
+    private int lastBatchRequests = 0;
+    /** Request taken from the queue that did not fit the previous batch. */
+    private Request carried = null;
+
+    /**
+     * Batching predictor with batches of up to 64 rows and a 1 ms delay.
+     *
+     * @param model fitted model
+     */
+    public BatchingPredictor(Model model) {
+        this(model, 64, Duration.ofMillis(1));
+    }
+
+    /**
+     * @param model        fitted model
+     * @param maxBatchSize largest number of rows per batch (must be &gt; 0)
+     * @param maxDelay     longest time a request waits for others to batch
+     *                     with; zero batches only requests already queued
+     * @throws IllegalArgumentException if maxBatchSize &le; 0 or maxDelay is
+     *                                  negative
+     */
+    public BatchingPredictor(Model model, int maxBatchSize, Duration maxDelay) throws IllegalArgumentException {
+        this.model = Objects.requireNonNull(model, "model cannot be null");
+        Objects.requireNonNull(maxDelay, "maxDelay cannot be null");
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize must be > 0");
+        }
+        if (maxDelay.isNegative()) {
+            throw new IllegalArgumentException("maxDelay must be >= 0");
+        }
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.worker = Thread.ofPlatform().daemon()
+                .name("ml-batcher-" + model.getClass().getSimpleName())
+                .start(this::run);
+    }
+
+    /**
+     * Queue one row for prediction.
+     *
+     * @param x feature vector
+     * @return the prediction, as {@link Model#predict(double[])} would return
+     *         it, or completed exceptionally if the model rejects the row
+     * @throws IllegalStateException if the predictor has been closed
+     */
+    public CompletableFuture<Object> predict(double[] x) throws IllegalStateException {
+        Objects.requireNonNull(x, "features cannot be null");
+        return predictAll(new double[][] { x }).thenApply(out -> out[0]);
+    }
+
+    /**
+     * Queue several rows; they are kept together in one batch when they fit.
+     *
+     * @param x feature vectors
+     * @return predictions in the order of {@code x}
+     * @throws IllegalStateException if the predictor has been closed
+     */
+    public CompletableFuture<Object[]> predictAll(double[][] x) throws IllegalStateException {
+        Objects.requireNonNull(x, "rows cannot be null");
+        if (closed) {
+            throw new IllegalStateException("Predictor has been closed.");
+        }
+        CompletableFuture<Object[]> result = new CompletableFuture<>();
+        Request request = new Request(x, System.nanoTime(), result);
+        queue.add(request);
+        if (closed && queue.remove(request)) {
+            // raced with close(), which may already have drained the queue
+            result.completeExceptionally(new IllegalStateException("Predictor has been closed."));
+        }
+        return result;
+    }
+
+    /**
+     * @return number of batches run
+     */
+    public long batches() {
+        return batches.sum();
+    }
+
+    /**
+     * @return number of rows predicted
+     */
+    public long rows() {
+        return rows.sum();
+    }
+
+    /**
+     * @return mean rows per batch, or 0 before the first batch
+     */
+    public double meanBatchSize() {
+        long b = batches.sum();
+        return b == 0 ? 0 : (double) rows.sum() / b;
+    }
+
+    /**
+     * Stop the worker. Requests still queued complete exceptionally with
+     * {@link IllegalStateException}.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        worker.interrupt();
+        Request pending;
+        while ((pending = queue.poll()) != null) {
+            pending.result.completeExceptionally(new IllegalStateException("Predictor has been closed."));
+        }
+    }
+
+    private void run() {
+        List<Request> batch = new ArrayList<>();
+        while (!closed) {
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                break;
+            }
+            execute(batch);
+            batch.clear();
+        }
+        if (carried != null) {
+            batch.add(carried);
+        }
+        for (Request request : batch) {
+            request.result.completeExceptionally(new IllegalStateException("Predictor has been closed."));
+        }
+    }
+
+    private void collect(List<Request> batch) throws InterruptedException {
+        Request first = carried != null ? carried : queue.take();
+        carried = null;
+        int size = add(batch, first);
+        long deadline = first.submitted + maxDelayNanos;
+        while (size < maxBatchSize) {
+            Request next = queue.poll();
+            if (next == null) {
+                long remaining = deadline - System.nanoTime();
+                // don't wait without concurrent callers or for a request not due before the deadline
+                if (remaining <= 0 || lastBatchRequests < 2 || meanGapNanos > remaining) {
+                    break;
+                }
+                next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                if (next == null) {
+                    break;
+                }
+            }
+            if (size + next.rows.length > maxBatchSize) {
+                // would overflow the batch; it starts the next one instead
+                carried = next;
+                break;
+            }
+            size += add(batch, next);
+        }
+        lastBatchRequests = batch.size();
+    }
+
+    private int add(List<Request> batch, Request request) {
+        if (lastSubmitted != Long.MIN_VALUE) {
+            long gap = Math.max(0, request.submitted - lastSubmitted);
+            meanGapNanos = Double.isInfinite(meanGapNanos)
+                    ? gap
+                    : GAP_SMOOTHING * gap + (1 - GAP_SMOOTHING) * meanGapNanos;
+        }
+        lastSubmitted = Math.max(lastSubmitted, request.submitted);
+        batch.add(request);
+        return request.rows.length;
+    }
+
+    private void execute(List<Request> batch) {
+        int size = 0;
+        for (Request request : batch) {
+            size += request.rows.length;
+        }
+        double[][] stacked = new double[size][];
+        int offset = 0;
+        for (Request request : batch) {
+            System.arraycopy(request.rows, 0, stacked, offset, request.rows.length);
+            offset += request.rows.length;
+        }
+
+        Object[] predictions;
+        try {
+            predictions = model.predictBatch(stacked);
+        } catch (Throwable e) {
+            // an Error must not kill the worker and leave every later caller waiting
+            if (batch.size() == 1) {
+                batch.get(0).result.completeExceptionally(e);
+            } else {
+                // one bad request must not fail the others it was batched with
+                for (Request request : batch) {
+                    execute(List.of(request));
+                }
+            }
+            return;
+        }
+        batches.increment();
+        rows.add(size);
+
+        offset = 0;
+        for (Request request : batch) {
+            Object[] out = new Object[request.rows.length];
+            System.arraycopy(predictions, offset, out, 0, out.length);
+            offset += out.length;
+            request.result.complete(out);
+        }
+    }
+}
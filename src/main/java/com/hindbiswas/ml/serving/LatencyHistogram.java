@@ -0,0 +1,157 @@
+package com.hindbiswas.ml.serving;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with log-linear buckets.
+ *
+ * <p>
+ * Values are kept in microseconds. Each power of two is split into eight
+ * buckets, so a reported percentile is within 12.5% of the true value, from
+ * 1&micro;s up to about 19 hours; larger values land in the last bucket.
+ * Recording is a few atomic adds and is safe from any number of threads.
+ * </p>
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 3;
+    private static final int SUB = 1 << SUB_BITS;
+    private static final int MAX_EXPONENT = 36;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 2) * SUB;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumMicros = new LongAdder();
+    private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Point-in-time summary, in milliseconds.
+     *
+     * @param count number of recorded values
+     * @param mean  mean latency
+     * @param p50   median
+     * @param p90   90th percentile
+     * @param p99   99th percentile
+     * @param p999  99.9th percentile
+     * @param max   largest recorded value
+     */
+    public record Snapshot(long count, double mean, double p50, double p90, double p99, double p999, double max) {
+    }
+
+    /**
+     * Record one latency.
+     *
+     * @param nanos elapsed time in nanoseconds; negative values count as zero
+     */
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos / 1_000);
+        counts.incrementAndGet(bucket(micros));
+        count.increment();
+        sumMicros.add(micros);
+        maxMicros.accumulate(micros);
+    }
+
+    /**
+     * @return number of recorded values
+     */
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * Estimate a percentile as the midpoint of the bucket holding it.
+     *
+     * @param p percentile in [0, 100]
+     * @return latency in milliseconds, or 0 if nothing was recorded
+     * @throws IllegalArgumentException if p is outside [0, 100]
+     */
+    public double percentile(double p) throws IllegalArgumentException {
+        if (!(p >= 0 && p <= 100)) {
+            throw new IllegalArgumentException("percentile must be in [0, 100]");
+        }
+        long[] snapshot = counts();
+        long total = 0;
+        for (long c : snapshot) {
+            total += c;
+        }
+        return percentile(snapshot, total, p);
+    }
+
+    /**
+     * @return summary of everything recorded so far
+     */
+    public Snapshot snapshot() {
+        long[] snapshot = counts();
+        long total = 0;
+        for (long c : snapshot) {
+            total += c;
+        }
+        double mean = total == 0 ? 0 : sumMicros.sum() / 1_000.0 / total;
+        return new Snapshot(total, mean,
+                percentile(snapshot, total, 50),
+                percentile(snapshot, total, 90),
+                percentile(snapshot, total, 99),
+                percentile(snapshot, total, 99.9),
+                maxMicros.get() / 1_000.0);
+    }
+
+    /**
+     * Clear all recorded values.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        sumMicros.reset();
+        maxMicros.reset();
+    }
+
+    private long[] counts() {
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+        }
+        return snapshot;
+    }
+
+    private double percentile(long[] snapshot, long total, double p) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(p / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                long low = lowerBound(i);
+                long high = i + 1 < BUCKETS ? lowerBound(i + 1) : low;
+                double micros = Math.min((low + high) / 2.0, maxMicros.get());
+                return micros / 1_000.0;
+            }
+        }
+        return maxMicros.get() / 1_000.0;
+    }
+
+    static int bucket(long micros) {
+        if (micros < SUB) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int sub = (int) (micros >>> (exponent - SUB_BITS)) & (SUB - 1);
+        return (exponent - SUB_BITS + 1) * SUB + sub;
+    }
+
+    static long lowerBound(int bucket) {
+        if (bucket < SUB) {
+            return bucket;
+        }
+        int exponent = bucket / SUB + SUB_BITS - 1;
+        int sub = bucket % SUB;
+        return (long) (SUB + sub) << (exponent - SUB_BITS);
+    }
+}
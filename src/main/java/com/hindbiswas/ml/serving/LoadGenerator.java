@@ -0,0 +1,210 @@
+package com.hindbiswas.ml.serving;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Closed-loop load generator for a {@link ModelServer} predict endpoint.
+ *
+ * <p>
+ * Each of {@code concurrency} virtual threads sends single-row requests back
+ * to back until {@code requests} have been sent in total, recording the
+ * client-side latency of each. Intended for local testing of batching
+ * settings, not as a general benchmarking tool.
+ * </p>
+ *
+ * <pre>
+ * java -cp ... com.hindbiswas.ml.serving.LoadGenerator http://localhost:8080/models/digits/predict 784 64 10000
+ * </pre>
+ */
+public final class LoadGenerator {
+    private final URI endpoint;
+    private Supplier<double[]> rows;
+    private int concurrency = 16;
+    private int requests = 1_000;
+    private boolean binary = false;
+
+    /**
+     * Result of a run.
+     *
+     * @param requests     requests sent
+     * @param errors       requests that failed or got a non-200 response
+     * @param elapsedNanos wall time of the run
+     * @param latency      client-side latency summary in milliseconds
+     */
+    public record Result(long requests, long errors, long elapsedNanos, LatencyHistogram.Snapshot latency) {
+        /**
+         * @return successful requests per second
+         */
+        public double throughput() {
+            return elapsedNanos == 0 ? 0 : (requests - errors) * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d requests, %d errors, %.1f req/s, latency ms p50=%.3f p99=%.3f max=%.3f",
+                    requests, errors, throughput(), latency.p50(), latency.p99(), latency.max());
+        }
+    }
+
+    /**
+     * Load generator sending rows of standard normal features.
+     *
+     * @param endpoint predict URL, e.g. {@code http://localhost:8080/models/m/predict}
+     * @param features number of features per row
+     */
+    public LoadGenerator(URI endpoint, int features) {
+        this.endpoint = Objects.requireNonNull(endpoint, "endpoint cannot be null");
+        if (features <= 0) {
+            throw new IllegalArgumentException("features must be > 0");
+        }
+        Random seeds = new Random(42);
+        ThreadLocal<Random> random = ThreadLocal.withInitial(() -> {
+            synchronized (seeds) {
+                return new Random(seeds.nextLong());
+            }
+        });
+        this.rows = () -> {
+            Random rng = random.get();
+            double[] row = new double[features];
+            for (int j = 0; j < features; j++) {
+                row[j] = rng.nextGaussian();
+            }
+            return row;
+        };
+    }
+
+    /**
+     * @param rows source of request rows; called concurrently
+     * @return this instance for chaining
+     */
+    public LoadGenerator rows(Supplier<double[]> rows) {
+        this.rows = Objects.requireNonNull(rows, "rows cannot be null");
+        return this;
+    }
+
+    /**
+     * @param threads number of concurrent clients (must be &gt; 0)
+     * @return this instance for chaining
+     */
+    public LoadGenerator concurrency(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("concurrency must be > 0");
+        }
+        this.concurrency = threads;
+        return this;
+    }
+
+    /**
+     * @param total number of requests to send (must be &gt; 0)
+     * @return this instance for chaining
+     */
+    public LoadGenerator requests(int total) {
+        if (total <= 0) {
+            throw new IllegalArgumentException("requests must be > 0");
+        }
+        this.requests = total;
+        return this;
+    }
+
+    /**
+     * @param binary send {@code application/octet-stream} bodies instead of JSON
+     * @return this instance for chaining
+     */
+    public LoadGenerator binary(boolean binary) {
+        this.binary = binary;
+        return this;
+    }
+
+    /**
+     * Send all requests and wait for the responses.
+     *
+     * @return summary of the run
+     */
+    public Result run() {
+        LatencyHistogram latency = new LatencyHistogram();
+        LongAdder errors = new LongAdder();
+        AtomicInteger remaining = new AtomicInteger(requests);
+
+        long start = System.nanoTime();
+        // resources close in reverse, so every client thread finishes before the HttpClient closes
+        try (HttpClient client = HttpClient.newHttpClient();
+                ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int t = 0; t < concurrency; t++) {
+                clients.submit(() -> {
+                    while (remaining.getAndDecrement() > 0) {
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request(rows.get()),
+                                    HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.increment();
+                            }
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        } catch (Exception e) {
+                            errors.increment();
+                        }
+                        latency.record(System.nanoTime() - sent);
+                    }
+                });
+            }
+        }
+        return new Result(latency.count(), errors.sum(), System.nanoTime() - start, latency.snapshot());
+    }
+
+    private HttpRequest request(double[] row) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(endpoint);
+        if (binary) {
+            ByteBuffer buffer = ByteBuffer.allocate(row.length * Double.BYTES);
+            for (double v : row) {
+                buffer.putDouble(v);
+            }
+            return builder.header("Content-Type", "application/octet-stream")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(buffer.array())).build();
+        }
+        StringBuilder json = new StringBuilder(row.length * 20 + 16).append("{\"features\":[");
+        for (int j = 0; j < row.length; j++) {
+            if (j > 0) {
+                json.append(',');
+            }
+            json.append(row[j]);
+        }
+        json.append("]}");
+        return builder.header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json.toString())).build();
+    }
+
+    /**
+     * Run from the command line.
+     *
+     * @param args predict URL, features per row, and optionally concurrency and
+     *             number of requests
+     * @throws Exception if the run fails
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: LoadGenerator <predict-url> <features> [concurrency] [requests]");
+            System.exit(2);
+        }
+        LoadGenerator generator = new LoadGenerator(URI.create(args[0]), Integer.parseInt(args[1]));
+        if (args.length > 2) {
+            generator.concurrency(Integer.parseInt(args[2]));
+        }
+        if (args.length > 3) {
+            generator.requests(Integer.parseInt(args[3]));
+        }
+        System.out.println(generator.run());
+    }
+}
@@ -0,0 +1,392 @@
+package com.hindbiswas.ml.serving;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.hindbiswas.ml.dto.DTO;
+import com.hindbiswas.ml.models.Model;
+import com.hindbiswas.ml.util.ModelIO;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Lightweight HTTP prediction server built on the JDK's
+ * {@code com.sun.net.httpserver}, with one virtual thread per request.
+ *
+ * <p>
+ * Concurrent requests for the same model are coalesced into micro-batches of
+ * at most {@link #maxBatch(int)} rows, waiting no longer than
+ * {@link #maxDelay(Duration)}, by a {@link BatchingPredictor} per model.
+ * Routes:
+ * </p>
+ * <ul>
+ * <li>{@code GET /models} lists the served models.</li>
+ * <li>{@code POST /models/{name}/predict} predicts. A JSON body is either
+ * {@code {"features": [...]}}, answered with {@code {"prediction": ...}}, or
+ * {@code {"rows": [[...], ...]}}, answered with {@code {"predictions": [...]}}.
+ * A body of type {@code application/octet-stream} holds big-endian doubles; the
+ * optional {@code X-Features} header splits it into rows of that length.</li>
+ * <li>{@code GET /models/{name}/stats} returns request counts, mean batch size
+ * and a latency summary in milliseconds.</li>
+ * </ul>
+ *
+ * <pre>
+ * try (ModelServer server = new ModelServer()
+ *         .load("digits", Path.of("mlp.json"), MLPModelDTO.class, MultiLayerPerceptron.class)
+ *         .start(8080)) {
+ *     ...
+ * }
+ * </pre>
+ */
+public class ModelServer implements AutoCloseable {
+    private static final String JSON = "application/json";
+    private static final String BINARY = "application/octet-stream";
+
+    private final Gson gson = new GsonBuilder().serializeSpecialFloatingPointValues().create();
+    private final Map<String, Model> models = new LinkedHashMap<>();
+    private volatile Map<String, Endpoint> endpoints = Map.of();
+    private int maxBatch = 64;
+    private Duration maxDelay = Duration.ofMillis(2);
+    private HttpServer server;
+    private ExecutorService executor;
+
+    private static final class Endpoint {
+        final Model model;
+        final BatchingPredictor batcher;
+        final LatencyHistogram latency = new LatencyHistogram();
+
+        Endpoint(Model model, int maxBatch, Duration maxDelay) {
+            this.model = model;
+            this.batcher = new BatchingPredictor(model, maxBatch, maxDelay);
+        }
+    }
+
+    /**
+     * Serve a fitted model.
+     *
+     * @param name  URL path segment for the model
+     * @param model fitted model
+     * @return this instance for chaining
+     * @throws IllegalArgumentException if the name is blank, contains '/' or
+     *                                  is already taken
+     * @throws IllegalStateException    if the server is running
+     */
+    public ModelServer model(String name, Model model) throws IllegalArgumentException, IllegalStateException {
+        Objects.requireNonNull(name, "name cannot be null");
+        Objects.requireNonNull(model, "model cannot be null");
+        checkStopped();
+        if (name.isBlank() || name.contains("/")) {
+            throw new IllegalArgumentException("Invalid model name: " + name);
+        }
+        if (models.putIfAbsent(name, model) != null) {
+            throw new IllegalArgumentException("A model named " + name + " is already registered.");
+        }
+        return this;
+    }
+
+    /**
+     * Import a model with {@link ModelIO#importModel(Path, Class, Class)} and
+     * serve it.
+     *
+     * @param <D>        DTO type
+     * @param <M>        model type
+     * @param name       URL path segment for the model
+     * @param path       exported model file
+     * @param dtoClass   DTO class
+     * @param modelClass model class
+     * @return this instance for chaining
+     * @throws Exception if the model cannot be imported
+     */
+    public <D extends DTO, M extends Model> ModelServer load(String name, Path path, Class<D> dtoClass,
+            Class<M> modelClass) throws Exception {
+        checkStopped();
+        return model(name, ModelIO.importModel(path, dtoClass, modelClass));
+    }
+
+    /**
+     * @param rows largest number of rows run in one batch (must be &gt; 0)
+     * @return this instance for chaining
+     * @throws IllegalArgumentException if rows &le; 0
+     * @throws IllegalStateException    if the server is running
+     */
+    public ModelServer maxBatch(int rows) throws IllegalArgumentException, IllegalStateException {
+        checkStopped();
+        if (rows <= 0) {
+            throw new IllegalArgumentException("maxBatch must be > 0");
+        }
+        this.maxBatch = rows;
+        return this;
+    }
+
+    /**
+     * @param delay longest time a request waits for others to batch with; zero
+     *              batches only requests that are already queued
+     * @return this instance for chaining
+     * @throws IllegalArgumentException if delay is negative
+     * @throws IllegalStateException    if the server is running
+     */
+    public ModelServer maxDelay(Duration delay) throws IllegalArgumentException, IllegalStateException {
+        Objects.requireNonNull(delay, "delay cannot be null");
+        checkStopped();
+        if (delay.isNegative()) {
+            throw new IllegalArgumentException("maxDelay must be >= 0");
+        }
+        this.maxDelay = delay;
+        return this;
+    }
+
+    /**
+     * Bind and start serving.
+     *
+     * @param port TCP port, or 0 for any free port
+     * @return this instance
+     * @throws IOException           if the port cannot be bound
+     * @throws IllegalStateException if the server is already running or no
+     *                               model is registered
+     */
+    public synchronized ModelServer start(int port) throws IOException, IllegalStateException {
+        checkStopped();
+        if (models.isEmpty()) {
+            throw new IllegalStateException("No model has been registered.");
+        }
+        HttpServer http = HttpServer.create(new InetSocketAddress(port), 0);
+        Map<String, Endpoint> created = new LinkedHashMap<>();
+        for (Map.Entry<String, Model> entry : models.entrySet()) {
+            created.put(entry.getKey(), new Endpoint(entry.getValue(), maxBatch, maxDelay));
+        }
+        endpoints = Collections.unmodifiableMap(created);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        http.setExecutor(executor);
+        http.createContext("/models", this::handle);
+        http.start();
+        server = http;
+        return this;
+    }
+
+    /**
+     * @return the bound port
+     * @throws IllegalStateException if the server is not running
+     */
+    public int port() throws IllegalStateException {
+        if (server == null) {
+            throw new IllegalStateException("Server is not running.");
+        }
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @param name model name
+     * @return latency histogram of the model's predict requests
+     * @throws IllegalArgumentException if no such model is being served
+     */
+    public LatencyHistogram latency(String name) throws IllegalArgumentException {
+        Endpoint endpoint = endpoints.get(name);
+        if (endpoint == null) {
+            throw new IllegalArgumentException("No model named " + name + " is being served.");
+        }
+        return endpoint.latency;
+    }
+
+    /**
+     * Stop accepting requests and release the batching threads.
+     */
+    @Override
+    public synchronized void close() {
+        if (server == null) {
+            return;
+        }
+        server.stop(0);
+        executor.shutdownNow();
+        for (Endpoint endpoint : endpoints.values()) {
+            endpoint.batcher.close();
+        }
+        endpoints = Map.of();
+        server = null;
+    }
+
+    private void checkStopped() throws IllegalStateException {
+        if (server != null) {
+            throw new IllegalStateException("Server is already running.");
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String[] parts = exchange.getRequestURI().getPath().split("/");
+            // "/models" -> ["", "models"], "/models/x/predict" -> ["", "models", "x", "predict"]
+            if (parts.length < 2 || !parts[1].equals("models")) {
+                error(exchange, 404, "Not found: " + exchange.getRequestURI().getPath());
+                return;
+            }
+            if (parts.length == 2) {
+                if (!expect(exchange, "GET")) {
+                    return;
+                }
+                List<Map<String, String>> list = new ArrayList<>();
+                endpoints.forEach((name, endpoint) -> list.add(
+                        Map.of("name", name, "type", endpoint.model.getClass().getSimpleName())));
+                send(exchange, 200, Map.of("models", list));
+                return;
+            }
+            Endpoint endpoint = parts.length == 4 ? endpoints.get(parts[2]) : null;
+            if (endpoint == null) {
+                error(exchange, 404, "Not found: " + exchange.getRequestURI().getPath());
+                return;
+            }
+            switch (parts[3]) {
+                case "predict" -> {
+                    if (expect(exchange, "POST")) {
+                        predict(exchange, endpoint);
+                    }
+                }
+                case "stats" -> {
+                    if (expect(exchange, "GET")) {
+                        stats(exchange, parts[2], endpoint);
+                    }
+                }
+                default -> error(exchange, 404, "Not found: " + exchange.getRequestURI().getPath());
+            }
+        } catch (RuntimeException e) {
+            error(exchange, 500, String.valueOf(e.getMessage()));
+        }
+    }
+
+    private void predict(HttpExchange exchange, Endpoint endpoint) throws IOException {
+        long start = System.nanoTime();
+        double[][] rows;
+        boolean single;
+        try {
+            String type = exchange.getRequestHeaders().getFirst("Content-Type");
+            if (type != null && type.startsWith(BINARY)) {
+                rows = readBinary(exchange);
+                single = exchange.getRequestHeaders().getFirst("X-Features") == null;
+            } else {
+                JsonObject body;
+                try (InputStreamReader reader = new InputStreamReader(exchange.getRequestBody(),
+                        StandardCharsets.UTF_8)) {
+                    body = JsonParser.parseReader(reader).getAsJsonObject();
+                }
+                single = body.has("features");
+                rows = single ? new double[][] { toRow(body.get("features")) } : toRows(body.get("rows"));
+            }
+        } catch (JsonParseException | IllegalStateException | IllegalArgumentException | NullPointerException e) {
+            error(exchange, 400, "Malformed request body: " + e.getMessage());
+            return;
+        }
+
+        Object[] predictions;
+        try {
+            predictions = endpoint.batcher.predictAll(rows).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            int status = cause instanceof IllegalArgumentException || cause instanceof NullPointerException ? 400 : 500;
+            error(exchange, status, String.valueOf(cause.getMessage()));
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error(exchange, 503, "Interrupted.");
+            return;
+        }
+        send(exchange, 200, single ? Map.of("prediction", predictions[0]) : Map.of("predictions", predictions));
+        endpoint.latency.record(System.nanoTime() - start);
+    }
+
+    private void stats(HttpExchange exchange, String name, Endpoint endpoint) throws IOException {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("model", name);
+        stats.put("requests", endpoint.latency.count());
+        stats.put("batches", endpoint.batcher.batches());
+        stats.put("rows", endpoint.batcher.rows());
+        stats.put("meanBatchSize", endpoint.batcher.meanBatchSize());
+        stats.put("latencyMillis", endpoint.latency.snapshot());
+        send(exchange, 200, stats);
+    }
+
+    private static double[][] readBinary(HttpExchange exchange) throws IOException {
+        byte[] bytes;
+        try (InputStream in = exchange.getRequestBody()) {
+            bytes = in.readAllBytes();
+        }
+        if (bytes.length == 0 || bytes.length % Double.BYTES != 0) {
+            throw new IllegalArgumentException("Body must be a non-empty sequence of 8-byte doubles.");
+        }
+        int values = bytes.length / Double.BYTES;
+        String header = exchange.getRequestHeaders().getFirst("X-Features");
+        int features = header == null ? values : Integer.parseInt(header.trim());
+        if (features <= 0 || values % features != 0) {
+            throw new IllegalArgumentException(
+                    String.format("%d values do not split into rows of %d features.", values, features));
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        double[][] rows = new double[values / features][features];
+        for (double[] row : rows) {
+            for (int j = 0; j < features; j++) {
+                row[j] = buffer.getDouble();
+            }
+        }
+        return rows;
+    }
+
+    private static double[][] toRows(JsonElement element) {
+        JsonArray array = Objects.requireNonNull(element, "Expected \"features\" or \"rows\".").getAsJsonArray();
+        double[][] rows = new double[array.size()][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = toRow(array.get(i));
+        }
+        return rows;
+    }
+
+    private static double[] toRow(JsonElement element) {
+        JsonArray array = element.getAsJsonArray();
+        double[] row = new double[array.size()];
+        for (int j = 0; j < row.length; j++) {
+            row[j] = array.get(j).getAsDouble();
+        }
+        return row;
+    }
+
+    private boolean expect(HttpExchange exchange, String method) throws IOException {
+        if (method.equals(exchange.getRequestMethod())) {
+            return true;
+        }
+        exchange.getResponseHeaders().set("Allow", method);
+        error(exchange, 405, "Method not allowed.");
+        return false;
+    }
+
+    private void error(HttpExchange exchange, int status, String message) throws IOException {
+        send(exchange, status, Map.of("error", message));
+    }
+
+    private void send(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = gson.toJson(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package com.hindbiswas.ml.serving;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+import com.hindbiswas.ml.data.DataFrame;
+import com.hindbiswas.ml.dto.DTO;
+import com.hindbiswas.ml.models.Model;
+import com.hindbiswas.ml.util.ModelIO;
+
+/**
+ * Bounded cache of predictions around a {@link Model}, for traffic in which the
+ * same feature vectors recur.
+ *
+ * <p>
+ * Entries are keyed by the exact bits of the feature vector, hashed with a
+ * 64-bit multiply-xorshift mix of each value. The cache is split into
+ * independently locked LRU segments so concurrent callers rarely contend; each
+ * segment evicts its least recently used entry when full. A hit skips the
+ * model entirely, which for a {@link com.hindbiswas.ml.models.MultiLayerPerceptron}
+ * saves a full forward pass. Cached results are shared between callers and
+ * must not be modified.
+ * </p>
+ *
+ * <p>
+ * The cache is emptied when the model is refitted through {@link #fit(DataFrame)}
+ * or on {@link #invalidate()}. After {@link #watch(Path)}, importing the same
+ * file again through {@link ModelIO} swaps in the newly imported model and
+ * empties the cache. Misses call the wrapped model on the caller's thread, so
+ * its {@code predict} must be safe to call concurrently if the cache is shared.
+ * </p>
+ *
+ * <pre>
+ * try (PredictionCache cache = new PredictionCache(model, 100_000).watch(path)) {
+ *     Object prediction = cache.predict(row);
+ *     double hitRate = cache.hitRate();
+ * }
+ * </pre>
+ */
+public final class PredictionCache implements Model, AutoCloseable {
+    private final Segment[] segments;
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private volatile Model model;
+    private BiConsumer<Path, Model> listener;
+
+    /**
+     * Exact-bits key. Lookups wrap the caller's array; only inserted keys copy
+     * it, so a hit allocates nothing but the key itself.
+     */
+    private static final class Key {
+        final double[] values;
+        final long hash;
+
+        Key(double[] values, long hash) {
+            this.values = values;
+            this.hash = hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (hash ^ (hash >>> 32));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && hash == other.hash && Arrays.equals(values, other.values);
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private final class Segment extends LinkedHashMap<Key, Object> {
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * @param model      fitted model
+     * @param maxEntries maximum number of cached predictions (must be &gt; 0)
+     * @throws IllegalArgumentException if maxEntries &le; 0
+     */
+    public PredictionCache(Model model, int maxEntries) throws IllegalArgumentException {
+        this(model, maxEntries, Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    PredictionCache(Model model, int maxEntries, int concurrency) throws IllegalArgumentException {
+        this.model = Objects.requireNonNull(model, "model cannot be null");
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be > 0");
+        }
+        // power of two segments, none smaller than 64 entries unless the whole cache is
+        int count = Integer.highestOneBit(Math.max(1, Math.min(concurrency, maxEntries / 64)));
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment((maxEntries + count - 1) / count);
+        }
+    }
+
+    /**
+     * Swap in the new model and empty the cache whenever {@code path} is
+     * imported again through {@link ModelIO}. Replaces any previous watch.
+     *
+     * @param path exported model file this cache's model came from
+     * @return this instance for chaining
+     */
+    public synchronized PredictionCache watch(Path path) {
+        Path source = Objects.requireNonNull(path, "path cannot be null").toAbsolutePath().normalize();
+        unwatch();
+        listener = (imported, importedModel) -> {
+            if (imported.equals(source)) {
+                replace(importedModel);
+            }
+        };
+        ModelIO.addImportListener(listener);
+        return this;
+    }
+
+    /**
+     * Replace the wrapped model and empty the cache.
+     *
+     * @param model new fitted model
+     */
+    public void replace(Model model) {
+        this.model = Objects.requireNonNull(model, "model cannot be null");
+        invalidate();
+    }
+
+    /**
+     * Drop every cached prediction. Predictions computed concurrently with the
+     * model that was current before this call are not cached.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * Cached prediction, computing and caching it on a miss.
+     *
+     * @param features feature vector; copied on insert, so it may be reused
+     * @return prediction, as the wrapped model's {@code predict} returns it
+     */
+    @Override
+    public Object predict(double[] features) {
+        Objects.requireNonNull(features, "features cannot be null");
+        Key key = new Key(features, hash(features));
+        Segment segment = segment(key);
+        Object cached;
+        synchronized (segment) {
+            cached = segment.get(key);
+        }
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        long version = generation.get();
+        Object prediction = model.predict(features);
+        store(segment, key, prediction, version);
+        return prediction;
+    }
+
+    /**
+     * Cached predictions for a batch; the misses are sent to the wrapped model
+     * in one {@link Model#predictBatch(double[][])} call.
+     *
+     * @param rows feature vectors
+     * @return prediction per row
+     */
+    @Override
+    public Object[] predictBatch(double[][] rows) {
+        Objects.requireNonNull(rows, "Rows cannot be null");
+        Object[] out = new Object[rows.length];
+        Key[] keys = new Key[rows.length];
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < rows.length; i++) {
+            keys[i] = new Key(Objects.requireNonNull(rows[i], "features cannot be null"), hash(rows[i]));
+            Segment segment = segment(keys[i]);
+            synchronized (segment) {
+                out[i] = segment.get(keys[i]);
+            }
+            if (out[i] == null) {
+                missing.add(i);
+            }
+        }
+        hits.add(rows.length - missing.size());
+        misses.add(missing.size());
+        if (missing.isEmpty()) {
+            return out;
+        }
+
+        long version = generation.get();
+        double[][] missRows = new double[missing.size()][];
+        for (int m = 0; m < missRows.length; m++) {
+            missRows[m] = rows[missing.get(m)];
+        }
+        Object[] predictions = model.predictBatch(missRows);
+        for (int m = 0; m < missRows.length; m++) {
+            int i = missing.get(m);
+            out[i] = predictions[m];
+            store(segment(keys[i]), keys[i], predictions[m], version);
+        }
+        return out;
+    }
+
+    /**
+     * Refit the wrapped model and empty the cache.
+     *
+     * @param data training data
+     * @return this instance
+     */
+    @Override
+    public PredictionCache fit(DataFrame data) {
+        model.fit(data);
+        invalidate();
+        return this;
+    }
+
+    /**
+     * Score the wrapped model directly, bypassing the cache.
+     *
+     * @param data labeled data
+     * @return the wrapped model's score
+     */
+    @Override
+    public double score(DataFrame data) {
+        return model.score(data);
+    }
+
+    @Override
+    public boolean export(Path path) {
+        return model.export(path);
+    }
+
+    @Override
+    public DTO toDTO() {
+        return model.toDTO();
+    }
+
+    /**
+     * @return the wrapped model
+     */
+    public Model getModel() {
+        return model;
+    }
+
+    /**
+     * @return number of lookups answered from the cache
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of lookups that had to run the model
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return fraction of lookups answered from the cache, 0 before any lookup
+     */
+    public double hitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    /**
+     * @return number of entries evicted to stay within the size bound
+     */
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return number of cached predictions
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Stop watching for re-imports. The cache remains usable.
+     */
+    @Override
+    public synchronized void close() {
+        unwatch();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PredictionCache [model=%s, size=%d, hitRate=%.3f]",
+                model.getClass().getSimpleName(), size(), hitRate());
+    }
+
+    private void unwatch() {
+        if (listener != null) {
+            ModelIO.removeImportListener(listener);
+            listener = null;
+        }
+    }
+
+    private void store(Segment segment, Key key, Object prediction, long version) {
+        if (prediction == null) {
+            return;
+        }
+        Key owned = new Key(key.values.clone(), key.hash);
+        synchronized (segment) {
+            // skip results of a model that was replaced while they were computed
+            if (generation.get() == version) {
+                segment.put(owned, prediction);
+            }
+        }
+    }
+
+    private Segment segment(Key key) {
+        return segments[(int) (key.hash >>> 40) & (segments.length - 1)];
+    }
+
+    static long hash(double[] values) {
+        long h = 0x9E3779B97F4A7C15L ^ values.length;
+        for (double v : values) {
+            h ^= Double.doubleToLongBits(v);
+            h *= 0xBF58476D1CE4E5B9L;
+            h ^= h >>> 31;
+        }
+        h *= 0x94D049BB133111EBL;
+        return h ^ (h >>> 29);
+    }
+}
@@ -0,0 +1,225 @@
+package com.hindbiswas.ml.util;
+
+import java.util.Objects;
+
+/**
+ * Limited-memory BFGS minimizer for smooth, unconstrained objectives.
+ *
+ * <p>
+ * The inverse Hessian is approximated from the last {@link #HISTORY}
+ * position/gradient differences with the two-loop recursion, and each step
+ * is chosen by a backtracking line search satisfying the Armijo condition.
+ * Iteration stops once the largest gradient component falls below the
+ * tolerance, the iteration limit is reached, or the line search can no longer
+ * decrease the objective.
+ * </p>
+ */
+public final class LBFGS {
+    /** Number of correction pairs kept. */
+    public static final int HISTORY = 10;
+
+    private static final double ARMIJO = 1e-4;
+    private static final int MAX_BACKTRACKS = 40;
+
+    private LBFGS() {
+    }
+
+    /**
+     * A differentiable objective.
+     */
+    @FunctionalInterface
+    public interface Objective {
+        /**
+         * Evaluate the objective at {@code x}.
+         *
+         * @param x    point (do not modify)
+         * @param grad receives the gradient at {@code x}
+         * @return objective value at {@code x}
+         */
+        double evaluate(double[] x, double[] grad);
+    }
+
+    /**
+     * Observes the minimizer after each accepted step.
+     */
+    @FunctionalInterface
+    public interface Progress {
+        /**
+         * @param iteration 0-based iteration just completed
+         * @param value     objective value at {@code x}
+         * @param x         current point (do not modify)
+         * @param grad      gradient at {@code x} (do not modify)
+         */
+        void iteration(int iteration, double value, double[] x, double[] grad);
+    }
+
+    /**
+     * Minimize {@code f} starting from {@code x}, which is updated in place.
+     *
+     * @param f             objective
+     * @param x             starting point; holds the minimizer on return
+     * @param maxIterations iteration limit (must be &gt; 0)
+     * @param tolerance     stop once every gradient component is below this
+     * @return number of iterations run
+     * @throws IllegalArgumentException if {@code maxIterations} &le; 0
+     * @throws IllegalStateException    if the objective is not finite at the
+     *                                  starting point
+     */
+    public static int minimize(Objective f, double[] x, int maxIterations, double tolerance)
+            throws IllegalArgumentException, IllegalStateException {
+        return minimize(f, x, maxIterations, tolerance, null);
+    }
+
+    /**
+     * Minimize {@code f} starting from {@code x}, reporting each accepted step.
+     *
+     * @param f             objective
+     * @param x             starting point; holds the minimizer on return
+     * @param maxIterations iteration limit (must be &gt; 0)
+     * @param tolerance     stop once every gradient component is below this
+     * @param progress      called after each accepted step; may be null
+     * @return number of iterations run
+     * @throws IllegalArgumentException if {@code maxIterations} &le; 0
+     * @throws IllegalStateException    if the objective is not finite at the
+     *                                  starting point
+     */
+    public static int minimize(Objective f, double[] x, int maxIterations, double tolerance, Progress progress)
+            throws IllegalArgumentException, IllegalStateException {
+        Objects.requireNonNull(f, "Objective is null.");
+        if (maxIterations <= 0) {
+            throw new IllegalArgumentException("maxIterations must be > 0");
+        }
+
+        int n = x.length;
+        double[][] s = new double[HISTORY][n];
+        double[][] y = new double[HISTORY][n];
+        double[] rho = new double[HISTORY];
+        double[] alpha = new double[HISTORY];
+        double[] grad = new double[n];
+        double[] nextGrad = new double[n];
+        double[] next = new double[n];
+        double[] dir = new double[n];
+
+        double value = f.evaluate(x, grad);
+        if (!Double.isFinite(value)) {
+            throw new IllegalStateException("Objective is not finite at the starting point.");
+        }
+
+        int stored = 0;
+        int head = 0; // slot of the oldest pair once the history is full
+        int iter = 0;
+        while (iter < maxIterations && maxAbs(grad) >= tolerance) {
+            iter++;
+
+            // Two-loop recursion: dir = -H * grad
+            for (int i = 0; i < n; i++) {
+                dir[i] = -grad[i];
+            }
+            for (int k = stored - 1; k >= 0; k--) {
+                int slot = (head + k) % HISTORY;
+                alpha[slot] = rho[slot] * dot(s[slot], dir);
+                axpy(-alpha[slot], y[slot], dir);
+            }
+            if (stored > 0) {
+                int last = (head + stored - 1) % HISTORY;
+                double gamma = dot(s[last], y[last]) / dot(y[last], y[last]);
+                for (int i = 0; i < n; i++) {
+                    dir[i] *= gamma;
+                }
+            } else {
+                // No curvature yet: keep the first trial step at unit length.
+                double norm = Math.sqrt(dot(dir, dir));
+                if (norm > 1.0) {
+                    for (int i = 0; i < n; i++) {
+                        dir[i] /= norm;
+                    }
+                }
+            }
+            for (int k = 0; k < stored; k++) {
+                int slot = (head + k) % HISTORY;
+                double beta = rho[slot] * dot(y[slot], dir);
+                axpy(alpha[slot] - beta, s[slot], dir);
+            }
+
+            double slope = dot(grad, dir);
+            if (!(slope < 0)) {
+                // Not a descent direction; restart from steepest descent.
+                stored = 0;
+                head = 0;
+                for (int i = 0; i < n; i++) {
+                    dir[i] = -grad[i];
+                }
+                slope = dot(grad, dir);
+            }
+
+            // Backtracking line search on the Armijo condition
+            double step = 1.0;
+            double nextValue = Double.NaN;
+            boolean accepted = false;
+            for (int b = 0; b < MAX_BACKTRACKS; b++) {
+                for (int i = 0; i < n; i++) {
+                    next[i] = x[i] + step * dir[i];
+                }
+                nextValue = f.evaluate(next, nextGrad);
+                if (Double.isFinite(nextValue) && nextValue <= value + ARMIJO * step * slope) {
+                    accepted = true;
+                    break;
+                }
+                step *= 0.5;
+            }
+            if (!accepted) {
+                break;
+            }
+
+            // Store the correction pair, dropping the oldest when full; pairs
+            // without positive curvature would break the approximation.
+            double sy = 0.0;
+            for (int i = 0; i < n; i++) {
+                sy += (next[i] - x[i]) * (nextGrad[i] - grad[i]);
+            }
+            if (sy > 1e-10) {
+                int slot = stored < HISTORY ? (head + stored) % HISTORY : head;
+                for (int i = 0; i < n; i++) {
+                    s[slot][i] = next[i] - x[i];
+                    y[slot][i] = nextGrad[i] - grad[i];
+                }
+                rho[slot] = 1.0 / sy;
+                if (stored < HISTORY) {
+                    stored++;
+                } else {
+                    head = (head + 1) % HISTORY;
+                }
+            }
+
+            System.arraycopy(next, 0, x, 0, n);
+            System.arraycopy(nextGrad, 0, grad, 0, n);
+            value = nextValue;
+            if (progress != null) {
+                progress.iteration(iter - 1, value, x, grad);
+            }
+        }
+        return iter;
+    }
+
+    private static double dot(double[] a, double[] b) {
+        double sum = 0.0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    private static void axpy(double a, double[] x, double[] y) {
+        for (int i = 0; i < x.length; i++) {
+            y[i] += a * x[i];
+        }
+    }
+
+    private static double maxAbs(double[] v) {
+        double max = 0.0;
+        for (double d : v) {
+            max = Math.max(max, Math.abs(d));
+        }
+        return max;
+    }
+}
@@ -28,6 +28,29 @@ public class Matrix {
         return matrix;
     }
 
+    /**
+     * {@code theta[0] + Σ theta[j + 1] * x[j]}: the dot product of a parameter
+     * vector with a feature row that has an implicit leading 1 for the bias.
+     */
+    public static double dotWithBias(double[] theta, double[] x) {
+        double sum = theta[0];
+        for (int j = 0; j < x.length; j++) {
+            sum += theta[j + 1] * x[j];
+        }
+        return sum;
+    }
+
+    /**
+     * Euclidean (L2) norm of a vector.
+     */
+    public static double norm(double[] v) {
+        double sum = 0.0;
+        for (double d : v) {
+            sum += d * d;
+        }
+        return Math.sqrt(sum);
+    }
+
     public static SimpleMatrix row(ArrayList<Double> data) {
         double[] dataArray = new double[data.size() + 1];
         dataArray[0] = 1.0;
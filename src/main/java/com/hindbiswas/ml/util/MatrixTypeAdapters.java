@@ -0,0 +1,229 @@
+package com.hindbiswas.ml.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.hindbiswas.ml.dto.LayerDTO;
+
+/**
+ * Streaming Gson adapters for the primitive arrays found in model DTOs.
+ *
+ * <p>
+ * Gson's built-in array adapters read every element into a boxed
+ * {@code ArrayList<Double>} before copying it into the target array. These
+ * adapters read numbers straight into primitive arrays and write them value by
+ * value, so exporting or importing a model never holds more than the model
+ * itself plus one row of scratch space.
+ * </p>
+ */
+final class MatrixTypeAdapters {
+    private static final int INITIAL_ROW_CAPACITY = 16;
+
+    private MatrixTypeAdapters() {
+    }
+
+    static TypeAdapter<double[]> vector() {
+        return new VectorAdapter().nullSafe();
+    }
+
+    static TypeAdapter<double[][]> matrix() {
+        return new MatrixAdapter().nullSafe();
+    }
+
+    static TypeAdapter<LayerDTO> layer() {
+        return new LayerAdapter().nullSafe();
+    }
+
+    private static void writeRow(JsonWriter out, double[] row) throws IOException {
+        out.beginArray();
+        for (double v : row) {
+            if (Double.isNaN(v) || Double.isInfinite(v)) {
+                throw new IllegalArgumentException(v + " is not a valid double value as per JSON specification.");
+            }
+            out.value(v);
+        }
+        out.endArray();
+    }
+
+    private static void writeMatrix(JsonWriter out, double[][] matrix) throws IOException {
+        out.beginArray();
+        for (double[] row : matrix) {
+            writeRow(out, row);
+        }
+        out.endArray();
+    }
+
+    /**
+     * Read a row of unknown length, growing {@code hint} only when the row turns
+     * out to be longer than expected.
+     */
+    private static double[] readRow(JsonReader in, int hint) throws IOException {
+        double[] row = new double[Math.max(hint, INITIAL_ROW_CAPACITY)];
+        int n = 0;
+        in.beginArray();
+        while (in.hasNext()) {
+            if (n == row.length) {
+                row = Arrays.copyOf(row, row.length + (row.length >> 1) + 1);
+            }
+            row[n++] = in.nextDouble();
+        }
+        in.endArray();
+        return n == row.length ? row : Arrays.copyOf(row, n);
+    }
+
+    private static double[][] readMatrix(JsonReader in) throws IOException {
+        ArrayList<double[]> rows = new ArrayList<>();
+        int width = 0;
+        in.beginArray();
+        while (in.hasNext()) {
+            double[] row = readRow(in, width);
+            width = row.length;
+            rows.add(row);
+        }
+        in.endArray();
+        return rows.toArray(new double[0][]);
+    }
+
+    /**
+     * Read a matrix whose shape is already known into a preallocated array.
+     */
+    private static double[][] readMatrix(JsonReader in, int rows, int cols) throws IOException {
+        double[][] out = new double[rows][cols];
+        int r = 0;
+        in.beginArray();
+        while (in.hasNext()) {
+            if (r == rows) {
+                throw new JsonParseException("Matrix has more than the declared " + rows + " rows.");
+            }
+            double[] row = out[r++];
+            int c = 0;
+            in.beginArray();
+            while (in.hasNext()) {
+                if (c == cols) {
+                    throw new JsonParseException("Matrix row has more than the declared " + cols + " columns.");
+                }
+                row[c++] = in.nextDouble();
+            }
+            in.endArray();
+            if (c != cols) {
+                throw new JsonParseException(
+                        String.format("Expected %d columns in matrix row %d, but got %d.", cols, r - 1, c));
+            }
+        }
+        in.endArray();
+        if (r != rows) {
+            throw new JsonParseException(String.format("Expected %d matrix rows, but got %d.", rows, r));
+        }
+        return out;
+    }
+
+    private static final class VectorAdapter extends TypeAdapter<double[]> {
+        @Override
+        public void write(JsonWriter out, double[] value) throws IOException {
+            writeRow(out, value);
+        }
+
+        @Override
+        public double[] read(JsonReader in) throws IOException {
+            return readRow(in, 0);
+        }
+    }
+
+    private static final class MatrixAdapter extends TypeAdapter<double[][]> {
+        @Override
+        public void write(JsonWriter out, double[][] value) throws IOException {
+            writeMatrix(out, value);
+        }
+
+        @Override
+        public double[][] read(JsonReader in) throws IOException {
+            return readMatrix(in);
+        }
+    }
+
+    /**
+     * Writes fields in the same order as Gson's reflective adapter so the output
+     * is unchanged, and reads {@link LayerDTO#weights} into an array sized from
+     * {@code perceptrons x (inputs + 1)} when those fields come first.
+     */
+    private static final class LayerAdapter extends TypeAdapter<LayerDTO> {
+        @Override
+        public void write(JsonWriter out, LayerDTO dto) throws IOException {
+            out.beginObject();
+            out.name("inputs").value(dto.inputs);
+            out.name("perceptrons").value(dto.perceptrons);
+            if (dto.activationName != null) {
+                out.name("activationName").value(dto.activationName);
+            }
+            if (dto.weights != null) {
+                out.name("weights");
+                writeMatrix(out, dto.weights);
+            }
+            if (dto.libraryVersion != null) {
+                out.name("libraryVersion").value(dto.libraryVersion);
+            }
+            if (dto.schemaVersion != null) {
+                out.name("schemaVersion").value(dto.schemaVersion);
+            }
+            out.endObject();
+        }
+
+        @Override
+        public LayerDTO read(JsonReader in) throws IOException {
+            LayerDTO dto = new LayerDTO();
+            boolean hasInputs = false;
+            boolean hasPerceptrons = false;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "inputs":
+                        dto.inputs = in.nextInt();
+                        hasInputs = true;
+                        break;
+                    case "perceptrons":
+                        dto.perceptrons = in.nextInt();
+                        hasPerceptrons = true;
+                        break;
+                    case "activationName":
+                        dto.activationName = nextStringOrNull(in);
+                        break;
+                    case "weights":
+                        if (in.peek() == JsonToken.NULL) {
+                            in.nextNull();
+                        } else if (hasInputs && hasPerceptrons) {
+                            dto.weights = readMatrix(in, dto.perceptrons, dto.inputs + 1);
+                        } else {
+                            dto.weights = readMatrix(in);
+                        }
+                        break;
+                    case "libraryVersion":
+                        dto.libraryVersion = nextStringOrNull(in);
+                        break;
+                    case "schemaVersion":
+                        dto.schemaVersion = nextStringOrNull(in);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return dto;
+        }
+
+        private static String nextStringOrNull(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            return in.nextString();
+        }
+    }
+}
@@ -1,41 +1,113 @@
 package com.hindbiswas.ml.util;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.lang.reflect.Constructor;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import com.hindbiswas.ml.dto.DTO;
+import com.hindbiswas.ml.dto.LayerDTO;
+import com.hindbiswas.ml.metrics.ModelImportEvent;
 import com.hindbiswas.ml.models.Model;
 
 /**
  * Utility class for saving and loading {@link Model} instances to and from JSON
  * files.
- * 
+ *
  * <p>
  * This class handles:
  * <ul>
- * <li>Exporting models as JSON files.</li>
+ * <li>Exporting models as JSON files, optionally gzip-compressed.</li>
  * <li>Importing models back from JSON files using their corresponding
  * DTOs.</li>
  * </ul>
+ *
+ * <p>
+ * Both directions stream through Gson's {@link JsonWriter}/{@link JsonReader}
+ * over buffered file streams; the model is never materialized as a single JSON
+ * {@link String}, so peak memory stays close to the size of the model itself.
+ * </p>
  */
 public class ModelIO {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final String INDENT = "  ";
+
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(double[].class, MatrixTypeAdapters.vector())
+            .registerTypeAdapter(double[][].class, MatrixTypeAdapters.matrix())
+            .registerTypeAdapter(LayerDTO.class, MatrixTypeAdapters.layer())
+            .create();
+
+    private static final List<BiConsumer<Path, Model>> IMPORT_LISTENERS = new CopyOnWriteArrayList<>();
 
     /**
-     * Exports the given {@link Model} to a specified file path as JSON.
+     * Register a callback run after every successful
+     * {@link #importModel(Path, Class, Class)}, e.g. to invalidate state derived
+     * from an earlier import of the same file. Listeners run on the importing
+     * thread and receive the absolute, normalized path.
+     *
+     * @param listener callback receiving the path and the imported model
+     */
+    public static void addImportListener(BiConsumer<Path, Model> listener) {
+        IMPORT_LISTENERS.add(Objects.requireNonNull(listener, "listener cannot be null"));
+    }
+
+    /**
+     * @param listener callback previously passed to
+     *                 {@link #addImportListener(BiConsumer)}
+     */
+    public static void removeImportListener(BiConsumer<Path, Model> listener) {
+        IMPORT_LISTENERS.remove(listener);
+    }
+
+    /**
+     * Exports the given {@link Model} to a specified file path as pretty-printed
+     * JSON.
      *
      * @param path  the path where the model should be saved
      * @param model the model instance to export
      * @return {@code true} if the export was successful, {@code false} otherwise
      */
     public static boolean export(Path path, Model model) {
+        return export(path, model, false);
+    }
+
+    /**
+     * Exports the given {@link Model} to a specified file path as JSON.
+     *
+     * <p>
+     * Uncompressed output is pretty-printed, matching {@link Model#toString()}.
+     * Compressed output is written compactly and gzip-encoded.
+     * </p>
+     *
+     * @param path     the path where the model should be saved
+     * @param model    the model instance to export
+     * @param compress whether to gzip the output
+     * @return {@code true} if the export was successful, {@code false} otherwise
+     */
+    public static boolean export(Path path, Model model, boolean compress) {
         System.out.println("Exporting model to " + path);
         try {
-            String json = model.toString();
-            Files.write(path, json.getBytes(StandardCharsets.UTF_8));
+            writeDTO(path, model.toDTO(), compress);
             System.out.println("Model exported to " + path);
             return true;
         } catch (Exception e) {
@@ -51,7 +123,8 @@ public class ModelIO {
      *
      * <p>
      * The method attempts to construct the model using a constructor that
-     * accepts the provided {@code dtoClass} type.
+     * accepts the provided {@code dtoClass} type. Gzip-compressed files written
+     * by {@link #export(Path, Model, boolean)} are detected automatically.
      * </p>
      *
      * @param <D>        the type of the DTO used for deserialization
@@ -66,11 +139,29 @@ public class ModelIO {
     public static <D extends DTO, M extends Model> M importModel(Path path, Class<D> dtoClass, Class<M> modelClass)
             throws Exception {
         System.out.println("Importing model from " + path);
-        String json = Files.readString(path, StandardCharsets.UTF_8);
-        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        ModelImportEvent event = ModelImportEvent.start();
+        D dto = readDTO(path, dtoClass);
+        M model = construct(dto, dtoClass, modelClass);
+        event.finish(modelClass, path, event.isEnabled() ? sizeOf(path) : -1);
+        if (!IMPORT_LISTENERS.isEmpty()) {
+            Path source = path.toAbsolutePath().normalize();
+            for (BiConsumer<Path, Model> listener : IMPORT_LISTENERS) {
+                listener.accept(source, model);
+            }
+        }
+        return model;
+    }
 
-        D dto = gson.fromJson(json, dtoClass);
+    private static long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
 
+    private static <D extends DTO, M extends Model> M construct(D dto, Class<D> dtoClass, Class<M> modelClass)
+            throws Exception {
         try {
             Constructor<M> ctor = modelClass.getConstructor(dtoClass);
             return ctor.newInstance(dto);
@@ -87,4 +178,74 @@ public class ModelIO {
                     + " that accepts " + dtoClass.getName());
         }
     }
+
+    /**
+     * Stream a DTO to disk as JSON.
+     *
+     * @param path     destination path
+     * @param dto      DTO to serialize
+     * @param compress whether to gzip the output
+     * @throws IOException if writing fails
+     */
+    public static void writeDTO(Path path, DTO dto, boolean compress) throws IOException {
+        try (OutputStream file = Files.newOutputStream(path)) {
+            OutputStream os = new BufferedOutputStream(file, BUFFER_SIZE);
+            if (compress) {
+                os = new GZIPOutputStream(os, BUFFER_SIZE);
+            }
+            try (JsonWriter writer = new JsonWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8))) {
+                if (!compress) {
+                    writer.setIndent(INDENT);
+                }
+                GSON.toJson(dto, dto.getClass(), writer);
+            }
+        }
+    }
+
+    /**
+     * Write a DTO as a gzip-compressed checkpoint, replacing {@code path}
+     * atomically so a crash mid-write never leaves a truncated checkpoint behind.
+     *
+     * @param path destination path
+     * @param dto  DTO to serialize
+     * @throws IOException if writing or the final move fails
+     */
+    public static void checkpoint(Path path, DTO dto) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        writeDTO(tmp, dto, true);
+        try {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Stream a DTO from a JSON file, transparently handling gzip.
+     *
+     * @param <D>      the type of the DTO
+     * @param path     source path
+     * @param dtoClass the class type of the DTO
+     * @return the deserialized DTO
+     * @throws IOException if reading fails
+     */
+    public static <D extends DTO> D readDTO(Path path, Class<D> dtoClass) throws IOException {
+        try (InputStream file = Files.newInputStream(path)) {
+            InputStream is = new BufferedInputStream(file, BUFFER_SIZE);
+            if (isGzip(is)) {
+                is = new BufferedInputStream(new GZIPInputStream(is, BUFFER_SIZE), BUFFER_SIZE);
+            }
+            try (JsonReader reader = new JsonReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
+                return GSON.fromJson(reader, dtoClass);
+            }
+        }
+    }
+
+    private static boolean isGzip(InputStream is) throws IOException {
+        is.mark(2);
+        int b0 = is.read();
+        int b1 = is.read();
+        is.reset();
+        return b0 == (GZIPInputStream.GZIP_MAGIC & 0xff) && b1 == (GZIPInputStream.GZIP_MAGIC >>> 8);
+    }
 }
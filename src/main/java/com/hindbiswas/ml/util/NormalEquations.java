@@ -0,0 +1,233 @@
+package com.hindbiswas.ml.util;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.factory.LinearSolverFactory_DDRM;
+import org.ejml.interfaces.linsol.LinearSolverDense;
+
+import com.hindbiswas.ml.data.DataFrame;
+
+/**
+ * Streaming accumulator for the least-squares normal equations
+ * {@code (XᵀWX) θ = XᵀWy}.
+ *
+ * <p>
+ * Rows are added one at a time with an implicit leading bias column, so
+ * {@code θ[0]} is the intercept and {@code θ[j + 1]} the weight of feature
+ * {@code j}. Only the {@code (n+1)x(n+1)} Gram matrix and the
+ * {@code (n+1)}-vector {@code XᵀWy} are kept, so memory does not depend on
+ * the number of rows. Accumulators built over disjoint rows can be combined
+ * with {@link #merge(NormalEquations)}, which is how
+ * {@link #of(DataFrame)} fills them in parallel.
+ * </p>
+ *
+ * <p>
+ * {@link #solve(double)} uses a Cholesky factorization and falls back to an
+ * SVD pseudo-inverse when the system is singular or badly conditioned (e.g.
+ * collinear features), returning the minimum-norm solution.
+ * </p>
+ */
+public class NormalEquations {
+    // Smallest accepted ratio of the Cholesky factor's smallest to largest
+    // diagonal entry (its square estimates the reciprocal condition number);
+    // below this the system is redone with the SVD.
+    private static final double MIN_QUALITY = 1e-8;
+
+    private final int dim;
+    // Upper triangle of XᵀWX, row-major; mirrored when solving.
+    private final double[] xtx;
+    private final double[] xty;
+    private long rows;
+    private double weightSum;
+
+    /**
+     * @param features number of features per row (excluding the bias)
+     * @throws IllegalArgumentException if {@code features} &lt; 1
+     */
+    public NormalEquations(int features) throws IllegalArgumentException {
+        if (features < 1) {
+            throw new IllegalArgumentException("Feature vectors must have at least one feature.");
+        }
+        this.dim = features + 1;
+        this.xtx = new double[dim * dim];
+        this.xty = new double[dim];
+    }
+
+    /**
+     * Accumulate every row of {@code df}, using its labels as targets. Rows are
+     * split into shards accumulated in parallel and then merged.
+     *
+     * @param df training data
+     * @return the filled accumulator
+     * @throws NullPointerException if {@code df} is null
+     */
+    public static NormalEquations of(DataFrame df) throws NullPointerException {
+        Objects.requireNonNull(df, "DataFrame is null.");
+        double[] labels = df.getLabels();
+        return Shards.reduce(df.size(), () -> new NormalEquations(df.featureCount()), (ne, start, end) -> {
+            for (int i = start; i < end; i++) {
+                ne.add(df.getFeaturesRef(i), labels[i]);
+            }
+        }, NormalEquations::merge);
+    }
+
+    /**
+     * Add a row with weight 1.
+     *
+     * @param x features (without bias)
+     * @param y target
+     * @return this accumulator
+     * @throws IllegalArgumentException if {@code x} has the wrong length
+     */
+    public NormalEquations add(double[] x, double y) throws IllegalArgumentException {
+        return add(x, y, 1.0);
+    }
+
+    /**
+     * Add a weighted row.
+     *
+     * @param x      features (without bias)
+     * @param y      target
+     * @param weight row weight (must be &ge; 0)
+     * @return this accumulator
+     * @throws IllegalArgumentException if {@code x} has the wrong length or the
+     *                                  weight is negative
+     */
+    public NormalEquations add(double[] x, double y, double weight) throws IllegalArgumentException {
+        if (x.length != dim - 1) {
+            throw new IllegalArgumentException(
+                    String.format("Expected %d features, but got %d.", dim - 1, x.length));
+        }
+        if (!(weight >= 0)) {
+            throw new IllegalArgumentException("Weight must be non-negative.");
+        }
+
+        // bias row/column
+        xtx[0] += weight;
+        xty[0] += weight * y;
+        for (int j = 0; j < x.length; j++) {
+            double wx = weight * x[j];
+            xtx[j + 1] += wx;
+            xty[j + 1] += wx * y;
+            int row = (j + 1) * dim;
+            for (int k = j; k < x.length; k++) {
+                xtx[row + k + 1] += wx * x[k];
+            }
+        }
+        rows++;
+        weightSum += weight;
+        return this;
+    }
+
+    /**
+     * Fold the rows accumulated by {@code other} into this accumulator.
+     *
+     * @param other accumulator over disjoint rows with the same feature count
+     * @return this accumulator
+     * @throws IllegalArgumentException if the feature counts differ
+     */
+    public NormalEquations merge(NormalEquations other) throws IllegalArgumentException {
+        if (other.dim != dim) {
+            throw new IllegalArgumentException(
+                    String.format("Expected %d features, but got %d.", dim - 1, other.dim - 1));
+        }
+        for (int i = 0; i < xtx.length; i++) {
+            xtx[i] += other.xtx[i];
+        }
+        for (int i = 0; i < dim; i++) {
+            xty[i] += other.xty[i];
+        }
+        rows += other.rows;
+        weightSum += other.weightSum;
+        return this;
+    }
+
+    /**
+     * @return number of rows added
+     */
+    public long rows() {
+        return rows;
+    }
+
+    /**
+     * @return sum of row weights
+     */
+    public double weightSum() {
+        return weightSum;
+    }
+
+    /**
+     * @return number of features (excluding the bias)
+     */
+    public int features() {
+        return dim - 1;
+    }
+
+    /**
+     * Ordinary least squares solution.
+     *
+     * @return {@code θ}, intercept first
+     * @throws IllegalStateException if no rows have been added
+     * @see #solve(double)
+     */
+    public double[] solve() throws IllegalStateException {
+        return solve(0.0);
+    }
+
+    /**
+     * Ridge solution of {@code (XᵀWX + λI') θ = XᵀWy}, where {@code I'} is the
+     * identity without its intercept entry so the intercept is not shrunk.
+     *
+     * @param lambda ridge penalty (0 for ordinary least squares)
+     * @return {@code θ}, intercept first
+     * @throws IllegalArgumentException if {@code lambda} is negative
+     * @throws IllegalStateException    if no rows have been added, or the system
+     *                                  cannot be solved
+     */
+    public double[] solve(double lambda) throws IllegalArgumentException, IllegalStateException {
+        if (!(lambda >= 0)) {
+            throw new IllegalArgumentException("Ridge penalty must be non-negative.");
+        }
+        if (rows == 0) {
+            throw new IllegalStateException("No rows have been added.");
+        }
+
+        DMatrixRMaj a = new DMatrixRMaj(dim, dim);
+        for (int i = 0; i < dim; i++) {
+            for (int j = i; j < dim; j++) {
+                double v = xtx[i * dim + j];
+                a.unsafe_set(i, j, v);
+                a.unsafe_set(j, i, v);
+            }
+            if (i > 0) {
+                a.unsafe_set(i, i, a.unsafe_get(i, i) + lambda);
+            }
+        }
+        DMatrixRMaj b = new DMatrixRMaj(dim, 1, true, xty);
+        DMatrixRMaj theta = new DMatrixRMaj(dim, 1);
+
+        LinearSolverDense<DMatrixRMaj> chol = LinearSolverFactory_DDRM.chol(dim);
+        if (chol.setA(a.copy()) && chol.quality() > MIN_QUALITY) {
+            chol.solve(b, theta);
+            if (isFinite(theta.data)) {
+                return theta.data;
+            }
+        }
+
+        LinearSolverDense<DMatrixRMaj> svd = LinearSolverFactory_DDRM.pseudoInverse(true);
+        if (!svd.setA(a)) {
+            throw new IllegalStateException("Failed to solve the normal equations.");
+        }
+        svd.solve(b, theta);
+        if (!isFinite(theta.data)) {
+            throw new IllegalStateException("Failed to solve the normal equations.");
+        }
+        return theta.data;
+    }
+
+    private static boolean isFinite(double[] v) {
+        return Arrays.stream(v).allMatch(Double::isFinite);
+    }
+}
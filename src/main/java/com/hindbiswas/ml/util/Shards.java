@@ -0,0 +1,131 @@
+package com.hindbiswas.ml.util;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Fork/join reduction over contiguous row ranges.
+ *
+ * <p>
+ * The rows {@code [0, size)} are split in halves until a shard holds at most
+ * {@code grain} rows. Each shard accumulates into its own partial result,
+ * created by {@code identity}, and sibling partials are combined with
+ * {@code merge}. Inputs at or below the grain size run inline on the calling
+ * thread.
+ * </p>
+ *
+ * <p>
+ * The default grain is sized from the pool rather than fixed, giving each
+ * worker a few shards: enough to balance load, while the number of partials
+ * stays independent of the input size. This matters when partials are large,
+ * e.g. class &times; feature count tables over a big vocabulary.
+ * </p>
+ */
+public final class Shards {
+    /** Smallest default grain; inputs of at most this many rows run inline. */
+    public static final int DEFAULT_GRAIN = 8192;
+
+    /** Shards per worker thread under the default grain. */
+    private static final int SHARDS_PER_WORKER = 4;
+
+    private Shards() {
+    }
+
+    /**
+     * Accumulates rows {@code [start, end)} into a partial result.
+     *
+     * @param <S> partial result type
+     */
+    @FunctionalInterface
+    public interface RangeAccumulator<S> {
+        void accumulate(S partial, int start, int end);
+    }
+
+    /**
+     * Reduce {@code [0, size)} with the default grain, so that at most a few
+     * partial results are created per worker of the common pool.
+     *
+     * @see #reduce(int, int, Supplier, RangeAccumulator, BinaryOperator)
+     */
+    public static <S> S reduce(int size, Supplier<S> identity, RangeAccumulator<S> body, BinaryOperator<S> merge) {
+        return reduce(size, grain(size), identity, body, merge);
+    }
+
+    /**
+     * Default grain for {@code size} rows: {@code size / (4 * parallelism)},
+     * but never below {@link #DEFAULT_GRAIN}.
+     *
+     * @param size number of rows
+     * @return maximum rows per shard
+     */
+    public static int grain(int size) {
+        long shards = (long) SHARDS_PER_WORKER * ForkJoinPool.getCommonPoolParallelism();
+        return (int) Math.max(DEFAULT_GRAIN, (size + shards - 1) / shards);
+    }
+
+    /**
+     * Reduce {@code [0, size)} in parallel on the common fork/join pool.
+     *
+     * @param <S>      partial result type
+     * @param size     number of rows
+     * @param grain    maximum rows per shard (must be &gt; 0)
+     * @param identity creates an empty partial result
+     * @param body     accumulates a row range into a partial result
+     * @param merge    combines two partial results; may return either argument
+     * @return the merged result
+     * @throws IllegalArgumentException if {@code size} &lt; 0 or {@code grain}
+     *                                  &le; 0
+     */
+    public static <S> S reduce(int size, int grain, Supplier<S> identity, RangeAccumulator<S> body,
+            BinaryOperator<S> merge) throws IllegalArgumentException {
+        if (size < 0) {
+            throw new IllegalArgumentException("size must be >= 0");
+        }
+        if (grain <= 0) {
+            throw new IllegalArgumentException("grain must be > 0");
+        }
+        if (size <= grain) {
+            S partial = identity.get();
+            body.accumulate(partial, 0, size);
+            return partial;
+        }
+        return ForkJoinPool.commonPool().invoke(new ShardTask<>(0, size, grain, identity, body, merge));
+    }
+
+    @SuppressWarnings("serial")
+    private static final class ShardTask<S> extends RecursiveTask<S> {
+        private final int start;
+        private final int end;
+        private final int grain;
+        private final Supplier<S> identity;
+        private final RangeAccumulator<S> body;
+        private final BinaryOperator<S> merge;
+
+        ShardTask(int start, int end, int grain, Supplier<S> identity, RangeAccumulator<S> body,
+                BinaryOperator<S> merge) {
+            this.start = start;
+            this.end = end;
+            this.grain = grain;
+            this.identity = identity;
+            this.body = body;
+            this.merge = merge;
+        }
+
+        @Override
+        protected S compute() {
+            if (end - start <= grain) {
+                S partial = identity.get();
+                body.accumulate(partial, start, end);
+                return partial;
+            }
+            int mid = (start + end) >>> 1;
+            ShardTask<S> left = new ShardTask<>(start, mid, grain, identity, body, merge);
+            ShardTask<S> right = new ShardTask<>(mid, end, grain, identity, body, merge);
+            left.fork();
+            S r = right.compute();
+            return merge.apply(left.join(), r);
+        }
+    }
+}
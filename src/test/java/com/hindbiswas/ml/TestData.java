@@ -0,0 +1,50 @@
+package com.hindbiswas.ml;
+
+import java.util.Random;
+
+import com.hindbiswas.ml.data.DataFrame;
+
+/**
+ * Synthetic datasets shared by the tests.
+ */
+public final class TestData {
+
+    private TestData() {
+    }
+
+    /**
+     * Two well separated Gaussian blobs in 2-D: label 0 around (0, 0), label 1
+     * around (4, 4).
+     *
+     * @param perClass rows per class
+     * @param seed     random seed
+     * @return rows interleaved by class
+     */
+    public static DataFrame blobs(int perClass, long seed) {
+        return blobs(perClass, seed, new double[][] { { 0, 0 }, { 4, 4 } }, new double[] { 0, 1 });
+    }
+
+    /**
+     * Unit-variance Gaussian blobs, one per center.
+     *
+     * @param perClass rows per class
+     * @param seed     random seed
+     * @param centers  blob centers, all of the same dimension
+     * @param labels   label of each blob
+     * @return rows interleaved by class, in the order of {@code centers}
+     */
+    public static DataFrame blobs(int perClass, long seed, double[][] centers, double[] labels) {
+        Random rng = new Random(seed);
+        DataFrame df = new DataFrame(centers[0].length);
+        for (int i = 0; i < perClass; i++) {
+            for (int c = 0; c < centers.length; c++) {
+                double[] row = new double[centers[c].length];
+                for (int j = 0; j < row.length; j++) {
+                    row[j] = centers[c][j] + rng.nextGaussian();
+                }
+                df.add(row, labels[c]);
+            }
+        }
+        return df;
+    }
+}
@@ -331,4 +331,54 @@ class DataFrameTest {
         // ensure appended block matches b
         assertArrayEquals(b.getFeatures(0), a.getFeatures(2));
     }
+
+    @Test
+    void testRelabelSharesRowsWithNewLabels() {
+        DataFrame view = df3.relabel(new double[] { 1, -1, 1, -1, 1, -1 });
+        assertEquals(df3.size(), view.size());
+        assertArrayEquals(df3.getFeatures(1), view.getFeatures(1));
+        assertEquals(-1.0, view.getLabel(1));
+        assertNotEquals(-1.0, df3.getLabel(1));
+        assertThrows(IllegalArgumentException.class, () -> df3.relabel(new double[] { 1 }));
+    }
+
+    @Test
+    void testMutatingRelabelledViewLeavesSourceIntact() {
+        DataFrame expected = df3.deepCopy();
+        DataFrame view = df3.relabel(new double[] { 1, -1, 1, -1, 1, -1 });
+        view.remove(0);
+        view.add(new double[] { 7, 8, 9 }, 1);
+        assertEquals(expected, df3);
+        assertArrayEquals(new double[] { 7, 8, 9 }, view.getFeatures(5));
+
+        view = df3.relabel(new double[] { 1, -1, 1, -1, 1, -1 });
+        view.clear();
+        assertEquals(expected, df3);
+    }
+
+    @Test
+    void testViewSharesSelectedRows() {
+        DataFrame view = df3.view(new int[] { 4, 1, 1 });
+        assertEquals(3, view.size());
+        assertSame(df3.getFeaturesRef(4), view.getFeaturesRef(0));
+        assertEquals(df3.getLabel(1), view.getLabel(2));
+        assertEquals(0, df3.view(new int[0]).size());
+        assertThrows(IndexOutOfBoundsException.class, () -> df3.view(new int[] { df3.size() }));
+    }
+
+    @Test
+    void testMutatingViewLeavesSourceIntact() {
+        DataFrame expected = df3.deepCopy();
+        DataFrame view = df3.view(new int[] { 0, 1, 2, 3 });
+        view.remove(0);
+        view.add(new double[] { 7, 8, 9 }, 1);
+        assertEquals(expected, df3);
+        assertArrayEquals(new double[] { 100, 101, 102 }, view.getFeatures(0));
+        assertArrayEquals(new double[] { 7, 8, 9 }, view.getFeatures(3));
+
+        view = df3.view(new int[] { 5, 5 });
+        view.clear();
+        view.add(new double[][] { { 1, 2, 3 } }, new double[] { 0 });
+        assertEquals(expected, df3);
+    }
 }
@@ -0,0 +1,63 @@
+package com.hindbiswas.ml.data;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LabelEncoderTest {
+
+    @Test
+    void testCodesFollowFirstAppearance() {
+        LabelEncoder enc = new LabelEncoder();
+        assertEquals(0, enc.encode(3.0));
+        assertEquals(1, enc.encode(-1.5));
+        assertEquals(0, enc.encode(3.0));
+        assertEquals(2, enc.encode(7.0));
+
+        assertEquals(3, enc.size());
+        assertEquals(1, enc.indexOf(-1.5));
+        assertEquals(-1, enc.indexOf(42.0));
+        assertEquals(7.0, enc.label(2));
+        assertArrayEquals(new double[] { 3.0, -1.5, 7.0 }, enc.labels());
+        assertThrows(IndexOutOfBoundsException.class, () -> enc.label(3));
+    }
+
+    @Test
+    void testGrowsPastInitialCapacity() {
+        LabelEncoder enc = new LabelEncoder();
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, enc.encode(i * 0.5));
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, enc.indexOf(i * 0.5));
+        }
+        enc.clear();
+        assertEquals(0, enc.size());
+        assertEquals(-1, enc.indexOf(0.0));
+    }
+
+    @Test
+    void testDataFrameCodesTrackMutations() {
+        DataFrame df = new DataFrame(1);
+        df.add(new double[] { 0 }, 5.0);
+        df.add(new double[] { 1 }, 2.0);
+        df.add(new double[] { 2 }, 5.0);
+        assertArrayEquals(new int[] { 0, 1, 0 }, df.getLabelCodes());
+        assertArrayEquals(new double[] { 5.0, 2.0 }, df.getUniqueLabels());
+
+        df.add(new double[] { 3 }, 9.0);
+        assertArrayEquals(new int[] { 0, 1, 0, 2 }, df.getLabelCodes());
+
+        df.shuffle(7);
+        LabelEncoder enc = df.getLabelEncoder();
+        int[] codes = df.getLabelCodes();
+        for (int i = 0; i < df.size(); i++) {
+            assertEquals(df.getLabel(i), enc.label(codes[i]));
+        }
+
+        df.remove(0);
+        assertEquals(df.size(), df.getLabelCodes().length);
+        df.clear();
+        assertEquals(0, df.getLabelCodes().length);
+    }
+}
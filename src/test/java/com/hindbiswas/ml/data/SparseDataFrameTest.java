@@ -0,0 +1,50 @@
+package com.hindbiswas.ml.data;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SparseDataFrameTest {
+
+    @Test
+    void testAddAndExpandRows() {
+        SparseDataFrame sdf = new SparseDataFrame(5);
+        sdf.add(new int[] { 1, 4 }, new double[] { 2.0, 3.0 }, 1.0);
+        sdf.add(new double[] { 0, 0, 7, 0, 0 }, 0.0);
+        sdf.add(new int[] {}, new double[] {}, 1.0);
+
+        assertEquals(3, sdf.size());
+        assertEquals(3, sdf.nonZeros());
+        assertArrayEquals(new double[] { 0, 2, 0, 0, 3 }, sdf.getFeatures(0));
+        assertArrayEquals(new double[] { 0, 0, 7, 0, 0 }, sdf.getFeatures(1));
+        assertArrayEquals(new double[5], sdf.getFeatures(2));
+        assertEquals(sdf.rowStart(2), sdf.rowEnd(2));
+        assertArrayEquals(new double[] { 1.0, 0.0, 1.0 }, sdf.getLabels());
+    }
+
+    @Test
+    void testFromDenseGrowsPastInitialCapacity() {
+        DataFrame df = new DataFrame(3);
+        for (int r = 0; r < 25; r++) {
+            df.add(new double[] { r % 2, 0, r }, r % 3);
+        }
+
+        SparseDataFrame sdf = SparseDataFrame.from(df);
+        assertEquals(df.size(), sdf.size());
+        for (int r = 0; r < df.size(); r++) {
+            assertArrayEquals(df.getFeatures(r), sdf.getFeatures(r));
+            assertEquals(df.getLabel(r), sdf.getLabel(r));
+        }
+    }
+
+    @Test
+    void testRejectsInvalidRows() {
+        SparseDataFrame sdf = new SparseDataFrame(3);
+        assertThrows(IllegalArgumentException.class, () -> sdf.add(new int[] { 0 }, new double[] { 1, 2 }, 0));
+        assertThrows(IllegalArgumentException.class, () -> sdf.add(new int[] { 2, 1 }, new double[] { 1, 2 }, 0));
+        assertThrows(IllegalArgumentException.class, () -> sdf.add(new int[] { 3 }, new double[] { 1 }, 0));
+        assertThrows(IllegalArgumentException.class, () -> sdf.add(new double[] { 1, 2 }, 0));
+        assertThrows(IllegalArgumentException.class, () -> new SparseDataFrame(0));
+        assertEquals(0, sdf.size());
+    }
+}
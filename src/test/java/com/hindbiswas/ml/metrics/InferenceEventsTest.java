@@ -0,0 +1,132 @@
+package com.hindbiswas.ml.metrics;
+
+import static com.hindbiswas.ml.TestData.blobs;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.hindbiswas.ml.data.DataFrame;
+import com.hindbiswas.ml.data.MNISTDataLoader;
+import com.hindbiswas.ml.data.SparseDataFrame;
+import com.hindbiswas.ml.models.LogisticRegression;
+import com.hindbiswas.ml.models.MultinomialLogisticRegression;
+import com.hindbiswas.ml.models.MultinomialNB;
+
+class InferenceEventsTest {
+
+    private static List<RecordedEvent> record(Path file, Runnable work) throws Exception {
+        try (Recording recording = new Recording()) {
+            recording.enable("com.hindbiswas.ml.Prediction").withoutThreshold();
+            recording.enable("com.hindbiswas.ml.ModelImport").withoutThreshold();
+            recording.enable("com.hindbiswas.ml.DataLoad").withoutThreshold();
+            recording.start();
+            work.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file);
+    }
+
+    private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> out = new ArrayList<>();
+        for (RecordedEvent event : events) {
+            if (event.getEventType().getName().equals(name)) {
+                out.add(event);
+            }
+        }
+        return out;
+    }
+
+    @Test
+    void predictAndScoreEmitOneEventEach(@TempDir Path dir) throws Exception {
+        DataFrame df = blobs(20, 1);
+        LogisticRegression model = new LogisticRegression().fit(df);
+
+        List<RecordedEvent> events = record(dir.resolve("predict.jfr"), () -> {
+            model.predict(new double[] { 0, 0 });
+            model.predict(new double[] { 4, 4 });
+            model.score(df);
+        });
+
+        List<RecordedEvent> predictions = named(events, "com.hindbiswas.ml.Prediction");
+        assertEquals(3, predictions.size());
+        assertEquals("predict", predictions.get(0).getString("operation"));
+        assertEquals(1, predictions.get(0).getInt("rows"));
+        assertEquals(2, predictions.get(0).getInt("features"));
+        RecordedEvent score = predictions.get(2);
+        assertEquals("LogisticRegression", score.getString("model"));
+        assertEquals("score", score.getString("operation"));
+        assertEquals(df.size(), score.getInt("rows"));
+    }
+
+    @Test
+    void batchPredictionReportsRows(@TempDir Path dir) throws Exception {
+        DataFrame df = blobs(20, 2);
+        MultinomialLogisticRegression model = new MultinomialLogisticRegression().fit(df);
+        double[][] rows = { { 0, 0 }, { 4, 4 }, { 1, 1 } };
+
+        List<RecordedEvent> events = record(dir.resolve("batch.jfr"), () -> model.predict(rows));
+
+        List<RecordedEvent> predictions = named(events, "com.hindbiswas.ml.Prediction");
+        assertEquals(1, predictions.size());
+        assertEquals("predictBatch", predictions.get(0).getString("operation"));
+        assertEquals(3, predictions.get(0).getInt("rows"));
+    }
+
+    @Test
+    void sparsePredictAndScoreEmitEvents(@TempDir Path dir) throws Exception {
+        DataFrame df = new DataFrame(3);
+        df.add(new double[][] { { 2, 0, 1 }, { 3, 0, 0 }, { 0, 4, 1 }, { 0, 2, 2 } }, new double[] { 0, 0, 1, 1 });
+        SparseDataFrame sdf = SparseDataFrame.from(df);
+        MultinomialNB model = new MultinomialNB().fit(sdf);
+
+        List<RecordedEvent> events = record(dir.resolve("sparse.jfr"), () -> {
+            model.predict(new int[] { 0, 2 }, new double[] { 1, 1 });
+            model.score(sdf);
+        });
+
+        List<RecordedEvent> predictions = named(events, "com.hindbiswas.ml.Prediction");
+        assertEquals(2, predictions.size());
+        assertEquals("predict", predictions.get(0).getString("operation"));
+        assertEquals(3, predictions.get(0).getInt("features"));
+        assertEquals("score", predictions.get(1).getString("operation"));
+        assertEquals(sdf.size(), predictions.get(1).getInt("rows"));
+    }
+
+    @Test
+    void importAndLoadEmitEvents(@TempDir Path dir) throws Exception {
+        Path modelFile = dir.resolve("model.json");
+        assertTrue(new LogisticRegression().fit(blobs(20, 3)).export(modelFile));
+        Path csv = dir.resolve("digits.csv");
+        Files.writeString(csv, "label,p1,p2\n1,0,255\n0,128,64\n");
+
+        List<RecordedEvent> events = record(dir.resolve("io.jfr"), () -> {
+            try {
+                LogisticRegression.importModel(modelFile);
+                MNISTDataLoader.load(csv.toString(), csv.toString());
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        List<RecordedEvent> imports = named(events, "com.hindbiswas.ml.ModelImport");
+        assertEquals(1, imports.size());
+        assertEquals("LogisticRegression", imports.get(0).getString("model"));
+        assertEquals(Files.size(modelFile), imports.get(0).getLong("bytes"));
+
+        List<RecordedEvent> loads = named(events, "com.hindbiswas.ml.DataLoad");
+        assertEquals(2, loads.size());
+        assertEquals("MNISTDataLoader", loads.get(0).getString("loader"));
+        assertEquals(2, loads.get(0).getInt("rows"));
+        assertEquals(2, loads.get(0).getInt("features"));
+    }
+}
@@ -0,0 +1,200 @@
+package com.hindbiswas.ml.metrics;
+
+import static com.hindbiswas.ml.TestData.blobs;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.hindbiswas.ml.data.DataFrame;
+import com.hindbiswas.ml.models.LinearRegressionGD;
+import com.hindbiswas.ml.models.LogisticRegression;
+import com.hindbiswas.ml.models.MultiLayerPerceptron;
+import com.hindbiswas.ml.models.MultinomialLogisticRegression;
+import com.hindbiswas.ml.models.Perceptron;
+import com.hindbiswas.ml.util.LayerActivations;
+
+class TrainingListenerTest {
+
+    /** Collects every event it receives. */
+    private static final class Collector implements TrainingListener {
+        final List<BatchMetrics> batches = new ArrayList<>();
+        final List<EpochMetrics> epochs = new ArrayList<>();
+
+        @Override
+        public void onBatch(BatchMetrics batch) {
+            batches.add(batch);
+        }
+
+        @Override
+        public void onEpoch(EpochMetrics epoch) {
+            epochs.add(epoch);
+        }
+    }
+
+    private static MultiLayerPerceptron mlp(int epochs, int batchSize) {
+        return new MultiLayerPerceptron(2, 1, 2, 0.05)
+                .layer(4, LayerActivations.sigmoid())
+                .layer(2, LayerActivations.softmax())
+                .configure(epochs, batchSize, 0.2);
+    }
+
+    @Test
+    void mlpReportsBatchesAndEpochs() {
+        Collector collector = new Collector();
+        mlp(3, 10).listener(collector).fit(blobs(50, 1));
+
+        assertEquals(3, collector.epochs.size());
+        // 80 training rows in batches of 10
+        assertEquals(24, collector.batches.size());
+        BatchMetrics batch = collector.batches.get(0);
+        assertEquals("MultiLayerPerceptron", batch.model());
+        assertEquals(10, batch.samples());
+        assertTrue(batch.forwardNanos() > 0 && batch.backwardNanos() > 0 && batch.updateNanos() > 0);
+        assertTrue(batch.loss() >= 0);
+        assertTrue(batch.gradientNorm() > 0);
+
+        EpochMetrics last = collector.epochs.get(2);
+        assertEquals(2, last.epoch());
+        assertEquals(3, last.epochs());
+        assertEquals(80, last.samples());
+        assertTrue(last.samplesPerSecond() > 0);
+        assertTrue(last.accuracy() >= 0 && last.accuracy() <= 1);
+        assertFalse(Double.isNaN(last.validationLoss()));
+        assertTrue(last.weightNorm() > 0);
+    }
+
+    @Test
+    void iterativeModelsReportEveryEpoch() {
+        DataFrame df = blobs(30, 2);
+
+        Collector gd = new Collector();
+        LogisticRegression lr = new LogisticRegression(0.1, 20).batchSize(15).seed(1).listener(gd).fit(df);
+        assertEquals(lr.getEpochsRun(), gd.epochs.size());
+        assertEquals(lr.getEpochsRun() * 4, gd.batches.size());
+        assertTrue(gd.epochs.get(gd.epochs.size() - 1).loss() < gd.epochs.get(0).loss());
+
+        Collector lbfgs = new Collector();
+        LogisticRegression solver = new LogisticRegression(LogisticRegression.Solver.LBFGS).listener(lbfgs).fit(df);
+        assertEquals(solver.getEpochsRun(), lbfgs.epochs.size());
+        assertTrue(lbfgs.batches.isEmpty());
+
+        Collector newton = new Collector();
+        LogisticRegression irls = new LogisticRegression(LogisticRegression.Solver.NEWTON).l2(1e-3).listener(newton)
+                .fit(df);
+        assertEquals(irls.getEpochsRun(), newton.epochs.size());
+
+        Collector softmax = new Collector();
+        MultinomialLogisticRegression mlr = new MultinomialLogisticRegression().listener(softmax).fit(df);
+        assertEquals(mlr.getIterationsRun(), softmax.epochs.size());
+
+        Collector linear = new Collector();
+        LinearRegressionGD reg = new LinearRegressionGD(0.05, 50).listener(linear).fit(df);
+        assertEquals(reg.getIterationsRun(), linear.epochs.size());
+        assertTrue(linear.epochs.get(49).loss() < linear.epochs.get(0).loss());
+
+        double[] signs = df.getLabels();
+        for (int i = 0; i < signs.length; i++) {
+            signs[i] = signs[i] == 0 ? -1 : 1;
+        }
+        Collector online = new Collector();
+        Perceptron p = new Perceptron(0.1, 10, 0.0).listener(online).fit(df.relabel(signs));
+        assertEquals(p.getEpochsRun(), online.epochs.size());
+        EpochMetrics first = online.epochs.get(0);
+        assertEquals(1.0, first.loss() + first.accuracy(), 1e-12);
+    }
+
+    @Test
+    void combinedListenerNotifiesAll() {
+        Collector a = new Collector();
+        Collector b = new Collector();
+        new LinearRegressionGD(0.05, 5).listener(TrainingListener.of(a, b)).fit(blobs(10, 3));
+        assertEquals(5, a.epochs.size());
+        assertEquals(a.epochs, b.epochs);
+    }
+
+    @Test
+    void jsonLinesListenerWritesOneObjectPerEvent() throws Exception {
+        StringWriter out = new StringWriter();
+        try (JsonLinesTrainingListener json = new JsonLinesTrainingListener(out, true)) {
+            mlp(2, 40).listener(json).fit(blobs(50, 4));
+        }
+
+        String[] lines = out.toString().split("\n");
+        // 2 batches of 40 from 80 training rows, plus an epoch line, per epoch
+        assertEquals(6, lines.length);
+        JsonObject batch = JsonParser.parseString(lines[0]).getAsJsonObject();
+        assertEquals("batch", batch.get("event").getAsString());
+        assertEquals("MultiLayerPerceptron", batch.get("model").getAsString());
+        assertEquals(40, batch.get("samples").getAsInt());
+        assertTrue(batch.has("forwardNanos"));
+        JsonObject epoch = JsonParser.parseString(lines[2]).getAsJsonObject();
+        assertEquals("epoch", epoch.get("event").getAsString());
+        assertTrue(epoch.get("samplesPerSecond").getAsDouble() > 0);
+        assertTrue(epoch.has("validationAccuracy"));
+    }
+
+    @Test
+    void jsonLinesListenerFlushesOnlyAfterEpochs() throws Exception {
+        StringWriter out = new StringWriter();
+        try (JsonLinesTrainingListener json = new JsonLinesTrainingListener(out, true)) {
+            json.onBatch(new BatchMetrics("m", 0, 0, 8, 1, 1, 1, 1, 0.5, 1.0, -1));
+            assertEquals("", out.toString(), "Batch events should stay buffered");
+            json.onEpoch(new EpochMetrics("m", 0, 1, 8, 4, 0.5, 0.9, Double.NaN, Double.NaN, 1.0, 1.0, -1));
+            assertEquals(2, out.toString().split("\n").length);
+        }
+    }
+
+    @Test
+    void jsonLinesListenerSkipsMissingValues() throws Exception {
+        StringWriter out = new StringWriter();
+        try (JsonLinesTrainingListener json = new JsonLinesTrainingListener(out, false)) {
+            new LinearRegressionGD(0.05, 3).listener(json).fit(blobs(10, 5));
+        }
+        String[] lines = out.toString().split("\n");
+        assertEquals(3, lines.length);
+        JsonObject epoch = JsonParser.parseString(lines[0]).getAsJsonObject();
+        assertFalse(epoch.has("accuracy"));
+        assertFalse(epoch.has("validationLoss"));
+        assertTrue(epoch.has("loss"));
+    }
+
+    @Test
+    void jfrListenerEmitsEvents(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("training.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.hindbiswas.ml.TrainingEpoch");
+            recording.enable("com.hindbiswas.ml.TrainingBatch");
+            recording.start();
+            mlp(2, 40).listener(new JfrTrainingListener()).fit(blobs(50, 6));
+            recording.stop();
+            recording.dump(file);
+        }
+
+        int epochs = 0;
+        int batches = 0;
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            switch (event.getEventType().getName()) {
+                case "com.hindbiswas.ml.TrainingEpoch" -> {
+                    epochs++;
+                    assertEquals("MultiLayerPerceptron", event.getString("model"));
+                }
+                case "com.hindbiswas.ml.TrainingBatch" -> batches++;
+                default -> {
+                }
+            }
+        }
+        assertEquals(2, epochs);
+        assertEquals(4, batches);
+    }
+}
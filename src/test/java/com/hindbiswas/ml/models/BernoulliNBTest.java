@@ -2,6 +2,7 @@
 package com.hindbiswas.ml.models;
 
 import com.hindbiswas.ml.data.DataFrame;
+import com.hindbiswas.ml.data.SparseDataFrame;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -91,4 +92,23 @@ public class BernoulliNBTest {
         assertEquals(nb.classes.length, dto.classes.length, "Number of classes should match");
         assertNotNull(dto.featureLogProb, "DTO featureLogProb should not be null");
     }
+
+    @Test
+    @DisplayName("Sparse fit and predict should match the dense model")
+    void testSparseMatchesDense() {
+        nb.fit(df);
+
+        SparseDataFrame sdf = SparseDataFrame.from(df);
+        BernoulliNB sparse = new BernoulliNB().fit(sdf);
+
+        assertEquals(nb.toString(), sparse.toString());
+        assertEquals(1.0, sparse.score(sdf), 1e-9);
+        for (int i = 0; i < df.size(); i++) {
+            int from = sdf.rowStart(i);
+            int[] indices = java.util.Arrays.copyOfRange(sdf.indicesRef(), from, sdf.rowEnd(i));
+            double[] values = java.util.Arrays.copyOfRange(sdf.valuesRef(), from, sdf.rowEnd(i));
+            assertEquals(nb.predict(df.getFeatures(i)), sparse.predict(indices, values));
+        }
+        assertThrows(IllegalArgumentException.class, () -> sparse.predict(new int[] { 1, 0 }, new double[] { 1, 1 }));
+    }
 }
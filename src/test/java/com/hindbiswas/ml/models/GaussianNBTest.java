@@ -2,9 +2,13 @@ package com.hindbiswas.ml.models;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.Random;
+
 import org.junit.jupiter.api.Test;
 
 import com.hindbiswas.ml.data.DataFrame;
+import com.hindbiswas.ml.data.SparseDataFrame;
+import com.hindbiswas.ml.dto.GaussianNBDTO;
 
 /**
  * Unit tests for GaussianNB using the project's DataFrame implementation.
@@ -56,4 +60,95 @@ public class GaussianNBTest {
         double[] wrong = new double[] { 1.0 }; // wrong length
         assertThrows(IllegalArgumentException.class, () -> gnb.predict(wrong));
     }
+
+    @Test
+    public void testShardedStatsMatchDirectComputation() {
+        // large enough to be split into several shards
+        int n = 50_000;
+        DataFrame df = new DataFrame(2, n);
+        Random rnd = new Random(3);
+        double sum = 0.0;
+        double sumSq = 0.0;
+        for (int i = 0; i < n; i++) {
+            double x = rnd.nextGaussian() * 2.0 + 5.0;
+            df.add(new double[] { x, i % 2 == 0 ? 1.0 : -1.0 }, 0.0);
+            sum += x;
+            sumSq += x * x;
+        }
+
+        GaussianNB gnb = new GaussianNB();
+        gnb.fit(df);
+        GaussianNBDTO dto = gnb.toDTO();
+
+        double mean = sum / n;
+        double var = sumSq / n - mean * mean;
+        assertEquals(mean, dto.means[0][0], 1e-9);
+        assertEquals(var, dto.variances[0][0], 1e-6);
+        assertEquals(0.0, dto.means[0][1], 1e-12);
+        assertEquals(1.0, dto.variances[0][1], 1e-12);
+    }
+
+    @Test
+    public void testSparseScoreMatchesDenseScore() {
+        DataFrame df = new DataFrame(3);
+        df.add(new double[][] { { 0, 2, 0 }, { 0, 1.5, 0.1 }, { 4, 0, 3 }, { 5, 0, 2.5 }, { 0, 0, 3 } },
+                new double[] { 0, 0, 1, 1, 0 });
+        GaussianNB gnb = new GaussianNB().fit(df);
+
+        assertEquals(gnb.score(df), gnb.score(SparseDataFrame.from(df)), 1e-12);
+    }
+
+    @Test
+    public void testBatchPredictMatchesSingleRowPredict() {
+        // 7 features exercises the kernel's remainder loop, 150 rows spans blocks
+        Random rnd = new Random(11);
+        DataFrame df = new DataFrame(7);
+        double[][] rows = new double[150][7];
+        for (int i = 0; i < rows.length; i++) {
+            int label = i % 3;
+            for (int f = 0; f < 7; f++) {
+                rows[i][f] = rnd.nextGaussian() + label * (f + 1) * 0.5;
+            }
+            df.add(rows[i], label);
+        }
+
+        GaussianNB gnb = new GaussianNB();
+        gnb.fit(df);
+
+        double[] batch = gnb.predict(rows);
+        assertEquals(rows.length, batch.length);
+        for (int i = 0; i < rows.length; i++) {
+            assertEquals(gnb.predict(rows[i]), batch[i]);
+        }
+        assertThrows(IllegalArgumentException.class, () -> gnb.predict(new double[][] { new double[6] }));
+    }
+
+    @Test
+    public void testPredictProbaWritesNormalizedPosteriors() {
+        DataFrame df = new DataFrame(2);
+        df.add(new double[][] { { 1, 2 }, { 1.5, 1.8 }, { 5, 8 }, { 6, 9 } }, new double[] { 0, 0, 1, 1 });
+        GaussianNB gnb = new GaussianNB();
+        gnb.fit(df);
+
+        double[] classes = gnb.getClasses();
+        double[] proba = new double[classes.length];
+        double[] logProba = new double[classes.length];
+        double[] sample = { 1.2, 1.9 };
+
+        assertSame(proba, gnb.predictProba(sample, proba));
+        gnb.predictLogProba(sample, logProba);
+
+        double sum = 0.0;
+        int best = 0;
+        for (int c = 0; c < classes.length; c++) {
+            sum += proba[c];
+            assertEquals(Math.exp(logProba[c]), proba[c], 1e-12);
+            if (proba[c] > proba[best]) {
+                best = c;
+            }
+        }
+        assertEquals(1.0, sum, 1e-12);
+        assertEquals(classes[best], gnb.classify(sample));
+        assertThrows(IllegalArgumentException.class, () -> gnb.predictProba(sample, new double[classes.length + 1]));
+    }
 }
@@ -2,6 +2,7 @@ package com.hindbiswas.ml.models;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -9,6 +10,9 @@ import java.util.Collections;
 import org.ejml.simple.SimpleMatrix;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.hindbiswas.ml.data.DataFrame;
 
 class LinearRegressionGDTest {
     private LinearRegressionGD model;
@@ -109,4 +113,69 @@ class LinearRegressionGDTest {
     void getThetaBeforeFitThrows() {
         assertThrows(IllegalStateException.class, () -> model.getTheta().get(0, 0));
     }
+
+    @Test
+    void fitDataFrameMatchesListFitAndRoundTrips(@TempDir Path dir) throws Exception {
+        DataFrame df = new DataFrame(1);
+        for (int i = 1; i <= 5; i++) {
+            dataX.add(new ArrayList<>(Arrays.asList((double) i)));
+            dataY.add(2.0 * i + 1);
+            df.add(new double[] { i }, 2.0 * i + 1);
+        }
+        model.fit(df);
+        LinearRegressionGD fromLists = new LinearRegressionGD(0.01, 10000).fit(dataX, dataY);
+        assertEquals(fromLists.predict(new double[] { 6.0 }), model.predict(new double[] { 6.0 }), 1e-9);
+        assertTrue(model.score(df) > 0.99);
+
+        Path path = dir.resolve("lrgd.json");
+        assertTrue(model.export(path));
+        LinearRegressionGD restored = LinearRegressionGD.importModel(path);
+        assertEquals(model.predict(new double[] { 3.5 }), restored.predict(new double[] { 3.5 }), 1e-12);
+    }
+
+    @Test
+    void toleranceStopsBeforeIterationLimit() {
+        DataFrame df = new DataFrame(1);
+        for (int i = 0; i < 10; i++) {
+            df.add(new double[] { i / 10.0 }, 3.0 * i / 10.0 - 1.0);
+        }
+        LinearRegressionGD gd = new LinearRegressionGD(0.5, 100000).tolerance(1e-8).fit(df);
+        assertTrue(gd.getIterationsRun() < 100000);
+        assertEquals(-1.0, gd.getTheta().get(0, 0), 1e-6);
+        assertEquals(3.0, gd.getTheta().get(1, 0), 1e-6);
+    }
+
+    @Test
+    void standardizationHandlesBadlyScaledFeatures() {
+        // Second feature is ~1000x larger; unscaled, this learning rate diverges
+        DataFrame df = new DataFrame(2);
+        for (int i = 0; i < 50; i++) {
+            double a = (i % 7) / 7.0;
+            double b = 1000.0 + 10.0 * (i % 5);
+            df.add(new double[] { a, b }, 2.0 + 4.0 * a - 0.05 * b);
+        }
+        LinearRegressionGD gd = new LinearRegressionGD(0.1, 100000).standardize(true).tolerance(1e-9).fit(df);
+        assertTrue(gd.getIterationsRun() < 100000);
+        assertEquals(4.0, gd.getTheta().get(1, 0), 1e-5);
+        assertEquals(-0.05, gd.getTheta().get(2, 0), 1e-6);
+        assertEquals(2.0 + 4.0 * 0.5 - 0.05 * 1020, gd.predict(new double[] { 0.5, 1020 }), 1e-4);
+
+        LinearRegressionGD unscaled = new LinearRegressionGD(0.1, 100).fit(df);
+        assertFalse(Double.isFinite(unscaled.getTheta().get(2, 0)) && unscaled.score(df) > 0.99);
+    }
+
+    @Test
+    void shardedGradientMatchesExactSolution() {
+        // Large enough to be split across shards
+        DataFrame df = new DataFrame(2);
+        for (int i = 0; i < 20000; i++) {
+            double a = (i % 100) / 100.0;
+            double b = (i % 37) / 37.0;
+            df.add(new double[] { a, b }, 1.0 + 2.0 * a - 3.0 * b);
+        }
+        LinearRegressionGD gd = new LinearRegressionGD(0.5, 20000).tolerance(1e-10).fit(df);
+        assertEquals(1.0, gd.getTheta().get(0, 0), 1e-6);
+        assertEquals(2.0, gd.getTheta().get(1, 0), 1e-6);
+        assertEquals(-3.0, gd.getTheta().get(2, 0), 1e-6);
+    }
 }
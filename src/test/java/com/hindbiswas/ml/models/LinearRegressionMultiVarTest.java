@@ -2,13 +2,19 @@ package com.hindbiswas.ml.models;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Random;
 
 import org.ejml.simple.SimpleMatrix;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.hindbiswas.ml.data.DataFrame;
+import com.hindbiswas.ml.util.NormalEquations;
 
 class LinearRegressionMultiVarTest {
     private LinearRegressionMultiVar model;
@@ -104,4 +110,76 @@ class LinearRegressionMultiVarTest {
     void getThetaBeforeFitThrows() {
         assertThrows(IllegalStateException.class, () -> model.getTheta());
     }
+
+    @Test
+    void collinearFeaturesFallBackToMinimumNormSolution() {
+        // second feature duplicates the first, so XᵀX is singular
+        for (double xv = 0; xv < 10; xv++) {
+            dataX.add(new ArrayList<>(Arrays.asList(xv, xv)));
+            dataY.add(4 * xv + 1);
+        }
+
+        model.fit(dataX, dataY);
+        SimpleMatrix theta = model.getTheta();
+        assertEquals(1.0, theta.get(0, 0), 1e-6);
+        assertEquals(2.0, theta.get(1, 0), 1e-6);
+        assertEquals(2.0, theta.get(2, 0), 1e-6);
+        assertEquals(21.0, model.predict(new ArrayList<>(Arrays.asList(5.0, 5.0))), 1e-6);
+    }
+
+    @Test
+    void ridgeShrinksWeightsButNotIntercept() {
+        DataFrame df = new DataFrame(1);
+        for (double xv = -5; xv <= 5; xv++) {
+            df.add(new double[] { xv }, 3 * xv + 10);
+        }
+
+        double ols = model.fit(df).getTheta().get(1, 0);
+        SimpleMatrix ridge = LinearRegression.multi().setRidge(110.0).fit(df).getTheta();
+
+        assertEquals(3.0, ols, 1e-9);
+        // Σx² = 110 for x in [-5, 5], so the slope halves
+        assertEquals(1.5, ridge.get(1, 0), 1e-9);
+        assertEquals(10.0, ridge.get(0, 0), 1e-9);
+        assertThrows(IllegalArgumentException.class, () -> model.setRidge(-1));
+    }
+
+    @Test
+    void shardedAndMergedAccumulationMatchSequentialFit() {
+        Random rnd = new Random(5);
+        int n = 40_000;
+        DataFrame df = new DataFrame(3, n);
+        NormalEquations first = new NormalEquations(3);
+        NormalEquations second = new NormalEquations(3);
+        for (int i = 0; i < n; i++) {
+            double[] x = { rnd.nextGaussian(), rnd.nextGaussian(), rnd.nextGaussian() };
+            double y = 0.5 + x[0] - 2 * x[1] + 3 * x[2] + rnd.nextGaussian() * 0.01;
+            df.add(x, y);
+            (i % 2 == 0 ? first : second).add(x, y);
+        }
+
+        SimpleMatrix fromFrame = model.fit(df).getTheta();
+        SimpleMatrix merged = LinearRegression.multi().fit(first.merge(second)).getTheta();
+        double[] expected = { 0.5, 1, -2, 3 };
+        for (int j = 0; j < expected.length; j++) {
+            assertEquals(fromFrame.get(j, 0), merged.get(j, 0), 1e-9);
+            assertEquals(expected[j], fromFrame.get(j, 0), 1e-3);
+        }
+    }
+
+    @Test
+    void scoreAndExportRoundTrip(@TempDir Path dir) throws Exception {
+        DataFrame df = new DataFrame(2);
+        for (int i = 0; i < 20; i++) {
+            double a = i, b = (i * 7) % 5;
+            df.add(new double[] { a, b }, 1.0 + 2.0 * a - 3.0 * b);
+        }
+        model.setRidge(0.0).fit(df);
+        assertEquals(1.0, model.score(df), 1e-9);
+
+        Path path = dir.resolve("multivar.json");
+        assertTrue(model.export(path));
+        LinearRegressionMultiVar restored = LinearRegressionMultiVar.importModel(path);
+        assertEquals(model.predict(new double[] { 4.0, 2.0 }), restored.predict(new double[] { 4.0, 2.0 }), 1e-12);
+    }
 }
@@ -3,10 +3,13 @@ package com.hindbiswas.ml.models;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.ArrayList;
+import java.util.stream.DoubleStream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.hindbiswas.ml.data.DataFrame;
+
 class LinearRegressionOLSTest {
     private LinearRegressionOLS model;
     private ArrayList<Double> dataX;
@@ -100,4 +103,59 @@ class LinearRegressionOLSTest {
         assertTrue(repr.contains(model.getSlope().toString()));
         assertTrue(repr.contains(model.getIntercept().toString()));
     }
+
+    @Test
+    void primitiveStreamAndColumnFitsAgree() {
+        double[] xs = { 5, 7, 8, 7, 2, 17, 2, 9, 4, 11, 12, 9, 6 };
+        double[] ys = { 99, 86, 87, 88, 111, 86, 103, 87, 94, 78, 77, 85, 86 };
+        for (int i = 0; i < xs.length; i++) {
+            dataX.add(xs[i]);
+            dataY.add(ys[i]);
+        }
+        model.fit(dataX, dataY);
+
+        DataFrame df = new DataFrame(2);
+        for (int i = 0; i < xs.length; i++) {
+            df.add(new double[] { -1.0, xs[i] }, ys[i]);
+        }
+        LinearRegressionOLS fromArrays = new LinearRegressionOLS().fit(xs, ys);
+        LinearRegressionOLS fromColumn = new LinearRegressionOLS().fit(df, 1);
+        assertEquals(model.getSlope(), fromArrays.getSlope(), 1e-12);
+        assertEquals(model.getIntercept(), fromArrays.getIntercept(), 1e-12);
+        assertEquals(model.getSlope(), fromColumn.getSlope(), 1e-12);
+        assertEquals(model.getIntercept(), fromColumn.getIntercept(), 1e-12);
+    }
+
+    @Test
+    void seriesFitRegressesOnPosition() {
+        model.fit(DoubleStream.iterate(10.0, v -> v + 0.5).limit(1000));
+        assertEquals(0.5, model.getSlope(), 1e-12);
+        assertEquals(10.0, model.getIntercept(), 1e-9);
+    }
+
+    @Test
+    void mergedShardSummariesMatchSinglePass() {
+        LinearRegressionOLS.Summary all = new LinearRegressionOLS.Summary();
+        LinearRegressionOLS.Summary left = new LinearRegressionOLS.Summary();
+        LinearRegressionOLS.Summary right = new LinearRegressionOLS.Summary();
+        for (int i = 0; i < 1000; i++) {
+            double x = 1e6 + i % 13;
+            double y = 4.0 - 0.25 * x + Math.sin(i);
+            all.add(x, y);
+            (i < 300 ? left : right).add(x, y);
+        }
+        left.merge(right).merge(new LinearRegressionOLS.Summary());
+
+        assertEquals(all.count(), left.count());
+        assertEquals(all.covariance(), left.covariance(), 1e-9);
+        assertEquals(all.varianceX(), left.varianceX(), 1e-9);
+        LinearRegressionOLS merged = new LinearRegressionOLS().fit(left);
+        assertEquals(new LinearRegressionOLS().fit(all).getSlope(), merged.getSlope(), 1e-9);
+    }
+
+    @Test
+    void fitThrowsOnConstantX() {
+        assertThrows(IllegalArgumentException.class,
+                () -> model.fit(new double[] { 2.0, 2.0 }, new double[] { 1.0, 3.0 }));
+    }
 }
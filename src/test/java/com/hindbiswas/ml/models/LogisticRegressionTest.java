@@ -2,11 +2,16 @@ package com.hindbiswas.ml.models;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Random;
 
 import org.ejml.simple.SimpleMatrix;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.hindbiswas.ml.data.DataFrame;
 
 class LogisticRegressionTest {
     private LogisticRegression model;
@@ -78,4 +83,124 @@ class LogisticRegressionTest {
         assertEquals(0, model.classify(testLow));
         assertEquals(1, model.classify(testHigh));
     }
+
+    @Test
+    void testFitDataFrameRejectsNonBinaryLabels() {
+        DataFrame df = new DataFrame(1);
+        df.add(new double[] { 0.1 }, 0.0);
+        df.add(new double[] { 0.9 }, 2.0);
+        assertThrows(IllegalArgumentException.class, () -> model.fit(df));
+    }
+
+    @Test
+    void testFitDataFrameScoreAndRoundTrip(@TempDir Path dir) throws Exception {
+        DataFrame df = new DataFrame(1);
+        for (double v : new double[] { 0.1, 0.2, 0.3, 0.7, 0.8, 0.9 }) {
+            df.add(new double[] { v }, v > 0.5 ? 1.0 : 0.0);
+        }
+        model = new LogisticRegression(0.5, 5000).fit(df);
+        assertEquals(1.0, model.score(df), 1e-12);
+        assertTrue(model.predict(new double[] { 0.9 }) > 0.5);
+        assertEquals(0, model.classify(new double[] { 0.1 }));
+
+        Path path = dir.resolve("logistic.json");
+        assertTrue(model.export(path));
+        LogisticRegression restored = LogisticRegression.importModel(path);
+        assertEquals(model.predict(new double[] { 0.4 }), restored.predict(new double[] { 0.4 }), 1e-12);
+        assertEquals(model.toString(), restored.toString());
+    }
+
+    private static DataFrame noisyFeatureData() {
+        // y depends only on the first feature; the second is noise
+        Random rng = new java.util.Random(7);
+        DataFrame df = new DataFrame(2);
+        for (int i = 0; i < 200; i++) {
+            double a = rng.nextGaussian();
+            double b = rng.nextGaussian();
+            df.add(new double[] { a, b }, a + 0.3 * rng.nextGaussian() > 0 ? 1.0 : 0.0);
+        }
+        return df;
+    }
+
+    @Test
+    void testMiniBatchStopsEarlyAndMatchesFullBatch() {
+        DataFrame df = noisyFeatureData();
+        LogisticRegression full = new LogisticRegression(0.5, 5000).fit(df);
+        LogisticRegression sgd = new LogisticRegression(0.05, 5000).batchSize(16).tolerance(1e-4).seed(3).fit(df);
+
+        assertEquals(5000, full.getEpochsRun());
+        assertTrue(sgd.getEpochsRun() < 500, "mini-batch run should stop early");
+        assertTrue(sgd.score(df) >= full.score(df) - 0.05);
+    }
+
+    @Test
+    void testSeededMiniBatchIsReproducible() {
+        DataFrame df = noisyFeatureData();
+        double[] x = { 0.3, -0.2 };
+        LogisticRegression a = new LogisticRegression(0.1, 50).batchSize(8).seed(11).fit(df);
+        LogisticRegression b = new LogisticRegression(0.1, 50).batchSize(8).seed(11).fit(df);
+        assertEquals(a.predict(x), b.predict(x), 0.0);
+    }
+
+    @Test
+    void testFullBatchToleranceStopsEarly() {
+        DataFrame df = noisyFeatureData();
+        LogisticRegression model = new LogisticRegression(0.5, 100000).tolerance(1e-3).fit(df);
+        assertTrue(model.getEpochsRun() < 100000);
+    }
+
+    @Test
+    void testL1ZeroesIrrelevantWeightAndL2Shrinks() {
+        DataFrame df = noisyFeatureData();
+        LogisticRegression plain = new LogisticRegression(0.5, 2000).fit(df);
+        LogisticRegression lasso = new LogisticRegression(0.5, 2000).l1(0.05).fit(df);
+        LogisticRegression ridge = new LogisticRegression(0.5, 2000).l2(0.5).fit(df);
+
+        assertEquals(0.0, lasso.getTheta().get(2, 0), 0.0);
+        assertTrue(lasso.getTheta().get(1, 0) > 0);
+        assertTrue(Math.abs(ridge.getTheta().get(1, 0)) < Math.abs(plain.getTheta().get(1, 0)));
+    }
+
+    @Test
+    void testRejectsNegativeHyperparameters() {
+        assertThrows(IllegalArgumentException.class, () -> model.batchSize(-1));
+        assertThrows(IllegalArgumentException.class, () -> model.tolerance(-1e-3));
+        assertThrows(IllegalArgumentException.class, () -> model.l1(-1));
+        assertThrows(IllegalArgumentException.class, () -> model.l2(-1));
+    }
+
+    @Test
+    void testLbfgsAndNewtonConvergeToSameOptimumQuickly() {
+        DataFrame df = noisyFeatureData();
+        LogisticRegression lbfgs = new LogisticRegression(LogisticRegression.Solver.LBFGS, 200).l2(0.01).fit(df);
+        LogisticRegression newton = new LogisticRegression(LogisticRegression.Solver.NEWTON, 50).l2(0.01).fit(df);
+
+        assertTrue(lbfgs.getEpochsRun() < 100, "L-BFGS took " + lbfgs.getEpochsRun());
+        assertTrue(newton.getEpochsRun() < 20, "Newton took " + newton.getEpochsRun());
+        for (int j = 0; j < 3; j++) {
+            assertEquals(newton.getTheta().get(j, 0), lbfgs.getTheta().get(j, 0), 1e-4);
+        }
+        assertTrue(newton.score(df) > 0.85);
+    }
+
+    @Test
+    void testSecondOrderSolversRejectL1() {
+        DataFrame df = noisyFeatureData();
+        assertThrows(IllegalArgumentException.class,
+                () -> new LogisticRegression(LogisticRegression.Solver.NEWTON).l1(0.1).fit(df));
+        assertThrows(IllegalArgumentException.class,
+                () -> new LogisticRegression(LogisticRegression.Solver.LBFGS).l1(0.1).fit(df));
+    }
+
+    @Test
+    void testSolverSurvivesRoundTrip(@TempDir Path dir) throws Exception {
+        DataFrame df = noisyFeatureData();
+        LogisticRegression newton = new LogisticRegression(LogisticRegression.Solver.NEWTON).fit(df);
+        Path path = dir.resolve("newton.json");
+        assertTrue(newton.export(path));
+        LogisticRegression restored = LogisticRegression.importModel(path);
+        assertEquals("NEWTON", restored.toDTO().solver);
+        restored.fit(df);
+        assertEquals(newton.getTheta().get(1, 0), restored.getTheta().get(1, 0), 1e-12);
+    }
 }
@@ -3,6 +3,8 @@ package com.hindbiswas.ml.models;
 import org.junit.jupiter.api.Test;
 
 import com.hindbiswas.ml.data.DataFrame;
+import com.hindbiswas.ml.metrics.EpochMetrics;
+import com.hindbiswas.ml.metrics.TrainingListener;
 import com.hindbiswas.ml.util.LayerActivations;
 import com.hindbiswas.ml.util.LossGradients;
 import com.hindbiswas.ml.util.Matrix;
@@ -11,9 +13,13 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import org.ejml.simple.SimpleMatrix;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Random;
 
+import org.junit.jupiter.api.io.TempDir;
+
 public class MultiLayerPerceptronTest {
 
     /**
@@ -85,6 +91,129 @@ public class MultiLayerPerceptronTest {
         assertTrue(accuracy >= 0.90, () -> "Expected accuracy >= 0.90 but was " + accuracy);
     }
 
+    @Test
+    public void testExportImportRoundTrip(@TempDir Path dir) throws Exception {
+        MultiLayerPerceptron mlp = new MultiLayerPerceptron(3, 1, 2, 0.05);
+        mlp.layer(5, LayerActivations.relu());
+        mlp.layer(2, LayerActivations.softmax());
+        mlp.configure(1, 4, 0.0);
+
+        DataFrame df = new DataFrame(3);
+        Random rnd = new Random(7);
+        for (int i = 0; i < 20; i++) {
+            df.add(new double[] { rnd.nextDouble(), rnd.nextDouble(), rnd.nextDouble() }, i % 2);
+        }
+        mlp.fit(df);
+
+        Path plain = dir.resolve("mlp.json");
+        Path gzip = dir.resolve("mlp.json.gz");
+        assertTrue(mlp.export(plain));
+        assertTrue(mlp.export(gzip, true));
+        assertEquals(mlp.toString(), Files.readString(plain), "Plain export should match toString()");
+
+        MultiLayerPerceptron fromPlain = MultiLayerPerceptron.importModel(plain);
+        MultiLayerPerceptron fromGzip = MultiLayerPerceptron.importModel(gzip);
+
+        assertEquals(mlp.toString(), fromPlain.toString());
+        assertEquals(mlp.toString(), fromGzip.toString());
+        double[] x = { 0.3, 0.6, 0.9 };
+        assertEquals(mlp.predict(x), fromGzip.predict(x));
+    }
+
+    @Test
+    public void testCheckpointAndResume(@TempDir Path dir) throws Exception {
+        MultiLayerPerceptron mlp = new MultiLayerPerceptron(2, 1, 2, 0.05);
+        mlp.layer(4, LayerActivations.sigmoid());
+        mlp.layer(2, LayerActivations.softmax());
+        mlp.configure(3, 8, 0.2);
+
+        DataFrame df = new DataFrame(2);
+        Random rnd = new Random(11);
+        for (int i = 0; i < 50; i++) {
+            double x0 = rnd.nextDouble();
+            double x1 = rnd.nextDouble();
+            df.add(new double[] { x0, x1 }, x0 + x1 > 1.0 ? 1 : 0);
+        }
+
+        Path ckpt = dir.resolve("mlp.ckpt");
+        mlp.checkpoint(ckpt, 1).fit(df);
+        assertTrue(Files.exists(ckpt), "Checkpoint should be written during fit");
+
+        MultiLayerPerceptron resumed = MultiLayerPerceptron.resume(ckpt);
+        assertEquals(mlp.toString(), resumed.toString());
+
+        // all epochs were completed, so continuing training must not change weights
+        resumed.fit(df);
+        assertEquals(mlp.toString(), resumed.toString());
+    }
+
+    @Test
+    public void testResumeMidRunMatchesUninterruptedRun(@TempDir Path dir) throws Exception {
+        MultiLayerPerceptron interrupted = new MultiLayerPerceptron(2, 1, 2, 0.05);
+        interrupted.layer(4, LayerActivations.sigmoid());
+        interrupted.layer(2, LayerActivations.softmax());
+        interrupted.configure(4, 8, 0.2);
+        // same initial weights and configuration, trained without interruption
+        MultiLayerPerceptron uninterrupted = new MultiLayerPerceptron(interrupted.toDTO());
+
+        DataFrame df = new DataFrame(2);
+        Random rnd = new Random(13);
+        for (int i = 0; i < 60; i++) {
+            double x0 = rnd.nextDouble();
+            double x1 = rnd.nextDouble();
+            df.add(new double[] { x0, x1 }, x0 + x1 > 1.0 ? 1 : 0);
+        }
+        uninterrupted.seed(42).fit(df);
+
+        // crash after the second epoch, before its checkpoint is written
+        Path ckpt = dir.resolve("mlp.ckpt");
+        interrupted.seed(42).checkpoint(ckpt, 1).listener(new TrainingListener() {
+            @Override
+            public void onEpoch(EpochMetrics epoch) {
+                if (epoch.epoch() == 1) {
+                    throw new IllegalStateException("simulated crash");
+                }
+            }
+        });
+        assertThrows(IllegalStateException.class, () -> interrupted.fit(df));
+
+        MultiLayerPerceptron resumed = MultiLayerPerceptron.resume(ckpt);
+        assertNotEquals(uninterrupted.toString(), resumed.toString(), "Checkpoint should be from mid-run");
+        resumed.fit(df);
+        assertEquals(uninterrupted.toString(), resumed.toString());
+    }
+
+    @Test
+    public void testPredictBatchMatchesPredict() {
+        MultiLayerPerceptron mlp = new MultiLayerPerceptron(3, 1, 2, 0.05);
+        mlp.layer(5, LayerActivations.tanh());
+        mlp.layer(2, LayerActivations.softmax());
+        mlp.configure(2, 4, 0.2);
+
+        DataFrame df = new DataFrame(3);
+        Random rnd = new Random(5);
+        for (int i = 0; i < 20; i++) {
+            df.add(new double[] { rnd.nextDouble(), rnd.nextDouble(), rnd.nextDouble() }, i % 2);
+        }
+        mlp.fit(df);
+
+        double[][] rows = new double[7][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = df.getFeatures(i);
+        }
+        Object[] batch = mlp.predictBatch(rows);
+        assertEquals(rows.length, batch.length);
+        for (int i = 0; i < rows.length; i++) {
+            ArrayList<Double> single = mlp.predict(rows[i]);
+            @SuppressWarnings("unchecked")
+            ArrayList<Double> batched = (ArrayList<Double>) batch[i];
+            for (int j = 0; j < single.size(); j++) {
+                assertEquals(single.get(j), batched.get(j), 1e-12);
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> mlp.predictBatch(new double[][] { { 1.0 } }));
+    }
+
     // Helper: returns index of max element in an (n x 1) SimpleMatrix
     private int argMax(SimpleMatrix v) {
         int best = 0;
@@ -0,0 +1,76 @@
+package com.hindbiswas.ml.models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.hindbiswas.ml.TestData;
+import com.hindbiswas.ml.data.DataFrame;
+
+class MultinomialLogisticRegressionTest {
+
+    /** Three Gaussian blobs labelled 3, 5 and 7. */
+    private static DataFrame blobs(int perClass, long seed) {
+        return TestData.blobs(perClass, seed, new double[][] { { 0, 0 }, { 4, 0 }, { 0, 4 } },
+                new double[] { 3, 5, 7 });
+    }
+
+    @Test
+    void fitSeparatesThreeClasses() {
+        DataFrame train = blobs(100, 1);
+        MultinomialLogisticRegression model = new MultinomialLogisticRegression().l2(1e-3).fit(train);
+
+        assertArrayEquals(new double[] { 3, 5, 7 }, model.getClasses());
+        assertTrue(model.score(blobs(50, 2)) > 0.9);
+        assertEquals(5.0, model.predict(new double[] { 4.5, -0.5 }));
+        assertTrue(model.getIterationsRun() < 200);
+    }
+
+    @Test
+    void batchPredictionsMatchSingleRow() {
+        DataFrame train = blobs(50, 3);
+        MultinomialLogisticRegression model = new MultinomialLogisticRegression().l2(1e-2).fit(train);
+
+        double[][] rows = new double[train.size()][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = train.getFeatures(i);
+        }
+        double[][] probs = model.predictProba(rows);
+        double[] labels = model.predict(rows);
+        for (int i = 0; i < rows.length; i++) {
+            assertArrayEquals(model.predictProba(rows[i]), probs[i], 1e-12);
+            assertEquals(model.predict(rows[i]), labels[i]);
+            double sum = 0;
+            for (double p : probs[i]) {
+                sum += p;
+            }
+            assertEquals(1.0, sum, 1e-12);
+        }
+    }
+
+    @Test
+    void rejectsSingleClassAndUnfittedUse() {
+        DataFrame df = new DataFrame(1);
+        df.add(new double[] { 1 }, 0.0);
+        df.add(new double[] { 2 }, 0.0);
+        MultinomialLogisticRegression model = new MultinomialLogisticRegression();
+        assertThrows(IllegalArgumentException.class, () -> model.fit(df));
+        assertThrows(IllegalStateException.class, () -> model.predict(new double[] { 1 }));
+        assertThrows(IllegalArgumentException.class, () -> model.l2(-1));
+    }
+
+    @Test
+    void exportImportRoundTrip(@TempDir Path dir) throws Exception {
+        MultinomialLogisticRegression model = new MultinomialLogisticRegression().l2(1e-2).fit(blobs(30, 4));
+        Path path = dir.resolve("softmax.json");
+        assertTrue(model.export(path));
+
+        MultinomialLogisticRegression restored = MultinomialLogisticRegression.importModel(path);
+        double[][] rows = { { 0.5, 0.5 }, { 3.0, 1.0 }, { -1.0, 5.0 } };
+        assertArrayEquals(model.predict(rows), restored.predict(rows));
+        assertArrayEquals(model.predictProba(rows[1]), restored.predictProba(rows[1]), 1e-12);
+    }
+}
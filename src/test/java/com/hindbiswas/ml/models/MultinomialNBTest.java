@@ -2,6 +2,7 @@
 package com.hindbiswas.ml.models;
 
 import com.hindbiswas.ml.data.DataFrame;
+import com.hindbiswas.ml.data.SparseDataFrame;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -88,4 +89,36 @@ public class MultinomialNBTest {
             assertTrue(success);
         });
     }
+
+    @Test
+    @DisplayName("Sparse fit and predict should match the dense model")
+    void testSparseMatchesDense() {
+        nb.fit(df);
+
+        SparseDataFrame sdf = SparseDataFrame.from(df);
+        MultinomialNB sparse = new MultinomialNB().fit(sdf);
+
+        assertEquals(nb.toString(), sparse.toString());
+        assertEquals(1.0, sparse.score(sdf), 1e-9);
+        for (int i = 0; i < df.size(); i++) {
+            int from = sdf.rowStart(i);
+            int[] indices = java.util.Arrays.copyOfRange(sdf.indicesRef(), from, sdf.rowEnd(i));
+            double[] values = java.util.Arrays.copyOfRange(sdf.valuesRef(), from, sdf.rowEnd(i));
+            assertEquals(nb.predict(df.getFeatures(i)), sparse.predict(indices, values));
+        }
+        assertThrows(IllegalArgumentException.class, () -> sparse.predict(new int[] { 1, 0 }, new double[] { 1, 1 }));
+    }
+
+    @Test
+    @DisplayName("Ties should go to the first class when random tie breaking is off")
+    void testDeterministicTieBreak() {
+        nb.fit(df);
+        nb.setRandomTieBreak(false);
+
+        // an all-zeros row scores only the (equal) priors
+        double first = nb.getClasses()[0];
+        for (int i = 0; i < 20; i++) {
+            assertEquals(first, nb.classify(new double[] { 0, 0 }));
+        }
+    }
 }
@@ -0,0 +1,102 @@
+package com.hindbiswas.ml.models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.hindbiswas.ml.data.DataFrame;
+import com.hindbiswas.ml.dto.GaussianNBDTO;
+
+/**
+ * Incremental training of the Naive Bayes models: {@code partialFit} over
+ * batches must end in the same model as {@code fit} over all of them.
+ */
+public class NaiveBayesPartialFitTest {
+
+    @FunctionalInterface
+    private interface Importer<M> {
+        M importModel(Path path) throws Exception;
+    }
+
+    /** Binary features, usable by every Naive Bayes variant. */
+    private static DataFrame binary() {
+        DataFrame df = new DataFrame(3);
+        df.add(new double[] { 1, 0, 1 }, 0);
+        df.add(new double[] { 1, 1, 0 }, 0);
+        df.add(new double[] { 0, 1, 1 }, 1);
+        df.add(new double[] { 0, 0, 1 }, 1);
+        return df;
+    }
+
+    private static <M extends NaiveBayes> void assertPartialFitMatchesFit(Supplier<M> factory, Importer<M> importer,
+            Path dir) throws Exception {
+        DataFrame df = binary();
+        M full = factory.get();
+        full.fit(df);
+
+        M incremental = factory.get();
+        incremental.partialFit(df.batch(0, 2));
+        incremental.partialFit(df.batch(2, 2));
+        assertArrayEquals(full.logClassPriors, incremental.logClassPriors, 1e-12);
+        assertEquals(full.toString(), incremental.toString());
+
+        // continue training after an export/import round trip
+        Path path = dir.resolve(full.getClass().getSimpleName() + ".json");
+        M first = factory.get();
+        first.partialFit(df.batch(0, 2));
+        assertTrue(first.export(path));
+        M restored = importer.importModel(path);
+        restored.partialFit(df.batch(2, 2));
+        assertEquals(full.toString(), restored.toString());
+    }
+
+    @Test
+    public void testMultinomialPartialFitMatchesFit(@TempDir Path dir) throws Exception {
+        assertPartialFitMatchesFit(MultinomialNB::new, MultinomialNB::importModel, dir);
+    }
+
+    @Test
+    public void testBernoulliPartialFitMatchesFit(@TempDir Path dir) throws Exception {
+        assertPartialFitMatchesFit(BernoulliNB::new, BernoulliNB::importModel, dir);
+    }
+
+    @Test
+    public void testGaussianPartialFitMergesStatsAndNewClasses(@TempDir Path dir) throws Exception {
+        Random rnd = new Random(17);
+        DataFrame first = new DataFrame(2);
+        DataFrame second = new DataFrame(2);
+        for (int i = 0; i < 40; i++) {
+            first.add(new double[] { rnd.nextGaussian(), 3 + rnd.nextGaussian() }, i % 2);
+            // class 2 only appears in the second batch
+            second.add(new double[] { 2 * rnd.nextGaussian(), rnd.nextGaussian() }, 1 + i % 2);
+        }
+        DataFrame all = first.deepCopy().add(second);
+
+        GaussianNB full = new GaussianNB().fit(all);
+        GaussianNB incremental = new GaussianNB().partialFit(first);
+        assertEquals(2, incremental.getClasses().length);
+        assertTrue(incremental.export(dir.resolve("gnb.json")));
+        GaussianNB restored = GaussianNB.importModel(dir.resolve("gnb.json"));
+
+        for (GaussianNB model : new GaussianNB[] { incremental, restored }) {
+            model.partialFit(second);
+            assertArrayEquals(full.getClasses(), model.getClasses());
+
+            GaussianNBDTO expected = full.toDTO();
+            GaussianNBDTO actual = model.toDTO();
+            assertArrayEquals(expected.logClassPriors, actual.logClassPriors, 1e-12);
+            for (int c = 0; c < expected.means.length; c++) {
+                assertArrayEquals(expected.means[c], actual.means[c], 1e-12);
+                assertArrayEquals(expected.variances[c], actual.variances[c], 1e-12);
+            }
+            for (int i = 0; i < all.size(); i++) {
+                assertEquals(full.predict(all.getFeatures(i)), model.predict(all.getFeatures(i)));
+            }
+        }
+    }
+}
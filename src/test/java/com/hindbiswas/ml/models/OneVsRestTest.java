@@ -0,0 +1,92 @@
+package com.hindbiswas.ml.models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.hindbiswas.ml.TestData;
+import com.hindbiswas.ml.data.DataFrame;
+
+class OneVsRestTest {
+
+    /** Three Gaussian blobs labelled 3, 5 and 7. */
+    private static DataFrame blobs(int perClass, long seed) {
+        return TestData.blobs(perClass, seed, new double[][] { { 0, 0 }, { 5, 0 }, { 0, 5 } },
+                new double[] { 3, 5, 7 });
+    }
+
+    @Test
+    void logisticSubModelsSeparateThreeClasses() {
+        DataFrame train = blobs(100, 1);
+        OneVsRest<LogisticRegression> model = new OneVsRest<>(
+                () -> new LogisticRegression(LogisticRegression.Solver.LBFGS)).fit(train);
+
+        assertArrayEquals(new double[] { 3, 5, 7 }, model.getClasses());
+        assertEquals(3, model.getModels().size());
+        assertTrue(model.score(blobs(50, 2)) > 0.9);
+        assertEquals(5.0, model.predict(new double[] { 5.5, -0.5 }));
+        // the source labels are untouched by the per-class views
+        assertEquals(3.0, train.getLabel(0));
+    }
+
+    @Test
+    void fusedScoresMatchSubModels() {
+        OneVsRest<LogisticRegression> model = new OneVsRest<>(
+                () -> new LogisticRegression(LogisticRegression.Solver.LBFGS)).parallelism(1).fit(blobs(40, 3));
+
+        double[] x = { 1.5, 2.5 };
+        double[] scores = model.decisionFunction(x);
+        for (int c = 0; c < scores.length; c++) {
+            assertEquals(model.getModels().get(c).decisionFunction(x), scores[c], 1e-9);
+        }
+    }
+
+    @Test
+    void averagedPerceptronSubModels() {
+        OneVsRest<Perceptron> model = new OneVsRest<>(
+                () -> new Perceptron(0.1, 50, 0.0).mode(Perceptron.Mode.AVERAGED)).fit(blobs(100, 4));
+
+        assertTrue(model.score(blobs(50, 5)) > 0.85);
+    }
+
+    @Test
+    void votedPerceptronIsNotExportable(@TempDir Path dir) {
+        OneVsRest<Perceptron> model = new OneVsRest<>(
+                () -> new Perceptron(0.1, 20, 0.0).mode(Perceptron.Mode.VOTED)).fit(blobs(50, 6));
+
+        assertTrue(model.score(blobs(50, 7)) > 0.8);
+        assertThrows(IllegalStateException.class, model::toDTO);
+        assertFalse(model.export(dir.resolve("voted.json")));
+    }
+
+    @Test
+    void rejectsSingleClassAndUnfittedUse() {
+        DataFrame df = new DataFrame(1);
+        df.add(new double[] { 1 }, 0.0);
+        df.add(new double[] { 2 }, 0.0);
+        OneVsRest<LogisticRegression> model = new OneVsRest<>(LogisticRegression::new);
+        assertThrows(IllegalArgumentException.class, () -> model.fit(df));
+        assertThrows(IllegalStateException.class, () -> model.predict(new double[] { 1 }));
+        assertThrows(IllegalArgumentException.class, () -> model.parallelism(0));
+    }
+
+    @Test
+    void exportImportRoundTrip(@TempDir Path dir) throws Exception {
+        OneVsRest<LogisticRegression> model = new OneVsRest<>(
+                () -> new LogisticRegression(LogisticRegression.Solver.LBFGS)).fit(blobs(30, 8));
+        Path path = dir.resolve("ovr.json");
+        assertTrue(model.export(path));
+
+        OneVsRest<LogisticRegression> restored = OneVsRest.importModel(path);
+        DataFrame test = blobs(20, 9);
+        for (int i = 0; i < test.size(); i++) {
+            double[] x = test.getFeatures(i);
+            assertArrayEquals(model.decisionFunction(x), restored.decisionFunction(x), 1e-12);
+            assertEquals(model.predict(x), restored.predict(x));
+        }
+        assertThrows(IllegalStateException.class, () -> restored.fit(test));
+    }
+}
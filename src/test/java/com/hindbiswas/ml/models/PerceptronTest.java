@@ -2,11 +2,14 @@ package com.hindbiswas.ml.models;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Random;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import com.hindbiswas.ml.data.DataFrame;
 
@@ -93,4 +96,83 @@ public class PerceptronTest {
 
         assertEquals(p1.toString(), p2.toString(), "Models with same seed and zero iterations should match weights");
     }
+
+    @Test
+    public void testFitLeavesDataFrameOrderUntouched() {
+        DataFrame df = new DataFrame(1);
+        for (int i = 0; i < 20; i++) {
+            df.add(new double[] { i - 9.5 }, i < 10 ? -1.0 : 1.0);
+        }
+        double[] before = df.getLabels();
+
+        new Perceptron(0.1, 100, 0.0).shuffle(true).randomizeWeights(3).fit(df);
+        assertArrayEquals(before, df.getLabels());
+        assertEquals(-9.5, df.getFeaturesRef(0)[0]);
+    }
+
+    @Test
+    public void testExportImportKeepsExactWeights(@TempDir Path dir) throws Exception {
+        DataFrame df = new DataFrame(2);
+        df.add(new double[] { 0.0, 0.0 }, -1.0);
+        df.add(new double[] { 0.0, 1.0 }, -1.0);
+        df.add(new double[] { 1.0, 0.0 }, -1.0);
+        df.add(new double[] { 1.0, 1.0 }, 1.0);
+        perceptron.fit(df);
+
+        Path path = dir.resolve("perceptron.json");
+        assertTrue(perceptron.export(path));
+        Perceptron restored = Perceptron.importModel(path);
+        assertArrayEquals(perceptron.getWeights(), restored.getWeights(), 0.0);
+        assertEquals(1.0, restored.score(df), 1e-12);
+    }
+
+    /** Two overlapping Gaussian clouds; about 8% of points are on the wrong side. */
+    private static DataFrame noisyData(long seed) {
+        Random rng = new Random(seed);
+        DataFrame df = new DataFrame(2);
+        for (int i = 0; i < 400; i++) {
+            double label = i % 2 == 0 ? 1.0 : -1.0;
+            df.add(new double[] { label + 0.7 * rng.nextGaussian(), label + 0.7 * rng.nextGaussian() }, label);
+        }
+        return df;
+    }
+
+    @Test
+    public void testMistakeRateStopsNonSeparableTraining() {
+        DataFrame train = noisyData(1);
+        Perceptron plain = new Perceptron(0.1, 200, 0.0).shuffle(true).randomizeWeights(1).fit(train);
+        Perceptron early = new Perceptron(0.1, 200, 0.0).shuffle(true).randomizeWeights(1)
+                .stopMistakeRate(0.2).fit(train);
+
+        assertEquals(200, plain.getEpochsRun());
+        assertTrue(early.getEpochsRun() < 10);
+        assertThrows(IllegalArgumentException.class, () -> perceptron.stopMistakeRate(1.0));
+    }
+
+    @Test
+    public void testAveragedAndVotedGeneralize() {
+        DataFrame train = noisyData(2);
+        DataFrame test = noisyData(3);
+        Perceptron averaged = new Perceptron(0.1, 5, 0.0).shuffle(true).randomizeWeights(2)
+                .mode(Perceptron.Mode.AVERAGED).fit(train);
+        Perceptron voted = new Perceptron(0.1, 5, 0.0).shuffle(true).randomizeWeights(2)
+                .mode(Perceptron.Mode.VOTED).fit(train);
+
+        assertTrue(averaged.score(test) > 0.85, "averaged accuracy " + averaged.score(test));
+        assertTrue(voted.score(test) > 0.85, "voted accuracy " + voted.score(test));
+    }
+
+    @Test
+    public void testVotedRoundTrip(@TempDir Path dir) throws Exception {
+        DataFrame train = noisyData(4);
+        Perceptron voted = new Perceptron(0.1, 3, 0.0).shuffle(true).randomizeWeights(5)
+                .mode(Perceptron.Mode.VOTED).fit(train);
+        Path path = dir.resolve("voted.json");
+        assertTrue(voted.export(path));
+
+        Perceptron restored = Perceptron.importModel(path);
+        for (int i = 0; i < train.size(); i++) {
+            assertEquals(voted.predict(train.getFeaturesRef(i)), restored.predict(train.getFeaturesRef(i)));
+        }
+    }
 }
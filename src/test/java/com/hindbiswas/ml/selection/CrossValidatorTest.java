@@ -0,0 +1,53 @@
+package com.hindbiswas.ml.selection;
+
+import static com.hindbiswas.ml.TestData.blobs;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+import org.junit.jupiter.api.Test;
+
+import com.hindbiswas.ml.data.DataFrame;
+import com.hindbiswas.ml.models.LogisticRegression;
+
+class CrossValidatorTest {
+
+    @Test
+    void foldsPartitionRowsWithoutCopying() {
+        DataFrame df = blobs(11, 1);
+        CrossValidator cv = new CrossValidator(4).seed(7);
+        int[] seen = new int[df.size()];
+        for (int f = 0; f < cv.folds(); f++) {
+            DataFrame[] split = cv.split(df, f);
+            assertEquals(df.size(), split[0].size() + split[1].size());
+            for (int i = 0; i < split[1].size(); i++) {
+                double[] row = split[1].getFeaturesRef(i);
+                for (int r = 0; r < df.size(); r++) {
+                    if (df.getFeaturesRef(r) == row) {
+                        seen[r]++;
+                    }
+                }
+            }
+        }
+        for (int count : seen) {
+            assertEquals(1, count, "Every row should be tested exactly once");
+        }
+    }
+
+    @Test
+    void evaluatesEveryFold() {
+        CrossValidator.Scores scores = new CrossValidator(5).parallelism(2)
+                .evaluate(() -> new LogisticRegression(LogisticRegression.Solver.LBFGS), blobs(40, 2));
+        assertEquals(5, scores.folds().length);
+        assertTrue(scores.mean() > 0.95, "Separable blobs should score well: " + scores.mean());
+        assertTrue(scores.std() >= 0);
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new CrossValidator(1));
+        assertThrows(IllegalArgumentException.class, () -> new CrossValidator(5).evaluate(LogisticRegression::new,
+                blobs(2, 3)));
+        assertThrows(IndexOutOfBoundsException.class, () -> new CrossValidator(3).split(blobs(5, 4), 3));
+        assertThrows(NullPointerException.class, () -> new CrossValidator(3).evaluate(LogisticRegression::new, null));
+    }
+}
@@ -0,0 +1,111 @@
+package com.hindbiswas.ml.selection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.hindbiswas.ml.TestData;
+import com.hindbiswas.ml.data.DataFrame;
+import com.hindbiswas.ml.models.LogisticRegression;
+
+class GridSearchTest {
+
+    /** Overlapping blobs, so the number of iterations matters. */
+    private static DataFrame blobs(int perClass, long seed) {
+        return TestData.blobs(perClass, seed, new double[][] { { 0, 0 }, { 2, 2 } }, new double[] { 0, 1 });
+    }
+
+    private static GridSearch<LogisticRegression> search() {
+        return new GridSearch<>((Map<String, Object> p) -> new LogisticRegression(
+                (Double) p.get("learningRate"), (Integer) p.get("iterations")))
+                .param("learningRate", 0.001, 0.01, 0.1)
+                .param("iterations", 1, 10, 300)
+                .crossValidator(new CrossValidator(4).parallelism(4));
+    }
+
+    @Test
+    void fullGridScoresEveryConfigurationOnEveryFold() {
+        DataFrame df = blobs(60, 1);
+        GridSearch.Result<LogisticRegression> result = search().fit(df);
+
+        assertEquals(9, result.candidates().size());
+        assertEquals(9 * 4, result.fits());
+        for (GridSearch.Candidate candidate : result.candidates()) {
+            assertEquals(4, candidate.folds());
+        }
+        for (int i = 1; i < result.candidates().size(); i++) {
+            assertTrue(result.candidates().get(i - 1).mean() >= result.candidates().get(i).mean());
+        }
+        assertEquals(0.1, result.best().params().get("learningRate"));
+        assertNotNull(result.model());
+        assertTrue(result.model().score(df) > 0.8);
+    }
+
+    @Test
+    void halvingAbandonsLosingConfigurations() {
+        DataFrame df = blobs(60, 2);
+        GridSearch.Result<LogisticRegression> full = search().refit(false).fit(df);
+        GridSearch.Result<LogisticRegression> halved = search().halving(3).refit(false).fit(df);
+
+        // 9 configs on 1 fold, 3 on 3 folds (2 more each), 1 on 4 folds (1 more)
+        assertEquals(9 + 3 * 2 + 1, halved.fits());
+        assertTrue(halved.fits() < full.fits());
+        assertEquals(4, halved.best().folds());
+        assertEquals(full.best().mean(), halved.best().mean(), 0.05);
+        assertNull(halved.model());
+    }
+
+    @Test
+    void failingConfigurationsRankLast() {
+        GridSearch<LogisticRegression> search = new GridSearch<>((Map<String, Object> p) -> {
+            if ((Integer) p.get("iterations") < 0) {
+                throw new IllegalArgumentException("negative iterations");
+            }
+            return new LogisticRegression(0.1, (Integer) p.get("iterations"));
+        }).param("iterations", -1, 100).crossValidator(new CrossValidator(3));
+
+        GridSearch.Result<LogisticRegression> result = search.fit(blobs(30, 3));
+        assertEquals(100, result.best().params().get("iterations"));
+        assertTrue(Double.isNaN(result.candidates().get(1).mean()));
+
+        GridSearch<LogisticRegression> broken = new GridSearch<LogisticRegression>(p -> {
+            throw new IllegalArgumentException("always fails");
+        }).param("x", 1).crossValidator(new CrossValidator(3));
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> broken.fit(blobs(30, 4)));
+        assertEquals("always fails", e.getCause().getMessage());
+    }
+
+    @Test
+    void survivorFailingOnLaterFoldFallsBackToEarlierConfiguration() {
+        AtomicInteger strongFits = new AtomicInteger();
+        GridSearch<LogisticRegression> search = new GridSearch<>((Map<String, Object> p) -> {
+            if ("strong".equals(p.get("model")) && strongFits.getAndIncrement() > 0) {
+                throw new IllegalStateException("fails after the first fold");
+            }
+            return "strong".equals(p.get("model"))
+                    ? new LogisticRegression(0.1, 300)
+                    : new LogisticRegression(0.001, 1);
+        }).param("model", "strong", "weak").crossValidator(new CrossValidator(2)).halving(2).refit(false);
+
+        GridSearch.Result<LogisticRegression> result = search.fit(blobs(30, 6));
+        assertEquals("weak", result.best().params().get("model"));
+        assertEquals(1, result.best().folds());
+        assertTrue(Double.isNaN(result.candidates().get(1).mean()));
+        assertEquals(2, result.candidates().get(1).folds());
+    }
+
+    @Test
+    void validatesGrid() {
+        GridSearch<LogisticRegression> search = new GridSearch<>(p -> new LogisticRegression());
+        assertThrows(IllegalArgumentException.class, () -> search.fit(blobs(10, 5)));
+        assertThrows(IllegalArgumentException.class, () -> search.param("a"));
+        search.param("a", 1, 2).param("b", "x", "y", "z");
+        assertThrows(IllegalArgumentException.class, () -> search.param("a", 3));
+        assertThrows(IllegalArgumentException.class, () -> search.halving(1));
+        assertEquals(6, search.combinations().size());
+        assertEquals(Map.of("a", 1, "b", "x"), search.combinations().get(0));
+    }
+}
@@ -0,0 +1,173 @@
+package com.hindbiswas.ml.serving;
+
+import static com.hindbiswas.ml.TestData.blobs;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.hindbiswas.ml.data.DataFrame;
+import com.hindbiswas.ml.dto.DTO;
+import com.hindbiswas.ml.models.Model;
+import com.hindbiswas.ml.models.MultiLayerPerceptron;
+import com.hindbiswas.ml.models.MultinomialLogisticRegression;
+import com.hindbiswas.ml.util.LayerActivations;
+
+class BatchingPredictorTest {
+
+    private static MultiLayerPerceptron mlp(DataFrame df) {
+        MultiLayerPerceptron mlp = new MultiLayerPerceptron(2, 1, 2, 0.05)
+                .layer(8, LayerActivations.sigmoid())
+                .layer(2, LayerActivations.softmax())
+                .configure(5, 8, 0.2);
+        mlp.fit(df);
+        return mlp;
+    }
+
+    @Test
+    void concurrentCallersGetTheirOwnPredictions() throws Exception {
+        DataFrame df = blobs(100, 1);
+        MultiLayerPerceptron mlp = mlp(df);
+        List<ArrayList<Double>> expected = new ArrayList<>();
+        for (int i = 0; i < df.size(); i++) {
+            expected.add(mlp.predict(df.getFeatures(i)));
+        }
+
+        try (BatchingPredictor predictor = new BatchingPredictor(mlp, 32, Duration.ofMillis(5));
+                ExecutorService callers = Executors.newFixedThreadPool(16)) {
+            List<Future<Object>> results = new ArrayList<>();
+            for (int i = 0; i < df.size(); i++) {
+                double[] row = df.getFeatures(i);
+                results.add(callers.submit(() -> predictor.predict(row).join()));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                @SuppressWarnings("unchecked")
+                ArrayList<Double> actual = (ArrayList<Double>) results.get(i).get();
+                for (int j = 0; j < actual.size(); j++) {
+                    assertEquals(expected.get(i).get(j), actual.get(j), 1e-12);
+                }
+            }
+            assertEquals(df.size(), predictor.rows());
+            assertTrue(predictor.batches() < df.size(), "Concurrent calls should share batches");
+            assertTrue(predictor.meanBatchSize() > 1.0);
+        }
+    }
+
+    @Test
+    void loneCallerIsNotDelayed() {
+        MultinomialLogisticRegression model = new MultinomialLogisticRegression().fit(blobs(20, 2));
+        try (BatchingPredictor predictor = new BatchingPredictor(model, 64, Duration.ofSeconds(5))) {
+            for (int i = 0; i < 3; i++) {
+                long start = System.nanoTime();
+                assertEquals(1.0, predictor.predict(new double[] { 4, 4 }).join());
+                assertTrue(System.nanoTime() - start < Duration.ofSeconds(2).toNanos(),
+                        "A single caller should not wait for a batch to fill");
+            }
+        }
+    }
+
+    @Test
+    void badRowFailsOnlyItsOwnCaller() {
+        MultinomialLogisticRegression model = new MultinomialLogisticRegression().fit(blobs(20, 3));
+        try (BatchingPredictor predictor = new BatchingPredictor(model, 64, Duration.ofMillis(50))) {
+            CompletableFuture<Object> good = predictor.predict(new double[] { 0, 0 });
+            CompletableFuture<Object> bad = predictor.predict(new double[] { 0, 0, 0 });
+            CompletableFuture<Object[]> many = predictor.predictAll(new double[][] { { 4, 4 }, { 0, 0 } });
+
+            assertEquals(0.0, good.join());
+            CompletionException e = assertThrows(CompletionException.class, bad::join);
+            assertInstanceOf(IllegalArgumentException.class, e.getCause());
+            assertArrayEquals(new Object[] { 1.0, 0.0 }, many.join());
+        }
+    }
+
+    @Test
+    void errorInModelDoesNotStopTheWorker() {
+        MultinomialLogisticRegression fitted = new MultinomialLogisticRegression().fit(blobs(20, 5));
+        Model model = new Model() {
+            @Override
+            public Model fit(DataFrame data) {
+                return this;
+            }
+
+            @Override
+            public double score(DataFrame data) {
+                return 0;
+            }
+
+            @Override
+            public Object predict(double[] features) {
+                if (features[0] < 0) {
+                    throw new StackOverflowError("simulated");
+                }
+                return fitted.predict(features);
+            }
+
+            @Override
+            public boolean export(Path path) {
+                return false;
+            }
+
+            @Override
+            public DTO toDTO() {
+                return null;
+            }
+        };
+        try (BatchingPredictor predictor = new BatchingPredictor(model, 64, Duration.ofMillis(5))) {
+            CompletionException e = assertThrows(CompletionException.class,
+                    () -> predictor.predict(new double[] { -1, 0 }).join());
+            assertInstanceOf(StackOverflowError.class, e.getCause());
+            assertEquals(1.0, predictor.predict(new double[] { 4, 4 }).get(5, TimeUnit.SECONDS));
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+
+    @Test
+    void batchesNeverExceedMaxBatchSize() throws Exception {
+        MultinomialLogisticRegression fitted = new MultinomialLogisticRegression().fit(blobs(20, 6));
+        AtomicInteger largest = new AtomicInteger();
+        Model model = new MultinomialLogisticRegression() {
+            @Override
+            public Object[] predictBatch(double[][] rows) {
+                largest.accumulateAndGet(rows.length, Math::max);
+                return fitted.predictBatch(rows);
+            }
+        };
+        double[][] three = { { 0, 0 }, { 4, 4 }, { 0, 0 } };
+        try (BatchingPredictor predictor = new BatchingPredictor(model, 4, Duration.ofMillis(20));
+                ExecutorService callers = Executors.newFixedThreadPool(8)) {
+            List<Future<Object[]>> results = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                results.add(callers.submit(() -> predictor.predictAll(three).join()));
+            }
+            for (Future<Object[]> result : results) {
+                assertArrayEquals(new Object[] { 0.0, 1.0, 0.0 }, result.get());
+            }
+            assertEquals(3, largest.get(), "Two 3-row requests must not share a batch of at most 4 rows");
+
+            // a request larger than the limit still runs, alone
+            assertEquals(6, predictor.predictAll(new double[6][2]).get(5, TimeUnit.SECONDS).length);
+        }
+    }
+
+    @Test
+    void rejectsCallsAfterClose() {
+        MultinomialLogisticRegression model = new MultinomialLogisticRegression().fit(blobs(20, 4));
+        BatchingPredictor predictor = new BatchingPredictor(model);
+        predictor.close();
+        assertThrows(IllegalStateException.class, () -> predictor.predict(new double[] { 0, 0 }));
+        assertThrows(IllegalArgumentException.class, () -> new BatchingPredictor(model, 0, Duration.ZERO));
+    }
+}
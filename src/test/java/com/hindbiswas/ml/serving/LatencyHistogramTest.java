@@ -0,0 +1,39 @@
+package com.hindbiswas.ml.serving;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+    @Test
+    void bucketsCoverTheirLowerBounds() {
+        for (long micros : new long[] { 0, 1, 7, 8, 15, 16, 100, 1_000, 123_456, 1L << 30 }) {
+            int bucket = LatencyHistogram.bucket(micros);
+            assertTrue(LatencyHistogram.lowerBound(bucket) <= micros);
+            assertTrue(LatencyHistogram.lowerBound(bucket + 1) > micros);
+        }
+    }
+
+    @Test
+    void percentilesAreWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int ms = 1; ms <= 100; ms++) {
+            histogram.record(ms * 1_000_000L);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(100, snapshot.count());
+        assertEquals(50.5, snapshot.mean(), 1e-9);
+        assertEquals(50, snapshot.p50(), 50 * 0.125);
+        assertEquals(90, snapshot.p90(), 90 * 0.125);
+        assertEquals(99, snapshot.p99(), 99 * 0.125);
+        assertEquals(100, snapshot.max(), 1e-9);
+        assertTrue(snapshot.p999() <= snapshot.max());
+
+        histogram.reset();
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.percentile(50));
+        assertThrows(IllegalArgumentException.class, () -> histogram.percentile(101));
+    }
+}
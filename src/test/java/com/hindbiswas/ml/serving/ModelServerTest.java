@@ -0,0 +1,146 @@
+package com.hindbiswas.ml.serving;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.hindbiswas.ml.TestData;
+import com.hindbiswas.ml.data.DataFrame;
+import com.hindbiswas.ml.dto.MultinomialLogisticRegressionDTO;
+import com.hindbiswas.ml.models.MultinomialLogisticRegression;
+
+class ModelServerTest {
+    private final HttpClient client = HttpClient.newHttpClient();
+    private MultinomialLogisticRegression model;
+    private ModelServer server;
+
+    /** Three blobs labelled 0, 1 and 2. */
+    private static DataFrame blobs(int perClass, long seed) {
+        return TestData.blobs(perClass, seed, new double[][] { { 0, 0 }, { 5, 0 }, { 0, 5 } },
+                new double[] { 0, 1, 2 });
+    }
+
+    @BeforeEach
+    void setUp() {
+        model = new MultinomialLogisticRegression().fit(blobs(30, 1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + server.port() + path);
+    }
+
+    private HttpResponse<String> postJson(String path, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void predictsJsonRowsAndBatches() throws Exception {
+        server = new ModelServer().model("mlr", model).start(0);
+
+        HttpResponse<String> single = postJson("/models/mlr/predict", "{\"features\": [5.2, 0.1]}");
+        assertEquals(200, single.statusCode());
+        JsonObject body = JsonParser.parseString(single.body()).getAsJsonObject();
+        assertEquals(model.predict(new double[] { 5.2, 0.1 }), body.get("prediction").getAsDouble());
+
+        HttpResponse<String> rows = postJson("/models/mlr/predict", "{\"rows\": [[0, 0], [5, 0], [0, 5]]}");
+        assertEquals(200, rows.statusCode());
+        JsonArray predictions = JsonParser.parseString(rows.body()).getAsJsonObject().getAsJsonArray("predictions");
+        assertEquals(0.0, predictions.get(0).getAsDouble());
+        assertEquals(1.0, predictions.get(1).getAsDouble());
+        assertEquals(2.0, predictions.get(2).getAsDouble());
+
+        JsonObject list = JsonParser.parseString(get("/models").body()).getAsJsonObject();
+        assertEquals("mlr", list.getAsJsonArray("models").get(0).getAsJsonObject().get("name").getAsString());
+    }
+
+    @Test
+    void predictsBinaryPayloads() throws Exception {
+        server = new ModelServer().model("mlr", model).start(0);
+        ByteBuffer buffer = ByteBuffer.allocate(4 * Double.BYTES);
+        buffer.putDouble(5).putDouble(0).putDouble(0).putDouble(5);
+
+        HttpRequest request = HttpRequest.newBuilder(uri("/models/mlr/predict"))
+                .header("Content-Type", "application/octet-stream")
+                .header("X-Features", "2")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(buffer.array())).build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        JsonArray predictions = JsonParser.parseString(response.body()).getAsJsonObject()
+                .getAsJsonArray("predictions");
+        assertEquals(1.0, predictions.get(0).getAsDouble());
+        assertEquals(2.0, predictions.get(1).getAsDouble());
+    }
+
+    @Test
+    void reportsClientErrors() throws Exception {
+        server = new ModelServer().model("mlr", model).start(0);
+
+        assertEquals(404, postJson("/models/missing/predict", "{\"features\": [0, 0]}").statusCode());
+        assertEquals(400, postJson("/models/mlr/predict", "{\"features\": [0, 0, 0]}").statusCode());
+        assertEquals(400, postJson("/models/mlr/predict", "not json").statusCode());
+        assertEquals(405, get("/models/mlr/predict").statusCode());
+        assertEquals(200, postJson("/models/mlr/predict", "{\"features\": [0, 0]}").statusCode());
+    }
+
+    @Test
+    void coalescesConcurrentRequests(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("mlr.json");
+        assertTrue(model.export(file));
+        server = new ModelServer()
+                .load("mlr", file, MultinomialLogisticRegressionDTO.class, MultinomialLogisticRegression.class)
+                .maxBatch(32)
+                .maxDelay(Duration.ofMillis(5))
+                .start(0);
+
+        LoadGenerator.Result result = new LoadGenerator(uri("/models/mlr/predict"), 2)
+                .concurrency(32)
+                .requests(600)
+                .run();
+        assertEquals(600, result.requests());
+        assertEquals(0, result.errors());
+
+        JsonObject stats = JsonParser.parseString(get("/models/mlr/stats").body()).getAsJsonObject();
+        assertEquals(600, stats.get("requests").getAsLong());
+        assertEquals(600, stats.get("rows").getAsLong());
+        assertTrue(stats.get("batches").getAsLong() < 600, "Concurrent requests should share batches");
+        assertTrue(stats.get("meanBatchSize").getAsDouble() > 1.0);
+        assertEquals(600, server.latency("mlr").count());
+    }
+
+    @Test
+    void rejectsChangesWhileRunning() throws Exception {
+        server = new ModelServer().model("mlr", model).start(0);
+        assertThrows(IllegalStateException.class, () -> server.model("other", model));
+        assertThrows(IllegalStateException.class, () -> server.maxBatch(8));
+        assertThrows(IllegalStateException.class, () -> new ModelServer().start(0));
+    }
+}
@@ -0,0 +1,182 @@
+package com.hindbiswas.ml.serving;
+
+import static com.hindbiswas.ml.TestData.blobs;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.hindbiswas.ml.data.DataFrame;
+import com.hindbiswas.ml.dto.DTO;
+import com.hindbiswas.ml.models.LogisticRegression;
+import com.hindbiswas.ml.models.Model;
+
+class PredictionCacheTest {
+
+    /** Counts calls into the wrapped model. */
+    private static final class CountingModel implements Model {
+        final Model model;
+        final AtomicInteger predictions = new AtomicInteger();
+
+        CountingModel(Model model) {
+            this.model = model;
+        }
+
+        @Override
+        public Model fit(DataFrame data) {
+            model.fit(data);
+            return this;
+        }
+
+        @Override
+        public double score(DataFrame data) {
+            return model.score(data);
+        }
+
+        @Override
+        public Object predict(double[] features) {
+            predictions.incrementAndGet();
+            return model.predict(features);
+        }
+
+        @Override
+        public boolean export(Path path) {
+            return model.export(path);
+        }
+
+        @Override
+        public DTO toDTO() {
+            return model.toDTO();
+        }
+    }
+
+    @Test
+    void repeatedInputsAreServedFromCache() {
+        CountingModel model = new CountingModel(new LogisticRegression().fit(blobs(20, 1)));
+        PredictionCache cache = new PredictionCache(model, 100);
+
+        double[] row = { 4, 4 };
+        Object first = cache.predict(row);
+        row[0] = 0; // the cached key must not alias the caller's array
+        Object second = cache.predict(new double[] { 4, 4 });
+
+        assertEquals(first, second);
+        assertEquals(1, model.predictions.get());
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.misses());
+        assertEquals(0.5, cache.hitRate(), 1e-12);
+        assertEquals(model.model.predict(new double[] { -0.0, 0 }), cache.predict(new double[] { -0.0, 0 }));
+        assertEquals(2, cache.size(), "-0.0 and 0.0 are different inputs");
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntry() {
+        CountingModel model = new CountingModel(new LogisticRegression().fit(blobs(20, 2)));
+        PredictionCache cache = new PredictionCache(model, 2, 1);
+
+        cache.predict(new double[] { 0, 0 });
+        cache.predict(new double[] { 1, 1 });
+        cache.predict(new double[] { 0, 0 }); // {1, 1} is now the eldest
+        cache.predict(new double[] { 2, 2 });
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.evictions());
+        int before = model.predictions.get();
+        cache.predict(new double[] { 0, 0 });
+        assertEquals(before, model.predictions.get());
+        cache.predict(new double[] { 1, 1 });
+        assertEquals(before + 1, model.predictions.get());
+        assertThrows(IllegalArgumentException.class, () -> new PredictionCache(model, 0));
+    }
+
+    @Test
+    void reimportReplacesModelAndInvalidates(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("model.json");
+        assertTrue(new LogisticRegression().fit(blobs(20, 3)).export(file));
+
+        double[] row = { 4, 4 };
+        PredictionCache cache = new PredictionCache(LogisticRegression.importModel(file), 100)
+                .watch(dir.resolve("./model.json"));
+        assertTrue((double) cache.predict(row) > 0.5);
+        assertEquals(1, cache.size());
+
+        // flip the labels and re-export over the same file
+        DataFrame flipped = new DataFrame(2);
+        DataFrame df = blobs(20, 3);
+        for (int i = 0; i < df.size(); i++) {
+            flipped.add(df.getFeatures(i), 1.0 - df.getLabel(i));
+        }
+        assertTrue(new LogisticRegression().fit(flipped).export(file));
+        LogisticRegression reloaded = LogisticRegression.importModel(file);
+
+        assertSame(reloaded, cache.getModel());
+        assertEquals(0, cache.size());
+        assertTrue((double) cache.predict(row) < 0.5);
+
+        assertTrue(new LogisticRegression().fit(df).export(dir.resolve("other.json")));
+        LogisticRegression.importModel(dir.resolve("other.json"));
+        assertEquals(1, cache.size(), "Importing another file leaves the cache alone");
+        LogisticRegression.importModel(file);
+        assertEquals(0, cache.size(), "Importing the watched file again invalidates");
+
+        // closing is what is under test here, so it is not left to try-with-resources
+        cache.close();
+        LogisticRegression.importModel(file);
+        cache.predict(row);
+        assertEquals(1, cache.size(), "A closed cache no longer watches the file");
+    }
+
+    @Test
+    void predictBatchOnlyComputesMisses() {
+        CountingModel model = new CountingModel(new LogisticRegression().fit(blobs(20, 4)));
+        PredictionCache cache = new PredictionCache(model, 100);
+        cache.predict(new double[] { 4, 4 });
+
+        Object[] out = cache.predictBatch(new double[][] { { 4, 4 }, { 0, 0 }, { 4, 4 } });
+
+        assertArrayEquals(new Object[] { out[0], model.model.predict(new double[] { 0, 0 }), out[0] }, out);
+        assertTrue((double) out[0] > 0.5);
+        assertEquals(2, model.predictions.get(), "Only the batch's miss goes through the model");
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.hits());
+        assertEquals(2, cache.misses());
+    }
+
+    @Test
+    void concurrentCallersAgreeWithModel() throws Exception {
+        LogisticRegression lr = new LogisticRegression().fit(blobs(50, 5));
+        // room for all 50 distinct queries, so repeats are hits however threads interleave
+        PredictionCache cache = new PredictionCache(lr, 64);
+        DataFrame queries = blobs(25, 6);
+
+        try (ExecutorService callers = Executors.newFixedThreadPool(8)) {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                results.add(callers.submit(() -> {
+                    for (int r = 0; r < 20; r++) {
+                        for (int i = 0; i < queries.size(); i++) {
+                            double[] row = queries.getFeatures(i);
+                            assertEquals(lr.predict(row), cache.predict(row));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        }
+        assertEquals(8L * 20 * queries.size(), cache.hits() + cache.misses());
+        assertEquals(queries.size(), cache.size());
+        assertEquals(0, cache.evictions());
+        assertTrue(cache.misses() <= 8L * queries.size(), "Each thread misses a row at most on its first pass");
+    }
+}